@@ -0,0 +1,219 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.AbstractServerConnection;
+import io.undertow.server.Connectors;
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.HttpUpgradeListener;
+import io.undertow.server.SSLSessionInfo;
+import io.undertow.server.ServerConnection;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.ImmediatePooledByteBuffer;
+import io.undertow.util.Protocols;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.xnio.Option;
+import org.xnio.OptionMap;
+import org.xnio.StreamConnection;
+import org.xnio.XnioExecutor;
+import org.xnio.XnioIoThread;
+import org.xnio.conduits.EmptyStreamSourceConduit;
+import org.xnio.conduits.NullStreamSinkConduit;
+import org.xnio.conduits.StreamSinkConduit;
+
+/**
+ * Creates {@link HttpServerExchange} instances which are not bound to a socket. Request bodies are provided up-front
+ * and response data is discarded, which allows handlers to be measured without network or client overhead.
+ * Exchanges are single-use, and construction cost is measured by {@link ConjureHandlerBenchmark#createExchange}.
+ */
+final class BenchmarkExchanges {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ByteBufferPool BUFFER_POOL = new DefaultByteBufferPool(false, BUFFER_SIZE);
+    private static final ServerConnection CONNECTION =
+            new BenchmarkServerConnection(new BenchmarkStreamConnection(new BenchmarkIoThread()));
+
+    private BenchmarkExchanges() {}
+
+    static HttpServerExchange create(HttpString method, String path) {
+        HttpServerExchange exchange = new HttpServerExchange(CONNECTION, new HeaderMap(), new HeaderMap(), 0);
+        exchange.setProtocol(Protocols.HTTP_1_1);
+        exchange.setRequestMethod(method);
+        exchange.setRequestURI(path);
+        exchange.setRequestPath(path);
+        exchange.setRelativePath(path);
+        exchange.startBlocking();
+        return exchange;
+    }
+
+    static HttpServerExchange create(HttpString method, String path, String contentType, byte[] body) {
+        HttpServerExchange exchange = create(method, path);
+        exchange.getRequestHeaders().put(Headers.CONTENT_TYPE, contentType);
+        exchange.getRequestHeaders().put(Headers.CONTENT_LENGTH, body.length);
+        setBody(exchange, body);
+        return exchange;
+    }
+
+    static void setBody(HttpServerExchange exchange, byte[] body) {
+        Connectors.ungetRequestBytes(exchange, new ImmediatePooledByteBuffer(ByteBuffer.wrap(body)));
+    }
+
+    /** Connection which discards writes and has no request data beyond the bytes provided by {@link #setBody}. */
+    private static final class BenchmarkStreamConnection extends StreamConnection {
+
+        BenchmarkStreamConnection(XnioIoThread ioThread) {
+            super(ioThread);
+            setSinkConduit(new NullStreamSinkConduit(ioThread));
+            setSourceConduit(new EmptyStreamSourceConduit(ioThread));
+        }
+
+        @Override
+        public boolean isOpen() {
+            // Undertow finishes exchanges inline on closed connections rather than waiting on the IO thread,
+            // which is never started.
+            return false;
+        }
+
+        @Override
+        protected void notifyWriteClosed() {}
+
+        @Override
+        protected void notifyReadClosed() {}
+
+        @Override
+        public SocketAddress getPeerAddress() {
+            return null;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public boolean supportsOption(Option<?> _option) {
+            return false;
+        }
+
+        @Override
+        public <T> T getOption(Option<T> _option) {
+            return null;
+        }
+
+        @Override
+        public <T> T setOption(Option<T> _option, T _value) {
+            return null;
+        }
+    }
+
+    /** IO thread which is never started. Tasks are not expected on the benchmark request path. */
+    private static final class BenchmarkIoThread extends XnioIoThread {
+
+        BenchmarkIoThread() {
+            super(null, 0, "conjure-benchmark-io");
+        }
+
+        @Override
+        public void execute(Runnable _command) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public XnioExecutor.Key executeAfter(Runnable _command, long _time, TimeUnit _unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public XnioExecutor.Key executeAtInterval(Runnable _command, long _time, TimeUnit _unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Minimal HTTP/1.1 connection. Unlike {@code HttpServerConnection}, completing an exchange does not attempt to
+     * read the next request from the socket.
+     */
+    private static final class BenchmarkServerConnection extends AbstractServerConnection {
+
+        BenchmarkServerConnection(StreamConnection channel) {
+            super(channel, BUFFER_POOL, _exchange -> {}, OptionMap.EMPTY, BUFFER_SIZE);
+        }
+
+        @Override
+        public HttpServerExchange sendOutOfBandResponse(HttpServerExchange _exchange) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isContinueResponseSupported() {
+            return false;
+        }
+
+        @Override
+        public void terminateRequestChannel(HttpServerExchange _exchange) {}
+
+        @Override
+        public SSLSessionInfo getSslSessionInfo() {
+            return null;
+        }
+
+        @Override
+        public void setSslSessionInfo(SSLSessionInfo _sessionInfo) {}
+
+        @Override
+        protected StreamConnection upgradeChannel() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected StreamSinkConduit getSinkConduit(HttpServerExchange _exchange, StreamSinkConduit conduit) {
+            return conduit;
+        }
+
+        @Override
+        protected boolean isUpgradeSupported() {
+            return false;
+        }
+
+        @Override
+        protected boolean isConnectSupported() {
+            return false;
+        }
+
+        @Override
+        protected void exchangeComplete(HttpServerExchange _exchange) {}
+
+        @Override
+        protected void setConnectListener(HttpUpgradeListener _connectListener) {}
+
+        @Override
+        public String getTransportProtocol() {
+            return "http/1.1";
+        }
+
+        @Override
+        public boolean isRequestTrailerFieldsSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.product.ManyFieldExample;
+import com.palantir.product.StringAliasExample;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/** Payload fixtures built from generated conjure types. */
+final class BenchmarkFixtures {
+
+    /** Unsigned JWT whose claims are parsed by {@link ConjureAuthorizationExtractor}. */
+    static final String AUTHORIZATION = "Bearer "
+            + "eyJhbGciOiJub25lIn0."
+            + "eyJzdWIiOiJ2WDlJSlBiRlNSbWtYVWJpWmdXQVdRPT0iLCJzaWQiOiJ6a2dBa3JvVlRMeS9PcXFpWm9iR0h3PT0iLCJqdGkiOiJ"
+            + "RYlRsUjBSQ1JBcUh5d0NSUjAxbmVBPT0ifQ.";
+
+    private BenchmarkFixtures() {}
+
+    static ManyFieldExample manyFieldExample(int index) {
+        return ManyFieldExample.builder()
+                .string("string-" + index)
+                .integer(index)
+                .doubleValue(index / 3d)
+                .optionalItem(Optional.of("optional-" + index))
+                .items(List.of("a", "b", "c"))
+                .set(List.of("d", "e", "f"))
+                .map(ImmutableMap.of("key-" + index, "value-" + index))
+                .alias(StringAliasExample.of("alias-" + index))
+                .build();
+    }
+
+    static List<ManyFieldExample> manyFieldExamples(int size) {
+        List<ManyFieldExample> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(manyFieldExample(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.undertow.lib.Deserializer;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import com.palantir.product.ManyFieldExample;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link ConjureBodySerDe} content negotiation, serialization and deserialization. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConjureBodySerDeBenchmark {
+
+    private static final TypeMarker<List<ManyFieldExample>> TYPE = new TypeMarker<>() {};
+
+    @Param({"application/json", "application/x-jackson-smile", "application/cbor"})
+    public String contentType;
+
+    @Param({"1", "100"})
+    public int size;
+
+    private Serializer<List<ManyFieldExample>> serializer;
+    private Serializer<List<ManyFieldExample>> compressingSerializer;
+    private Deserializer<List<ManyFieldExample>> deserializer;
+    private List<ManyFieldExample> value;
+    private byte[] body;
+
+    @Setup
+    public void setup() throws IOException {
+        ImmutableList<Encoding> encodings = ImmutableList.of(Encodings.json(), Encodings.smile(), Encodings.cbor());
+        ConjureBodySerDe bodySerDe = new ConjureBodySerDe(encodings);
+        serializer = bodySerDe.serializer(TYPE);
+        deserializer = bodySerDe.deserializer(TYPE);
+        compressingSerializer = ConjureBodySerDe.builder(encodings)
+                .compression(new ResponseCompression(1024))
+                .build()
+                .serializer(TYPE);
+        value = BenchmarkFixtures.manyFieldExamples(size);
+        Encoding encoding = encodings.stream()
+                .filter(candidate -> candidate.getContentType().equals(contentType))
+                .findFirst()
+                .orElseThrow();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        encoding.serializer(TYPE).serialize(value, output);
+        body = output.toByteArray();
+    }
+
+    @Benchmark
+    public HttpServerExchange serialize() throws IOException {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, "/");
+        exchange.getRequestHeaders().put(Headers.ACCEPT, contentType);
+        serializer.serialize(value, exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public HttpServerExchange serializeGzip() throws IOException {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, "/");
+        exchange.getRequestHeaders().put(Headers.ACCEPT, contentType);
+        exchange.getRequestHeaders().put(Headers.ACCEPT_ENCODING, "gzip");
+        compressingSerializer.serialize(value, exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public List<ManyFieldExample> deserialize() throws IOException {
+        return deserializer.deserialize(BenchmarkExchanges.create(Methods.POST, "/", contentType, body));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.product.EteServiceEndpoints;
+import io.undertow.server.Connectors;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full request through the {@link ConjureHandler} produced by {@link ConjureHandler.Builder#build()},
+ * including routing, every wrapper in the handler chain, auth, parameter parsing, serialization and completing the
+ * exchange. Results include the cost of {@link #createExchange()}, which should be subtracted when comparing against
+ * the other benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConjureHandlerBenchmark {
+
+    private static final byte[] STRING_ALIAS_BODY = "\"value\"".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpHandler handler = ConjureHandler.builder()
+            .services(EteServiceEndpoints.of(new EteBenchmarkResource()))
+            .build();
+
+    @Benchmark
+    public HttpServerExchange createExchange() {
+        return BenchmarkExchanges.create(Methods.GET, "/base/string");
+    }
+
+    @Benchmark
+    public HttpServerExchange getString() {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, "/base/string");
+        exchange.getRequestHeaders().put(Headers.AUTHORIZATION, BenchmarkFixtures.AUTHORIZATION);
+        return execute(exchange);
+    }
+
+    @Benchmark
+    public HttpServerExchange getPathAndQueryParameters() {
+        HttpServerExchange exchange = BenchmarkExchanges.create(
+                Methods.GET, "/base/datasets/ri.service.instance.dataset.1a2b3c4d/strings");
+        exchange.getRequestHeaders().put(Headers.AUTHORIZATION, BenchmarkFixtures.AUTHORIZATION);
+        exchange.addQueryParam("strings", "alpha");
+        exchange.addQueryParam("strings", "beta");
+        exchange.addQueryParam("longs", "1234");
+        exchange.addQueryParam("ints", "5678");
+        return execute(exchange);
+    }
+
+    @Benchmark
+    public HttpServerExchange postBody() {
+        HttpServerExchange exchange = BenchmarkExchanges.create(
+                Methods.POST, "/base/notNullBody", "application/json", STRING_ALIAS_BODY);
+        exchange.getRequestHeaders().put(Headers.AUTHORIZATION, BenchmarkFixtures.AUTHORIZATION);
+        return execute(exchange);
+    }
+
+    @Benchmark
+    public HttpServerExchange notFound() {
+        return execute(BenchmarkExchanges.create(Methods.GET, "/base/missing"));
+    }
+
+    private HttpServerExchange execute(HttpServerExchange exchange) {
+        // Runs the handler chain and ends the exchange the same way the undertow connectors do.
+        Connectors.executeRootHandler(handler, exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.lib.SafeLong;
+import com.palantir.conjure.java.undertow.lib.PlainSerDe;
+import com.palantir.product.StringAliasExample;
+import com.palantir.ri.ResourceIdentifier;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link ConjurePlainSerDe} parsing of path, query, and header parameters. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConjurePlainSerDeBenchmark {
+
+    private static final PlainSerDe plainSerDe = ConjurePlainSerDe.INSTANCE;
+
+    private final Deque<String> strings = new ArrayDeque<>(List.of("alpha", "beta", "gamma", "delta"));
+    private final Deque<String> integers = new ArrayDeque<>(List.of("1", "2", "3", "4"));
+    private final Deque<String> optionalString = new ArrayDeque<>(List.of("value"));
+    private final Deque<String> integer = new ArrayDeque<>(List.of("12345"));
+
+    @Benchmark
+    public OffsetDateTime dateTime() {
+        return plainSerDe.deserializeDateTime("2021-11-03T12:34:56.789Z");
+    }
+
+    @Benchmark
+    public ResourceIdentifier rid() {
+        return plainSerDe.deserializeRid("ri.service.instance.dataset.1a2b3c4d-5e6f");
+    }
+
+    @Benchmark
+    public UUID uuid() {
+        return plainSerDe.deserializeUuid("cb4c9f3e-4b4b-4f3c-9a3e-0d5b3c7d2a1f");
+    }
+
+    @Benchmark
+    public SafeLong safeLong() {
+        return plainSerDe.deserializeSafeLong("9007199254740991");
+    }
+
+    @Benchmark
+    public int integer() {
+        return plainSerDe.deserializeInteger("12345");
+    }
+
+    @Benchmark
+    public int integerQuery() {
+        return plainSerDe.deserializeInteger(integer);
+    }
+
+    @Benchmark
+    public OptionalInt optionalIntegerQuery() {
+        return plainSerDe.deserializeOptionalInteger(integer);
+    }
+
+    @Benchmark
+    public Optional<String> optionalStringQuery() {
+        return plainSerDe.deserializeOptionalString(optionalString);
+    }
+
+    @Benchmark
+    public Set<Integer> integerSetQuery() {
+        return plainSerDe.deserializeIntegerSet(integers);
+    }
+
+    @Benchmark
+    public Set<StringAliasExample> complexSetQuery() {
+        return plainSerDe.deserializeComplexSet(strings, StringAliasExample::valueOf);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.Handlers;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.RoutingHandler;
+import io.undertow.util.Methods;
+import io.undertow.util.PathTemplateMatch;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ConjureRouter} against the undertow {@link RoutingHandler} it replaced, with several hundred
+ * registered templates. Matched handlers read every path parameter, as generated handlers do. Results include the
+ * cost of {@link ConjureHandlerBenchmark#createExchange()}, and allocation rates are reported when run with
+ * {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConjureRouterBenchmark {
+
+    private static final int SERVICES = 100;
+    private static final HttpHandler NO_OP = _exchange -> {};
+    private static final String PATH = "/service73/datasets/ri.service.instance.dataset.1a2b3c4d/branches/master";
+    private static final String STATIC_PATH = "/service73/datasets";
+
+    private static final String[] PARAMETER_NAMES = {"datasetRid", "branch"};
+
+    private final HttpHandler readParameters = new ReadParameters();
+    private final HttpHandler conjureRouter;
+    private final HttpHandler routingHandler;
+
+    public ConjureRouterBenchmark() {
+        ConjureRouter.Builder conjureRouterBuilder = ConjureRouter.builder();
+        RoutingHandler undertowRouter = Handlers.routing().setInvalidMethodHandler(null);
+        for (int i = 0; i < SERVICES; i++) {
+            String base = "/service" + i + "/datasets";
+            for (String template : new String[] {
+                base, base + "/{datasetRid}", base + "/{datasetRid}/branches", base + "/{datasetRid}/branches/{branch}"
+            }) {
+                conjureRouterBuilder.add(Methods.GET, template, readParameters);
+                conjureRouterBuilder.add(Methods.POST, template, readParameters);
+                undertowRouter.add(Methods.GET, template, readParameters);
+                undertowRouter.add(Methods.POST, template, readParameters);
+            }
+        }
+        this.conjureRouter = conjureRouterBuilder.build(NO_OP);
+        this.routingHandler = undertowRouter.setFallbackHandler(NO_OP);
+    }
+
+    @Benchmark
+    public HttpServerExchange conjureRouter() throws Exception {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, PATH);
+        conjureRouter.handleRequest(exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public HttpServerExchange routingHandler() throws Exception {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, PATH);
+        routingHandler.handleRequest(exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public HttpServerExchange conjureRouterStatic() throws Exception {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, STATIC_PATH);
+        conjureRouter.handleRequest(exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public HttpServerExchange routingHandlerStatic() throws Exception {
+        HttpServerExchange exchange = BenchmarkExchanges.create(Methods.GET, STATIC_PATH);
+        routingHandler.handleRequest(exchange);
+        return exchange;
+    }
+
+    /** Reads parameters the same way as generated handlers, so that values which are extracted lazily are paid for. */
+    private static final class ReadParameters implements HttpHandler {
+        // Accumulated so that reading values is not optimized away
+        int length;
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) {
+            Map<String, String> parameters =
+                    exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY).getParameters();
+            for (String name : PARAMETER_NAMES) {
+                String value = parameters.get(name);
+                if (value != null) {
+                    length += value.length();
+                }
+            }
+        }
+    }
+}
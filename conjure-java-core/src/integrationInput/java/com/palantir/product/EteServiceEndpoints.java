@@ -662,7 +662,7 @@ public final class EteServiceEndpoints implements UndertowService {
             AuthHeader authHeader = runtime.auth().header(exchange);
             Map<String, String> pathParams =
                     exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY).getParameters();
-            long param = Long.valueOf(runtime.plainSerDe().deserializeString(pathParams.get("param")));
+            long param = Long.parseLong(runtime.plainSerDe().deserializeString(pathParams.get("param")));
             long result = delegate.externalLongPath(authHeader, param);
             serializer.serialize(result, exchange);
         }
@@ -66,6 +66,28 @@ public interface Options {
         return false;
     }
 
+    /**
+     * Instructs the {@link com.palantir.conjure.java.services.UndertowServiceGenerator} to generate endpoints tagged
+     * {@code server-streaming} which return a {@code list<T>}, {@code set<T>} or {@code map<K, V>} using a
+     * {@link java.util.stream.Stream} of elements or map entries. Streams are written incrementally using the existing
+     * JSON array and object wire formats rather than materializing the full collection.
+     */
+    @Value.Default
+    default boolean undertowStreamingCollections() {
+        return false;
+    }
+
+    /**
+     * Instructs the {@link com.palantir.conjure.java.services.UndertowServiceGenerator} to generate endpoints which
+     * receive binary request bodies as a {@link com.palantir.conjure.java.undertow.lib.BinaryRequestBody} rather than
+     * an {@link java.io.InputStream}, allowing uploads to be transferred directly into a file or other channel without
+     * copying through heap byte arrays.
+     */
+    @Value.Default
+    default boolean undertowBinaryRequestBodies() {
+        return false;
+    }
+
     /**
      * Allows synchronous and {@link com.google.common.util.concurrent.ListenableFuture} based asynchronous request
      * handling to be mixed in a single module using {@link com.palantir.conjure.spec.EndpointDefinition#getMarkers()}.
@@ -119,6 +141,18 @@ public interface Options {
         return false;
     }
 
+    /**
+     * Generates a jackson serializer and deserializer for each object, union and alias which reads and writes values
+     * directly, along with a {@code ConjureJacksonModule} per package which registers them. This avoids reflective
+     * bean introspection when a type is first used and per-field reflective dispatch. Aliases of {@code any} and of
+     * external imports keep using the annotations. Generated serializers are only used by
+     * {@link com.fasterxml.jackson.databind.ObjectMapper} instances with the module registered.
+     */
+    @Value.Default
+    default boolean useGeneratedSerializers() {
+        return false;
+    }
+
     Optional<String> packagePrefix();
 
     Optional<String> apiVersion();
@@ -29,6 +29,7 @@ import com.palantir.conjure.java.Options;
 import com.palantir.conjure.java.services.UndertowTypeFunctions.AsyncRequestProcessingMetadata;
 import com.palantir.conjure.java.types.CodeBlocks;
 import com.palantir.conjure.java.types.TypeMapper;
+import com.palantir.conjure.java.undertow.lib.BinaryRequestBody;
 import com.palantir.conjure.java.undertow.lib.Deserializer;
 import com.palantir.conjure.java.undertow.lib.Endpoint;
 import com.palantir.conjure.java.undertow.lib.ReturnValueWriter;
@@ -266,7 +267,8 @@ final class UndertowServiceHandlerGenerator {
         endpointDefinition.getReturns().ifPresent(returnType -> {
             Type dealiased = TypeFunctions.toConjureTypeWithoutAliases(returnType, typeDefinitions);
             if (!TypeFunctions.isBinaryOrOptionalBinary(dealiased)) {
-                TypeName typeName = returnTypeMapper.getClassName(returnType).box();
+                TypeName typeName = UndertowTypeFunctions.getReturnType(endpointDefinition, returnTypeMapper, options)
+                        .box();
                 TypeName type = ParameterizedTypeName.get(ClassName.get(Serializer.class), typeName);
                 endpointBuilder.addField(FieldSpec.builder(type, SERIALIZER_VAR_NAME, Modifier.PRIVATE, Modifier.FINAL)
                         .build());
@@ -411,7 +413,14 @@ final class UndertowServiceHandlerGenerator {
         getBodyParamTypeArgument(endpointDefinition.getArgs()).ifPresent(bodyParam -> {
             String paramName = sanitizeVarName(bodyParam.getArgName().get(), endpointDefinition);
             Type dealiased = TypeFunctions.toConjureTypeWithoutAliases(bodyParam.getType(), typeDefinitions);
-            if (TypeFunctions.isBinaryOrOptionalBinary(dealiased)) {
+            if (TypeFunctions.isBinaryOrOptionalBinary(dealiased) && options.undertowBinaryRequestBodies()) {
+                code.addStatement(
+                        "$1T $2N = $3N.bodySerDe().deserializeBinaryRequestBody($4N)",
+                        BinaryRequestBody.class,
+                        paramName,
+                        RUNTIME_VAR_NAME,
+                        EXCHANGE_VAR_NAME);
+            } else if (TypeFunctions.isBinaryOrOptionalBinary(dealiased)) {
                 code.addStatement(
                         "$1T $2N = $3N.bodySerDe().deserializeInputStream($4N)",
                         InputStream.class,
@@ -455,8 +464,7 @@ final class UndertowServiceHandlerGenerator {
                     "$1T $2N = $3N.$4L($5L)",
                     async.isPresent()
                             ? UndertowTypeFunctions.getAsyncReturnType(endpointDefinition, returnTypeMapper, options)
-                            : returnTypeMapper.getClassName(
-                                    endpointDefinition.getReturns().get()),
+                            : UndertowTypeFunctions.getReturnType(endpointDefinition, returnTypeMapper, options),
                     RESULT_VAR_NAME,
                     DELEGATE_VAR_NAME,
                     JavaNameSanitizer.sanitize(
@@ -773,6 +781,20 @@ final class UndertowServiceHandlerGenerator {
     private CodeBlock decodePlainParameterCodeBlock(
             Type type, TypeMapper typeMapper, String resultVarName, String paramsVarName, String paramId) {
         if (type.accept(MoreVisitors.IS_EXTERNAL)) {
+            TypeName typeName = typeMapper.getClassName(type);
+            Optional<String> primitiveParser = primitiveParserName(typeName);
+            if (primitiveParser.isPresent()) {
+                // Parse primitive external imports directly rather than boxing through valueOf
+                return CodeBlocks.statement(
+                        "$1T $2N = $3T.$4L($5N.plainSerDe().deserializeString($6N.get($7S)))",
+                        typeName,
+                        resultVarName,
+                        typeName.box(),
+                        primitiveParser.get(),
+                        RUNTIME_VAR_NAME,
+                        paramsVarName,
+                        paramId);
+            }
             return CodeBlocks.statement(
                     "$1T $2N = $3T.valueOf($4N.plainSerDe().deserializeString($5N.get($6S)))",
                     typeMapper.getClassName(type),
@@ -797,6 +819,19 @@ final class UndertowServiceHandlerGenerator {
                 paramId);
     }
 
+    private static Optional<String> primitiveParserName(TypeName typeName) {
+        if (typeName.equals(TypeName.LONG)) {
+            return Optional.of("parseLong");
+        } else if (typeName.equals(TypeName.INT)) {
+            return Optional.of("parseInt");
+        } else if (typeName.equals(TypeName.DOUBLE)) {
+            return Optional.of("parseDouble");
+        } else if (typeName.equals(TypeName.BOOLEAN)) {
+            return Optional.of("parseBoolean");
+        }
+        return Optional.empty();
+    }
+
     /**
      * Generates a deserializer block decoding strings using conjure plain encoding from header, query, and path
      * parameters to complex types.
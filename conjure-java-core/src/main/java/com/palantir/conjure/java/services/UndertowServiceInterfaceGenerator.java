@@ -91,8 +91,8 @@ final class UndertowServiceInterfaceGenerator {
 
         if (UndertowTypeFunctions.isAsync(endpointDef, options)) {
             methodBuilder.returns(UndertowTypeFunctions.getAsyncReturnType(endpointDef, returnTypeMapper, options));
-        } else {
-            endpointDef.getReturns().ifPresent(type -> methodBuilder.returns(returnTypeMapper.getClassName(type)));
+        } else if (endpointDef.getReturns().isPresent()) {
+            methodBuilder.returns(UndertowTypeFunctions.getReturnType(endpointDef, returnTypeMapper, options));
         }
 
         return methodBuilder.build();
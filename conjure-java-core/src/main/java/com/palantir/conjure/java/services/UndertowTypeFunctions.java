@@ -20,14 +20,22 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.conjure.java.Options;
 import com.palantir.conjure.java.types.TypeMapper;
+import com.palantir.conjure.java.util.Tags;
 import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.visitor.TypeVisitor;
 import com.palantir.humanreadabletypes.HumanReadableDuration;
 import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 final class UndertowTypeFunctions {
 
@@ -96,11 +104,59 @@ final class UndertowTypeFunctions {
         return ParameterizedTypeName.get(
                 ClassName.get(ListenableFuture.class),
                 endpoint.getReturns()
-                        .map(mapper::getClassName)
+                        .map(_type -> getReturnType(endpoint, mapper, flags))
                         .orElseGet(() -> ClassName.get(Void.class))
                         .box());
     }
 
+    /**
+     * Streaming collection responses are generated if both {@link Options#undertowStreamingCollections()} is set and
+     * the {@link EndpointDefinition} is {@link EndpointDefinition#getTags() tagged} with {@code server-streaming}.
+     * Only endpoints returning a {@code list}, {@code set}, or {@code map} may be tagged.
+     */
+    static boolean isStreaming(EndpointDefinition endpoint, Options options) {
+        if (!options.undertowStreamingCollections() || !Tags.hasServerStreaming(endpoint)) {
+            return false;
+        }
+        Preconditions.checkArgument(
+                endpoint.getReturns().filter(UndertowTypeFunctions::isStreamableCollection).isPresent(),
+                "Streaming endpoints must return a list, set, or map",
+                SafeArg.of("endpoint", endpoint.getEndpointName()));
+        return true;
+    }
+
+    /**
+     * Returns the type produced by the service method for the given endpoint, ignoring asynchronous processing.
+     * Streaming endpoints return a {@link Stream} of elements, or of {@link Map.Entry entries} for maps.
+     */
+    static TypeName getReturnType(EndpointDefinition endpoint, TypeMapper mapper, Options options) {
+        Type returnType = endpoint.getReturns()
+                .orElseThrow(() -> new SafeIllegalArgumentException(
+                        "Endpoint must have a return type", SafeArg.of("endpoint", endpoint.getEndpointName())));
+        if (!isStreaming(endpoint, options)) {
+            return mapper.getClassName(returnType);
+        }
+        TypeName elementType;
+        if (returnType.accept(TypeVisitor.IS_MAP)) {
+            MapType mapType = returnType.accept(TypeVisitor.MAP);
+            elementType = ParameterizedTypeName.get(
+                    ClassName.get(Map.Entry.class),
+                    mapper.getClassName(mapType.getKeyType()).box(),
+                    mapper.getClassName(mapType.getValueType()).box());
+        } else if (returnType.accept(TypeVisitor.IS_SET)) {
+            elementType = mapper.getClassName(returnType.accept(TypeVisitor.SET).getItemType())
+                    .box();
+        } else {
+            elementType = mapper.getClassName(returnType.accept(TypeVisitor.LIST).getItemType())
+                    .box();
+        }
+        return ParameterizedTypeName.get(ClassName.get(Stream.class), elementType);
+    }
+
+    private static boolean isStreamableCollection(Type type) {
+        return type.accept(TypeVisitor.IS_LIST) || type.accept(TypeVisitor.IS_SET) || type.accept(TypeVisitor.IS_MAP);
+    }
+
     private UndertowTypeFunctions() {}
 
     static final class AsyncRequestProcessingMetadata {
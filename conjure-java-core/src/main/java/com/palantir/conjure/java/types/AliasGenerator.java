@@ -118,7 +118,9 @@ public final class AliasGenerator {
                 .build());
 
         // Generate a default constructor so that Jackson can construct a default instance when coercing from null
-        typeDef.getAlias().accept(new DefaultConstructorVisitor(aliasTypeName)).ifPresent(spec::addMethod);
+        Optional<MethodSpec> defaultConstructor =
+                typeDef.getAlias().accept(new DefaultConstructorVisitor(aliasTypeName));
+        defaultConstructor.ifPresent(spec::addMethod);
 
         if (isAliasOfDouble(typeDef)) {
             CodeBlock longCastCodeBlock = CodeBlock.builder()
@@ -188,6 +190,10 @@ public final class AliasGenerator {
                     .build());
         }
 
+        if (options.useGeneratedSerializers() && AliasSerializersGenerator.isSupported(typeDef)) {
+            spec.addTypes(AliasSerializersGenerator.generate(thisClass, aliasTypeName, defaultConstructor.isPresent()));
+        }
+
         typeDef.getDocs().ifPresent(docs -> spec.addJavadoc("$L", Javadoc.render(docs)));
 
         return JavaFile.builder(prefixedTypeName.getPackage(), spec.build())
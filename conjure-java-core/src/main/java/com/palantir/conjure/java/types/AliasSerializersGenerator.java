@@ -0,0 +1,272 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.types;
+
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.ConjureAnnotations;
+import com.palantir.conjure.java.lib.internal.GeneratedSerializers;
+import com.palantir.conjure.java.visitor.MoreVisitors;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.visitor.TypeVisitor;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates jackson serializers and deserializers nested within alias types. Aliases of JSON primitives are read from
+ * the tokens accepted by the alias factories, while other values are handled by the serializer and deserializer
+ * jackson would use for the aliased type.
+ */
+final class AliasSerializersGenerator {
+
+    private static final String VALUE = "value";
+    private static final String GENERATOR = "gen";
+    private static final String PROVIDER = "provider";
+    private static final String PARSER = "parser";
+    private static final String CONTEXT = "ctxt";
+
+    private static final TypeName STRING = ClassName.get(String.class);
+    private static final TypeName SERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonSerializer.class), ClassName.OBJECT);
+    private static final TypeName DESERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonDeserializer.class), ClassName.OBJECT);
+
+    private AliasSerializersGenerator() {}
+
+    /**
+     * Aliases of external imports may also be created from strings, and aliases of {@code any} are written based on
+     * the runtime type of their value, so both are left to the annotations.
+     */
+    static boolean isSupported(AliasDefinition typeDef) {
+        return !typeDef.getAlias().accept(MoreVisitors.IS_EXTERNAL)
+                && !typeDef.getAlias().accept(TypeVisitor.IS_ANY);
+    }
+
+    static ImmutableList<TypeSpec> generate(ClassName aliasClass, TypeName valueType, boolean hasDefaultConstructor) {
+        return ImmutableList.of(
+                serializer(aliasClass, valueType), deserializer(aliasClass, valueType, hasDefaultConstructor));
+    }
+
+    private static TypeSpec serializer(ClassName aliasClass, TypeName valueType) {
+        TypeSpec.Builder serializer = TypeSpec.classBuilder(BeanSerializersGenerator.SERIALIZER_CLASS_NAME)
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(AliasSerializersGenerator.class))
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdSerializer.class), aliasClass))
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", aliasClass)
+                        .build());
+        MethodSpec.Builder isEmpty = MethodSpec.methodBuilder("isEmpty")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(SerializerProvider.class, PROVIDER)
+                .addParameter(aliasClass, VALUE)
+                .returns(boolean.class);
+        MethodSpec.Builder serialize = MethodSpec.methodBuilder("serialize")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(aliasClass, VALUE)
+                .addParameter(JsonGenerator.class, GENERATOR)
+                .addParameter(SerializerProvider.class, PROVIDER)
+                .addException(IOException.class);
+
+        if (BeanSerializersGenerator.isJsonPrimitive(valueType)) {
+            if (valueType.equals(STRING)) {
+                serializer.addMethod(
+                        isEmpty.addStatement("return $N.get().isEmpty()", VALUE).build());
+            }
+            serialize.addStatement(
+                    "$N.$L($N.get())", GENERATOR, BeanSerializersGenerator.writeMethod(valueType), VALUE);
+        } else {
+            FieldSpec valueSerializer = FieldSpec.builder(SERIALIZER_TYPE, "valueSerializer", Modifier.PRIVATE)
+                    .build();
+            serializer
+                    .addSuperinterface(ResolvableSerializer.class)
+                    .addField(valueSerializer)
+                    .addMethod(MethodSpec.methodBuilder("resolve")
+                            .addAnnotation(Override.class)
+                            .addModifiers(Modifier.PUBLIC)
+                            .addParameter(SerializerProvider.class, PROVIDER)
+                            .addException(JsonMappingException.class)
+                            .addStatement(
+                                    "$N = $T.findSerializer($N, $S, $L)",
+                                    valueSerializer,
+                                    GeneratedSerializers.class,
+                                    PROVIDER,
+                                    VALUE,
+                                    BeanSerializersGenerator.typeExpression(valueType))
+                            .build())
+                    .addMethod(isEmpty.addStatement(
+                                    "return $N.isEmpty($N, $N.get())", valueSerializer, PROVIDER, VALUE)
+                            .build());
+            serialize.addStatement("$N.serialize($N.get(), $N, $N)", valueSerializer, VALUE, GENERATOR, PROVIDER);
+        }
+        return serializer.addMethod(serialize.build()).build();
+    }
+
+    private static TypeSpec deserializer(ClassName aliasClass, TypeName valueType, boolean hasDefaultConstructor) {
+        TypeSpec.Builder deserializer = TypeSpec.classBuilder(BeanSerializersGenerator.DESERIALIZER_CLASS_NAME)
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(AliasSerializersGenerator.class))
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdDeserializer.class), aliasClass))
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", aliasClass)
+                        .build());
+        MethodSpec.Builder deserialize = MethodSpec.methodBuilder("deserialize")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .returns(aliasClass)
+                .addException(IOException.class)
+                .beginControlFlow("try");
+
+        if (BeanSerializersGenerator.isJsonPrimitive(valueType)) {
+            // Mirrors the coercion jackson applies to the scalar alias factories
+            deserialize
+                    .beginControlFlow("switch ($N.currentToken())", PARSER)
+                    .addCode(scalarCases(aliasClass, valueType))
+                    .addCode("default:\n")
+                    .addCode(CodeBlock.builder()
+                            .indent()
+                            .addStatement(
+                                    "return ($1T) $2N.handleUnexpectedToken($1T.class, $3N)",
+                                    aliasClass,
+                                    CONTEXT,
+                                    PARSER)
+                            .unindent()
+                            .build())
+                    .endControlFlow();
+        } else {
+            FieldSpec valueDeserializer = FieldSpec.builder(DESERIALIZER_TYPE, "valueDeserializer", Modifier.PRIVATE)
+                    .build();
+            deserializer
+                    .addSuperinterface(ResolvableDeserializer.class)
+                    .addField(valueDeserializer)
+                    .addMethod(MethodSpec.methodBuilder("resolve")
+                            .addAnnotation(Override.class)
+                            .addModifiers(Modifier.PUBLIC)
+                            .addParameter(DeserializationContext.class, CONTEXT)
+                            .addException(JsonMappingException.class)
+                            .addStatement(
+                                    "$N = $T.findDeserializer($N, $S, $L, $T.DEFAULT)",
+                                    valueDeserializer,
+                                    GeneratedSerializers.class,
+                                    CONTEXT,
+                                    VALUE,
+                                    BeanSerializersGenerator.typeExpression(valueType),
+                                    Nulls.class)
+                            .build());
+            deserialize.addStatement(
+                    "return of(($T) $N.deserialize($N, $N))", valueType, valueDeserializer, PARSER, CONTEXT);
+            if (valueType instanceof ParameterizedTypeName) {
+                deserialize.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build());
+            }
+        }
+        deserializer.addMethod(deserialize
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement(
+                        "throw $T.buildException(e, $N, $T.class)", GeneratedSerializers.class, CONTEXT, aliasClass)
+                .endControlFlow()
+                .build());
+
+        if (hasDefaultConstructor) {
+            // Empty values of optional and collection aliases are created as by jackson
+            deserializer.addMethod(MethodSpec.methodBuilder("getEmptyValue")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(DeserializationContext.class, CONTEXT)
+                    .returns(aliasClass)
+                    .addStatement("return new $T()", aliasClass)
+                    .build());
+        }
+        return deserializer.build();
+    }
+
+    private static CodeBlock scalarCases(ClassName aliasClass, TypeName valueType) {
+        CodeBlock.Builder cases = CodeBlock.builder();
+        if (valueType.equals(STRING)) {
+            cases.add("case VALUE_STRING:\n").indent().addStatement("return of($N.getText())", PARSER);
+        } else if (valueType.equals(TypeName.INT)) {
+            cases.add("case VALUE_NUMBER_INT:\n")
+                    .indent()
+                    .addStatement("return of($N.getIntValue())", PARSER)
+                    .unindent()
+                    .add("case VALUE_STRING:\n")
+                    .indent()
+                    .addStatement(
+                            "return of($T.coerceStringToInt($N, $N, $T.class))",
+                            GeneratedSerializers.class,
+                            PARSER,
+                            CONTEXT,
+                            aliasClass);
+        } else if (valueType.equals(TypeName.BOOLEAN)) {
+            cases.add("case VALUE_TRUE:\n")
+                    .add("case VALUE_FALSE:\n")
+                    .indent()
+                    .addStatement("return of($N.getBooleanValue())", PARSER)
+                    .unindent()
+                    .add("case VALUE_STRING:\n")
+                    .indent()
+                    .addStatement(
+                            "return of($T.coerceStringToBoolean($N, $N, $T.class))",
+                            GeneratedSerializers.class,
+                            PARSER,
+                            CONTEXT,
+                            aliasClass);
+        } else {
+            // Doubles are created from the factories for each type of number, and strings for non-finite values
+            cases.add("case VALUE_NUMBER_INT:\n")
+                    .indent()
+                    .beginControlFlow("if ($N.getNumberType() == $T.NumberType.INT)", PARSER, JsonParser.class)
+                    .addStatement("return of($N.getIntValue())", PARSER)
+                    .nextControlFlow("else if ($N.getNumberType() == $T.NumberType.LONG)", PARSER, JsonParser.class)
+                    .addStatement("return of($N.getLongValue())", PARSER)
+                    .endControlFlow()
+                    .addStatement("return of($N.getDoubleValue())", PARSER)
+                    .unindent()
+                    .add("case VALUE_NUMBER_FLOAT:\n")
+                    .indent()
+                    .addStatement("return of($N.getDoubleValue())", PARSER)
+                    .unindent()
+                    .add("case VALUE_STRING:\n")
+                    .indent()
+                    .addStatement("return of($N.getText())", PARSER);
+        }
+        return cases.unindent().build();
+    }
+}
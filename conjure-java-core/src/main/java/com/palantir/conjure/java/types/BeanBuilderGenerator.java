@@ -210,7 +210,7 @@ public final class BeanBuilderGenerator {
                 .collect(Collectors.toList());
     }
 
-    private static String deriveFieldInitializedName(EnrichedField field) {
+    static String deriveFieldInitializedName(EnrichedField field) {
         return "_" + JavaNameSanitizer.sanitize(field.conjureDef().getFieldName()) + "Initialized";
     }
 
@@ -272,20 +272,13 @@ public final class BeanBuilderGenerator {
         Type type = enriched.conjureDef().getType();
         AnnotationSpec.Builder annotationBuilder = AnnotationSpec.builder(JsonSetter.class)
                 .addMember("value", "$S", enriched.fieldName().get());
-        if (type.accept(TypeVisitor.IS_OPTIONAL)) {
-            annotationBuilder.addMember("nulls", "$T.SKIP", Nulls.class);
-        } else if (isCollectionType(type)) {
-            annotationBuilder.addMember("nulls", "$T.SKIP", Nulls.class);
-            if (isOptionalInnerType(type)) {
-                annotationBuilder.addMember("contentNulls", "$T.AS_EMPTY", Nulls.class);
-            } else if (options.nonNullCollections()) {
-                annotationBuilder.addMember("contentNulls", "$T.FAIL", Nulls.class);
-            }
-        } else if (type.accept(TypeVisitor.IS_REFERENCE)) {
-            Type dealiased = TypeFunctions.toConjureTypeWithoutAliases(type, typesMap);
-            if (dealiased.accept(DefaultableTypeVisitor.INSTANCE)) {
-                annotationBuilder.addMember("nulls", "$T.AS_EMPTY", Nulls.class);
-            }
+        Nulls nulls = valueNulls(type, typesMap);
+        if (nulls != Nulls.DEFAULT) {
+            annotationBuilder.addMember("nulls", "$T.$L", Nulls.class, nulls.name());
+        }
+        Nulls contentNulls = contentNulls(type, typeMapper, options);
+        if (contentNulls != Nulls.DEFAULT) {
+            annotationBuilder.addMember("contentNulls", "$T.$L", Nulls.class, contentNulls.name());
         }
 
         boolean shouldClearFirst = true;
@@ -488,11 +481,35 @@ public final class BeanBuilderGenerator {
         return type;
     }
 
+    /** Returns the handling of a JSON null value for a field of the given type. */
+    static Nulls valueNulls(Type type, Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap) {
+        if (type.accept(TypeVisitor.IS_OPTIONAL) || isCollectionType(type)) {
+            return Nulls.SKIP;
+        } else if (type.accept(TypeVisitor.IS_REFERENCE)
+                && TypeFunctions.toConjureTypeWithoutAliases(type, typesMap)
+                        .accept(DefaultableTypeVisitor.INSTANCE)) {
+            return Nulls.AS_EMPTY;
+        }
+        return Nulls.DEFAULT;
+    }
+
+    /** Returns the handling of JSON null collection elements and map values for a field of the given type. */
+    static Nulls contentNulls(Type type, TypeMapper typeMapper, Options options) {
+        if (!isCollectionType(type)) {
+            return Nulls.DEFAULT;
+        } else if (isOptionalInnerType(type, typeMapper)) {
+            return Nulls.AS_EMPTY;
+        } else if (options.nonNullCollections()) {
+            return Nulls.FAIL;
+        }
+        return Nulls.DEFAULT;
+    }
+
     private static boolean isCollectionType(Type type) {
         return type.accept(TypeVisitor.IS_LIST) || type.accept(TypeVisitor.IS_SET) || type.accept(TypeVisitor.IS_MAP);
     }
 
-    private boolean isOptionalInnerType(Type type) {
+    private static boolean isOptionalInnerType(Type type, TypeMapper typeMapper) {
         return type.accept(new Type.Visitor<Boolean>() {
             @Override
             public Boolean visitPrimitive(PrimitiveType value) {
@@ -506,7 +523,7 @@ public final class BeanBuilderGenerator {
 
             @Override
             public Boolean visitList(ListType value) {
-                return isOptionalInnerType(value.getItemType());
+                return isOptionalInnerType(value.getItemType(), typeMapper);
             }
 
             @Override
@@ -516,7 +533,7 @@ public final class BeanBuilderGenerator {
 
             @Override
             public Boolean visitMap(MapType value) {
-                return isOptionalInnerType(value.getValueType());
+                return isOptionalInnerType(value.getValueType(), typeMapper);
             }
 
             @Override
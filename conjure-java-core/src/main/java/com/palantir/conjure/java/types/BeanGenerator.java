@@ -201,6 +201,10 @@ public final class BeanGenerator {
                                 Optional.of(ClassName.get(
                                         objectClass.packageName(), objectClass.simpleName(), builderInterface.name))));
             }
+            if (options.useGeneratedSerializers()) {
+                typeBuilder.addTypes(BeanSerializersGenerator.generate(
+                        typeMapper, objectClass, builderImplementation, fields, typesMap, options));
+            }
         }
         typeBuilder.addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(BeanGenerator.class));
 
@@ -0,0 +1,526 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.types;
+
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.ConjureAnnotations;
+import com.palantir.conjure.java.Options;
+import com.palantir.conjure.java.lib.internal.GeneratedSerializers;
+import com.palantir.conjure.java.types.BeanGenerator.EnrichedField;
+import com.palantir.conjure.java.util.TypeFunctions;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.visitor.TypeVisitor;
+import com.palantir.logsafe.Preconditions;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates jackson serializers and deserializers nested within bean types which read and write each field directly
+ * rather than relying on reflective bean introspection. Field values which aren't simple JSON primitives are handled
+ * by the serializers and deserializers jackson would use for the equivalent bean property, resolved once per type.
+ */
+final class BeanSerializersGenerator {
+
+    static final String SERIALIZER_CLASS_NAME = "JacksonSerializer";
+    static final String DESERIALIZER_CLASS_NAME = "JacksonDeserializer";
+
+    private static final String VALUE = "value";
+    private static final String GENERATOR = "gen";
+    private static final String PROVIDER = "provider";
+    private static final String PARSER = "parser";
+    private static final String CONTEXT = "ctxt";
+    private static final String FIELD_NAME = "fieldName";
+    private static final String BUILDER = "builder";
+    private static final String FIELD = "field";
+    private static final String FIELD_NAMES = "FIELD_NAMES";
+    private static final String EXCLUDE_ABSENT_VALUES = "excludeAbsentValues";
+
+    private static final TypeName STRING = ClassName.get(String.class);
+    private static final TypeName SERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonSerializer.class), ClassName.OBJECT);
+    private static final TypeName DESERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonDeserializer.class), ClassName.OBJECT);
+
+    private final TypeMapper typeMapper;
+    private final ClassName objectClass;
+    private final ImmutableList<EnrichedField> fields;
+    private final Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap;
+    private final Options options;
+
+    private BeanSerializersGenerator(
+            TypeMapper typeMapper,
+            ClassName objectClass,
+            ImmutableList<EnrichedField> fields,
+            Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap,
+            Options options) {
+        this.typeMapper = typeMapper;
+        this.objectClass = objectClass;
+        this.fields = fields;
+        this.typesMap = typesMap;
+        this.options = options;
+    }
+
+    static ImmutableList<TypeSpec> generate(
+            TypeMapper typeMapper,
+            ClassName objectClass,
+            ClassName builderImplementation,
+            ImmutableList<EnrichedField> fields,
+            Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap,
+            Options options) {
+        BeanSerializersGenerator generator =
+                new BeanSerializersGenerator(typeMapper, objectClass, fields, typesMap, options);
+        return ImmutableList.of(generator.serializer(), generator.deserializer(builderImplementation));
+    }
+
+    private TypeSpec serializer() {
+        MethodSpec.Builder resolve = MethodSpec.methodBuilder("resolve")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(SerializerProvider.class, PROVIDER)
+                .addException(JsonMappingException.class);
+        MethodSpec.Builder serialize = MethodSpec.methodBuilder("serialize")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(objectClass, VALUE)
+                .addParameter(JsonGenerator.class, GENERATOR)
+                .addParameter(SerializerProvider.class, PROVIDER)
+                .addException(IOException.class)
+                .addStatement("$N.writeStartObject($N)", GENERATOR, VALUE);
+        TypeSpec.Builder serializer = TypeSpec.classBuilder(SERIALIZER_CLASS_NAME)
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdSerializer.class), objectClass))
+                .addSuperinterface(ResolvableSerializer.class);
+
+        boolean usesDefaultInclusion = false;
+        for (EnrichedField field : fields) {
+            FieldSpec nameConstant = FieldSpec.builder(
+                            SerializableString.class,
+                            fieldNameConstant(field),
+                            Modifier.PRIVATE,
+                            Modifier.STATIC,
+                            Modifier.FINAL)
+                    .initializer("new $T($S)", SerializedString.class, field.fieldName().get())
+                    .build();
+            serializer.addField(nameConstant);
+
+            CodeBlock getter = CodeBlock.of("$N.$N()", VALUE, field.getterName());
+            CodeBlock.Builder write =
+                    CodeBlock.builder().addStatement("$N.writeFieldName($N)", GENERATOR, nameConstant);
+            TypeName type = field.poetSpec().type;
+            if (isJsonPrimitive(type)) {
+                write.addStatement("$N.$L($L)", GENERATOR, writeMethod(type), getter);
+            } else if (type.equals(ClassName.OBJECT)) {
+                // Values of type 'any' are serialized based on their runtime type
+                write.addStatement("$N.defaultSerializeValue($L, $N)", PROVIDER, getter, GENERATOR);
+            } else {
+                FieldSpec fieldSerializer = FieldSpec.builder(
+                                SERIALIZER_TYPE, field.poetSpec().name + "Serializer", Modifier.PRIVATE)
+                        .build();
+                serializer.addField(fieldSerializer);
+                resolve.addStatement(
+                        "$N = $T.findSerializer($N, $S, $L)",
+                        fieldSerializer,
+                        GeneratedSerializers.class,
+                        PROVIDER,
+                        field.fieldName().get(),
+                        typeExpression(type));
+                write.addStatement("$N.serialize($L, $N, $N)", fieldSerializer, getter, GENERATOR, PROVIDER);
+
+                Type conjureType = field.conjureDef().getType();
+                if (conjureType.accept(TypeVisitor.IS_OPTIONAL)) {
+                    if (options.excludeEmptyOptionals()) {
+                        write = wrapInCondition(CodeBlock.of("$L.isPresent()", getter), write);
+                    } else {
+                        usesDefaultInclusion = true;
+                        write = wrapInCondition(
+                                CodeBlock.of("!$N || $L.isPresent()", EXCLUDE_ABSENT_VALUES, getter), write);
+                    }
+                } else if (options.excludeEmptyOptionals()
+                        && conjureType.accept(TypeVisitor.IS_REFERENCE)
+                        && TypeFunctions.toConjureTypeWithoutAliases(conjureType, typesMap)
+                                .accept(TypeVisitor.IS_OPTIONAL)) {
+                    write = wrapInCondition(
+                            CodeBlock.of("!$N.isEmpty($N, $L)", fieldSerializer, PROVIDER, getter), write);
+                }
+            }
+            serialize.addCode(write.build());
+        }
+
+        if (usesDefaultInclusion) {
+            serializer.addField(boolean.class, EXCLUDE_ABSENT_VALUES, Modifier.PRIVATE);
+            resolve.addStatement(
+                    "$N = $T.excludesAbsentValues($N, $T.class)",
+                    EXCLUDE_ABSENT_VALUES,
+                    GeneratedSerializers.class,
+                    PROVIDER,
+                    objectClass);
+        }
+
+        return serializer
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(BeanSerializersGenerator.class))
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", objectClass)
+                        .build())
+                .addMethod(resolve.build())
+                .addMethod(serialize
+                        .addStatement("$N.writeEndObject()", GENERATOR)
+                        .build())
+                .build();
+    }
+
+    private TypeSpec deserializer(ClassName builderImplementation) {
+        ClassName serializerClass = objectClass.nestedClass(SERIALIZER_CLASS_NAME);
+        MethodSpec.Builder resolve = MethodSpec.methodBuilder("resolve")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addException(JsonMappingException.class);
+        TypeSpec.Builder deserializer = TypeSpec.classBuilder(DESERIALIZER_CLASS_NAME)
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdDeserializer.class), objectClass))
+                .addSuperinterface(ResolvableDeserializer.class);
+
+        List<CodeBlock> fieldNames = new ArrayList<>(fields.size());
+        List<FieldSpec> fieldDeserializers = new ArrayList<>(fields.size());
+        CodeBlock.Builder indexCases = CodeBlock.builder();
+        CodeBlock.Builder readCases = CodeBlock.builder();
+        boolean uncheckedCasts = false;
+        for (int index = 0; index < fields.size(); index++) {
+            EnrichedField field = fields.get(index);
+            Type conjureType = field.conjureDef().getType();
+            TypeName deserializedType = deserializedType(field);
+            FieldSpec fieldDeserializer = FieldSpec.builder(
+                            DESERIALIZER_TYPE, field.poetSpec().name + "Deserializer", Modifier.PRIVATE)
+                    .build();
+            fieldDeserializers.add(fieldDeserializer);
+            resolve.addStatement(
+                    "$N = $T.findDeserializer($N, $S, $L, $T.$L)",
+                    fieldDeserializer,
+                    GeneratedSerializers.class,
+                    CONTEXT,
+                    field.fieldName().get(),
+                    typeExpression(deserializedType),
+                    Nulls.class,
+                    BeanBuilderGenerator.contentNulls(conjureType, typeMapper, options)
+                            .name());
+
+            fieldNames.add(CodeBlock.of("$T.$N", serializerClass, fieldNameConstant(field)));
+            indexCases
+                    .add("case $S:\n", field.fieldName().get())
+                    .indent()
+                    .addStatement("return $L", index)
+                    .unindent();
+            readCases
+                    .add("case $L:\n", index)
+                    .indent()
+                    .add(readField(field, fieldDeserializer, deserializedType))
+                    .addStatement("return")
+                    .unindent();
+            uncheckedCasts |= deserializedType instanceof ParameterizedTypeName;
+        }
+        FieldSpec fieldNamesArray = FieldSpec.builder(
+                        ArrayTypeName.of(SerializableString.class),
+                        FIELD_NAMES,
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                .initializer("{$L}", CodeBlock.join(fieldNames, ", "))
+                .build();
+
+        MethodSpec fieldIndex = MethodSpec.methodBuilder("fieldIndex")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(String.class, FIELD_NAME)
+                .returns(int.class)
+                .beginControlFlow("switch ($N)", FIELD_NAME)
+                .addCode(indexCases.build())
+                .addCode("default:\n")
+                .addCode(CodeBlock.builder()
+                        .indent()
+                        .addStatement("return -1")
+                        .unindent()
+                        .build())
+                .endControlFlow()
+                .build();
+
+        MethodSpec.Builder readField = MethodSpec.methodBuilder("readField")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addParameter(builderImplementation, BUILDER)
+                .addParameter(int.class, FIELD)
+                .addException(IOException.class)
+                .beginControlFlow("try")
+                .beginControlFlow("switch ($N)", FIELD)
+                .addCode(readCases.build())
+                .addCode("default:\n")
+                .addCode(CodeBlock.builder().indent().addStatement("break").unindent().build())
+                .endControlFlow()
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement(
+                        "throw $T.fieldException(e, $N, $T.class, $N[$N].getValue())",
+                        GeneratedSerializers.class,
+                        CONTEXT,
+                        objectClass,
+                        fieldNamesArray,
+                        FIELD)
+                .endControlFlow()
+                .addStatement("throw new $T($S + $N)", IllegalStateException.class, "Unknown field index: ", FIELD);
+        if (uncheckedCasts) {
+            readField.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                    .addMember("value", "$S", "unchecked")
+                    .build());
+        }
+
+        CodeBlock.Builder unknownField = CodeBlock.builder();
+        if (options.strictObjects()) {
+            unknownField.addStatement(
+                    "$N.handleUnknownProperty($N, this, $T.class, $N)", CONTEXT, PARSER, objectClass, FIELD_NAME);
+        } else {
+            unknownField.addStatement("$N.skipChildren()", PARSER);
+        }
+
+        MethodSpec deserialize = MethodSpec.methodBuilder("deserialize")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .returns(objectClass)
+                .addException(IOException.class)
+                .addStatement("$1T $2N = new $1T()", builderImplementation, BUILDER)
+                .addStatement("$T token", JsonToken.class)
+                .beginControlFlow("if ($N.isExpectedStartObjectToken())", PARSER)
+                .addComment("Fields written in declared order are matched against pre-encoded names without lookups")
+                .addStatement("int $N = 0", FIELD)
+                .beginControlFlow(
+                        "while ($1N < $2N.length && $3N.nextFieldName($2N[$1N]))", FIELD, fieldNamesArray, PARSER)
+                .addStatement("$N.nextToken()", PARSER)
+                .addStatement("readField($N, $N, $N, $N++)", PARSER, CONTEXT, BUILDER, FIELD)
+                .endControlFlow()
+                .addStatement(
+                        "token = $1N == $2N.length ? $3N.nextToken() : $3N.currentToken()",
+                        FIELD,
+                        fieldNamesArray,
+                        PARSER)
+                .nextControlFlow("else")
+                .addStatement("token = $N.currentToken()", PARSER)
+                .beginControlFlow(
+                        "if (token != $T.FIELD_NAME && token != $T.END_OBJECT)", JsonToken.class, JsonToken.class)
+                .addStatement(
+                        "return ($1T) $2N.handleUnexpectedToken($1T.class, $3N)", objectClass, CONTEXT, PARSER)
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("for (; token == $T.FIELD_NAME; token = $N.nextToken())", JsonToken.class, PARSER)
+                .addStatement("$T $N = $N.currentName()", String.class, FIELD_NAME, PARSER)
+                .addStatement("$N.nextToken()", PARSER)
+                .addStatement("int $N = $N($N)", FIELD, fieldIndex, FIELD_NAME)
+                .beginControlFlow("if ($N >= 0)", FIELD)
+                .addStatement("readField($N, $N, $N, $N)", PARSER, CONTEXT, BUILDER, FIELD)
+                .nextControlFlow("else")
+                .addCode(unknownField.build())
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("try")
+                .addStatement("return $N.build()", BUILDER)
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement(
+                        "throw $T.buildException(e, $N, $T.class)", GeneratedSerializers.class, CONTEXT, objectClass)
+                .endControlFlow()
+                .build();
+
+        return deserializer
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(BeanSerializersGenerator.class))
+                .addField(fieldNamesArray)
+                .addFields(fieldDeserializers)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", objectClass)
+                        .build())
+                .addMethod(resolve.build())
+                .addMethod(deserialize)
+                .addMethod(fieldIndex)
+                .addMethod(readField.build())
+                .build();
+    }
+
+    /**
+     * Reads the current value into the builder field directly, bypassing the builder setters. Values are checked as
+     * the setters would, except where the deserialized value is already owned by the builder.
+     */
+    private CodeBlock readField(EnrichedField field, FieldSpec fieldDeserializer, TypeName deserializedType) {
+        String name = field.poetSpec().name;
+        TypeName type = field.poetSpec().type;
+        Type conjureType = field.conjureDef().getType();
+        Nulls nulls = BeanBuilderGenerator.valueNulls(conjureType, typesMap);
+        if (nulls == Nulls.SKIP) {
+            // Deserialized optionals and collections replace the builder defaults, which are kept for null values
+            return CodeBlock.builder()
+                    .beginControlFlow("if (!$N.hasToken($T.VALUE_NULL))", PARSER, JsonToken.class)
+                    .addStatement(
+                            "$N.$N = ($T) $N.deserialize($N, $N)",
+                            BUILDER,
+                            name,
+                            deserializedType,
+                            fieldDeserializer,
+                            PARSER,
+                            CONTEXT)
+                    .endControlFlow()
+                    .build();
+        }
+        CodeBlock read = CodeBlock.of(
+                "$L$T.$L($N, $N, $N)",
+                type.equals(ClassName.OBJECT) ? CodeBlock.of("") : CodeBlock.of("($T) ", type.box()),
+                GeneratedSerializers.class,
+                nulls == Nulls.AS_EMPTY ? "deserializeNullAsEmpty" : "deserialize",
+                PARSER,
+                CONTEXT,
+                fieldDeserializer);
+        if (type.isPrimitive()) {
+            return CodeBlock.builder()
+                    .addStatement("$N.$N = $L", BUILDER, name, fastPath(type, read))
+                    .addStatement("$N.$N = true", BUILDER, BeanBuilderGenerator.deriveFieldInitializedName(field))
+                    .build();
+        } else if (conjureType.accept(TypeVisitor.IS_BINARY) && !options.useImmutableBytes()) {
+            // The builder takes a copy of mutable buffers
+            return CodeBlock.builder()
+                    .addStatement("$N.$N($L)", BUILDER, name, read)
+                    .build();
+        }
+        CodeBlock checkedRead = CodeBlock.of(
+                "$T.checkNotNull($L, $S)", Preconditions.class, read, field.fieldName().get() + " cannot be null");
+        return CodeBlock.builder()
+                .addStatement("$N.$N = $L", BUILDER, name, fastPath(type, checkedRead))
+                .build();
+    }
+
+    /**
+     * Collections are deserialized into the implementations created by the builder so that they can be assigned to
+     * the builder without copying.
+     */
+    private static TypeName deserializedType(EnrichedField field) {
+        Type conjureType = field.conjureDef().getType();
+        TypeName type = field.poetSpec().type;
+        if (conjureType.accept(TypeVisitor.IS_LIST)) {
+            return withRawType(ArrayList.class, type);
+        } else if (conjureType.accept(TypeVisitor.IS_SET)) {
+            return withRawType(LinkedHashSet.class, type);
+        } else if (conjureType.accept(TypeVisitor.IS_MAP)) {
+            return withRawType(LinkedHashMap.class, type);
+        }
+        return type;
+    }
+
+    private static TypeName withRawType(Class<?> rawType, TypeName type) {
+        return ParameterizedTypeName.get(
+                ClassName.get(rawType), ((ParameterizedTypeName) type).typeArguments.toArray(new TypeName[0]));
+    }
+
+    /** Reads values which map directly onto a JSON token without resolving a deserializer. */
+    static CodeBlock fastPath(TypeName type, CodeBlock fallback) {
+        if (type.equals(STRING)) {
+            return CodeBlock.of(
+                    "$N.hasToken($T.VALUE_STRING) ? $N.getText() : $L", PARSER, JsonToken.class, PARSER, fallback);
+        } else if (type.equals(TypeName.INT)) {
+            return CodeBlock.of(
+                    "$1N.hasToken($2T.VALUE_NUMBER_INT) && $1N.getNumberType() == $3T.NumberType.INT "
+                            + "? $1N.getIntValue() : $4L",
+                    PARSER,
+                    JsonToken.class,
+                    JsonParser.class,
+                    fallback);
+        } else if (type.equals(TypeName.DOUBLE)) {
+            return CodeBlock.of(
+                    "$1N.hasToken($2T.VALUE_NUMBER_FLOAT) ? $1N.getDoubleValue() : $3L",
+                    PARSER,
+                    JsonToken.class,
+                    fallback);
+        } else if (type.equals(TypeName.BOOLEAN)) {
+            return CodeBlock.of("$1N.currentToken().isBoolean() ? $1N.getBooleanValue() : $2L", PARSER, fallback);
+        }
+        return fallback;
+    }
+
+    static boolean isJsonPrimitive(TypeName type) {
+        return type.equals(STRING)
+                || type.equals(TypeName.INT)
+                || type.equals(TypeName.DOUBLE)
+                || type.equals(TypeName.BOOLEAN);
+    }
+
+    static String writeMethod(TypeName type) {
+        if (type.equals(STRING)) {
+            return "writeString";
+        } else if (type.equals(TypeName.BOOLEAN)) {
+            return "writeBoolean";
+        }
+        return "writeNumber";
+    }
+
+    /** Produces an expression for the {@link java.lang.reflect.Type} of the given field type. */
+    static CodeBlock typeExpression(TypeName type) {
+        if (type instanceof ParameterizedTypeName) {
+            return CodeBlock.of(
+                    "new $T() {}.getType()", ParameterizedTypeName.get(ClassName.get(TypeReference.class), type));
+        }
+        return CodeBlock.of("$T.class", type);
+    }
+
+    private static CodeBlock.Builder wrapInCondition(CodeBlock condition, CodeBlock.Builder body) {
+        return CodeBlock.builder()
+                .beginControlFlow("if ($L)", condition)
+                .add(body.build())
+                .endControlFlow();
+    }
+
+    static String fieldNameConstant(EnrichedField field) {
+        return nameConstant(field.fieldName().get());
+    }
+
+    static String nameConstant(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replace('-', '_').toUpperCase(Locale.ROOT) + "_FIELD";
+    }
+}
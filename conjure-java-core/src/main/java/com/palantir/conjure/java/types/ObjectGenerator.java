@@ -40,7 +40,10 @@ public final class ObjectGenerator implements Generator {
         List<TypeDefinition> types = definition.getTypes();
         Map<TypeName, TypeDefinition> typesMap = TypeFunctions.toTypesMap(types);
         TypeMapper typeMapper = new TypeMapper(typesMap, options);
-        return types.stream().map(typeDef -> generateInner(typeMapper, typesMap, typeDef));
+        Stream<JavaFile> objects = types.stream().map(typeDef -> generateInner(typeMapper, typesMap, typeDef));
+        return options.useGeneratedSerializers()
+                ? Stream.concat(objects, SerializersModuleGenerator.generate(types, options))
+                : objects;
     }
 
     private JavaFile generateInner(
@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.types;
+
+import com.palantir.conjure.java.ConjureAnnotations;
+import com.palantir.conjure.java.Options;
+import com.palantir.conjure.java.lib.internal.GeneratedSerializersModule;
+import com.palantir.conjure.java.util.Packages;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates a {@code ConjureJacksonModule} in each package containing objects, unions or aliases with generated
+ * serializers, see {@link Options#useGeneratedSerializers()}.
+ */
+final class SerializersModuleGenerator {
+
+    static final String MODULE_CLASS_NAME = "ConjureJacksonModule";
+
+    private SerializersModuleGenerator() {}
+
+    static Stream<JavaFile> generate(List<TypeDefinition> types, Options options) {
+        Map<String, List<ClassName>> typesByPackage = types.stream()
+                .filter(SerializersModuleGenerator::hasGeneratedSerializers)
+                .map(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME))
+                .map(name -> Packages.getPrefixedName(name, options.packagePrefix()))
+                .map(name -> ClassName.get(name.getPackage(), name.getName()))
+                .sorted(Comparator.comparing(ClassName::simpleName))
+                .collect(Collectors.groupingBy(ClassName::packageName, TreeMap::new, Collectors.toList()));
+        return typesByPackage.entrySet().stream()
+                .map(entry -> generateModule(entry.getKey(), entry.getValue()));
+    }
+
+    private static boolean hasGeneratedSerializers(TypeDefinition type) {
+        if (type.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+            // Objects without fields use the empty bean serializer rather than generated serializers
+            return !type.accept(TypeDefinitionVisitor.OBJECT).getFields().isEmpty();
+        } else if (type.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+            return AliasSerializersGenerator.isSupported(type.accept(TypeDefinitionVisitor.ALIAS));
+        }
+        return type.accept(TypeDefinitionVisitor.IS_UNION);
+    }
+
+    private static JavaFile generateModule(String packageName, List<ClassName> types) {
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+        for (ClassName type : types) {
+            constructor.addStatement(
+                    "register($T.class, $T.class, $T.class)",
+                    type,
+                    type.nestedClass(BeanSerializersGenerator.SERIALIZER_CLASS_NAME),
+                    type.nestedClass(BeanSerializersGenerator.DESERIALIZER_CLASS_NAME));
+        }
+        TypeSpec module = TypeSpec.classBuilder(MODULE_CLASS_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .superclass(GeneratedSerializersModule.class)
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(SerializersModuleGenerator.class))
+                .addJavadoc(
+                        "Registers generated jackson serializers for the conjure types in package {@code $L}.\n",
+                        packageName)
+                .addMethod(constructor.build())
+                .build();
+        return JavaFile.builder(packageName, module)
+                .skipJavaLangImports(true)
+                .indent("    ")
+                .build();
+    }
+}
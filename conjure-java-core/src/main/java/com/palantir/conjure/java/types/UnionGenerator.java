@@ -72,7 +72,7 @@ import org.apache.commons.lang3.StringUtils;
 public final class UnionGenerator {
 
     private static final String VALUE_FIELD_NAME = "value";
-    private static final String UNKNOWN_WRAPPER_CLASS_NAME = "UnknownWrapper";
+    static final String UNKNOWN_WRAPPER_CLASS_NAME = "UnknownWrapper";
     private static final String VISIT_UNKNOWN_METHOD_NAME = "visitUnknown";
     private static final String COMPLETED = "completed_";
     private static final TypeVariableName TYPE_VARIABLE = TypeVariableName.get("T");
@@ -122,6 +122,11 @@ public final class UnionGenerator {
                                 .map(fieldSpec -> FieldName.of(fieldSpec.name))
                                 .collect(Collectors.toList())));
 
+        if (options.useGeneratedSerializers()) {
+            typeBuilder.addTypes(UnionSerializersGenerator.generate(
+                    typeMapper, typesMap, unionClass, typeDef.getUnion()));
+        }
+
         typeDef.getDocs().ifPresent(docs -> typeBuilder.addJavadoc("$L", Javadoc.render(docs)));
 
         return JavaFile.builder(prefixedTypeName.getPackage(), typeBuilder.build())
@@ -731,7 +736,7 @@ public final class UnionGenerator {
         return methodBuilder.build();
     }
 
-    private static ClassName wrapperClass(ClassName unionClass, FieldName memberTypeName) {
+    static ClassName wrapperClass(ClassName unionClass, FieldName memberTypeName) {
         return ClassName.get(
                 unionClass.packageName(),
                 unionClass.simpleName(),
@@ -758,7 +763,7 @@ public final class UnionGenerator {
         return "unknown".equalsIgnoreCase(input) ? input + '_' : input;
     }
 
-    private static FieldName sanitizeUnknown(FieldName input) {
+    static FieldName sanitizeUnknown(FieldName input) {
         return "unknown".equalsIgnoreCase(input.get()) ? FieldName.of(input.get() + '_') : input;
     }
 
@@ -0,0 +1,521 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.types;
+
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.ConjureAnnotations;
+import com.palantir.conjure.java.lib.internal.GeneratedSerializers;
+import com.palantir.conjure.java.util.TypeFunctions;
+import com.palantir.conjure.java.visitor.DefaultableTypeVisitor;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.visitor.TypeVisitor;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates jackson serializers and deserializers nested within union types which write the type and value of the
+ * current variant directly, rather than relying on polymorphic type handling of the wrapper classes. As with
+ * {@link BeanSerializersGenerator}, values which aren't simple JSON primitives are handled by the serializers and
+ * deserializers jackson would use for the equivalent wrapper property.
+ */
+final class UnionSerializersGenerator {
+
+    private static final String VALUE = "value";
+    private static final String VARIANT = "variant";
+    private static final String TYPE = "type";
+    private static final String GENERATOR = "gen";
+    private static final String PROVIDER = "provider";
+    private static final String PARSER = "parser";
+    private static final String CONTEXT = "ctxt";
+    private static final String FIELD_NAME = "fieldName";
+    private static final String PRESENT = "present";
+    private static final String UNKNOWN_VALUES = "unknownValues";
+    private static final String EXCLUDE_ABSENT_VALUES = "excludeAbsentValues";
+
+    private static final TypeName SERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonSerializer.class), ClassName.OBJECT);
+    private static final TypeName DESERIALIZER_TYPE =
+            ParameterizedTypeName.get(ClassName.get(JsonDeserializer.class), ClassName.OBJECT);
+    private static final TypeName UNKNOWN_VALUES_TYPE =
+            ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), ClassName.OBJECT);
+
+    private final TypeMapper typeMapper;
+    private final Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap;
+    private final ClassName unionClass;
+    private final List<FieldDefinition> members;
+
+    private UnionSerializersGenerator(
+            TypeMapper typeMapper,
+            Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap,
+            ClassName unionClass,
+            List<FieldDefinition> members) {
+        this.typeMapper = typeMapper;
+        this.typesMap = typesMap;
+        this.unionClass = unionClass;
+        this.members = members;
+    }
+
+    static ImmutableList<TypeSpec> generate(
+            TypeMapper typeMapper,
+            Map<com.palantir.conjure.spec.TypeName, TypeDefinition> typesMap,
+            ClassName unionClass,
+            List<FieldDefinition> members) {
+        UnionSerializersGenerator generator = new UnionSerializersGenerator(typeMapper, typesMap, unionClass, members);
+        return ImmutableList.of(generator.serializer(), generator.deserializer());
+    }
+
+    private TypeSpec serializer() {
+        MethodSpec.Builder resolve = MethodSpec.methodBuilder("resolve")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(SerializerProvider.class, PROVIDER)
+                .addException(JsonMappingException.class);
+        TypeSpec.Builder serializer = TypeSpec.classBuilder(BeanSerializersGenerator.SERIALIZER_CLASS_NAME)
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdSerializer.class), unionClass))
+                .addSuperinterface(ResolvableSerializer.class);
+        FieldSpec typeConstant = nameConstant(TYPE);
+        serializer.addField(typeConstant);
+
+        CodeBlock.Builder writeVariant = CodeBlock.builder();
+        boolean usesDefaultInclusion = false;
+        for (int index = 0; index < members.size(); index++) {
+            FieldDefinition member = members.get(index);
+            String name = member.getFieldName().get();
+            TypeName type = typeMapper.getClassName(member.getType());
+            ClassName wrapperClass = wrapperClass(member);
+            FieldSpec nameConstant = nameConstant(name);
+            // A variant named 'type' shares the constant of the type field
+            if (!nameConstant.name.equals(typeConstant.name)) {
+                serializer.addField(nameConstant);
+            }
+
+            CodeBlock memberValue = CodeBlock.of("(($T) $N).value", wrapperClass, VARIANT);
+            CodeBlock.Builder write =
+                    CodeBlock.builder().addStatement("$N.writeFieldName($N)", GENERATOR, nameConstant);
+            if (BeanSerializersGenerator.isJsonPrimitive(type)) {
+                write.addStatement(
+                        "$N.$L($L)", GENERATOR, BeanSerializersGenerator.writeMethod(type), memberValue);
+            } else if (type.equals(ClassName.OBJECT)) {
+                // Values of type 'any' are serialized based on their runtime type
+                write.addStatement("$N.defaultSerializeValue($L, $N)", PROVIDER, memberValue, GENERATOR);
+            } else {
+                FieldSpec memberSerializer =
+                        FieldSpec.builder(SERIALIZER_TYPE, memberVariable(member) + "Serializer", Modifier.PRIVATE)
+                                .build();
+                serializer.addField(memberSerializer);
+                resolve.addStatement(
+                        "$N = $T.findSerializer($N, $S, $L)",
+                        memberSerializer,
+                        GeneratedSerializers.class,
+                        PROVIDER,
+                        name,
+                        BeanSerializersGenerator.typeExpression(type));
+                write.addStatement("$N.serialize($L, $N, $N)", memberSerializer, memberValue, GENERATOR, PROVIDER);
+                if (member.getType().accept(TypeVisitor.IS_OPTIONAL)) {
+                    usesDefaultInclusion = true;
+                    write = CodeBlock.builder()
+                            .beginControlFlow("if (!$N || $L.isPresent())", EXCLUDE_ABSENT_VALUES, memberValue)
+                            .add(write.build())
+                            .endControlFlow();
+                }
+            }
+
+            if (index == 0) {
+                writeVariant.beginControlFlow("if ($N instanceof $T)", VARIANT, wrapperClass);
+            } else {
+                writeVariant.nextControlFlow("else if ($N instanceof $T)", VARIANT, wrapperClass);
+            }
+            writeVariant
+                    .addStatement("$N.writeString($N)", GENERATOR, nameConstant)
+                    .add(write.build());
+        }
+
+        // Unknown variants are written as they were read, with the type followed by each of the values
+        CodeBlock writeUnknown = CodeBlock.builder()
+                .addStatement("$1T unknown = ($1T) $2N", unknownWrapperClass(), VARIANT)
+                .addStatement("$N.writeString(unknown.type)", GENERATOR)
+                .beginControlFlow(
+                        "for ($T entry : unknown.value.entrySet())",
+                        ParameterizedTypeName.get(
+                                ClassName.get(Map.Entry.class), ClassName.get(String.class), ClassName.OBJECT))
+                .addStatement("$N.writeFieldName(entry.getKey())", GENERATOR)
+                .addStatement("$N.defaultSerializeValue(entry.getValue(), $N)", PROVIDER, GENERATOR)
+                .endControlFlow()
+                .build();
+        if (members.isEmpty()) {
+            writeVariant.add(writeUnknown);
+        } else {
+            writeVariant.nextControlFlow("else").add(writeUnknown).endControlFlow();
+        }
+
+        if (usesDefaultInclusion) {
+            serializer.addField(boolean.class, EXCLUDE_ABSENT_VALUES, Modifier.PRIVATE);
+            resolve.addStatement(
+                    "$N = $T.excludesAbsentValues($N, $T.class)",
+                    EXCLUDE_ABSENT_VALUES,
+                    GeneratedSerializers.class,
+                    PROVIDER,
+                    unionClass);
+        }
+
+        return serializer
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(UnionSerializersGenerator.class))
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", unionClass)
+                        .build())
+                .addMethod(resolve.build())
+                .addMethod(MethodSpec.methodBuilder("serialize")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(unionClass, VALUE)
+                        .addParameter(JsonGenerator.class, GENERATOR)
+                        .addParameter(SerializerProvider.class, PROVIDER)
+                        .addException(IOException.class)
+                        .addStatement("$N.writeStartObject($N)", GENERATOR, VALUE)
+                        .addStatement("$N.writeFieldName($N)", GENERATOR, typeConstant)
+                        .addStatement("$T $N = $N.value", unionClass.nestedClass("Base"), VARIANT, VALUE)
+                        .addCode(writeVariant.build())
+                        .addStatement("$N.writeEndObject()", GENERATOR)
+                        .build())
+                .build();
+    }
+
+    private TypeSpec deserializer() {
+        MethodSpec.Builder resolve = MethodSpec.methodBuilder("resolve")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addException(JsonMappingException.class);
+
+        List<FieldSpec> memberDeserializers = new ArrayList<>(members.size() + 1);
+        CodeBlock.Builder indexCases = CodeBlock.builder();
+        CodeBlock.Builder readCases = CodeBlock.builder();
+        CodeBlock.Builder absentCases = CodeBlock.builder();
+        CodeBlock.Builder createCases = CodeBlock.builder();
+        boolean uncheckedCasts = false;
+        for (int index = 0; index < members.size(); index++) {
+            FieldDefinition member = members.get(index);
+            String name = member.getFieldName().get();
+            TypeName type = typeMapper.getClassName(member.getType());
+            FieldSpec memberDeserializer = FieldSpec.builder(
+                            DESERIALIZER_TYPE, memberVariable(member) + "Deserializer", Modifier.PRIVATE)
+                    .build();
+            memberDeserializers.add(memberDeserializer);
+            resolve.addStatement(
+                    "$N = $T.findDeserializer($N, $S, $L, $T.DEFAULT)",
+                    memberDeserializer,
+                    GeneratedSerializers.class,
+                    CONTEXT,
+                    name,
+                    BeanSerializersGenerator.typeExpression(type),
+                    Nulls.class);
+
+            // Matches the nulls handling of the wrapper constructor parameters, see UnionGenerator
+            boolean nullAsEmpty = TypeFunctions.toConjureTypeWithoutAliases(member.getType(), typesMap)
+                    .accept(DefaultableTypeVisitor.INSTANCE);
+            CodeBlock read = CodeBlock.of(
+                    "$T.$L($N, $N, $N)",
+                    GeneratedSerializers.class,
+                    nullAsEmpty ? "deserializeNullAsEmpty" : "deserialize",
+                    PARSER,
+                    CONTEXT,
+                    memberDeserializer);
+            indexCases
+                    .add("case $S:\n", name)
+                    .indent()
+                    .addStatement("return $L", index)
+                    .unindent();
+            readCases
+                    .add("case $L:\n", index)
+                    .indent()
+                    .addStatement("return $L", BeanSerializersGenerator.fastPath(type, read))
+                    .unindent();
+            absentCases
+                    .add("case $L:\n", index)
+                    .indent()
+                    .addStatement(
+                            "return $N.$L($N)",
+                            memberDeserializer,
+                            nullAsEmpty ? "getEmptyValue" : "getNullValue",
+                            CONTEXT)
+                    .unindent();
+            createCases
+                    .add("case $L:\n", index)
+                    .indent()
+                    .addStatement(
+                            "return new $T(new $T($L))",
+                            unionClass,
+                            wrapperClass(member),
+                            type.equals(ClassName.OBJECT)
+                                    ? CodeBlock.of("$N", VALUE)
+                                    : CodeBlock.of("($T) $N", type, VALUE))
+                    .unindent();
+            uncheckedCasts |= type instanceof ParameterizedTypeName;
+        }
+        FieldSpec unknownDeserializer =
+                FieldSpec.builder(DESERIALIZER_TYPE, "unknownDeserializer", Modifier.PRIVATE).build();
+        memberDeserializers.add(unknownDeserializer);
+        resolve.addStatement(
+                "$N = $T.findDeserializer($N, $S, $T.class, $T.DEFAULT)",
+                unknownDeserializer,
+                GeneratedSerializers.class,
+                CONTEXT,
+                VALUE,
+                Object.class,
+                Nulls.class);
+
+        MethodSpec variantIndex = MethodSpec.methodBuilder("variantIndex")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(String.class, TYPE)
+                .returns(int.class)
+                .beginControlFlow("switch ($N)", TYPE)
+                .addCode(indexCases.build())
+                .addCode("default:\n")
+                .addCode(CodeBlock.builder()
+                        .indent()
+                        .addStatement("return -1")
+                        .unindent()
+                        .build())
+                .endControlFlow()
+                .build();
+        MethodSpec readValue = MethodSpec.methodBuilder("readValue")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addParameter(int.class, VARIANT)
+                .returns(Object.class)
+                .addException(IOException.class)
+                .beginControlFlow("switch ($N)", VARIANT)
+                .addCode(readCases.build())
+                .addCode(unknownVariantIndex())
+                .endControlFlow()
+                .build();
+        MethodSpec absentValue = MethodSpec.methodBuilder("absentValue")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addParameter(int.class, VARIANT)
+                .returns(Object.class)
+                .addException(JsonMappingException.class)
+                .beginControlFlow("switch ($N)", VARIANT)
+                .addCode(absentCases.build())
+                .addCode(unknownVariantIndex())
+                .endControlFlow()
+                .build();
+        MethodSpec.Builder create = MethodSpec.methodBuilder("create")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(int.class, VARIANT)
+                .addParameter(Object.class, VALUE)
+                .returns(unionClass)
+                .beginControlFlow("switch ($N)", VARIANT)
+                .addCode(createCases.build())
+                .addCode(unknownVariantIndex())
+                .endControlFlow();
+        if (uncheckedCasts) {
+            create.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                    .addMember("value", "$S", "unchecked")
+                    .build());
+        }
+        MethodSpec createMethod = create.build();
+
+        MethodSpec deserializeVariant = MethodSpec.methodBuilder("deserializeVariant")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .addParameter(String.class, TYPE)
+                .returns(unionClass)
+                .addException(IOException.class)
+                .addStatement("int $1N = $2N == null ? -1 : $3N($2N)", VARIANT, TYPE, variantIndex)
+                .addStatement("$T $N = null", Object.class, VALUE)
+                .addStatement("boolean $N = false", PRESENT)
+                .addStatement(
+                        "$T $N = $N < 0 ? new $T<>() : null",
+                        UNKNOWN_VALUES_TYPE,
+                        UNKNOWN_VALUES,
+                        VARIANT,
+                        HashMap.class)
+                .beginControlFlow(
+                        "for ($1T token = $2N.nextToken(); token == $1T.FIELD_NAME; token = $2N.nextToken())",
+                        JsonToken.class,
+                        PARSER)
+                .addStatement("$T $N = $N.currentName()", String.class, FIELD_NAME, PARSER)
+                .addStatement("$N.nextToken()", PARSER)
+                .beginControlFlow("try")
+                .beginControlFlow("if ($N >= 0 && $N.equals($N))", VARIANT, FIELD_NAME, TYPE)
+                .addStatement("$N = $N($N, $N, $N)", VALUE, readValue, PARSER, CONTEXT, VARIANT)
+                .addStatement("$N = true", PRESENT)
+                .nextControlFlow("else if ($N < 0 && !$N.equals($S))", VARIANT, FIELD_NAME, TYPE)
+                .addStatement(
+                        "$N.put($N, $T.deserialize($N, $N, $N))",
+                        UNKNOWN_VALUES,
+                        FIELD_NAME,
+                        GeneratedSerializers.class,
+                        PARSER,
+                        CONTEXT,
+                        unknownDeserializer)
+                .nextControlFlow("else")
+                .addStatement("$N.skipChildren()", PARSER)
+                .endControlFlow()
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement(
+                        "throw $T.fieldException(e, $N, $T.class, $N)",
+                        GeneratedSerializers.class,
+                        CONTEXT,
+                        unionClass,
+                        FIELD_NAME)
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("try")
+                .addStatement(
+                        "return $1N < 0 ? new $2T(new $3T($4N, $5N)) : $6N($1N, $7N ? $8N : $9N($10N, $1N))",
+                        VARIANT,
+                        unionClass,
+                        unknownWrapperClass(),
+                        TYPE,
+                        UNKNOWN_VALUES,
+                        createMethod,
+                        PRESENT,
+                        VALUE,
+                        absentValue,
+                        CONTEXT)
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement(
+                        "throw $T.buildException(e, $N, $T.class)", GeneratedSerializers.class, CONTEXT, unionClass)
+                .endControlFlow()
+                .build();
+
+        MethodSpec deserialize = MethodSpec.methodBuilder("deserialize")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(JsonParser.class, PARSER)
+                .addParameter(DeserializationContext.class, CONTEXT)
+                .returns(unionClass)
+                .addException(IOException.class)
+                .addStatement(
+                        "$1T token = $2N.isExpectedStartObjectToken() ? $2N.nextToken() : $2N.currentToken()",
+                        JsonToken.class,
+                        PARSER)
+                .beginControlFlow(
+                        "if (token == $T.FIELD_NAME && $N.currentName().equals($S))", JsonToken.class, PARSER, TYPE)
+                .addComment("The type is usually written first, in which case the variant is read without buffering")
+                .addStatement("$N.nextToken()", PARSER)
+                .addStatement(
+                        "return $N($N, $N, $T.readUnionType($N, $N))",
+                        deserializeVariant,
+                        PARSER,
+                        CONTEXT,
+                        GeneratedSerializers.class,
+                        PARSER,
+                        CONTEXT)
+                .nextControlFlow("else if (token != $1T.FIELD_NAME && token != $1T.END_OBJECT)", JsonToken.class)
+                .addStatement("return ($1T) $2N.handleUnexpectedToken($1T.class, $3N)", unionClass, CONTEXT, PARSER)
+                .endControlFlow()
+                .addStatement("$1T buffer = new $1T($2N, $3N)", TokenBuffer.class, PARSER, CONTEXT)
+                .addStatement("$T $N = null", String.class, TYPE)
+                .beginControlFlow("for (; token == $T.FIELD_NAME; token = $N.nextToken())", JsonToken.class, PARSER)
+                .addStatement("$T $N = $N.currentName()", String.class, FIELD_NAME, PARSER)
+                .addStatement("$N.nextToken()", PARSER)
+                .beginControlFlow("if ($1N == null && $2N.equals($1S))", TYPE, FIELD_NAME)
+                .addStatement("$N = $T.readUnionType($N, $N)", TYPE, GeneratedSerializers.class, PARSER, CONTEXT)
+                .nextControlFlow("else")
+                .addStatement("buffer.writeFieldName($N)", FIELD_NAME)
+                .addStatement("buffer.copyCurrentStructure($N)", PARSER)
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return $N(buffer.asParser($N), $N, $N)", deserializeVariant, PARSER, CONTEXT, TYPE)
+                .build();
+
+        return TypeSpec.classBuilder(BeanSerializersGenerator.DESERIALIZER_CLASS_NAME)
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(ClassName.get(StdDeserializer.class), unionClass))
+                .addSuperinterface(ResolvableDeserializer.class)
+                .addAnnotation(ConjureAnnotations.getConjureGeneratedAnnotation(UnionSerializersGenerator.class))
+                .addFields(memberDeserializers)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addStatement("super($T.class)", unionClass)
+                        .build())
+                .addMethod(resolve.build())
+                .addMethod(deserialize)
+                .addMethod(deserializeVariant)
+                .addMethod(variantIndex)
+                .addMethod(readValue)
+                .addMethod(absentValue)
+                .addMethod(createMethod)
+                .build();
+    }
+
+    private static CodeBlock unknownVariantIndex() {
+        return CodeBlock.builder()
+                .add("default:\n")
+                .indent()
+                .addStatement("throw new $T($S + $N)", IllegalStateException.class, "Unknown variant index: ", VARIANT)
+                .unindent()
+                .build();
+    }
+
+    private static FieldSpec nameConstant(String name) {
+        return FieldSpec.builder(
+                        SerializableString.class,
+                        BeanSerializersGenerator.nameConstant(name),
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                .initializer("new $T($S)", SerializedString.class, name)
+                .build();
+    }
+
+    private static String memberVariable(FieldDefinition member) {
+        return UnionGenerator.sanitizeUnknown(member.getFieldName()).get();
+    }
+
+    private ClassName wrapperClass(FieldDefinition member) {
+        return UnionGenerator.wrapperClass(unionClass, UnionGenerator.sanitizeUnknown(member.getFieldName()));
+    }
+
+    private ClassName unknownWrapperClass() {
+        return unionClass.nestedClass(UnionGenerator.UNKNOWN_WRAPPER_CLASS_NAME);
+    }
+}
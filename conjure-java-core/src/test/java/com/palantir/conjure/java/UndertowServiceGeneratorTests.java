@@ -129,6 +129,32 @@ public final class UndertowServiceGeneratorTests extends TestBase {
         validateGeneratorOutput(files, Paths.get("src/test/resources/test/api"), ".undertow");
     }
 
+    @Test
+    public void testStreamingCollections() throws IOException {
+        ConjureDefinition def =
+                Conjure.parse(ImmutableList.of(new File("src/test/resources/undertow-streaming-endpoint.yml")));
+        List<Path> files = new GenerationCoordinator(
+                        MoreExecutors.directExecutor(),
+                        ImmutableSet.of(new UndertowServiceGenerator(Options.builder()
+                                .undertowStreamingCollections(true)
+                                .build())))
+                .emit(def, tempDir);
+        validateGeneratorOutput(files, Paths.get("src/test/resources/test/api"), ".undertow.streaming");
+    }
+
+    @Test
+    public void testBinaryRequestBodies() throws IOException {
+        ConjureDefinition def =
+                Conjure.parse(ImmutableList.of(new File("src/test/resources/undertow-binary-request-body.yml")));
+        List<Path> files = new GenerationCoordinator(
+                        MoreExecutors.directExecutor(),
+                        ImmutableSet.of(new UndertowServiceGenerator(Options.builder()
+                                .undertowBinaryRequestBodies(true)
+                                .build())))
+                .emit(def, tempDir);
+        validateGeneratorOutput(files, Paths.get("src/test/resources/test/api"), ".undertow.binaryrequest");
+    }
+
     private void testServiceGeneration(String conjureFile) throws IOException {
         ConjureDefinition def = Conjure.parse(ImmutableList.of(new File("src/test/resources/" + conjureFile + ".yml")));
         List<Path> files = new GenerationCoordinator(
@@ -0,0 +1,269 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.java.serialization.ObjectMappers;
+import com.palantir.product.serializers.ConjureJacksonModule;
+import com.palantir.product.serializers.GeneratedSerializersBooleanAlias;
+import com.palantir.product.serializers.GeneratedSerializersDoubleAlias;
+import com.palantir.product.serializers.GeneratedSerializersExample;
+import com.palantir.product.serializers.GeneratedSerializersIntegerAlias;
+import com.palantir.product.serializers.GeneratedSerializersListAlias;
+import com.palantir.product.serializers.GeneratedSerializersOptionalAlias;
+import com.palantir.product.serializers.GeneratedSerializersStringAlias;
+import com.palantir.product.serializers.GeneratedSerializersUnionExample;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class GeneratedSerializersTests {
+
+    private static final GeneratedSerializersExample EXAMPLE = GeneratedSerializersExample.builder()
+            .string("string")
+            .integer(1)
+            .doubleValue(1.5)
+            .booleanValue(true)
+            .optionalItem("optional")
+            .items("item")
+            .map("key", 2)
+            .any(ImmutableMap.of("nested", ImmutableList.of(1, 2)))
+            .build();
+
+    private static final GeneratedSerializersExample MINIMAL = GeneratedSerializersExample.builder()
+            .string("string")
+            .integer(1)
+            .doubleValue(1.5)
+            .booleanValue(false)
+            .any("any")
+            .build();
+
+    private static final ImmutableList<GeneratedSerializersUnionExample> UNIONS = ImmutableList.of(
+            GeneratedSerializersUnionExample.stringValue("string"),
+            GeneratedSerializersUnionExample.integerValue(1),
+            GeneratedSerializersUnionExample.optionalValue(Optional.of("optional")),
+            GeneratedSerializersUnionExample.optionalValue(Optional.empty()),
+            GeneratedSerializersUnionExample.items(ImmutableList.of("item")));
+
+    private static final ImmutableList<Object> ALIASES = ImmutableList.of(
+            GeneratedSerializersStringAlias.of("string"),
+            GeneratedSerializersIntegerAlias.of(1),
+            GeneratedSerializersDoubleAlias.of(1.5),
+            GeneratedSerializersDoubleAlias.of(Double.NaN),
+            GeneratedSerializersBooleanAlias.of(true),
+            GeneratedSerializersListAlias.of(ImmutableList.of("item")),
+            GeneratedSerializersOptionalAlias.of(Optional.of("optional")),
+            GeneratedSerializersOptionalAlias.of(Optional.empty()));
+
+    private final ObjectMapper annotationMapper = ObjectMappers.newServerObjectMapper();
+    private final ObjectMapper generatedMapper =
+            ObjectMappers.newServerObjectMapper().registerModule(new ConjureJacksonModule());
+
+    @Test
+    public void testSerializationMatchesAnnotations() throws Exception {
+        for (GeneratedSerializersExample value : ImmutableList.of(EXAMPLE, MINIMAL)) {
+            assertThat(generatedMapper.writeValueAsString(value)).isEqualTo(annotationMapper.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (GeneratedSerializersExample value : ImmutableList.of(EXAMPLE, MINIMAL)) {
+            String json = annotationMapper.writeValueAsString(value);
+            assertThat(generatedMapper.readValue(json, GeneratedSerializersExample.class)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void testFieldOrder() throws Exception {
+        assertThat(generatedMapper.readValue(
+                        "{\"any\":\"any\",\"booleanValue\":false,\"doubleValue\":1.5,\"integer\":1,"
+                                + "\"string\":\"string\"}",
+                        GeneratedSerializersExample.class))
+                .isEqualTo(MINIMAL);
+        assertThat(generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":1,\"booleanValue\":false,\"doubleValue\":1.5,"
+                                + "\"any\":\"any\"}",
+                        GeneratedSerializersExample.class))
+                .isEqualTo(MINIMAL);
+    }
+
+    @Test
+    public void testRepeatedField() throws Exception {
+        assertThat(generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":1,\"doubleValue\":1.5,\"booleanValue\":false,"
+                                + "\"items\":[\"first\"],\"any\":\"any\",\"items\":[]}",
+                        GeneratedSerializersExample.class))
+                .isEqualTo(MINIMAL);
+    }
+
+    @Test
+    public void testNestedValues() throws Exception {
+        GeneratedSerializersExample[] values = generatedMapper.readValue(
+                generatedMapper.writeValueAsString(new GeneratedSerializersExample[] {EXAMPLE, MINIMAL}),
+                GeneratedSerializersExample[].class);
+        assertThat(values).containsExactly(EXAMPLE, MINIMAL);
+    }
+
+    @Test
+    public void testCoercesScalars() throws Exception {
+        assertThat(generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":\"1\",\"doubleValue\":1.5,\"booleanValue\":false,"
+                                + "\"optionalItem\":null,\"items\":null,\"any\":\"any\"}",
+                        GeneratedSerializersExample.class))
+                .isEqualTo(MINIMAL);
+    }
+
+    @Test
+    public void testUnknownProperty() {
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":1,\"doubleValue\":1.5,\"booleanValue\":false,"
+                                + "\"any\":\"any\",\"unknown\":1}",
+                        GeneratedSerializersExample.class))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    public void testMissingField() {
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":1,\"booleanValue\":false,\"any\":\"any\"}",
+                        GeneratedSerializersExample.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("Some required fields have not been set");
+    }
+
+    @Test
+    public void testNullField() {
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"string\":null,\"integer\":1,\"doubleValue\":1.5,\"booleanValue\":false,\"any\":\"any\"}",
+                        GeneratedSerializersExample.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("string cannot be null");
+    }
+
+    @Test
+    public void testNullCollectionElement() {
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"string\":\"string\",\"integer\":1,\"doubleValue\":1.5,\"booleanValue\":false,"
+                                + "\"any\":\"any\",\"items\":[null]}",
+                        GeneratedSerializersExample.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("Invalid `null` value");
+    }
+
+    @Test
+    public void testUnionSerializationMatchesAnnotations() throws Exception {
+        for (GeneratedSerializersUnionExample value : UNIONS) {
+            assertThat(generatedMapper.writeValueAsString(value)).isEqualTo(annotationMapper.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    public void testUnionRoundTrip() throws Exception {
+        for (GeneratedSerializersUnionExample value : UNIONS) {
+            String json = annotationMapper.writeValueAsString(value);
+            assertThat(generatedMapper.readValue(json, GeneratedSerializersUnionExample.class))
+                    .isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void testUnionTypeAfterValue() throws Exception {
+        assertThat(generatedMapper.readValue(
+                        "{\"stringValue\":\"string\",\"type\":\"stringValue\"}",
+                        GeneratedSerializersUnionExample.class))
+                .isEqualTo(GeneratedSerializersUnionExample.stringValue("string"));
+    }
+
+    @Test
+    public void testUnionNullValue() throws Exception {
+        assertThat(generatedMapper.readValue(
+                        "{\"type\":\"items\",\"items\":null}", GeneratedSerializersUnionExample.class))
+                .isEqualTo(GeneratedSerializersUnionExample.items(ImmutableList.of()));
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"type\":\"stringValue\",\"stringValue\":null}", GeneratedSerializersUnionExample.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("stringValue cannot be null");
+    }
+
+    @Test
+    public void testUnknownUnionVariant() throws Exception {
+        String json = "{\"type\":\"other\",\"other\":{\"nested\":[1,2]}}";
+        GeneratedSerializersUnionExample value =
+                generatedMapper.readValue(json, GeneratedSerializersUnionExample.class);
+        assertThat(value).isEqualTo(annotationMapper.readValue(json, GeneratedSerializersUnionExample.class));
+        assertThat(generatedMapper.writeValueAsString(value)).isEqualTo(json);
+    }
+
+    @Test
+    public void testMissingUnionType() {
+        assertThatThrownBy(() -> generatedMapper.readValue(
+                        "{\"stringValue\":\"string\"}", GeneratedSerializersUnionExample.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("type cannot be null");
+    }
+
+    @Test
+    public void testAliasSerializationMatchesAnnotations() throws Exception {
+        for (Object value : ALIASES) {
+            assertThat(generatedMapper.writeValueAsString(value)).isEqualTo(annotationMapper.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    public void testAliasDeserializationMatchesAnnotations() throws Exception {
+        for (Object value : ALIASES) {
+            String json = annotationMapper.writeValueAsString(value);
+            assertThat(generatedMapper.readValue(json, value.getClass()))
+                    .isEqualTo(annotationMapper.readValue(json, value.getClass()));
+        }
+    }
+
+    @Test
+    public void testAliasCoercesStrings() throws Exception {
+        assertThat(generatedMapper.readValue("\" 1 \"", GeneratedSerializersIntegerAlias.class))
+                .isEqualTo(GeneratedSerializersIntegerAlias.of(1));
+        assertThat(generatedMapper.readValue("\"true\"", GeneratedSerializersBooleanAlias.class))
+                .isEqualTo(GeneratedSerializersBooleanAlias.of(true));
+        assertThat(generatedMapper.readValue("\"Infinity\"", GeneratedSerializersDoubleAlias.class))
+                .isEqualTo(GeneratedSerializersDoubleAlias.of(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testAliasRejectsInvalidStrings() {
+        for (String json : ImmutableList.of("\"\"", "\"null\"", "\"1.5\"")) {
+            assertThatThrownBy(() -> generatedMapper.readValue(json, GeneratedSerializersIntegerAlias.class))
+                    .isInstanceOf(JsonMappingException.class);
+        }
+        for (String json : ImmutableList.of("\"\"", "\"True\"", "\"1\"")) {
+            assertThatThrownBy(() -> generatedMapper.readValue(json, GeneratedSerializersBooleanAlias.class))
+                    .isInstanceOf(JsonMappingException.class);
+        }
+    }
+
+    @Test
+    public void testAliasSafeLongCheck() {
+        assertThatThrownBy(() -> generatedMapper.readValue("9007199254740993", GeneratedSerializersDoubleAlias.class))
+                .isInstanceOf(JsonMappingException.class);
+    }
+}
@@ -100,6 +100,34 @@ public final class ObjectGeneratorTests {
         assertThatFilesAreTheSame(files, REFERENCE_FILES_FOLDER);
     }
 
+    @Test
+    public void testObjectGenerator_generatedSerializers() throws IOException {
+        ConjureDefinition def =
+                Conjure.parse(ImmutableList.of(new File("src/test/resources/example-generated-serializers.yml")));
+        List<Path> files = new GenerationCoordinator(
+                        MoreExecutors.directExecutor(),
+                        ImmutableSet.of(new ObjectGenerator(Options.builder()
+                                .strictObjects(true)
+                                .nonNullCollections(true)
+                                .useGeneratedSerializers(true)
+                                .build())))
+                .emit(def, tempDir);
+
+        assertThat(files)
+                .extracting(file -> file.getFileName().toString())
+                .containsExactlyInAnyOrder(
+                        "GeneratedSerializersExample.java",
+                        "GeneratedSerializersUnionExample.java",
+                        "GeneratedSerializersStringAlias.java",
+                        "GeneratedSerializersIntegerAlias.java",
+                        "GeneratedSerializersDoubleAlias.java",
+                        "GeneratedSerializersBooleanAlias.java",
+                        "GeneratedSerializersListAlias.java",
+                        "GeneratedSerializersOptionalAlias.java",
+                        "ConjureJacksonModule.java");
+        assertThatFilesAreTheSame(files, REFERENCE_FILES_FOLDER);
+    }
+
     @Test
     public void testConjureImports() throws IOException {
         ConjureDefinition conjure = Conjure.parse(ImmutableList.of(
@@ -0,0 +1,279 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.ExceptionHandler;
+import com.palantir.conjure.java.undertow.lib.UndertowRuntime;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link EndpointHandlerWrapper} which sheds load once an endpoint's concurrency limit is exceeded, rejecting
+ * requests with {@link QosException#throttle()} before they're queued for a worker thread. Rejections are handled by
+ * the {@link UndertowRuntime#exceptionHandler()} of the runtime configured on the {@link ConjureHandler}.
+ *
+ * <p>Each endpoint has an independent limit which adapts to observed latency using a gradient: while latency in the
+ * most recent window stays close to the long-term average the limit grows, and as requests begin to queue and latency
+ * rises the limit shrinks proportionally. In-flight requests are tracked using lock-free counters, and the limit is
+ * recomputed by a single request at the end of each window.
+ *
+ * <p>This wrapper should be registered using {@link ConjureHandler.Builder#addWrapperBeforeBlocking} so that
+ * requests are rejected on the IO thread.
+ */
+public final class AdaptiveConcurrencyLimiter implements EndpointHandlerWrapper {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+
+    private AdaptiveConcurrencyLimiter(Builder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    /** Creates a limiter using the default configuration. */
+    public static AdaptiveConcurrencyLimiter create() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Optional<HttpHandler> wrap(Endpoint endpoint) {
+        return wrap(endpoint, ConjureExceptions.INSTANCE);
+    }
+
+    @Override
+    public Optional<HttpHandler> wrap(Endpoint endpoint, UndertowRuntime runtime) {
+        return wrap(endpoint, runtime.exceptionHandler());
+    }
+
+    private Optional<HttpHandler> wrap(Endpoint endpoint, ExceptionHandler exceptionHandler) {
+        return Optional.of(new LimitingHandler(
+                new Limit(initialLimit, minLimit, maxLimit, nanoClock),
+                nanoClock,
+                exceptionHandler,
+                endpoint.handler()));
+    }
+
+    private static final class LimitingHandler implements HttpHandler {
+        private final Limit limit;
+        private final LongSupplier nanoClock;
+        private final ExceptionHandler exceptionHandler;
+        private final HttpHandler rejection;
+        private final HttpHandler next;
+
+        LimitingHandler(Limit limit, LongSupplier nanoClock, ExceptionHandler exceptionHandler, HttpHandler next) {
+            this.limit = limit;
+            this.nanoClock = nanoClock;
+            this.exceptionHandler = exceptionHandler;
+            this.rejection = exchange -> {
+                exchange.startBlocking();
+                exceptionHandler.handle(exchange, QosException.throttle());
+            };
+            this.next = next;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            if (!limit.tryAcquire()) {
+                reject(exchange);
+                return;
+            }
+            long startNanos = nanoClock.getAsLong();
+            exchange.addExchangeCompleteListener(
+                    SafeExchangeCompletionListener.of(_exchange -> limit.release(startNanos)));
+            next.handleRequest(exchange);
+        }
+
+        private void reject(HttpServerExchange exchange) throws Exception {
+            if (exceptionHandler == ConjureExceptions.INSTANCE) {
+                // The default handler writes without blocking unless the exchange is already blocking
+                exceptionHandler.handle(exchange, QosException.throttle());
+            } else if (exchange.isInIoThread()) {
+                // Custom exception handlers may block to write the response, which must not happen on the IO thread
+                exchange.dispatch(rejection);
+            } else {
+                rejection.handleRequest(exchange);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static final class Limit {
+        private static final long WINDOW_NANOS = 250_000_000L;
+        private static final int MIN_WINDOW_SAMPLES = 10;
+        /** Latency may increase by up to this factor before the limit is reduced. */
+        private static final double TOLERANCE = 1.5;
+        /** Limits are adjusted gradually to avoid oscillation. */
+        private static final double SMOOTHING = 0.2;
+        /** Weight of each window when updating the long-term latency average. */
+        private static final double LONG_RTT_WEIGHT = 0.05;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final LongSupplier nanoClock;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicLong windowRttNanos = new AtomicLong();
+        private final AtomicInteger windowSamples = new AtomicInteger();
+        private final AtomicLong windowEndNanos;
+
+        // Only written by the request which completes a window
+        private volatile double estimatedLimit;
+        private volatile int limit;
+        private double longRttNanos;
+
+        Limit(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.nanoClock = nanoClock;
+            this.estimatedLimit = initialLimit;
+            this.limit = initialLimit;
+            this.windowEndNanos = new AtomicLong(nanoClock.getAsLong() + WINDOW_NANOS);
+        }
+
+        int getLimit() {
+            return limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    int previousMax = maxInFlight.get();
+                    if (current + 1 > previousMax) {
+                        // Losing this race only under-reports utilization by one request
+                        maxInFlight.compareAndSet(previousMax, current + 1);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        void release(long startNanos) {
+            inFlight.decrementAndGet();
+            long nowNanos = nanoClock.getAsLong();
+            windowRttNanos.addAndGet(nowNanos - startNanos);
+            int samples = windowSamples.incrementAndGet();
+            long windowEnd = windowEndNanos.get();
+            if (nowNanos - windowEnd >= 0
+                    && samples >= MIN_WINDOW_SAMPLES
+                    && windowEndNanos.compareAndSet(windowEnd, nowNanos + WINDOW_NANOS)) {
+                updateLimit();
+            }
+        }
+
+        private void updateLimit() {
+            int samples = windowSamples.getAndSet(0);
+            long rttNanos = windowRttNanos.getAndSet(0);
+            int utilization = maxInFlight.getAndSet(inFlight.get());
+            if (samples == 0) {
+                return;
+            }
+            double shortRttNanos = (double) rttNanos / samples;
+            if (longRttNanos == 0) {
+                longRttNanos = shortRttNanos;
+            } else {
+                longRttNanos = longRttNanos * (1 - LONG_RTT_WEIGHT) + shortRttNanos * LONG_RTT_WEIGHT;
+            }
+            double currentEstimate = estimatedLimit;
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(1, shortRttNanos)));
+            double newEstimate;
+            if (gradient == 1.0 && utilization < currentEstimate / 2) {
+                // The endpoint isn't using the current limit, there's no evidence it can support a larger one
+                newEstimate = currentEstimate;
+            } else {
+                double queueSize = Math.sqrt(currentEstimate);
+                newEstimate = currentEstimate * gradient + queueSize;
+                newEstimate = currentEstimate * (1 - SMOOTHING) + newEstimate * SMOOTHING;
+            }
+            newEstimate = Math.max(minLimit, Math.min(maxLimit, newEstimate));
+            estimatedLimit = newEstimate;
+            limit = (int) newEstimate;
+        }
+    }
+
+    public static final class Builder {
+
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder() {}
+
+        /** Concurrency limit applied to each endpoint before any latency has been observed. */
+        @CanIgnoreReturnValue
+        public Builder initialLimit(int value) {
+            this.initialLimit = value;
+            return this;
+        }
+
+        /** Lower bound for each endpoint's concurrency limit. */
+        @CanIgnoreReturnValue
+        public Builder minLimit(int value) {
+            this.minLimit = value;
+            return this;
+        }
+
+        /** Upper bound for each endpoint's concurrency limit. */
+        @CanIgnoreReturnValue
+        public Builder maxLimit(int value) {
+            this.maxLimit = value;
+            return this;
+        }
+
+        @VisibleForTesting
+        @CanIgnoreReturnValue
+        Builder nanoClock(LongSupplier value) {
+            this.nanoClock = Preconditions.checkNotNull(value, "Clock is required");
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() {
+            Preconditions.checkArgument(
+                    minLimit > 0, "Minimum limit must be positive", SafeArg.of("minLimit", minLimit));
+            Preconditions.checkArgument(
+                    minLimit <= initialLimit && initialLimit <= maxLimit,
+                    "Initial limit must be between the minimum and maximum limits",
+                    SafeArg.of("minLimit", minLimit),
+                    SafeArg.of("initialLimit", initialLimit),
+                    SafeArg.of("maxLimit", maxLimit));
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.undertow.lib.AsyncBinaryResponseBody;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.xnio.ChannelListener;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * Sends {@link AsyncBinaryResponseBody} responses from the IO thread. Chunks are pulled from the body only when the
+ * response channel is writable, and the exchange is suspended while the client catches up, so slow clients don't
+ * hold worker threads.
+ */
+final class AsyncBinaryResponses {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(AsyncBinaryResponses.class);
+
+    private AsyncBinaryResponses() {}
+
+    static void send(HttpServerExchange exchange, AsyncBinaryResponseBody body) throws IOException {
+        body.contentLength().ifPresent(exchange::setResponseContentLength);
+        // The request body cannot be drained without blocking once the exchange moves to the IO thread
+        ConjureBodySerDe.safelyDrainRequestBody(exchange);
+        StreamSinkChannel channel = exchange.getResponseChannel();
+        if (channel == null) {
+            // The response stream is already in use
+            body.write(exchange.getOutputStream());
+            return;
+        }
+        ChunkWriter writer = new ChunkWriter(exchange, body);
+        exchange.addExchangeCompleteListener(writer);
+        // Dispatching prevents the exchange from completing when the endpoint handler returns, writes begin on the
+        // IO thread once the handler has returned.
+        exchange.dispatch(exchange.getIoThread(), () -> {
+            channel.getWriteSetter().set(writer);
+            writer.handleEvent(channel);
+        });
+    }
+
+    private static final class ChunkWriter
+            implements ChannelListener<StreamSinkChannel>, ExchangeCompletionListener {
+
+        private final HttpServerExchange exchange;
+        private final AsyncBinaryResponseBody body;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private ByteBuffer chunk;
+
+        ChunkWriter(HttpServerExchange exchange, AsyncBinaryResponseBody body) {
+            this.exchange = exchange;
+            this.body = body;
+        }
+
+        @Override
+        public void handleEvent(StreamSinkChannel channel) {
+            try {
+                while (true) {
+                    if (chunk == null || !chunk.hasRemaining()) {
+                        chunk = body.nextChunk();
+                        if (chunk == null) {
+                            channel.suspendWrites();
+                            channel.getWriteSetter().set(null);
+                            exchange.endExchange();
+                            return;
+                        }
+                    } else if (channel.write(chunk) == 0) {
+                        channel.resumeWrites();
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The response has been committed, the connection must be closed to signal the failure to the client
+                log.debug("Failed to write binary response", e);
+                channel.getWriteSetter().set(null);
+                IoUtils.safeClose(exchange.getConnection());
+                exchange.endExchange();
+            }
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange completed, NextListener nextListener) {
+            try {
+                if (closed.compareAndSet(false, true)) {
+                    body.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to close binary response body", e);
+            } finally {
+                nextListener.proceed();
+            }
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Deserializer;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import io.undertow.server.Connectors;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.ResponseCodeHandler;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import io.undertow.util.PathTemplateMatch;
+import io.undertow.util.StatusCodes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import org.xnio.XnioExecutor;
+
+/**
+ * Handles the optional batch endpoint, see {@link ConjureHandler.Builder#batchEndpoint(String)}, which executes many
+ * endpoint calls from a single HTTP request. The request body is a JSON array of calls:
+ *
+ * <pre>{@code
+ * [{"service": "MyService", "endpoint": "getThing", "pathParams": {"id": "1"}, "queryParams": {"q": ["a"]}},
+ *  {"service": "MyService", "endpoint": "putThing", "pathParams": {"id": "2"}, "body": {"value": 2}}]
+ * }</pre>
+ *
+ * <p>Each call is executed as an individual request to the named endpoint, using the same handler chain as requests
+ * sent directly to the endpoint, so calls are authorized, traced, measured and dispatched to request threads in
+ * parallel. Calls share the headers of the batch request, except for those describing the batch body. The response is
+ * a JSON array with a result for each call, in the order of the calls, containing the response status and the JSON
+ * response body if there is one, for example a Conjure {@code SerializableError}. Other response bodies are encoded
+ * as base64 strings along with their {@code contentType}. Results are streamed as soon as each result and all
+ * preceding results have completed.
+ *
+ * <p>Only JSON request and response bodies are supported. Calls can't address the batch endpoint itself, and must
+ * provide exactly the path parameters of the endpoint template. Endpoints which share a service and endpoint name with
+ * another endpoint can't be called. Batches are bounded by {@value #MAX_CALLS} calls. Calls which don't complete within
+ * the call timeout have the status {@code 503}, as do calls whose response would exceed
+ * {@value #MAX_BATCH_RESPONSE_BYTES} bytes for the whole batch, while responses larger than
+ * {@value #MAX_CALL_RESPONSE_BYTES} bytes have the status {@code 413}. The batch request doesn't occupy a request
+ * thread while it waits for its calls to complete, and writes results using the same executor as its blocking handler.
+ */
+final class BatchHandler implements HttpHandler {
+
+    /** Limits the amount of work and memory a single batch request may demand. */
+    static final int MAX_CALLS = 100;
+
+    /** Limits the response content captured for a single call. */
+    static final int MAX_CALL_RESPONSE_BYTES = 1024 * 1024;
+
+    /** Limits the response content captured for all calls of a batch which haven't been written yet. */
+    static final long MAX_BATCH_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    static final String SERVICE_NAME = "ConjureBatch";
+
+    static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final SafeLogger log = SafeLoggerFactory.get(BatchHandler.class);
+    private static final TypeMarker<List<BatchCall>> CALLS = new TypeMarker<>() {};
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    // Matches the path parameters of endpoint templates, see ConjureRouter
+    private static final Pattern PATH_PARAMETER = Pattern.compile("\\{([^}:]*)(?::\\.\\+)?}");
+    private static final BatchResult TIMED_OUT = new BatchResult(StatusCodes.SERVICE_UNAVAILABLE, null, new byte[0]);
+    // Headers which describe the batch request body rather than the request context
+    private static final ImmutableSet<HttpString> EXCLUDED_HEADERS = ImmutableSet.of(
+            Headers.CONTENT_LENGTH,
+            Headers.CONTENT_TYPE,
+            Headers.CONTENT_ENCODING,
+            Headers.TRANSFER_ENCODING,
+            Headers.CONNECTION,
+            Headers.EXPECT,
+            Headers.ACCEPT,
+            Headers.ACCEPT_ENCODING,
+            Headers.IF_NONE_MATCH,
+            Headers.RANGE,
+            Headers.IF_RANGE);
+
+    private final Deserializer<List<BatchCall>> deserializer;
+    // Empty when the service and endpoint name is shared by multiple endpoints
+    private final ImmutableTable<String, String, Optional<BatchTarget>> targets;
+    private final Duration callTimeout;
+
+    @Nullable
+    private final Executor executor;
+
+    private BatchHandler(
+            Duration callTimeout, @Nullable Executor executor, BodySerDe bodySerDe, List<Endpoint> endpoints) {
+        this.deserializer = bodySerDe.deserializer(CALLS);
+        Table<String, String, Optional<BatchTarget>> byName = HashBasedTable.create();
+        for (Endpoint endpoint : endpoints) {
+            if (byName.contains(endpoint.serviceName(), endpoint.name())) {
+                log.warn(
+                        "Endpoints share a service and endpoint name, so they can't be called from batch requests",
+                        SafeArg.of("service", endpoint.serviceName()),
+                        SafeArg.of("endpoint", endpoint.name()));
+                byName.put(endpoint.serviceName(), endpoint.name(), Optional.empty());
+            } else {
+                byName.put(endpoint.serviceName(), endpoint.name(), Optional.of(new BatchTarget(endpoint)));
+            }
+        }
+        this.targets = ImmutableTable.copyOf(byName);
+        this.callTimeout = callTimeout;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the batch endpoint with the given {@code template}, which executes calls to the given fully wrapped
+     * {@code endpoints}, each of which must complete within {@code callTimeout}. Results are written using the
+     * executor which {@code executors} selects for the batch endpoint, or the server's worker pool if there is none.
+     */
+    static Endpoint endpoint(
+            String template,
+            Duration callTimeout,
+            Function<Endpoint, Optional<Executor>> executors,
+            BodySerDe bodySerDe,
+            List<Endpoint> endpoints) {
+        Endpoint endpoint = Endpoint.builder()
+                .method(Methods.POST)
+                .template(template)
+                .serviceName(SERVICE_NAME)
+                .name("batch")
+                .handler(ResponseCodeHandler.HANDLE_404)
+                .build();
+        return Endpoint.builder()
+                .from(endpoint)
+                .handler(new BatchHandler(
+                        callTimeout, executors.apply(endpoint).orElse(null), bodySerDe, endpoints))
+                .build();
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws IOException {
+        List<BatchCall> calls = deserializer.deserialize(exchange);
+        Preconditions.checkArgument(
+                calls.size() <= MAX_CALLS,
+                "Too many calls in batch request",
+                SafeArg.of("calls", calls.size()),
+                SafeArg.of("maxCalls", MAX_CALLS));
+        // Resolve every call before executing any, so that invalid batches have no side effects
+        List<Endpoint> resolved = calls.stream().map(this::resolve).collect(ImmutableList.toImmutableList());
+        // Response content is only captured while this budget allows, so a batch can't buffer unbounded responses
+        AtomicLong remainingResponseBytes = new AtomicLong(MAX_BATCH_RESPONSE_BYTES);
+        ImmutableList.Builder<ListenableFuture<BatchResult>> results = ImmutableList.builder();
+        for (int i = 0; i < calls.size(); i++) {
+            results.add(execute(exchange, resolved.get(i), calls.get(i), remainingResponseBytes));
+        }
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, JSON_CONTENT_TYPE);
+        JsonGenerator generator = JSON.createGenerator(exchange.getOutputStream());
+        generator.writeStartArray();
+        writeResults(exchange, generator, results.build(), 0, remainingResponseBytes);
+    }
+
+    private Endpoint resolve(BatchCall call) {
+        Optional<BatchTarget> maybeTarget = targets.get(call.service, call.endpoint);
+        if (maybeTarget == null) {
+            throw new SafeIllegalArgumentException(
+                    "Batch request refers to an unknown endpoint",
+                    SafeArg.of("service", call.service),
+                    SafeArg.of("endpoint", call.endpoint));
+        }
+        BatchTarget target = maybeTarget.orElseThrow(() -> new SafeIllegalArgumentException(
+                "Batch request refers to an endpoint name which is shared by multiple endpoints",
+                SafeArg.of("service", call.service),
+                SafeArg.of("endpoint", call.endpoint)));
+        if (!target.pathParameters.equals(call.pathParams.keySet())) {
+            throw new SafeIllegalArgumentException(
+                    "Batch request path parameters do not match the endpoint",
+                    SafeArg.of("service", call.service),
+                    SafeArg.of("endpoint", call.endpoint),
+                    SafeArg.of("expected", target.pathParameters),
+                    UnsafeArg.of("pathParams", call.pathParams.keySet()));
+        }
+        return target.endpoint;
+    }
+
+    /**
+     * Writes the completed results starting at {@code from}, then waits for the next result without occupying a
+     * thread. Results are streamed in order, so a result is written once it and all preceding results have completed.
+     */
+    private void writeResults(
+            HttpServerExchange exchange,
+            JsonGenerator generator,
+            List<ListenableFuture<BatchResult>> results,
+            int from,
+            AtomicLong remainingResponseBytes)
+            throws IOException {
+        int next = from;
+        while (next < results.size() && results.get(next).isDone()) {
+            // Results are set rather than failed, and are already done, so this doesn't block
+            BatchResult result = Futures.getUnchecked(results.get(next));
+            result.write(generator);
+            remainingResponseBytes.addAndGet(result.body.length);
+            next++;
+        }
+        if (next == results.size()) {
+            generator.writeEndArray();
+            generator.close();
+            return;
+        }
+        generator.flush();
+        int pending = next;
+        // Dispatching keeps the exchange open once this handler returns, and defers registering the listener until
+        // it has returned, see ConjureAsyncRequestProcessing. Results are written using the blocking executor of the
+        // batch endpoint, so batches are isolated in the same way as other requests.
+        HttpHandler continuation =
+                serverExchange -> writeResults(serverExchange, generator, results, pending, remainingResponseBytes);
+        exchange.dispatch(() -> results.get(pending)
+                .addListener(() -> exchange.dispatch(executor, continuation), MoreExecutors.directExecutor()));
+    }
+
+    private ListenableFuture<BatchResult> execute(
+            HttpServerExchange exchange, Endpoint endpoint, BatchCall call, AtomicLong remainingResponseBytes) {
+        SettableFuture<BatchResult> result = SettableFuture.create();
+        BatchItemConnection connection = new BatchItemConnection(
+                exchange.getConnection(),
+                MAX_CALL_RESPONSE_BYTES,
+                remainingResponseBytes,
+                status -> result.set(new BatchResult(status, null, new byte[0])));
+        HttpServerExchange item = new HttpServerExchange(
+                connection, requestHeaders(exchange, call), new HeaderMap(), exchange.getMaxEntitySize());
+        item.setProtocol(exchange.getProtocol());
+        item.setRequestScheme(exchange.getRequestScheme());
+        item.setRequestMethod(endpoint.method());
+        item.setRequestURI(endpoint.template());
+        item.setRequestPath(endpoint.template());
+        item.setRelativePath(endpoint.template());
+        item.setSourceAddress(exchange.getSourceAddress());
+        call.queryParams.forEach((name, values) -> values.forEach(value -> item.addQueryParam(name, value)));
+        item.putAttachment(
+                PathTemplateMatch.ATTACHMENT_KEY,
+                new PathTemplateMatch(endpoint.template(), new HashMap<>(call.pathParams)));
+        if (call.body != null) {
+            // The body has already been parsed, as if by the NonBlockingRequestBodyHandler
+            item.putAttachment(ParsedRequestBody.KEY, ParsedRequestBody.of(call.body, false));
+        }
+        Connectors.setRequestStartTime(item);
+        Connectors.terminateRequest(item);
+        item.addExchangeCompleteListener(SafeExchangeCompletionListener.of(completed -> result.set(new BatchResult(
+                completed.getStatusCode(),
+                completed.getResponseHeaders().getFirst(Headers.CONTENT_TYPE),
+                connection.responseBody()))));
+        // Calls which don't complete in time are reported as unavailable, without waiting for them to complete, and
+        // their response content is discarded from then on
+        XnioExecutor.Key timeout = exchange.getIoThread()
+                .executeAfter(
+                        () -> {
+                            if (result.set(TIMED_OUT)) {
+                                connection.discardResponse();
+                            }
+                        },
+                        callTimeout.toMillis(),
+                        TimeUnit.MILLISECONDS);
+        result.addListener(timeout::remove, MoreExecutors.directExecutor());
+        // Calls begin on the IO thread like any other request, so blocking handlers are dispatched to request
+        // threads and calls execute in parallel.
+        exchange.getIoThread().execute(() -> Connectors.executeRootHandler(endpoint.handler(), item));
+        return result;
+    }
+
+    private static ImmutableSet<String> pathParameters(String template) {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        Matcher matcher = PATH_PARAMETER.matcher(template);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names.build();
+    }
+
+    private static HeaderMap requestHeaders(HttpServerExchange exchange, BatchCall call) {
+        HeaderMap headers = new HeaderMap();
+        for (HeaderValues values : exchange.getRequestHeaders()) {
+            if (!EXCLUDED_HEADERS.contains(values.getHeaderName())) {
+                headers.putAll(values.getHeaderName(), values);
+            }
+        }
+        headers.put(Headers.ACCEPT, JSON_CONTENT_TYPE);
+        if (call.body != null) {
+            headers.put(Headers.CONTENT_TYPE, JSON_CONTENT_TYPE);
+        }
+        return headers;
+    }
+
+    private static final class BatchTarget {
+        private final Endpoint endpoint;
+        private final ImmutableSet<String> pathParameters;
+
+        BatchTarget(Endpoint endpoint) {
+            this.endpoint = endpoint;
+            this.pathParameters = pathParameters(endpoint.template());
+        }
+    }
+
+    private static final class BatchCall {
+        private final String service;
+        private final String endpoint;
+        private final Map<String, String> pathParams;
+        private final Map<String, List<String>> queryParams;
+
+        @Nullable
+        private final TokenBuffer body;
+
+        @JsonCreator
+        BatchCall(
+                @JsonProperty(value = "service", required = true) String service,
+                @JsonProperty(value = "endpoint", required = true) String endpoint,
+                @JsonProperty("pathParams") @Nullable Map<String, String> pathParams,
+                @JsonProperty("queryParams") @Nullable Map<String, List<String>> queryParams,
+                @JsonProperty("body") @Nullable TokenBuffer body) {
+            this.service = Preconditions.checkNotNull(service, "service is required");
+            this.endpoint = Preconditions.checkNotNull(endpoint, "endpoint is required");
+            this.pathParams = pathParams == null ? ImmutableMap.of() : pathParams;
+            this.queryParams = queryParams == null ? ImmutableMap.of() : queryParams;
+            this.body = body;
+        }
+
+        @Override
+        public String toString() {
+            return "BatchCall{service=" + service + ", endpoint=" + endpoint + '}';
+        }
+    }
+
+    private static final class BatchResult {
+        private final int status;
+
+        @Nullable
+        private final String contentType;
+
+        private final byte[] body;
+
+        BatchResult(int status, @Nullable String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("status", status);
+            if (body.length > 0) {
+                if (contentType != null && contentType.startsWith(JSON_CONTENT_TYPE)) {
+                    generator.writeFieldName("body");
+                    generator.writeRawValue(new String(body, StandardCharsets.UTF_8));
+                } else {
+                    generator.writeStringField("contentType", contentType);
+                    generator.writeBinaryField("body", body);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.UndertowOptions;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.Connectors;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.HttpUpgradeListener;
+import io.undertow.server.SSLSessionInfo;
+import io.undertow.server.ServerConnection;
+import io.undertow.util.StatusCodes;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLSession;
+import org.xnio.ChannelListener;
+import org.xnio.ChannelListeners;
+import org.xnio.IoUtils;
+import org.xnio.Option;
+import org.xnio.OptionMap;
+import org.xnio.Pool;
+import org.xnio.StreamConnection;
+import org.xnio.XnioIoThread;
+import org.xnio.XnioWorker;
+import org.xnio.channels.StreamSourceChannel;
+import org.xnio.conduits.AbstractStreamSinkConduit;
+import org.xnio.conduits.ConduitStreamSinkChannel;
+import org.xnio.conduits.ConduitStreamSourceChannel;
+import org.xnio.conduits.ConduitWritableByteChannel;
+import org.xnio.conduits.Conduits;
+import org.xnio.conduits.EmptyStreamSourceConduit;
+import org.xnio.conduits.NullStreamSinkConduit;
+import org.xnio.conduits.StreamSinkConduit;
+
+/**
+ * An in-memory {@link ServerConnection} for a single request of a batch, see {@link BatchHandler}. The request body
+ * is always empty because batch request bodies are provided pre-parsed, and response content is captured in memory
+ * rather than written to a socket, up to a limit for each call and a limit shared by the batch. Everything else,
+ * including the IO thread, worker and buffer pool, is shared with the connection which sent the batch. Each connection
+ * carries a single request, so it is closed once that request completes, without closing the connection which sent
+ * the batch.
+ */
+final class BatchItemConnection extends ServerConnection {
+
+    private final ServerConnection parent;
+    private final OptionMap undertowOptions;
+    private final ConduitStreamSinkChannel sinkChannel;
+    private final ConduitStreamSourceChannel sourceChannel;
+    private final int maxResponseBytes;
+    private final AtomicLong remainingBatchBytes;
+    private final IntConsumer overflow;
+    private final Object lock = new Object();
+
+    // Null once response content is discarded, guarded by lock
+    @Nullable
+    private ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+    // Scratch space for copying direct buffers, guarded by lock
+    @Nullable
+    private byte[] scratch;
+
+    private final List<CloseListener> closeListeners = new CopyOnWriteArrayList<>();
+    private final ChannelListener.SimpleSetter<BatchItemConnection> closeSetter = new ChannelListener.SimpleSetter<>();
+    private volatile boolean open = true;
+
+    /**
+     * Creates a connection which captures at most {@code maxResponseBytes} of response content, reserved from
+     * {@code remainingBatchBytes}. Once either is exhausted, response content is discarded and {@code overflow} is
+     * called with the status describing the failure.
+     */
+    BatchItemConnection(
+            ServerConnection parent, int maxResponseBytes, AtomicLong remainingBatchBytes, IntConsumer overflow) {
+        this.parent = parent;
+        this.maxResponseBytes = maxResponseBytes;
+        this.remainingBatchBytes = remainingBatchBytes;
+        this.overflow = overflow;
+        // Path parameters are provided decoded, they must not be decoded again
+        this.undertowOptions = OptionMap.builder()
+                .addAll(parent.getUndertowOptions())
+                .set(UndertowOptions.DECODE_URL, true)
+                .getMap();
+        this.sinkChannel = new ConduitStreamSinkChannel(null, new NullStreamSinkConduit(parent.getIoThread()));
+        this.sourceChannel =
+                new ConduitStreamSourceChannel(null, new EmptyStreamSourceConduit(parent.getIoThread()));
+    }
+
+    /** Returns the response content written so far, which is empty once response content has been discarded. */
+    byte[] responseBody() {
+        synchronized (lock) {
+            return response == null ? new byte[0] : response.toByteArray();
+        }
+    }
+
+    /** Discards response content written so far and from now on, returning its space to the batch. */
+    void discardResponse() {
+        synchronized (lock) {
+            if (response != null) {
+                remainingBatchBytes.addAndGet(response.size());
+                response = null;
+                scratch = null;
+            }
+        }
+    }
+
+    /** Captures response content, returning the failure status if it exceeds the limits, otherwise zero. */
+    private int capture(ByteBuffer src) {
+        int length = src.remaining();
+        synchronized (lock) {
+            if (response == null) {
+                return 0;
+            }
+            if (response.size() + length > maxResponseBytes) {
+                discardResponse();
+                return StatusCodes.REQUEST_ENTITY_TOO_LARGE;
+            }
+            if (remainingBatchBytes.addAndGet(-length) < 0) {
+                remainingBatchBytes.addAndGet(length);
+                discardResponse();
+                return StatusCodes.SERVICE_UNAVAILABLE;
+            }
+            if (src.hasArray()) {
+                response.write(src.array(), src.arrayOffset() + src.position(), length);
+            } else {
+                if (scratch == null) {
+                    scratch = new byte[Math.min(getBufferSize(), maxResponseBytes)];
+                }
+                while (src.hasRemaining()) {
+                    int chunk = Math.min(src.remaining(), scratch.length);
+                    src.get(scratch, 0, chunk);
+                    response.write(scratch, 0, chunk);
+                }
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public Pool<ByteBuffer> getBufferPool() {
+        return parent.getBufferPool();
+    }
+
+    @Override
+    public ByteBufferPool getByteBufferPool() {
+        return parent.getByteBufferPool();
+    }
+
+    @Override
+    public XnioWorker getWorker() {
+        return parent.getWorker();
+    }
+
+    @Override
+    public XnioIoThread getIoThread() {
+        return parent.getIoThread();
+    }
+
+    @Override
+    public HttpServerExchange sendOutOfBandResponse(HttpServerExchange _exchange) {
+        throw new UnsupportedOperationException("Batch requests do not support out of band responses");
+    }
+
+    @Override
+    public boolean isContinueResponseSupported() {
+        return false;
+    }
+
+    @Override
+    public void terminateRequestChannel(HttpServerExchange _exchange) {}
+
+    @Override
+    public boolean isOpen() {
+        return open && parent.isOpen();
+    }
+
+    @Override
+    public boolean supportsOption(Option<?> option) {
+        return parent.supportsOption(option);
+    }
+
+    @Override
+    public <T> T getOption(Option<T> option) throws IOException {
+        return parent.getOption(option);
+    }
+
+    /** Options belong to the connection which sent the batch, so they are not modified by individual requests. */
+    @Override
+    public <T> T setOption(Option<T> option, T _value) throws IOException {
+        return parent.getOption(option);
+    }
+
+    /** Failed batch requests must not close the connection shared by the rest of the batch. */
+    @Override
+    public void close() {}
+
+    @Override
+    public ChannelListener.Setter<? extends ServerConnection> getCloseSetter() {
+        return closeSetter;
+    }
+
+    @Nullable
+    @Override
+    public SSLSession getSslSession() {
+        return parent.getSslSession();
+    }
+
+    @Override
+    public SocketAddress getPeerAddress() {
+        return parent.getPeerAddress();
+    }
+
+    @Override
+    public <A extends SocketAddress> A getPeerAddress(Class<A> type) {
+        return parent.getPeerAddress(type);
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return parent.getLocalAddress();
+    }
+
+    @Override
+    public <A extends SocketAddress> A getLocalAddress(Class<A> type) {
+        return parent.getLocalAddress(type);
+    }
+
+    @Override
+    public OptionMap getUndertowOptions() {
+        return undertowOptions;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return parent.getBufferSize();
+    }
+
+    @Override
+    public SSLSessionInfo getSslSessionInfo() {
+        return parent.getSslSessionInfo();
+    }
+
+    @Override
+    public void setSslSessionInfo(SSLSessionInfo sessionInfo) {
+        parent.setSslSessionInfo(sessionInfo);
+    }
+
+    @Override
+    public void addCloseListener(CloseListener listener) {
+        closeListeners.add(listener);
+    }
+
+    @Override
+    protected StreamConnection upgradeChannel() {
+        throw new UnsupportedOperationException("Batch requests cannot be upgraded");
+    }
+
+    @Override
+    protected ConduitStreamSinkChannel getSinkChannel() {
+        return sinkChannel;
+    }
+
+    @Override
+    protected ConduitStreamSourceChannel getSourceChannel() {
+        return sourceChannel;
+    }
+
+    @Override
+    protected StreamSinkConduit getSinkConduit(HttpServerExchange exchange, StreamSinkConduit conduit) {
+        return new CapturingConduit(exchange, conduit);
+    }
+
+    @Override
+    protected boolean isUpgradeSupported() {
+        return false;
+    }
+
+    @Override
+    protected boolean isConnectSupported() {
+        return false;
+    }
+
+    @Override
+    protected void exchangeComplete(HttpServerExchange _exchange) {
+        open = false;
+        for (CloseListener listener : closeListeners) {
+            listener.closed(this);
+        }
+        ChannelListeners.invokeChannelListener(this, closeSetter.get());
+    }
+
+    @Override
+    protected void setUpgradeListener(HttpUpgradeListener _listener) {
+        throw new UnsupportedOperationException("Batch requests cannot be upgraded");
+    }
+
+    @Override
+    protected void setConnectListener(HttpUpgradeListener _listener) {
+        throw new UnsupportedOperationException("Batch requests cannot be upgraded");
+    }
+
+    @Override
+    protected void maxEntitySizeUpdated(HttpServerExchange _exchange) {}
+
+    @Override
+    public String getTransportProtocol() {
+        return parent.getTransportProtocol();
+    }
+
+    @Override
+    public boolean isRequestTrailerFieldsSupported() {
+        return false;
+    }
+
+    /**
+     * Copies response content into memory. Terminating writes completes the response, which is otherwise done by the
+     * HTTP framing conduits of a real connection.
+     */
+    private final class CapturingConduit extends AbstractStreamSinkConduit<StreamSinkConduit> {
+        private final HttpServerExchange exchange;
+
+        CapturingConduit(HttpServerExchange exchange, StreamSinkConduit next) {
+            super(next);
+            this.exchange = exchange;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            int failure = capture(src);
+            // Content is consumed even once it's discarded, so that the handler completes normally
+            src.position(src.limit());
+            if (failure != 0) {
+                overflow.accept(failure);
+            }
+            return remaining;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offs, int len) {
+            long written = 0;
+            for (int i = offs; i < offs + len; i++) {
+                written += write(srcs[i]);
+            }
+            return written;
+        }
+
+        @Override
+        public int writeFinal(ByteBuffer src) throws IOException {
+            return Conduits.writeFinalBasic(this, src);
+        }
+
+        @Override
+        public long writeFinal(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            return Conduits.writeFinalBasic(this, srcs, offs, len);
+        }
+
+        @Override
+        public long transferFrom(FileChannel src, long position, long count) throws IOException {
+            return src.transferTo(position, count, new ConduitWritableByteChannel(this));
+        }
+
+        @Override
+        public long transferFrom(StreamSourceChannel source, long count, ByteBuffer throughBuffer)
+                throws IOException {
+            return IoUtils.transfer(source, count, throughBuffer, new ConduitWritableByteChannel(this));
+        }
+
+        @Override
+        public void terminateWrites() throws IOException {
+            super.terminateWrites();
+            Connectors.terminateResponse(exchange);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.ExceptionHandler;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.SameThreadExecutor;
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A dedicated pool of request threads for a subset of endpoints, selected by {@link Endpoint#serviceName()} or by
+ * {@link Endpoint#tags()}, so that slow endpoints cannot starve the request threads used by every other endpoint.
+ * Bulkheads are registered using {@link ConjureHandler.Builder#addBulkhead(Bulkhead)}, and endpoints matching a
+ * bulkhead are dispatched to its threads instead of the shared worker pool.
+ *
+ * <p>Each bulkhead runs at most {@code maxThreads} requests concurrently and queues at most
+ * {@code maxQueuedRequests} more. Further requests are rejected with the configured {@link QosException},
+ * {@link QosException#throttle()} by default, before any endpoint code runs. Rejections are written by the
+ * {@link UndertowRuntime#exceptionHandler()} of the runtime configured on the {@link ConjureHandler}.
+ *
+ * <p>Bulkheads create their own threads unless an {@link Builder#executor(Executor) executor} is provided. Bulkhead
+ * threads are released by {@link #close()} once the server has stopped.
+ */
+public final class Bulkhead implements Closeable {
+
+    private final String name;
+    private final ImmutableSet<String> services;
+    private final ImmutableSet<String> tags;
+    private final Supplier<? extends QosException> rejection;
+    private final Semaphore permits;
+    private final Executor executor;
+
+    @Nullable
+    private final ThreadPoolExecutor pool;
+
+    private Bulkhead(Builder builder) {
+        this.name = builder.name;
+        this.services = ImmutableSet.copyOf(builder.services);
+        this.tags = ImmutableSet.copyOf(builder.tags);
+        this.rejection = builder.rejection;
+        this.permits = new Semaphore(builder.maxThreads + builder.maxQueuedRequests);
+        if (builder.executor != null) {
+            this.pool = null;
+            this.executor = builder.executor;
+            return;
+        }
+        // Requests are queued without bound here because admission is bounded by permits
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                builder.maxThreads,
+                builder.maxThreads,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("conjure-bulkhead-" + name + "-%d")
+                        .setDaemon(true)
+                        .build());
+        // Idle bulkheads don't hold threads
+        pool.allowCoreThreadTimeOut(true);
+        this.pool = pool;
+        this.executor = pool;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Returns true if requests to {@code endpoint} execute in this bulkhead. */
+    boolean matches(Endpoint endpoint) {
+        return services.contains(endpoint.serviceName()) || !Collections.disjoint(tags, endpoint.tags());
+    }
+
+    /** Returns the executor which runs requests in this bulkhead. */
+    Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Returns a handler which is equivalent to a blocking handler, but dispatches to this bulkhead. Rejected requests
+     * are written by {@code exceptionHandler}.
+     */
+    HttpHandler blockingHandler(HttpHandler next, ExceptionHandler exceptionHandler) {
+        return new BulkheadHandler(next, exceptionHandler);
+    }
+
+    /**
+     * Stops the threads created by this bulkhead once queued requests have completed. Executors provided using
+     * {@link Builder#executor(Executor)} are owned by the caller and are not shut down.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{name=" + name + ", services=" + services + ", tags=" + tags + '}';
+    }
+
+    private final class BulkheadHandler implements HttpHandler {
+        private final HttpHandler next;
+        private final ExceptionHandler exceptionHandler;
+        private final HttpHandler releasing;
+        private final HttpHandler rejecting;
+
+        BulkheadHandler(HttpHandler next, ExceptionHandler exceptionHandler) {
+            this.next = next;
+            this.exceptionHandler = exceptionHandler;
+            this.releasing = exchange -> {
+                try {
+                    next.handleRequest(exchange);
+                } finally {
+                    permits.release();
+                }
+            };
+            this.rejecting = this::rejectBlocking;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            if (!permits.tryAcquire()) {
+                reject(exchange);
+                return;
+            }
+            exchange.startBlocking();
+            // Unlike a BlockingHandler, requests are dispatched even when they're already on a worker thread, for
+            // example once a request body has been read without blocking, so that they can't occupy shared threads.
+            // Undertow executes the dispatch once this handler returns, so executor rejections are handled there.
+            exchange.dispatch(task -> execute(exchange, task), releasing);
+        }
+
+        private void execute(HttpServerExchange exchange, Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // The request never runs, for example because the bulkhead is closed, so it doesn't hold its permit.
+                // Rejecting as a new root handler completes the exchange, which is no longer ended automatically.
+                permits.release();
+                exchange.dispatch(SameThreadExecutor.INSTANCE, this::reject);
+            }
+        }
+
+        private void reject(HttpServerExchange exchange) {
+            if (exceptionHandler == ConjureExceptions.INSTANCE) {
+                // The default handler writes without blocking unless the exchange is already blocking
+                exceptionHandler.handle(exchange, rejection.get());
+            } else if (exchange.isInIoThread()) {
+                // Custom exception handlers may block to write the response, which must not happen on the IO thread
+                exchange.dispatch(rejecting);
+            } else {
+                rejectBlocking(exchange);
+            }
+        }
+
+        private void rejectBlocking(HttpServerExchange exchange) {
+            exchange.startBlocking();
+            exceptionHandler.handle(exchange, rejection.get());
+        }
+
+        @Override
+        public String toString() {
+            return "BulkheadHandler{bulkhead=" + name + ", next=" + next + '}';
+        }
+    }
+
+    public static final class Builder {
+
+        @Nullable
+        private String name;
+        private final Set<String> services = new LinkedHashSet<>();
+        private final Set<String> tags = new LinkedHashSet<>();
+        private int maxThreads = 16;
+        private int maxQueuedRequests = 100;
+        private Supplier<? extends QosException> rejection = QosException::throttle;
+
+        @Nullable
+        private Executor executor;
+
+        private Builder() {}
+
+        /** Name of the bulkhead, which is used to name its threads. */
+        @CanIgnoreReturnValue
+        public Builder name(String value) {
+            this.name = Preconditions.checkNotNull(value, "Name is required");
+            return this;
+        }
+
+        /** Requests to endpoints of the service named {@code value} execute in this bulkhead. */
+        @CanIgnoreReturnValue
+        public Builder addServices(String value) {
+            services.add(Preconditions.checkNotNull(value, "Service name is required"));
+            return this;
+        }
+
+        /** Requests to endpoints with the tag {@code value} execute in this bulkhead. */
+        @CanIgnoreReturnValue
+        public Builder addTags(String value) {
+            tags.add(Preconditions.checkNotNull(value, "Tag is required"));
+            return this;
+        }
+
+        /** Maximum number of requests which execute concurrently. */
+        @CanIgnoreReturnValue
+        public Builder maxThreads(int value) {
+            this.maxThreads = value;
+            return this;
+        }
+
+        /** Maximum number of requests which wait for a thread before further requests are rejected. */
+        @CanIgnoreReturnValue
+        public Builder maxQueuedRequests(int value) {
+            this.maxQueuedRequests = value;
+            return this;
+        }
+
+        /**
+         * Provides the exception used to reject requests when the bulkhead is full, for example
+         * {@link QosException#unavailable()} to direct clients to other nodes rather than retrying this one.
+         */
+        @CanIgnoreReturnValue
+        public Builder rejection(Supplier<? extends QosException> value) {
+            this.rejection = Preconditions.checkNotNull(value, "Rejection is required");
+            return this;
+        }
+
+        /**
+         * Executes requests using {@code value}, which is owned by the caller, rather than threads created by the
+         * bulkhead. The bulkhead still admits at most {@code maxThreads} plus {@code maxQueuedRequests} requests at
+         * once, so the executor should be able to run {@code maxThreads} requests concurrently.
+         */
+        @CanIgnoreReturnValue
+        public Builder executor(Executor value) {
+            this.executor = Preconditions.checkNotNull(value, "Executor is required");
+            return this;
+        }
+
+        public Bulkhead build() {
+            Preconditions.checkNotNull(name, "Name is required");
+            Preconditions.checkArgument(
+                    !services.isEmpty() || !tags.isEmpty(),
+                    "Bulkhead must match at least one service or tag",
+                    SafeArg.of("name", name));
+            Preconditions.checkArgument(
+                    maxThreads > 0, "Maximum threads must be positive", SafeArg.of("maxThreads", maxThreads));
+            Preconditions.checkArgument(
+                    maxQueuedRequests >= 0,
+                    "Maximum queued requests must not be negative",
+                    SafeArg.of("maxQueuedRequests", maxQueuedRequests));
+            return new Bulkhead(this);
+        }
+    }
+}
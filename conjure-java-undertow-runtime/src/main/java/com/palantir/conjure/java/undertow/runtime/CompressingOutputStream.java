@@ -0,0 +1,178 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.io.BufferWritableOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses data using a pooled {@link Deflater}, writing output through a pooled buffer to the underlying
+ * stream. Unlike {@link java.util.zip.GZIPOutputStream}, {@link ByteBuffer} input is compressed without being copied
+ * to a heap array. The underlying stream is not closed.
+ */
+final class CompressingOutputStream extends OutputStream implements BufferWritableOutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final ResponseCompression.DeflaterPool pool;
+    private final Deflater deflater;
+    private final boolean gzip;
+    private final CRC32 crc;
+    private final BufferWritableOutputStream output;
+    private final ByteBufferPool bufferPool;
+    private final PooledByteBuffer pooledBuffer;
+    private final ByteBuffer buffer;
+    private final byte[] singleByte = new byte[1];
+    private boolean finished;
+    private boolean closed;
+
+    CompressingOutputStream(
+            ResponseCompression.DeflaterPool pool,
+            boolean gzip,
+            BufferWritableOutputStream output,
+            ByteBufferPool bufferPool) {
+        this.pool = pool;
+        this.deflater = pool.acquire();
+        this.gzip = gzip;
+        this.crc = new CRC32();
+        this.output = output;
+        this.bufferPool = bufferPool;
+        this.pooledBuffer = bufferPool.allocate();
+        this.buffer = pooledBuffer.getBuffer();
+        buffer.clear();
+        if (gzip) {
+            buffer.put(GZIP_HEADER);
+        }
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        singleByte[0] = (byte) value;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (gzip) {
+            crc.update(bytes, offset, length);
+        }
+        deflater.setInput(bytes, offset, length);
+        deflate();
+    }
+
+    @Override
+    public void write(ByteBuffer byteBuffer) throws IOException {
+        if (!byteBuffer.hasRemaining()) {
+            return;
+        }
+        if (gzip) {
+            int position = byteBuffer.position();
+            crc.update(byteBuffer);
+            byteBuffer.position(position);
+        }
+        deflater.setInput(byteBuffer);
+        deflate();
+    }
+
+    @Override
+    public void write(ByteBuffer[] buffers) throws IOException {
+        for (ByteBuffer byteBuffer : buffers) {
+            write(byteBuffer);
+        }
+    }
+
+    @Override
+    public void transferFrom(FileChannel source) throws IOException {
+        try (PooledByteBuffer input = bufferPool.allocate()) {
+            ByteBuffer inputBuffer = input.getBuffer();
+            inputBuffer.clear();
+            while (source.read(inputBuffer) > 0) {
+                inputBuffer.flip();
+                write(inputBuffer);
+                inputBuffer.clear();
+            }
+        }
+    }
+
+    /** Completes the compressed stream, writing any remaining output. */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflater.deflate(buffer);
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+        }
+        if (gzip) {
+            if (buffer.remaining() < 8) {
+                writeBuffer();
+            }
+            writeIntLittleEndian((int) crc.getValue());
+            // ISIZE is the uncompressed size modulo 2^32
+            writeIntLittleEndian((int) deflater.getBytesRead());
+        }
+        writeBuffer();
+    }
+
+    /** Releases the {@link Deflater} and buffer, without finishing the stream or closing the underlying output. */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            pool.release(deflater);
+            pooledBuffer.close();
+        }
+    }
+
+    private void deflate() throws IOException {
+        while (!deflater.needsInput()) {
+            deflater.deflate(buffer);
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeIntLittleEndian(int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >> 8));
+        buffer.put((byte) (value >> 16));
+        buffer.put((byte) (value >> 24));
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.palantir.conjure.java.undertow.runtime;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.palantir.conjure.java.api.errors.ErrorType;
 import com.palantir.conjure.java.api.errors.ServiceException;
 import com.palantir.conjure.java.undertow.lib.AuthorizationExtractor;
@@ -27,6 +29,7 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.Cookie;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Consumer;
 import org.slf4j.MDC;
@@ -36,6 +39,9 @@ import org.slf4j.MDC;
  * {@link UnverifiedJsonWebToken}. This behavior requires invocations to be wrapped with the
  * {@link LoggingContextHandler} to avoid leaking {@link MDC} state to other operations.
  *
+ * <p>Clients tend to reuse the same token for many requests, so parsed credentials are cached by their raw value to
+ * avoid validating the token and decoding the JWT on every request. Malformed credentials are not cached.
+ *
  * <p>Package private internal API.
  */
 final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
@@ -49,8 +55,12 @@ final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
             ErrorType.create(ErrorType.Code.UNAUTHORIZED, "Conjure:MissingCredentials");
     private static final ErrorType MALFORMED_CREDENTIAL_ERROR_TYPE =
             ErrorType.create(ErrorType.Code.UNAUTHORIZED, "Conjure:MalformedCredentials");
+    private static final int MAX_CACHED_CREDENTIALS = 1000;
+    private static final Duration CACHED_CREDENTIALS_EXPIRY = Duration.ofMinutes(10);
 
     private final PlainSerDe plainSerDe;
+    private final Cache<String, ParsedCredential<AuthHeader>> headers = newCache();
+    private final Cache<String, ParsedCredential<BearerToken>> cookies = newCache();
 
     ConjureAuthorizationExtractor(PlainSerDe plainSerDe) {
         this.plainSerDe = plainSerDe;
@@ -62,8 +72,14 @@ final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
      */
     @Override
     public AuthHeader header(HttpServerExchange exchange) {
-        AuthHeader authHeader = parseAuthHeader(exchange);
-        return setState(exchange, authHeader);
+        String authorization = getAuthorization(exchange);
+        ParsedCredential<AuthHeader> parsed = headers.getIfPresent(authorization);
+        if (parsed == null) {
+            AuthHeader authHeader = parseAuthHeader(authorization);
+            parsed = new ParsedCredential<>(authHeader, parseJwt(authHeader.getBearerToken()));
+            headers.put(authorization, parsed);
+        }
+        return setState(exchange, parsed);
     }
 
     /**
@@ -76,20 +92,34 @@ final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
         if (cookie == null) {
             throw new ServiceException(MISSING_CREDENTIAL_ERROR_TYPE);
         }
-        try {
-            return setState(exchange, plainSerDe.deserializeBearerToken(cookie.getValue()));
-        } catch (RuntimeException e) {
-            throw new ServiceException(MALFORMED_CREDENTIAL_ERROR_TYPE, e);
+        String value = cookie.getValue();
+        ParsedCredential<BearerToken> parsed = cookies.getIfPresent(value);
+        if (parsed == null) {
+            BearerToken token;
+            try {
+                token = plainSerDe.deserializeBearerToken(value);
+            } catch (RuntimeException e) {
+                throw new ServiceException(MALFORMED_CREDENTIAL_ERROR_TYPE, e);
+            }
+            parsed = new ParsedCredential<>(token, parseJwt(token));
+            cookies.put(value, parsed);
         }
+        return setState(exchange, parsed);
     }
 
     /**
-     * Attempts to extract a {@link UnverifiedJsonWebToken JSON Web Token} from the {@link BearerToken} value, and
-     * populates the SLF4J {@link MDC} with user id, session id, and token id extracted from the JWT. This is
-     * best-effort and does not throw an exception in case any of these steps fail.
+     * Attempts to extract a {@link UnverifiedJsonWebToken JSON Web Token} from the {@link BearerToken} value. This is
+     * best-effort and does not throw an exception in case parsing fails.
      */
-    private static BearerToken setState(HttpServerExchange exchange, BearerToken token) {
-        Optional<UnverifiedJsonWebToken> parsedJwt = UnverifiedJsonWebToken.tryParse(token.getToken());
+    private static Optional<UnverifiedJsonWebToken> parseJwt(BearerToken token) {
+        return UnverifiedJsonWebToken.tryParse(token.getToken());
+    }
+
+    /**
+     * Populates the SLF4J {@link MDC} with user id, session id, and token id extracted from the JWT, if present.
+     */
+    private static <T> T setState(HttpServerExchange exchange, ParsedCredential<T> parsed) {
+        Optional<UnverifiedJsonWebToken> parsedJwt = parsed.jwt;
         exchange.putAttachment(Attachments.UNVERIFIED_JWT, parsedJwt);
         if (parsedJwt.isPresent()) {
             UnverifiedJsonWebToken jwt = parsedJwt.get();
@@ -97,15 +127,10 @@ final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
             jwt.getUnverifiedSessionId().ifPresent(sessionIdSetter);
             jwt.getUnverifiedTokenId().ifPresent(tokenIdSetter);
         }
-        return token;
+        return parsed.credential;
     }
 
-    private static AuthHeader setState(HttpServerExchange exchange, AuthHeader authHeader) {
-        setState(exchange, authHeader.getBearerToken());
-        return authHeader;
-    }
-
-    private static AuthHeader parseAuthHeader(HttpServerExchange exchange) {
+    private static String getAuthorization(HttpServerExchange exchange) {
         HeaderValues authorization = exchange.getRequestHeaders().get(Headers.AUTHORIZATION);
         // Do not use Iterables.getOnlyElement because it includes values in the exception message.
         // We do not want credential material logged to disk, even if it's marked unsafe.
@@ -115,10 +140,31 @@ final class ConjureAuthorizationExtractor implements AuthorizationExtractor {
         if (authorization.size() != 1) {
             throw new ServiceException(MALFORMED_CREDENTIAL_ERROR_TYPE);
         }
+        return authorization.get(0);
+    }
+
+    private static AuthHeader parseAuthHeader(String authorization) {
         try {
-            return AuthHeader.valueOf(authorization.get(0));
+            return AuthHeader.valueOf(authorization);
         } catch (RuntimeException e) {
             throw new ServiceException(MALFORMED_CREDENTIAL_ERROR_TYPE, e);
         }
     }
+
+    private static <T> Cache<String, ParsedCredential<T>> newCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_CREDENTIALS)
+                .expireAfterAccess(CACHED_CREDENTIALS_EXPIRY)
+                .build();
+    }
+
+    private static final class ParsedCredential<T> {
+        private final T credential;
+        private final Optional<UnverifiedJsonWebToken> jwt;
+
+        ParsedCredential(T credential, Optional<UnverifiedJsonWebToken> jwt) {
+            this.credential = credential;
+            this.jwt = jwt;
+        }
+    }
 }
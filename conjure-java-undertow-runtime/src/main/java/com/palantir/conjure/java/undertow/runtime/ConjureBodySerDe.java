@@ -16,11 +16,15 @@
 
 package com.palantir.conjure.java.undertow.runtime;
 
-import com.google.common.base.Splitter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.conjure.java.undertow.lib.AsyncBinaryResponseBody;
+import com.palantir.conjure.java.undertow.lib.BinaryRequestBody;
 import com.palantir.conjure.java.undertow.lib.BinaryResponseBody;
 import com.palantir.conjure.java.undertow.lib.BodySerDe;
 import com.palantir.conjure.java.undertow.lib.Deserializer;
+import com.palantir.conjure.java.undertow.lib.SeekableBinaryResponseBody;
 import com.palantir.conjure.java.undertow.lib.Serializer;
 import com.palantir.conjure.java.undertow.lib.TypeMarker;
 import com.palantir.logsafe.Preconditions;
@@ -31,6 +35,7 @@ import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tracing.CloseableTracer;
 import com.palantir.tracing.TagTranslator;
 import com.palantir.tracing.Tracer;
+import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
@@ -39,6 +44,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
 import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
 import org.xnio.IoUtils;
 
 /** Package private internal API. */
@@ -46,31 +53,69 @@ final class ConjureBodySerDe implements BodySerDe {
 
     private static final SafeLogger log = SafeLoggerFactory.get(ConjureBodySerDe.class);
     private static final String BINARY_CONTENT_TYPE = "application/octet-stream";
-    private static final Splitter ACCEPT_VALUE_SPLITTER =
-            Splitter.on(',').trimResults().omitEmptyStrings();
 
     private final List<Encoding> encodings;
+    private final EncodingNegotiator negotiator;
+    private final List<Optional<ObjectMapper>> nonBlockingMappers;
+    private final long nonBlockingMaximumBytes;
+
+    @Nullable
+    private final ResponseCompression compression;
+
+    @Nullable
+    private final RequestDecompression decompression;
+
+    private final boolean etags;
 
     /**
-     * Selects the first (based on input order) of the provided encodings that
-     * {@link Encoding#supportsContentType supports} the serialization format {@link Headers#ACCEPT accepted} by a given
-     * request, or the first serializer if no such serializer can be found.
+     * Selects the most preferred of the provided encodings that {@link Encoding#supportsContentType supports} the
+     * serialization format {@link Headers#ACCEPT accepted} by a given request, or the first serializer if no such
+     * serializer can be found. See {@link EncodingNegotiator}.
      */
     ConjureBodySerDe(List<Encoding> encodings) {
+        this(builder(encodings));
+    }
+
+    private ConjureBodySerDe(Builder builder) {
         // Defensive copy
         this.encodings =
-                encodings.stream().map(LazilyInitializedEncoding::new).collect(ImmutableList.toImmutableList());
+                builder.encodings.stream().map(LazilyInitializedEncoding::new).collect(ImmutableList.toImmutableList());
         Preconditions.checkArgument(encodings.size() > 0, "At least one Encoding is required");
+        this.negotiator = new EncodingNegotiator(this.encodings);
+        this.nonBlockingMappers = builder.nonBlockingRequestBodies
+                ? builder.encodings.stream().map(Encodings::nonBlockingMapper).collect(ImmutableList.toImmutableList())
+                : ImmutableList.of();
+        this.nonBlockingMaximumBytes = builder.nonBlockingMaximumBytes;
+        this.compression = builder.compression;
+        this.decompression = builder.decompression;
+        this.etags = builder.etags;
+    }
+
+    /** Returns a builder for a {@link ConjureBodySerDe} which negotiates between the provided encodings. */
+    static Builder builder(List<Encoding> encodings) {
+        return new Builder(encodings);
+    }
+
+    /**
+     * Returns a handler which reads and parses request bodies on the IO thread before dispatching to
+     * {@code delegate}, or nothing if non-blocking request bodies are disabled or unsupported by all encodings.
+     */
+    Optional<HttpHandler> nonBlockingRequestBodyHandler(HttpHandler delegate) {
+        if (nonBlockingMappers.stream().noneMatch(Optional::isPresent)) {
+            return Optional.empty();
+        }
+        return Optional.of(new NonBlockingRequestBodyHandler(
+                delegate, negotiator, nonBlockingMappers, nonBlockingMaximumBytes));
     }
 
     @Override
     public <T> Serializer<T> serializer(TypeMarker<T> token) {
-        return new EncodingSerializerRegistry<>(encodings, token);
+        return new EncodingSerializerRegistry<>(encodings, negotiator, compression, etags, token);
     }
 
     @Override
     public <T> Deserializer<T> deserializer(TypeMarker<T> token) {
-        return new EncodingDeserializerRegistry<>(encodings, token);
+        return new EncodingDeserializerRegistry<>(encodings, negotiator, decompression, token);
     }
 
     @Override
@@ -79,7 +124,13 @@ final class ConjureBodySerDe implements BodySerDe {
         exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, BINARY_CONTENT_TYPE);
         Tracer.fastStartSpan(TracedEncoding.SERIALIZE_OPERATION);
         try {
-            value.write(exchange.getOutputStream());
+            if (value instanceof SeekableBinaryResponseBody) {
+                RangeResponses.send(exchange, (SeekableBinaryResponseBody) value);
+            } else if (value instanceof AsyncBinaryResponseBody) {
+                AsyncBinaryResponses.send(exchange, (AsyncBinaryResponseBody) value);
+            } else {
+                value.write(exchange.getOutputStream());
+            }
         } finally {
             Tracer.fastCompleteSpan(SerializeBinaryTagTranslator.INSTANCE, SerializeBinaryTagTranslator.INSTANCE);
         }
@@ -87,24 +138,46 @@ final class ConjureBodySerDe implements BodySerDe {
 
     @Override
     public InputStream deserializeInputStream(HttpServerExchange exchange) {
+        checkBinaryContentType(exchange);
+        return exchange.getInputStream();
+    }
+
+    @Override
+    public BinaryRequestBody deserializeBinaryRequestBody(HttpServerExchange exchange) {
+        checkBinaryContentType(exchange);
+        return new ExchangeBinaryRequestBody(exchange);
+    }
+
+    private static void checkBinaryContentType(HttpServerExchange exchange) {
         String contentType = getContentType(exchange);
         if (!contentType.startsWith(BINARY_CONTENT_TYPE)) {
             throw FrameworkException.unsupportedMediaType(
                     "Unsupported Content-Type", SafeArg.of("Content-Type", contentType));
         }
-        return exchange.getInputStream();
     }
 
     private static final class EncodingSerializerRegistry<T> implements Serializer<T> {
 
-        private final EncodingSerializerContainer<T> defaultEncoding;
         private final List<EncodingSerializerContainer<T>> encodings;
+        private final EncodingNegotiator negotiator;
+
+        @Nullable
+        private final ResponseCompression compression;
+
+        private final boolean etags;
 
-        EncodingSerializerRegistry(List<Encoding> encodings, TypeMarker<T> token) {
+        EncodingSerializerRegistry(
+                List<Encoding> encodings,
+                EncodingNegotiator negotiator,
+                @Nullable ResponseCompression compression,
+                boolean etags,
+                TypeMarker<T> token) {
             this.encodings = encodings.stream()
                     .map(encoding -> new EncodingSerializerContainer<>(encoding, token))
                     .collect(ImmutableList.toImmutableList());
-            this.defaultEncoding = this.encodings.get(0);
+            this.negotiator = negotiator;
+            this.compression = compression;
+            this.etags = etags;
         }
 
         @Override
@@ -113,28 +186,16 @@ final class ConjureBodySerDe implements BodySerDe {
             safelyDrainRequestBody(exchange);
             EncodingSerializerContainer<T> container = getResponseSerializer(exchange);
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, container.encoding.getContentType());
-            container.serializer.serialize(value, exchange.getOutputStream());
+            try (PooledBufferOutputStream output = new PooledBufferOutputStream(exchange, compression, etags)) {
+                container.serializer.serialize(value, output);
+                output.complete();
+            }
         }
 
         /** Returns the {@link EncodingSerializerContainer} to use for the exchange response. */
-        @SuppressWarnings("ForLoopReplaceableByForEach") // performance sensitive code avoids iterator allocation
         EncodingSerializerContainer<T> getResponseSerializer(HttpServerExchange exchange) {
             HeaderValues acceptValues = exchange.getRequestHeaders().get(Headers.ACCEPT);
-            if (acceptValues != null) {
-                // This implementation prefers the client "Accept" order
-                for (int i = 0; i < acceptValues.size(); i++) {
-                    for (String acceptValue : ACCEPT_VALUE_SPLITTER.split(acceptValues.get(i))) {
-                        for (int j = 0; j < encodings.size(); j++) {
-                            EncodingSerializerContainer<T> container = encodings.get(j);
-                            if (container.encoding.supportsContentType(acceptValue)) {
-                                return container;
-                            }
-                        }
-                    }
-                }
-            }
-            // Fall back to the default
-            return defaultEncoding;
+            return encodings.get(negotiator.getResponseEncoding(acceptValues));
         }
     }
 
@@ -152,34 +213,76 @@ final class ConjureBodySerDe implements BodySerDe {
     private static final class EncodingDeserializerRegistry<T> implements Deserializer<T> {
 
         private final List<EncodingDeserializerContainer<T>> encodings;
+        private final EncodingNegotiator negotiator;
         private final boolean optionalType;
         private final TypeMarker<T> marker;
 
-        EncodingDeserializerRegistry(List<Encoding> encodings, TypeMarker<T> token) {
+        @Nullable
+        private final RequestDecompression decompression;
+
+        EncodingDeserializerRegistry(
+                List<Encoding> encodings,
+                EncodingNegotiator negotiator,
+                @Nullable RequestDecompression decompression,
+                TypeMarker<T> token) {
             this.encodings = encodings.stream()
                     .map(encoding -> new EncodingDeserializerContainer<>(encoding, token))
                     .collect(ImmutableList.toImmutableList());
+            this.negotiator = negotiator;
+            this.decompression = decompression;
             this.optionalType = TypeMarkers.isOptional(token);
             this.marker = token;
         }
 
         @Override
         public T deserialize(HttpServerExchange exchange) throws IOException {
+            ParsedRequestBody parsedBody = exchange.getAttachment(ParsedRequestBody.KEY);
+            if (parsedBody != null) {
+                // The body has already been consumed by the NonBlockingRequestBodyHandler
+                if (optionalType && parsedBody.isEmpty()) {
+                    return TypeMarkers.getEmptyOptional(marker);
+                }
+                return deserializeInternal(exchange, parsedBody);
+            }
+            InflatingInputStream inflatingStream = decompression == null ? null : decompression.decompress(exchange);
+            if (inflatingStream != null) {
+                return deserializeInflated(exchange, inflatingStream);
+            }
             // If this deserializer is built for an optional root type, Optional<?>, OptionalInt, etc,
             // and the incoming request body might be empty (does not have a content-length greater than zero)
             // we must map from an empty request body to an empty optional.
             // See https://github.com/palantir/conjure/blob/master/docs/spec/wire.md#23-body-parameter
             if (optionalType && maybeEmptyBody(exchange)) {
-                return deserializeOptional(exchange);
+                return deserializeOptional(exchange, exchange.getInputStream());
             }
             return deserializeInternal(exchange, exchange.getInputStream());
         }
 
-        private T deserializeOptional(HttpServerExchange exchange) throws IOException {
+        private T deserializeInflated(HttpServerExchange exchange, InflatingInputStream inflatingStream)
+                throws IOException {
+            try {
+                // The inflated length is unknown, so optional bodies must be checked for content.
+                return optionalType
+                        ? deserializeOptional(exchange, inflatingStream)
+                        : deserializeInternal(exchange, inflatingStream);
+            } catch (IOException | RuntimeException e) {
+                // Deserializers may wrap exceptions thrown by the stream, the original failure describes
+                // the problem more accurately, for example an inflated body which is too large.
+                RuntimeException failure = inflatingStream.failure();
+                if (failure != null) {
+                    throw failure;
+                }
+                throw e;
+            } finally {
+                inflatingStream.close();
+            }
+        }
+
+        private T deserializeOptional(HttpServerExchange exchange, InputStream inputStream) throws IOException {
             // If the first byte of the request stream is -1 (EOF) we return the empty optional type.
             // We cannot provide the empty stream to jackson because there is no content for jackson
             // to deserialize.
-            PushbackInputStream requestStream = new PushbackInputStream(exchange.getInputStream(), 1);
+            PushbackInputStream requestStream = new PushbackInputStream(inputStream, 1);
             int firstByte = requestStream.read();
             if (firstByte == -1) {
                 return TypeMarkers.getEmptyOptional(marker);
@@ -201,27 +304,22 @@ final class ConjureBodySerDe implements BodySerDe {
         }
 
         /** Returns the {@link EncodingDeserializerContainer} to use to deserialize the request body. */
-        @SuppressWarnings("ForLoopReplaceableByForEach") // performance sensitive code avoids iterator allocation
         EncodingDeserializerContainer<T> getRequestDeserializer(HttpServerExchange exchange) {
             String contentType = getContentType(exchange);
-            for (int i = 0; i < encodings.size(); i++) {
-                EncodingDeserializerContainer<T> container = encodings.get(i);
-                if (container.encoding.supportsContentType(contentType)) {
-                    return container;
-                }
+            int index = negotiator.getRequestEncoding(contentType);
+            if (index == EncodingNegotiator.UNSUPPORTED) {
+                throw FrameworkException.unsupportedMediaType(
+                        "Unsupported Content-Type", SafeArg.of("Content-Type", contentType));
             }
-            throw FrameworkException.unsupportedMediaType(
-                    "Unsupported Content-Type", SafeArg.of("Content-Type", contentType));
+            return encodings.get(index);
         }
     }
 
     private static final class EncodingDeserializerContainer<T> {
 
-        private final Encoding encoding;
         private final Encoding.Deserializer<T> deserializer;
 
         EncodingDeserializerContainer(Encoding encoding, TypeMarker<T> token) {
-            this.encoding = encoding;
             this.deserializer = TracedEncoding.wrap(encoding).deserializer(token);
         }
     }
@@ -230,7 +328,7 @@ final class ConjureBodySerDe implements BodySerDe {
      * Ensure the client isn't blocked sending additional data. It's very uncommon for this to be necessary, in most
      * cases exceptional responses are far below the 16k buffer threshold, not even considering socket buffers.
      */
-    private static void safelyDrainRequestBody(HttpServerExchange exchange) {
+    static void safelyDrainRequestBody(HttpServerExchange exchange) {
         // No need to impact http/2 which supports out-of-band responses.
         if ((Protocols.HTTP_1_1.equals(exchange.getProtocol()) || Protocols.HTTP_1_0.equals(exchange.getProtocol()))
                 && !exchange.isRequestComplete()) {
@@ -268,4 +366,64 @@ final class ConjureBodySerDe implements BodySerDe {
         }
         return contentTypeValues.get(0);
     }
+
+    static final class Builder {
+        private final List<Encoding> encodings;
+        private boolean nonBlockingRequestBodies;
+        private long nonBlockingMaximumBytes = 1024 * 1024;
+
+        @Nullable
+        private ResponseCompression compression;
+
+        @Nullable
+        private RequestDecompression decompression;
+
+        private boolean etags;
+
+        private Builder(List<Encoding> encodings) {
+            this.encodings = Preconditions.checkNotNull(encodings, "Encodings are required");
+        }
+
+        /**
+         * Parses request bodies without blocking where the negotiated encoding supports it, see
+         * {@link #nonBlockingRequestBodyHandler(HttpHandler)}.
+         */
+        @CanIgnoreReturnValue
+        Builder nonBlockingRequestBodies(boolean value) {
+            this.nonBlockingRequestBodies = value;
+            return this;
+        }
+
+        /** Maximum request body size parsed without blocking, see {@link NonBlockingRequestBodyHandler}. */
+        @CanIgnoreReturnValue
+        Builder nonBlockingMaximumBytes(long value) {
+            this.nonBlockingMaximumBytes = value;
+            return this;
+        }
+
+        /** Compresses serialized response bodies when provided, see {@link ResponseCompression}. */
+        @CanIgnoreReturnValue
+        Builder compression(@Nullable ResponseCompression value) {
+            this.compression = value;
+            return this;
+        }
+
+        /** Inflates compressed request bodies when provided, see {@link RequestDecompression}. */
+        @CanIgnoreReturnValue
+        Builder decompression(@Nullable RequestDecompression value) {
+            this.decompression = value;
+            return this;
+        }
+
+        /** Tags buffered responses to {@code GET} requests with an {@code ETag}, see {@link ResponseETags}. */
+        @CanIgnoreReturnValue
+        Builder etags(boolean value) {
+            this.etags = value;
+            return this;
+        }
+
+        ConjureBodySerDe build() {
+            return new ConjureBodySerDe(this);
+        }
+    }
 }
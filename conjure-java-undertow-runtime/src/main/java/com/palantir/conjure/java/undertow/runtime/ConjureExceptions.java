@@ -22,8 +22,6 @@ import com.palantir.conjure.java.api.errors.RemoteException;
 import com.palantir.conjure.java.api.errors.SerializableError;
 import com.palantir.conjure.java.api.errors.ServiceException;
 import com.palantir.conjure.java.undertow.lib.ExceptionHandler;
-import com.palantir.conjure.java.undertow.lib.Serializer;
-import com.palantir.conjure.java.undertow.lib.TypeMarker;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
@@ -32,8 +30,8 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.util.Headers;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.time.temporal.ChronoUnit;
-import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Consumer;
 import org.xnio.IoUtils;
@@ -47,8 +45,9 @@ public enum ConjureExceptions implements ExceptionHandler {
 
     private static final SafeLogger log = SafeLoggerFactory.get(ConjureExceptions.class);
     // Exceptions should always be serialized using JSON
-    private static final Serializer<SerializableError> serializer =
-            new ConjureBodySerDe(Collections.singletonList(Encodings.json())).serializer(new TypeMarker<>() {});
+    private static final String ERROR_CONTENT_TYPE = Encodings.json().getContentType();
+    // Client errors are logged at most 10 times per second for each error name, with bursts of up to 50
+    private static final ErrorLogLimiter clientErrorLogLimiter = new ErrorLogLimiter(10, 50, System::nanoTime);
 
     @Override
     public void handle(HttpServerExchange exchange, Throwable throwable) {
@@ -183,7 +182,7 @@ public enum ConjureExceptions implements ExceptionHandler {
             exchange.setStatusCode(statusCode);
             if (maybeBody.isPresent()) {
                 try {
-                    serializer.serialize(maybeBody.get(), exchange);
+                    writeBody(exchange, SerializedErrors.render(maybeBody.get()));
                 } catch (IOException | RuntimeException e) {
                     log.info("Failed to write error response", e);
                 }
@@ -198,10 +197,25 @@ public enum ConjureExceptions implements ExceptionHandler {
         }
     }
 
+    private static void writeBody(HttpServerExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, ERROR_CONTENT_TYPE);
+        exchange.setResponseContentLength(body.length);
+        if (exchange.isBlocking()) {
+            ConjureBodySerDe.safelyDrainRequestBody(exchange);
+            exchange.getOutputStream().write(body);
+        } else {
+            exchange.getResponseSender().send(ByteBuffer.wrap(body));
+        }
+    }
+
     private static boolean isResponseStarted(HttpServerExchange exchange) {
         if (exchange.isResponseStarted()) {
             return true;
         }
+        // Failures handled on the IO thread, for example by load shedding, have no blocking output stream.
+        if (!exchange.isBlocking()) {
+            return false;
+        }
         // The blocking exchange output stream may have un-committed data buffered.
         // In this case we can clear the buffer allowing us to send a serializable error.
         OutputStream outputStream = exchange.getOutputStream();
@@ -213,11 +227,27 @@ public enum ConjureExceptions implements ExceptionHandler {
 
     private static void log(ServiceException serviceException, Throwable exceptionForLogging) {
         if (serviceException.getErrorType().httpErrorCode() / 100 == 4 /* client error */) {
-            log.info(
-                    "Error handling request",
-                    SafeArg.of("errorInstanceId", serviceException.getErrorInstanceId()),
-                    SafeArg.of("errorName", serviceException.getErrorType().name()),
-                    exceptionForLogging);
+            if (!log.isInfoEnabled()) {
+                return;
+            }
+            int suppressed = clientErrorLogLimiter.tryAcquire(serviceException.getErrorType().name());
+            if (suppressed == ErrorLogLimiter.SUPPRESSED) {
+                return;
+            }
+            if (suppressed == 0) {
+                log.info(
+                        "Error handling request",
+                        SafeArg.of("errorInstanceId", serviceException.getErrorInstanceId()),
+                        SafeArg.of("errorName", serviceException.getErrorType().name()),
+                        exceptionForLogging);
+            } else {
+                log.info(
+                        "Error handling request",
+                        SafeArg.of("errorInstanceId", serviceException.getErrorInstanceId()),
+                        SafeArg.of("errorName", serviceException.getErrorType().name()),
+                        SafeArg.of("suppressedSimilarErrors", suppressed),
+                        exceptionForLogging);
+            }
         } else {
             log.error(
                     "Error handling request",
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.RequestMetrics;
 import com.palantir.conjure.java.undertow.lib.UndertowRuntime;
 import com.palantir.conjure.java.undertow.lib.UndertowService;
 import com.palantir.logsafe.Preconditions;
@@ -29,20 +30,21 @@ import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.tracing.undertow.TracedRequestHandler;
 import com.palantir.tracing.undertow.TracedStateHandler;
-import io.undertow.Handlers;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
-import io.undertow.server.RoutingHandler;
 import io.undertow.server.handlers.BlockingHandler;
 import io.undertow.server.handlers.ResponseCodeHandler;
 import io.undertow.server.handlers.URLDecodingHandler;
 import io.undertow.util.HttpString;
 import io.undertow.util.Methods;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Conjure routing mechanism which can be registered as an Undertow {@link HttpHandler}. This handler takes care of
@@ -50,19 +52,18 @@ import java.util.stream.Collectors;
  */
 public final class ConjureHandler implements HttpHandler {
 
-    private final RoutingHandler routingHandler;
+    private final ConjureRouter router;
 
     private ConjureHandler(HttpHandler fallback, List<Endpoint> endpoints) {
-        this.routingHandler = Handlers.routing()
-                .setFallbackHandler(fallback)
-                // The method may be valid for another handlers, the
-                // fallback handler will be used instead of 405 status.
-                .setInvalidMethodHandler(null);
-        endpoints.forEach(this::register);
-        registerSyntheticEndpoints(routingHandler, endpoints);
+        ConjureRouter.Builder routerBuilder = ConjureRouter.builder();
+        endpoints.forEach(endpoint -> register(routerBuilder, endpoint));
+        registerSyntheticEndpoints(routerBuilder, endpoints);
+        // Requests with a method which is not registered for the path are passed to the fallback
+        // rather than producing a 405 status, the method may be valid for another handler.
+        this.router = routerBuilder.build(fallback);
     }
 
-    private static List<Endpoint> applyHeadEndpoints(RoutingHandler routingHandler, List<Endpoint> endpoints) {
+    private static List<Endpoint> applyHeadEndpoints(ConjureRouter.Builder routerBuilder, List<Endpoint> endpoints) {
         List<Endpoint> result = new ArrayList<>(endpoints.size());
         for (Endpoint endpoint : endpoints) {
             result.add(endpoint);
@@ -70,23 +71,23 @@ public final class ConjureHandler implements HttpHandler {
                 Endpoint headEndpoint =
                         Endpoint.builder().from(endpoint).method(Methods.HEAD).build();
                 result.add(headEndpoint);
-                routingHandler.add(headEndpoint.method(), headEndpoint.template(), headEndpoint.handler());
+                register(routerBuilder, headEndpoint);
             }
         }
         return result;
     }
 
-    private static void registerSyntheticEndpoints(RoutingHandler routingHandler, List<Endpoint> endpoints) {
-        List<Endpoint> updatedEndpoints = applyHeadEndpoints(routingHandler, endpoints);
-        registerOptionsEndpoints(routingHandler, updatedEndpoints);
+    private static void registerSyntheticEndpoints(ConjureRouter.Builder routerBuilder, List<Endpoint> endpoints) {
+        List<Endpoint> updatedEndpoints = applyHeadEndpoints(routerBuilder, endpoints);
+        registerOptionsEndpoints(routerBuilder, updatedEndpoints);
     }
 
-    private static void registerOptionsEndpoints(RoutingHandler routingHandler, List<Endpoint> endpoints) {
+    private static void registerOptionsEndpoints(ConjureRouter.Builder routerBuilder, List<Endpoint> endpoints) {
         endpoints.stream()
                 .collect(ImmutableSetMultimap.toImmutableSetMultimap(
                         endpoint -> normalizeTemplate(endpoint.template()), Endpoint::method))
                 .asMap()
-                .forEach((normalizedPath, methods) -> routingHandler.add(
+                .forEach((normalizedPath, methods) -> routerBuilder.add(
                         Methods.OPTIONS,
                         normalizedPath,
                         new WebSecurityHandler(new OptionsHandler(ImmutableSet.copyOf(methods)))));
@@ -94,11 +95,11 @@ public final class ConjureHandler implements HttpHandler {
 
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
-        routingHandler.handleRequest(exchange);
+        router.handleRequest(exchange);
     }
 
-    private void register(Endpoint endpoint) {
-        routingHandler.add(endpoint.method(), endpoint.template(), endpoint.handler());
+    private static void register(ConjureRouter.Builder routerBuilder, Endpoint endpoint) {
+        routerBuilder.add(endpoint.method(), endpoint.template(), endpoint.handler());
     }
 
     public static Builder builder() {
@@ -117,6 +118,16 @@ public final class ConjureHandler implements HttpHandler {
         private HttpHandler fallback = ResponseCodeHandler.HANDLE_404;
         private UndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
 
+        @Nullable
+        private Executor blockingExecutor;
+
+        @Nullable
+        private String batchTemplate;
+
+        private Duration batchCallTimeout = BatchHandler.DEFAULT_CALL_TIMEOUT;
+
+        private final List<Bulkhead> bulkheads = new ArrayList<>();
+
         private Builder() {}
 
         /**
@@ -191,6 +202,65 @@ public final class ConjureHandler implements HttpHandler {
             return this;
         }
 
+        /**
+         * Dispatches blocking endpoint handlers to the provided {@link Executor} instead of the XNIO worker pool. The
+         * executor is responsible for bounding concurrency, if required.
+         */
+        @CanIgnoreReturnValue
+        public Builder blockingExecutor(Executor value) {
+            this.blockingExecutor = Preconditions.checkNotNull(value, "Executor is required");
+            return this;
+        }
+
+        /**
+         * Dispatches blocking endpoint handlers to a new virtual thread per request, allowing far more concurrent
+         * requests than XNIO worker threads. Requires a Java 21 or later runtime.
+         */
+        @CanIgnoreReturnValue
+        public Builder virtualThreads() {
+            return blockingExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+        }
+
+        /**
+         * Dispatches blocking endpoint handlers which match the {@link Bulkhead} to its dedicated threads rather than
+         * the shared worker pool or {@link #blockingExecutor}. Endpoints which match multiple bulkheads use the first
+         * bulkhead added. Bulkheads remain owned by the caller, which {@link Bulkhead#close() closes} them once the
+         * server has stopped.
+         */
+        @CanIgnoreReturnValue
+        public Builder addBulkhead(Bulkhead value) {
+            bulkheads.add(Preconditions.checkNotNull(value, "Bulkhead is required"));
+            return this;
+        }
+
+        /**
+         * Registers a {@code POST} endpoint at {@code template} which executes many calls to the other endpoints of
+         * this handler from a single request, reducing per-request overhead for clients which make many small calls.
+         * Calls are executed in parallel using the same handlers as requests sent directly to each endpoint, including
+         * authorization, metrics and tracing.
+         *
+         * <p>The request body is a JSON array of calls, each naming the {@code service} and {@code endpoint} along
+         * with optional {@code pathParams}, {@code queryParams} and JSON {@code body}. The response is a JSON array
+         * containing the {@code status} and {@code body} of each call, in the order of the calls.
+         */
+        @CanIgnoreReturnValue
+        public Builder batchEndpoint(String template) {
+            this.batchTemplate = Preconditions.checkNotNull(template, "Template is required");
+            return this;
+        }
+
+        /**
+         * Sets how long each call of a {@link #batchEndpoint(String) batch} may take before its result is reported with
+         * status {@code 503}, one minute by default. Timed out calls are not interrupted.
+         */
+        @CanIgnoreReturnValue
+        public Builder batchCallTimeout(Duration value) {
+            Preconditions.checkNotNull(value, "Timeout is required");
+            Preconditions.checkArgument(!value.isNegative() && !value.isZero(), "Timeout must be positive");
+            this.batchCallTimeout = value;
+            return this;
+        }
+
         public HttpHandler build() {
             ImmutableList<Endpoint> serviceEndpoints = services.stream()
                     .flatMap(service -> service.endpoints(runtime).stream())
@@ -204,6 +274,8 @@ public final class ConjureHandler implements HttpHandler {
 
             ImmutableList<EndpointHandlerWrapper> wrappers = ImmutableList.<EndpointHandlerWrapper>builder()
                     .add(
+                            // Metrics wrap every other handler, including requests rejected by custom wrappers.
+                            endpoint -> requestMetrics(endpoint, runtime),
                             // Begin the server span as early as possible to capture the most of the request.
                             endpoint -> Optional.of(new TracedRequestHandler(
                                     endpoint.handler(),
@@ -225,14 +297,19 @@ public final class ConjureHandler implements HttpHandler {
                             endpoint -> endpoint.deprecated()
                                     .map(_reason -> new DeprecationReportingResponseHandler(endpoint.handler())))
                     // Apply custom non-blocking handlers just before the BlockingHandler
-                    .addAll(wrappersJustBeforeBlocking)
+                    .addAll(wrappersJustBeforeBlocking.stream()
+                            .<EndpointHandlerWrapper>map(wrapper -> endpoint -> wrapper.wrap(endpoint, runtime))
+                            .collect(ImmutableList.toImmutableList()))
+                    // Optionally read request bodies on the IO thread, after custom wrappers which may reject
+                    // requests without reading the body.
+                    .add(endpoint -> nonBlockingRequestBodies(endpoint, runtime))
                     // It is vitally important to never run blocking operations on the initial IO thread otherwise
                     // the server will not process new requests. all handlers executed after BlockingHandler
                     // use the larger task pool which is allowed to block. Any operation which sets thread
                     // state (e.g. SLF4J MDC or Tracer) must execute on the blocking thread otherwise state
                     // will not propagate to the wrapped service.
                     .add(
-                            endpoint -> Optional.of(new BlockingHandler(endpoint.handler())),
+                            endpoint -> Optional.of(blockingHandler(endpoint)),
                             // Logging context and trace handler must execute prior to the exception
                             // to provide user and trace information on exceptions.
                             endpoint -> Optional.of(new LoggingContextHandler(endpoint.handler())),
@@ -242,11 +319,73 @@ public final class ConjureHandler implements HttpHandler {
                     .build()
                     .reverse();
 
+            ImmutableList<Endpoint> wrappedEndpoints = allEndpoints.stream()
+                    .map(endpoint -> wrap(endpoint, wrappers))
+                    .collect(ImmutableList.toImmutableList());
+            if (batchTemplate == null) {
+                return new ConjureHandler(fallback, wrappedEndpoints);
+            }
+            // Batch calls are executed by the wrapped endpoint handlers, so each call is handled exactly as if it
+            // had been sent directly.
+            Endpoint batchEndpoint = BatchHandler.endpoint(
+                    batchTemplate, batchCallTimeout, this::blockingExecutor, runtime.bodySerDe(), wrappedEndpoints);
+            checkOverlappingPaths(ImmutableList.<Endpoint>builder()
+                    .addAll(allEndpoints)
+                    .add(batchEndpoint)
+                    .build());
             return new ConjureHandler(
                     fallback,
-                    allEndpoints.stream()
-                            .map(endpoint -> wrap(endpoint, wrappers))
-                            .collect(ImmutableList.toImmutableList()));
+                    ImmutableList.<Endpoint>builder()
+                            .addAll(wrappedEndpoints)
+                            .add(wrap(batchEndpoint, wrappers))
+                            .build());
+        }
+
+        private static Optional<HttpHandler> requestMetrics(Endpoint endpoint, UndertowRuntime runtime) {
+            RequestMetrics metrics = runtime.metrics();
+            if (metrics == RequestMetrics.noop()) {
+                return Optional.empty();
+            }
+            RequestMetrics.EndpointRecorder recorder = metrics.recorder(endpoint);
+            // HEAD requests are served by GET endpoints, but are recorded separately
+            RequestMetrics.EndpointRecorder headRecorder = Methods.GET.equals(endpoint.method())
+                    ? metrics.recorder(Endpoint.builder().from(endpoint).method(Methods.HEAD).build())
+                    : recorder;
+            return Optional.of(new RequestMetricsHandler(recorder, headRecorder, endpoint.handler()));
+        }
+
+        private HttpHandler blockingHandler(Endpoint endpoint) {
+            HttpHandler handler = endpoint.handler();
+            for (Bulkhead bulkhead : bulkheads) {
+                if (bulkhead.matches(endpoint)) {
+                    return bulkhead.blockingHandler(handler, runtime.exceptionHandler());
+                }
+            }
+            return blockingExecutor == null
+                    ? new BlockingHandler(handler)
+                    : new ExecutorBlockingHandler(blockingExecutor, handler);
+        }
+
+        /**
+         * Returns the executor which {@link #blockingHandler(Endpoint)} dispatches {@code endpoint} to, or empty for
+         * the server's worker pool.
+         */
+        private Optional<Executor> blockingExecutor(Endpoint endpoint) {
+            for (Bulkhead bulkhead : bulkheads) {
+                if (bulkhead.matches(endpoint)) {
+                    return Optional.of(bulkhead.executor());
+                }
+            }
+            return Optional.ofNullable(blockingExecutor);
+        }
+
+        private static Optional<HttpHandler> nonBlockingRequestBodies(Endpoint endpoint, UndertowRuntime runtime) {
+            // Conjure only allows request bodies for POST and PUT
+            if (!(runtime.bodySerDe() instanceof ConjureBodySerDe)
+                    || !(Methods.POST.equals(endpoint.method()) || Methods.PUT.equals(endpoint.method()))) {
+                return Optional.empty();
+            }
+            return ((ConjureBodySerDe) runtime.bodySerDe()).nonBlockingRequestBodyHandler(endpoint.handler());
         }
 
         private static Endpoint wrap(Endpoint input, List<EndpointHandlerWrapper> wrappers) {
@@ -292,7 +431,8 @@ public final class ConjureHandler implements HttpHandler {
         }
     }
 
+    /** Replaces parameter names, keeping {@code :.+} parameters distinct as they may span multiple segments. */
     private static String normalizeTemplate(String template) {
-        return template.replaceAll("\\{.*?\\}", "{param}");
+        return template.replaceAll("\\{[^}:]*?(:\\.\\+)?\\}", "{param$1}");
     }
 }
@@ -28,7 +28,9 @@ import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.ri.ResourceIdentifier;
 import com.palantir.tokens.auth.BearerToken;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +45,9 @@ import javax.annotation.Nullable;
 enum ConjurePlainSerDe implements PlainSerDe {
     INSTANCE;
 
+    /** Matches the initial capacity of {@link ImmutableList#builder()}. */
+    private static final int DEFAULT_EXPECTED_SIZE = 4;
+
     @Override
     public BearerToken deserializeBearerToken(@Nullable String in) {
         checkArgumentNotNull(in);
@@ -81,7 +86,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<BearerToken> builder = ImmutableList.builder();
+        ImmutableList.Builder<BearerToken> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeBearerToken(item));
         }
@@ -93,7 +98,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<BearerToken> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<BearerToken> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeBearerToken(item));
         }
@@ -136,7 +141,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<Boolean> builder = ImmutableList.builder();
+        ImmutableList.Builder<Boolean> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeBoolean(item));
         }
@@ -148,7 +153,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<Boolean> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<Boolean> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeBoolean(item));
         }
@@ -159,7 +164,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
     public OffsetDateTime deserializeDateTime(@Nullable String in) {
         checkArgumentNotNull(in);
         try {
-            return OffsetDateTime.parse(in);
+            return ConjurePrimitives.parseDateTime(in);
         } catch (RuntimeException ex) {
             throw new SafeIllegalArgumentException("failed to deserialize datetime", ex);
         }
@@ -191,7 +196,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<OffsetDateTime> builder = ImmutableList.builder();
+        ImmutableList.Builder<OffsetDateTime> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeDateTime(item));
         }
@@ -203,7 +208,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<OffsetDateTime> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<OffsetDateTime> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeDateTime(item));
         }
@@ -246,7 +251,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<Double> builder = ImmutableList.builder();
+        ImmutableList.Builder<Double> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeDouble(item));
         }
@@ -258,7 +263,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<Double> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<Double> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeDouble(item));
         }
@@ -301,7 +306,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeInteger(item));
         }
@@ -313,7 +318,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<Integer> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<Integer> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeInteger(item));
         }
@@ -356,7 +361,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<ResourceIdentifier> builder = ImmutableList.builder();
+        ImmutableList.Builder<ResourceIdentifier> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeRid(item));
         }
@@ -368,7 +373,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<ResourceIdentifier> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<ResourceIdentifier> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeRid(item));
         }
@@ -411,7 +416,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<SafeLong> builder = ImmutableList.builder();
+        ImmutableList.Builder<SafeLong> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeSafeLong(item));
         }
@@ -423,7 +428,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<SafeLong> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<SafeLong> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeSafeLong(item));
         }
@@ -470,7 +475,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
     public UUID deserializeUuid(@Nullable String in) {
         checkArgumentNotNull(in);
         try {
-            return UUID.fromString(in);
+            return ConjurePrimitives.parseUuid(in);
         } catch (RuntimeException ex) {
             throw new SafeIllegalArgumentException("failed to deserialize uuid", ex);
         }
@@ -502,7 +507,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<UUID> builder = ImmutableList.builder();
+        ImmutableList.Builder<UUID> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeUuid(item));
         }
@@ -514,7 +519,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<UUID> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<UUID> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeUuid(item));
         }
@@ -541,7 +546,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptyList();
         }
-        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        ImmutableList.Builder<T> builder = ImmutableList.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeComplex(item, factory));
         }
@@ -553,7 +558,7 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (in == null) {
             return Collections.emptySet();
         }
-        ImmutableSet.Builder<T> builder = ImmutableSet.builder();
+        ImmutableSet.Builder<T> builder = ImmutableSet.builderWithExpectedSize(expectedSize(in));
         for (String item : in) {
             builder.add(deserializeComplex(item, factory));
         }
@@ -572,6 +577,13 @@ enum ConjurePlainSerDe implements PlainSerDe {
         if (input == null) {
             throw new SafeIllegalArgumentException("Expected one element but received null");
         }
+        // Undertow supplies parameter values as a Deque, which can be read without allocating an iterator.
+        if (input instanceof Deque && ((Deque<T>) input).size() == 1) {
+            return ((Deque<T>) input).getFirst();
+        }
+        if (input instanceof List && ((List<T>) input).size() == 1) {
+            return ((List<T>) input).get(0);
+        }
         Iterator<T> iterator = input.iterator();
         if (!iterator.hasNext()) {
             throw new SafeIllegalArgumentException("Expected one element but received none");
@@ -589,6 +601,10 @@ enum ConjurePlainSerDe implements PlainSerDe {
         }
     }
 
+    private static int expectedSize(Iterable<?> input) {
+        return input instanceof Collection ? ((Collection<?>) input).size() : DEFAULT_EXPECTED_SIZE;
+    }
+
     /** Throws a SafeIllegalArgumentException rather than NPE in order to cause a 400 response. */
     @CanIgnoreReturnValue
     private static <T> T checkArgumentNotNull(@Nullable T input) {
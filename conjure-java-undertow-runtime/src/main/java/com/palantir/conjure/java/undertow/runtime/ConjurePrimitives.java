@@ -0,0 +1,222 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Hand-rolled parsers for the canonical wire representations of conjure {@code uuid} and {@code datetime} values,
+ * which operate on the input characters in place rather than allocating intermediate objects.
+ *
+ * <p>The {@code tryParse} methods return {@code null} for any input outside the canonical form, including invalid
+ * input. Callers must fall back to the standard parser in that case, which either accepts the less common forms or
+ * produces the usual failure.
+ */
+final class ConjurePrimitives {
+
+    private static final int UUID_LENGTH = 36;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int[] FRACTION_SCALE =
+            {1, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1};
+
+    private ConjurePrimitives() {}
+
+    static UUID parseUuid(String value) {
+        UUID uuid = tryParseUuid(value);
+        return uuid == null ? UUID.fromString(value) : uuid;
+    }
+
+    static OffsetDateTime parseDateTime(String value) {
+        OffsetDateTime dateTime = tryParseDateTime(value);
+        return dateTime == null ? OffsetDateTime.parse(value) : dateTime;
+    }
+
+    /** Parses {@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx} where each {@code x} is a hexadecimal digit. */
+    @Nullable
+    static UUID tryParseUuid(String value) {
+        return tryParseUuid(value, null, 0, value.length());
+    }
+
+    /** Parses a UUID from {@code length} characters of {@code chars} starting at {@code offset}. */
+    @Nullable
+    static UUID tryParseUuid(char[] chars, int offset, int length) {
+        return tryParseUuid(null, chars, offset, length);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ss[.S{1,9}](Z|+HH:mm|-HH:mm)}, the representation produced by
+     * {@link OffsetDateTime#toString()} for values with seconds.
+     */
+    @Nullable
+    static OffsetDateTime tryParseDateTime(String value) {
+        return tryParseDateTime(value, null, 0, value.length());
+    }
+
+    /** Parses a datetime from {@code length} characters of {@code chars} starting at {@code offset}. */
+    @Nullable
+    static OffsetDateTime tryParseDateTime(char[] chars, int offset, int length) {
+        return tryParseDateTime(null, chars, offset, length);
+    }
+
+    /*
+     * The parsers below read input from either a string or a range of a character array, which is how Jackson exposes
+     * string tokens, so that neither has to be wrapped or copied. Exactly one of string and chars is non-null, and
+     * indexes are relative to offset.
+     */
+
+    @Nullable
+    private static UUID tryParseUuid(@Nullable String string, @Nullable char[] chars, int offset, int length) {
+        if (length != UUID_LENGTH
+                || charAt(string, chars, offset + 8) != '-'
+                || charAt(string, chars, offset + 13) != '-'
+                || charAt(string, chars, offset + 18) != '-'
+                || charAt(string, chars, offset + 23) != '-') {
+            return null;
+        }
+        long first = parseHex(string, chars, offset, offset + 8);
+        long second = parseHex(string, chars, offset + 9, offset + 13);
+        long third = parseHex(string, chars, offset + 14, offset + 18);
+        long fourth = parseHex(string, chars, offset + 19, offset + 23);
+        long fifth = parseHex(string, chars, offset + 24, offset + 36);
+        if ((first | second | third | fourth | fifth) < 0) {
+            return null;
+        }
+        return new UUID((first << 32) | (second << 16) | third, (fourth << 48) | fifth);
+    }
+
+    @Nullable
+    private static OffsetDateTime tryParseDateTime(
+            @Nullable String string, @Nullable char[] chars, int offset, int length) {
+        // yyyy-MM-ddTHH:mm:ssZ is the shortest supported form
+        if (length < 20
+                || charAt(string, chars, offset + 4) != '-'
+                || charAt(string, chars, offset + 7) != '-'
+                || charAt(string, chars, offset + 10) != 'T'
+                || charAt(string, chars, offset + 13) != ':'
+                || charAt(string, chars, offset + 16) != ':') {
+            return null;
+        }
+        int year = parseDecimal(string, chars, offset, offset + 4);
+        int month = parseDecimal(string, chars, offset + 5, offset + 7);
+        int day = parseDecimal(string, chars, offset + 8, offset + 10);
+        int hour = parseDecimal(string, chars, offset + 11, offset + 13);
+        int minute = parseDecimal(string, chars, offset + 14, offset + 16);
+        int second = parseDecimal(string, chars, offset + 17, offset + 19);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        int end = offset + length;
+        int index = offset + 19;
+        int nanos = 0;
+        if (charAt(string, chars, index) == '.') {
+            int fractionStart = ++index;
+            while (index < end
+                    && index - fractionStart < MAX_FRACTION_DIGITS
+                    && isDigit(charAt(string, chars, index))) {
+                index++;
+            }
+            int digits = index - fractionStart;
+            if (digits == 0) {
+                return null;
+            }
+            nanos = parseDecimal(string, chars, fractionStart, index) * FRACTION_SCALE[digits];
+        }
+        ZoneOffset zoneOffset = parseOffset(string, chars, index, end);
+        if (zoneOffset == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.of(year, month, day, hour, minute, second, nanos, zoneOffset);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static ZoneOffset parseOffset(@Nullable String string, @Nullable char[] chars, int index, int end) {
+        int remaining = end - index;
+        if (remaining == 1 && charAt(string, chars, index) == 'Z') {
+            return ZoneOffset.UTC;
+        }
+        if (remaining != 6 || charAt(string, chars, index + 3) != ':') {
+            return null;
+        }
+        char sign = charAt(string, chars, index);
+        int hours = parseDecimal(string, chars, index + 1, index + 3);
+        int minutes = parseDecimal(string, chars, index + 4, index + 6);
+        if ((sign != '+' && sign != '-') || (hours | minutes) < 0) {
+            return null;
+        }
+        int signum = sign == '+' ? 1 : -1;
+        try {
+            return ZoneOffset.ofHoursMinutes(signum * hours, signum * minutes);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /** Returns the value of the decimal digits between {@code start} and {@code end}, or -1 if any are invalid. */
+    private static int parseDecimal(@Nullable String string, @Nullable char[] chars, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char character = charAt(string, chars, i);
+            if (!isDigit(character)) {
+                return -1;
+            }
+            result = result * 10 + (character - '0');
+        }
+        return result;
+    }
+
+    /** Returns the value of the hexadecimal digits between {@code start} and {@code end}, or -1 if any are invalid. */
+    private static long parseHex(@Nullable String string, @Nullable char[] chars, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = hexDigit(charAt(string, chars, i));
+            if (digit < 0) {
+                return -1;
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+
+    private static char charAt(@Nullable String string, @Nullable char[] chars, int index) {
+        return string != null ? string.charAt(index) : chars[index];
+    }
+
+    private static int hexDigit(char character) {
+        if (character >= '0' && character <= '9') {
+            return character - '0';
+        }
+        if (character >= 'a' && character <= 'f') {
+            return character - 'a' + 10;
+        }
+        if (character >= 'A' && character <= 'F') {
+            return character - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Decorates the {@link UUID} and {@link OffsetDateTime} deserializers with the {@link ConjurePrimitives} parsers,
+ * which read canonical string values directly from the parser buffer. Any other input, for example numeric
+ * timestamps or non-canonical strings, is handled by the decorated deserializer so behavior is unchanged.
+ */
+final class ConjurePrimitivesModule extends Module {
+
+    @Override
+    public String getModuleName() {
+        return "ConjurePrimitives";
+    }
+
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addBeanDeserializerModifier(new PrimitiveDeserializerModifier());
+    }
+
+    private static final class PrimitiveDeserializerModifier extends BeanDeserializerModifier {
+
+        @Override
+        public JsonDeserializer<?> modifyDeserializer(
+                DeserializationConfig _config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+            Class<?> type = beanDesc.getBeanClass();
+            if (type == UUID.class) {
+                return new UuidDeserializer(deserializer);
+            }
+            if (type == OffsetDateTime.class) {
+                return new DateTimeDeserializer(deserializer);
+            }
+            return deserializer;
+        }
+    }
+
+    private abstract static class PrimitiveDeserializer<T> extends StdDeserializer<T>
+            implements ContextualDeserializer, ResolvableDeserializer {
+
+        private final JsonDeserializer<?> delegate;
+
+        PrimitiveDeserializer(Class<T> type, JsonDeserializer<?> delegate) {
+            super(type);
+            this.delegate = delegate;
+        }
+
+        /**
+         * Parses {@code length} characters of {@code chars} from {@code offset}, returning the parsed value, or null if
+         * the delegate deserializer must be used.
+         */
+        @Nullable
+        abstract T tryParse(char[] chars, int offset, int length, DeserializationContext context);
+
+        abstract PrimitiveDeserializer<T> withDelegate(JsonDeserializer<?> newDelegate);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public final T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING) && parser.hasTextCharacters()) {
+                T value = tryParse(
+                        parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), context);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return (T) delegate.deserialize(parser, context);
+        }
+
+        @Override
+        public final void resolve(DeserializationContext context) throws JsonMappingException {
+            if (delegate instanceof ResolvableDeserializer) {
+                ((ResolvableDeserializer) delegate).resolve(context);
+            }
+        }
+
+        @Override
+        public final JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property)
+                throws JsonMappingException {
+            JsonDeserializer<?> contextual = delegate instanceof ContextualDeserializer
+                    ? ((ContextualDeserializer) delegate).createContextual(context, property)
+                    : delegate;
+            // Custom formats are only understood by the delegate
+            if (hasCustomFormat(findFormatOverrides(context, property, handledType()))) {
+                return contextual;
+            }
+            return contextual == delegate ? this : withDelegate(contextual);
+        }
+
+        private static boolean hasCustomFormat(@Nullable JsonFormat.Value format) {
+            return format != null
+                    && (format.hasPattern()
+                            || format.hasLenient()
+                            || !JsonFormat.Features.empty().equals(format.getFeatures()));
+        }
+    }
+
+    private static final class UuidDeserializer extends PrimitiveDeserializer<UUID> {
+
+        UuidDeserializer(JsonDeserializer<?> delegate) {
+            super(UUID.class, delegate);
+        }
+
+        @Override
+        @Nullable
+        UUID tryParse(char[] chars, int offset, int length, DeserializationContext _context) {
+            return ConjurePrimitives.tryParseUuid(chars, offset, length);
+        }
+
+        @Override
+        PrimitiveDeserializer<UUID> withDelegate(JsonDeserializer<?> newDelegate) {
+            return new UuidDeserializer(newDelegate);
+        }
+    }
+
+    private static final class DateTimeDeserializer extends PrimitiveDeserializer<OffsetDateTime> {
+
+        DateTimeDeserializer(JsonDeserializer<?> delegate) {
+            super(OffsetDateTime.class, delegate);
+        }
+
+        @Override
+        @Nullable
+        OffsetDateTime tryParse(char[] chars, int offset, int length, DeserializationContext context) {
+            // Adjusting to the context time zone is left to the delegate, conjure object mappers disable it
+            if (context.isEnabled(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)) {
+                return null;
+            }
+            return ConjurePrimitives.tryParseDateTime(chars, offset, length);
+        }
+
+        @Override
+        PrimitiveDeserializer<OffsetDateTime> withDelegate(JsonDeserializer<?> newDelegate) {
+            return new DateTimeDeserializer(newDelegate);
+        }
+    }
+}
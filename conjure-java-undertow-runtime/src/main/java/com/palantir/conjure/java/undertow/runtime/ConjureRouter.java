@@ -0,0 +1,417 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Booleans;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HttpString;
+import io.undertow.util.PathTemplateMatch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Routes requests using a trie of path segments which is compiled once when the {@link ConjureHandler} is built.
+ *
+ * <p>Method and path are resolved in a single walk over the request path without splitting it. Literal segments
+ * take precedence over parameters, which take precedence over {@code {name:.+}} parameters spanning one or more
+ * segments. Matched routes are exposed to generated handlers through the standard {@link PathTemplateMatch}
+ * attachment. Routes without parameters share a single match, and parameter values are only located in the request
+ * path once they're read, so routing doesn't allocate beyond the match for a parameterized route.
+ */
+final class ConjureRouter implements HttpHandler {
+
+    private static final String GREEDY_SUFFIX = ":.+";
+
+    private final Node root;
+    private final HttpHandler fallback;
+
+    private ConjureRouter(Node root, HttpHandler fallback) {
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        String path = exchange.getRelativePath();
+        int end = path.length();
+        // Match trailing slashes leniently, as the undertow PathTemplateMatcher did
+        if (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        int start = !path.isEmpty() && path.charAt(0) == '/' ? 1 : 0;
+        Route route = root.match(exchange.getRequestMethod(), path, start, end);
+        if (route == null) {
+            fallback.handleRequest(exchange);
+            return;
+        }
+        exchange.putAttachment(PathTemplateMatch.ATTACHMENT_KEY, route.match(path, start, end));
+        route.handler.handleRequest(exchange);
+    }
+
+    static final class Builder {
+
+        private final MutableNode root = new MutableNode();
+
+        private Builder() {}
+
+        @CanIgnoreReturnValue
+        Builder add(HttpString method, String template, HttpHandler handler) {
+            Preconditions.checkNotNull(method, "Method is required");
+            Preconditions.checkNotNull(template, "Template is required");
+            Preconditions.checkNotNull(handler, "Handler is required");
+            MutableNode current = root;
+            List<String> names = new ArrayList<>();
+            // Literal segments of the template, or null for parameters
+            List<String> literals = new ArrayList<>();
+            List<Boolean> greedy = new ArrayList<>();
+            for (String segment : segments(template)) {
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    String name = segment.substring(1, segment.length() - 1);
+                    if (name.endsWith(GREEDY_SUFFIX)) {
+                        names.add(name.substring(0, name.length() - GREEDY_SUFFIX.length()));
+                        literals.add(null);
+                        greedy.add(true);
+                        current = current.greedy();
+                    } else {
+                        names.add(name);
+                        literals.add(null);
+                        greedy.add(false);
+                        current = current.parameter();
+                    }
+                } else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                    throw new SafeIllegalArgumentException(
+                            "Path parameters must span an entire path segment", SafeArg.of("template", template));
+                } else {
+                    literals.add(segment);
+                    greedy.add(false);
+                    current = current.literal(segment);
+                }
+            }
+            current.addRoute(
+                    method,
+                    new Route(
+                            template,
+                            names.toArray(new String[0]),
+                            literals.toArray(new String[0]),
+                            Booleans.toArray(greedy),
+                            handler));
+            return this;
+        }
+
+        ConjureRouter build(HttpHandler fallback) {
+            Preconditions.checkNotNull(fallback, "Fallback is required");
+            return new ConjureRouter(root.build(), fallback);
+        }
+
+        private static Iterable<String> segments(String template) {
+            String trimmed = template.startsWith("/") ? template.substring(1) : template;
+            if (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            return trimmed.isEmpty() ? Collections.emptyList() : Splitter.on('/').split(trimmed);
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<String, MutableNode> literals = new TreeMap<>();
+        private final List<HttpString> methods = new ArrayList<>();
+        private final List<Route> routes = new ArrayList<>();
+
+        @Nullable
+        private MutableNode parameter;
+
+        @Nullable
+        private MutableNode greedy;
+
+        MutableNode literal(String segment) {
+            return literals.computeIfAbsent(segment, _key -> new MutableNode());
+        }
+
+        MutableNode parameter() {
+            if (parameter == null) {
+                parameter = new MutableNode();
+            }
+            return parameter;
+        }
+
+        MutableNode greedy() {
+            if (greedy == null) {
+                greedy = new MutableNode();
+            }
+            return greedy;
+        }
+
+        void addRoute(HttpString method, Route route) {
+            if (methods.contains(method)) {
+                throw new SafeIllegalArgumentException(
+                        "The same route is registered multiple times",
+                        SafeArg.of("method", method),
+                        SafeArg.of("template", route.template));
+            }
+            methods.add(method);
+            routes.add(route);
+        }
+
+        Node build() {
+            int size = literals.size();
+            // Literals are ordered by hash so that a segment can be found by binary search without allocating
+            List<Map.Entry<String, MutableNode>> entries = new ArrayList<>(literals.entrySet());
+            entries.sort(Map.Entry.comparingByKey(
+                    (first, second) -> Integer.compare(first.hashCode(), second.hashCode())));
+            int[] hashes = new int[size];
+            String[] segments = new String[size];
+            Node[] children = new Node[size];
+            for (int i = 0; i < size; i++) {
+                Map.Entry<String, MutableNode> entry = entries.get(i);
+                hashes[i] = entry.getKey().hashCode();
+                segments[i] = entry.getKey();
+                children[i] = entry.getValue().build();
+            }
+            return new Node(
+                    hashes,
+                    segments,
+                    children,
+                    parameter == null ? null : parameter.build(),
+                    greedy == null ? null : greedy.build(),
+                    methods.toArray(new HttpString[0]),
+                    routes.toArray(new Route[0]));
+        }
+    }
+
+    private static final class Node {
+        private final int[] literalHashes;
+        private final String[] literalSegments;
+        private final Node[] literalChildren;
+
+        @Nullable
+        private final Node parameter;
+
+        @Nullable
+        private final Node greedy;
+
+        private final HttpString[] methods;
+        private final Route[] routes;
+
+        Node(
+                int[] literalHashes,
+                String[] literalSegments,
+                Node[] literalChildren,
+                @Nullable Node parameter,
+                @Nullable Node greedy,
+                HttpString[] methods,
+                Route[] routes) {
+            this.literalHashes = literalHashes;
+            this.literalSegments = literalSegments;
+            this.literalChildren = literalChildren;
+            this.parameter = parameter;
+            this.greedy = greedy;
+            this.methods = methods;
+            this.routes = routes;
+        }
+
+        /** Matches the path from {@code start} to {@code end}, where {@code start} is the beginning of a segment. */
+        @Nullable
+        Route match(HttpString method, String path, int start, int end) {
+            if (start >= end) {
+                return route(method);
+            }
+            int segmentEnd = path.indexOf('/', start);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            int next = segmentEnd + 1;
+            Node literal = literal(path, start, segmentEnd);
+            if (literal != null) {
+                Route result = literal.match(method, path, next, end);
+                if (result != null) {
+                    return result;
+                }
+            }
+            if (parameter != null) {
+                Route result = parameter.match(method, path, next, end);
+                if (result != null) {
+                    return result;
+                }
+            }
+            if (greedy != null) {
+                // Extend the match one segment at a time so that literal segments following the parameter
+                // take precedence over routes ending in the parameter.
+                int greedyEnd = segmentEnd;
+                while (true) {
+                    // Unlike single segment parameters, '.+' parameters may not be empty
+                    if (greedyEnd > start) {
+                        Route result = greedy.match(method, path, greedyEnd + 1, end);
+                        if (result != null) {
+                            return result;
+                        }
+                    }
+                    if (greedyEnd >= end) {
+                        break;
+                    }
+                    greedyEnd = path.indexOf('/', greedyEnd + 1);
+                    if (greedyEnd < 0 || greedyEnd > end) {
+                        greedyEnd = end;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private Route route(HttpString method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return routes[i];
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private Node literal(String path, int start, int end) {
+            if (literalHashes.length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int index = Arrays.binarySearch(literalHashes, hash);
+            if (index < 0) {
+                return null;
+            }
+            // Walk back to the first literal with this hash, collisions are adjacent
+            while (index > 0 && literalHashes[index - 1] == hash) {
+                index--;
+            }
+            int length = end - start;
+            for (int i = index; i < literalHashes.length && literalHashes[i] == hash; i++) {
+                String segment = literalSegments[i];
+                if (segment.length() == length && path.regionMatches(start, segment, 0, length)) {
+                    return literalChildren[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A template registered with the router. Segments of the template are kept so that parameter values can be located
+     * in a matched path when they're read, rather than recorded while searching the trie.
+     */
+    static final class Route {
+        private final String template;
+        private final String[] names;
+        private final String[] literals;
+        private final boolean[] greedy;
+        private final HttpHandler handler;
+
+        @Nullable
+        private final PathTemplateMatch staticMatch;
+
+        Route(String template, String[] names, String[] literals, boolean[] greedy, HttpHandler handler) {
+            this.template = template;
+            this.names = names;
+            this.literals = literals;
+            this.greedy = greedy;
+            this.handler = handler;
+            this.staticMatch = names.length == 0 ? new PathTemplateMatch(template, Collections.emptyMap()) : null;
+        }
+
+        PathTemplateMatch match(String path, int start, int end) {
+            if (staticMatch != null) {
+                return staticMatch;
+            }
+            return new PathTemplateMatch(template, new PathParameters(this, names, path, start, end));
+        }
+
+        /**
+         * Locates the value of the parameter at {@code index} in a path from {@code start} to {@code end} which
+         * matched this route, returning its start and end offsets packed into a long.
+         */
+        long locate(String path, int start, int end, int index) {
+            long range = locate(path, start, end, 0, 0, index);
+            Preconditions.checkState(range >= 0, "Path does not match the route");
+            return range;
+        }
+
+        /**
+         * Matches segments of this route from {@code segment} against the path from {@code start}, in the same order
+         * as {@link Node#match}, so that '.+' parameters span the same segments. Returns the packed offsets of the
+         * parameter at {@code index}, zero if it isn't among the remaining segments, or -1 if the path doesn't match.
+         */
+        private long locate(String path, int start, int end, int segment, int parameter, int index) {
+            if (start >= end) {
+                return segment == literals.length ? 0 : -1;
+            }
+            if (segment == literals.length) {
+                return -1;
+            }
+            int segmentEnd = path.indexOf('/', start);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            String literal = literals[segment];
+            if (literal != null) {
+                int length = segmentEnd - start;
+                if (literal.length() != length || !path.regionMatches(start, literal, 0, length)) {
+                    return -1;
+                }
+                return locate(path, segmentEnd + 1, end, segment + 1, parameter, index);
+            }
+            if (!greedy[segment]) {
+                long result = locate(path, segmentEnd + 1, end, segment + 1, parameter + 1, index);
+                return parameter == index && result >= 0 ? range(start, segmentEnd) : result;
+            }
+            int greedyEnd = segmentEnd;
+            while (true) {
+                if (greedyEnd > start) {
+                    long result = locate(path, greedyEnd + 1, end, segment + 1, parameter + 1, index);
+                    if (result >= 0) {
+                        return parameter == index ? range(start, greedyEnd) : result;
+                    }
+                }
+                if (greedyEnd >= end) {
+                    return -1;
+                }
+                greedyEnd = path.indexOf('/', greedyEnd + 1);
+                if (greedyEnd < 0 || greedyEnd > end) {
+                    greedyEnd = end;
+                }
+            }
+        }
+
+        private static long range(int start, int end) {
+            return ((long) start << 32) | end;
+        }
+    }
+}
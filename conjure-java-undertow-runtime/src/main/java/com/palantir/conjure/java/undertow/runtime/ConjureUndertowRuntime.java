@@ -25,6 +25,7 @@ import com.palantir.conjure.java.undertow.lib.Contexts;
 import com.palantir.conjure.java.undertow.lib.ExceptionHandler;
 import com.palantir.conjure.java.undertow.lib.MarkerCallback;
 import com.palantir.conjure.java.undertow.lib.PlainSerDe;
+import com.palantir.conjure.java.undertow.lib.RequestMetrics;
 import com.palantir.conjure.java.undertow.lib.UndertowRuntime;
 import com.palantir.logsafe.Preconditions;
 import java.time.Duration;
@@ -40,17 +41,29 @@ public final class ConjureUndertowRuntime implements UndertowRuntime {
     private final AsyncRequestProcessing async;
     private final ExceptionHandler exceptionHandler;
     private final Contexts contexts;
+    private final RequestMetrics metrics;
 
     private ConjureUndertowRuntime(Builder builder) {
-        this.bodySerDe = new ConjureBodySerDe(
-                builder.encodings.isEmpty()
-                        ? ImmutableList.of(Encodings.json(), Encodings.smile(), Encodings.cbor())
-                        : builder.encodings);
+        List<Encoding> encodings = builder.encodings.isEmpty()
+                ? ImmutableList.of(Encodings.json(), Encodings.smile(), Encodings.cbor())
+                : builder.encodings;
+        this.bodySerDe = ConjureBodySerDe.builder(encodings)
+                .nonBlockingRequestBodies(builder.nonBlockingRequestBodies)
+                .nonBlockingMaximumBytes(builder.nonBlockingRequestBodyMaximumBytes)
+                .compression(builder.responseCompression
+                        ? new ResponseCompression(builder.responseCompressionMinimumBytes)
+                        : null)
+                .decompression(builder.requestDecompression
+                        ? new RequestDecompression(builder.requestDecompressionMaximumBytes)
+                        : null)
+                .etags(builder.etags)
+                .build();
         this.auth = new ConjureAuthorizationExtractor(plainSerDe());
         this.exceptionHandler = builder.exceptionHandler;
         this.markerCallback = MarkerCallbacks.fold(builder.paramMarkers);
         this.async = new ConjureAsyncRequestProcessing(builder.asyncTimeout, builder.exceptionHandler);
         this.contexts = new ConjureContexts(builder.requestArgHandler);
+        this.metrics = builder.metrics;
     }
 
     public static Builder builder() {
@@ -92,11 +105,24 @@ public final class ConjureUndertowRuntime implements UndertowRuntime {
         return contexts;
     }
 
+    @Override
+    public RequestMetrics metrics() {
+        return metrics;
+    }
+
     public static final class Builder {
 
         private Duration asyncTimeout = Duration.ofMinutes(3);
         private ExceptionHandler exceptionHandler = ConjureExceptions.INSTANCE;
         private RequestArgHandler requestArgHandler = DefaultRequestArgHandler.INSTANCE;
+        private RequestMetrics metrics = RequestMetrics.noop();
+        private boolean nonBlockingRequestBodies;
+        private long nonBlockingRequestBodyMaximumBytes = 1024 * 1024;
+        private boolean responseCompression;
+        private int responseCompressionMinimumBytes = 1024;
+        private boolean requestDecompression;
+        private long requestDecompressionMaximumBytes = 64 * 1024 * 1024;
+        private boolean etags;
         private final List<Encoding> encodings = new ArrayList<>();
         private final List<ParamMarker> paramMarkers = new ArrayList<>();
 
@@ -132,6 +158,87 @@ public final class ConjureUndertowRuntime implements UndertowRuntime {
             return this;
         }
 
+        /** Records per-endpoint request metrics. By default, no metrics are recorded. */
+        @CanIgnoreReturnValue
+        public Builder metrics(RequestMetrics value) {
+            metrics = Preconditions.checkNotNull(value, "metrics is required");
+            return this;
+        }
+
+        /**
+         * When enabled, JSON and Smile request bodies are read and parsed on the IO thread using a jackson
+         * non-blocking parser, and requests are only dispatched to the worker pool once the entire body has been
+         * received. This prevents slow clients from occupying worker threads while uploading request bodies. Request
+         * bodies using other encodings, or with a {@code Content-Length} larger than
+         * {@link #nonBlockingRequestBodyMaximumBytes(long)}, are read on the worker thread as usual. Disabled by
+         * default.
+         */
+        @CanIgnoreReturnValue
+        public Builder nonBlockingRequestBodies(boolean value) {
+            nonBlockingRequestBodies = value;
+            return this;
+        }
+
+        /**
+         * Maximum request body size which is buffered when non-blocking request bodies are enabled, 1 MiB by default.
+         * Requests without a {@code Content-Length} which exceed the limit fail with status 413.
+         */
+        @CanIgnoreReturnValue
+        public Builder nonBlockingRequestBodyMaximumBytes(long value) {
+            nonBlockingRequestBodyMaximumBytes = value;
+            return this;
+        }
+
+        /**
+         * When enabled, serialized response bodies are compressed using gzip or deflate when accepted by the client.
+         * Responses smaller than {@link #responseCompressionMinimumBytes(int)} are not compressed. Binary responses
+         * are never compressed. Disabled by default.
+         */
+        @CanIgnoreReturnValue
+        public Builder responseCompression(boolean value) {
+            responseCompression = value;
+            return this;
+        }
+
+        /** Minimum serialized response size to compress when response compression is enabled, 1 KiB by default. */
+        @CanIgnoreReturnValue
+        public Builder responseCompressionMinimumBytes(int value) {
+            responseCompressionMinimumBytes = value;
+            return this;
+        }
+
+        /**
+         * When enabled, serialized request bodies sent with {@code Content-Encoding: gzip} or {@code deflate} are
+         * inflated as they are deserialized. Requests which inflate to more than
+         * {@link #requestDecompressionMaximumBytes(long)} fail with status 413. Binary request bodies are provided
+         * to endpoints as sent. Disabled by default.
+         */
+        @CanIgnoreReturnValue
+        public Builder requestDecompression(boolean value) {
+            requestDecompression = value;
+            return this;
+        }
+
+        /** Maximum inflated request body size when request decompression is enabled, 64 MiB by default. */
+        @CanIgnoreReturnValue
+        public Builder requestDecompressionMaximumBytes(long value) {
+            requestDecompressionMaximumBytes = value;
+            return this;
+        }
+
+        /**
+         * When enabled, serialized responses to {@code GET} requests are sent with a strong {@code ETag} computed from
+         * the response body, and requests with a matching {@code If-None-Match} header receive {@code 304 Not Modified}
+         * without a body. Tagged responses may be stored by clients using {@code Cache-Control: private, no-cache}.
+         * Responses which exceed the 1 MiB buffer limit are streamed and not tagged. The endpoint is still executed
+         * for every request. Disabled by default.
+         */
+        @CanIgnoreReturnValue
+        public Builder etags(boolean value) {
+            etags = value;
+            return this;
+        }
+
         public ConjureUndertowRuntime build() {
             return new ConjureUndertowRuntime(this);
         }
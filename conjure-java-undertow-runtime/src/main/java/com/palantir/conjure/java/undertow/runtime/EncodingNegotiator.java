@@ -0,0 +1,217 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import io.undertow.util.HeaderValues;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Selects the {@link Encoding} used for request and response bodies based on the {@code Content-Type} and
+ * {@code Accept} headers. Clients send a small number of distinct header values, so results are cached by the raw
+ * header value, allowing negotiation to complete with a single lookup in the common case. Caches are bounded to
+ * protect against unbounded growth when clients send arbitrary values, once full new values are negotiated
+ * without being cached.
+ */
+final class EncodingNegotiator {
+
+    /** Result of {@link #getRequestEncoding(String)} when no encoding supports the provided content type. */
+    static final int UNSUPPORTED = -1;
+
+    private static final int DEFAULT_ENCODING = 0;
+    private static final int MAX_CACHE_SIZE = 1024;
+    private static final int MAX_CACHED_HEADER_LENGTH = 256;
+    private static final Splitter ACCEPT_VALUE_SPLITTER =
+            Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PARAMETER_SPLITTER =
+            Splitter.on(';').trimResults().omitEmptyStrings();
+
+    private final List<Encoding> encodings;
+    private final ConcurrentMap<String, Integer> acceptCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> contentTypeCache = new ConcurrentHashMap<>();
+
+    EncodingNegotiator(List<Encoding> encodings) {
+        this.encodings = ImmutableList.copyOf(encodings);
+    }
+
+    /**
+     * Returns the index of the encoding which should be used to serialize a response given the request
+     * {@code Accept} values. Media ranges are ranked by quality value, then by the order provided by the client,
+     * then by encoding order. Wildcard ranges are supported, and the most specific range matching an encoding
+     * determines its quality. The first encoding is used when no encoding is acceptable.
+     */
+    int getResponseEncoding(HeaderValues acceptValues) {
+        if (acceptValues == null || acceptValues.isEmpty()) {
+            return DEFAULT_ENCODING;
+        }
+        if (acceptValues.size() != 1) {
+            // Multiple Accept headers are uncommon and cannot be used as a cache key without allocation.
+            return negotiateResponseEncoding(acceptValues);
+        }
+        String acceptValue = acceptValues.get(0);
+        Integer cached = acceptCache.get(acceptValue);
+        if (cached != null) {
+            return cached;
+        }
+        int result = negotiateResponseEncoding(acceptValues);
+        maybeCache(acceptCache, acceptValue, result);
+        return result;
+    }
+
+    /**
+     * Returns the index of the first encoding which {@link Encoding#supportsContentType supports} the request
+     * {@code Content-Type}, or {@link #UNSUPPORTED} if no such encoding exists.
+     */
+    int getRequestEncoding(String contentType) {
+        Integer cached = contentTypeCache.get(contentType);
+        if (cached != null) {
+            return cached;
+        }
+        int result = negotiateRequestEncoding(contentType);
+        maybeCache(contentTypeCache, contentType, result);
+        return result;
+    }
+
+    @VisibleForTesting
+    int cacheSize() {
+        return acceptCache.size() + contentTypeCache.size();
+    }
+
+    @SuppressWarnings("ForLoopReplaceableByForEach") // performance sensitive code avoids iterator allocation
+    private int negotiateRequestEncoding(String contentType) {
+        for (int i = 0; i < encodings.size(); i++) {
+            if (encodings.get(i).supportsContentType(contentType)) {
+                return i;
+            }
+        }
+        return UNSUPPORTED;
+    }
+
+    private int negotiateResponseEncoding(HeaderValues acceptValues) {
+        List<MediaRange> ranges = parseMediaRanges(acceptValues);
+        int selected = DEFAULT_ENCODING;
+        MediaRange selectedRange = null;
+        for (int i = 0; i < encodings.size(); i++) {
+            MediaRange range = mostSpecificMatch(encodings.get(i), ranges);
+            if (range != null && range.quality > 0 && isPreferred(range, selectedRange)) {
+                selected = i;
+                selectedRange = range;
+            }
+        }
+        return selected;
+    }
+
+    private static boolean isPreferred(MediaRange candidate, MediaRange current) {
+        if (current == null) {
+            return true;
+        }
+        if (candidate.quality != current.quality) {
+            return candidate.quality > current.quality;
+        }
+        // Ties prefer the client order, then the encoding order.
+        return candidate.position < current.position;
+    }
+
+    private static MediaRange mostSpecificMatch(Encoding encoding, List<MediaRange> ranges) {
+        MediaRange result = null;
+        int resultSpecificity = -1;
+        for (MediaRange range : ranges) {
+            int specificity = range.specificity(encoding);
+            if (specificity > resultSpecificity) {
+                result = range;
+                resultSpecificity = specificity;
+            }
+        }
+        return result;
+    }
+
+    private static List<MediaRange> parseMediaRanges(HeaderValues acceptValues) {
+        ImmutableList.Builder<MediaRange> ranges = ImmutableList.builder();
+        int position = 0;
+        for (String acceptValue : acceptValues) {
+            for (String range : ACCEPT_VALUE_SPLITTER.split(acceptValue)) {
+                ranges.add(MediaRange.parse(range, position++));
+            }
+        }
+        return ranges.build();
+    }
+
+    private static void maybeCache(ConcurrentMap<String, Integer> cache, String headerValue, int result) {
+        if (headerValue.length() <= MAX_CACHED_HEADER_LENGTH && cache.size() < MAX_CACHE_SIZE) {
+            cache.putIfAbsent(headerValue, result);
+        }
+    }
+
+    private static final class MediaRange {
+
+        private static final String WILDCARD = "*";
+        private static final int NO_MATCH = -1;
+        private static final int WILDCARD_MATCH = 0;
+        private static final int TYPE_WILDCARD_MATCH = 1;
+        private static final int EXACT_MATCH = 2;
+
+        private final String mediaType;
+        private final float quality;
+        private final int position;
+
+        private MediaRange(String mediaType, float quality, int position) {
+            this.mediaType = mediaType;
+            this.quality = quality;
+            this.position = position;
+        }
+
+        static MediaRange parse(String value, int position) {
+            int parametersIndex = value.indexOf(';');
+            if (parametersIndex < 0) {
+                return new MediaRange(value, 1, position);
+            }
+            String mediaType = value.substring(0, parametersIndex).trim();
+            float quality = 1;
+            for (String parameter : PARAMETER_SPLITTER.split(value.substring(parametersIndex + 1))) {
+                if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    quality = parseQuality(parameter.substring(2));
+                }
+            }
+            return new MediaRange(mediaType, quality, position);
+        }
+
+        /** Malformed quality values are ignored rather than rejecting the request. */
+        private static float parseQuality(String value) {
+            try {
+                return Math.max(0, Math.min(1, Float.parseFloat(value)));
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+
+        int specificity(Encoding encoding) {
+            if (mediaType.equals("*/*") || mediaType.equals(WILDCARD)) {
+                return WILDCARD_MATCH;
+            }
+            if (mediaType.endsWith("/*")) {
+                int typeLength = mediaType.length() - 1;
+                String contentType = encoding.getContentType();
+                return contentType.regionMatches(true, 0, mediaType, 0, typeLength) ? TYPE_WILDCARD_MATCH : NO_MATCH;
+            }
+            return encoding.supportsContentType(mediaType) ? EXACT_MATCH : NO_MATCH;
+        }
+    }
+}
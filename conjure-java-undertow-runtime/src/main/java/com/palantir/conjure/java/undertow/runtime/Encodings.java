@@ -29,14 +29,26 @@ import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeIoException;
 import java.io.IOException;
+import java.util.Optional;
 
-// TODO(rfink): Consider async Jackson, see
-//              https://github.com/spring-projects/spring-framework/commit/31e0e537500c0763a36d3af2570d5c253a374690
-//              and https://groups.google.com/forum/#!topic/jackson-user/m_prSo8d_Pw
 public final class Encodings {
 
     private Encodings() {}
 
+    /**
+     * Returns the {@link ObjectMapper} used by the provided encoding if it supports non-blocking parsing, see
+     * {@link NonBlockingRequestBodyHandler}. Only JSON and Smile encodings provided by this class qualify.
+     */
+    static Optional<ObjectMapper> nonBlockingMapper(Encoding encoding) {
+        if (encoding instanceof AbstractJacksonEncoding) {
+            ObjectMapper mapper = ((AbstractJacksonEncoding) encoding).mapper;
+            if (mapper.getFactory().canParseAsync()) {
+                return Optional.of(mapper);
+            }
+        }
+        return Optional.empty();
+    }
+
     private abstract static class AbstractJacksonEncoding implements Encoding {
 
         private final ObjectMapper mapper;
@@ -80,7 +92,9 @@ public final class Encodings {
             ObjectReader reader = mapper.readerFor(mapper.constructType(type.getType()));
             return input -> {
                 try {
-                    T value = reader.readValue(input);
+                    T value = input instanceof ParsedRequestBody
+                            ? reader.readValue(((ParsedRequestBody) input).parser())
+                            : reader.readValue(input);
                     // Bad input should result in a 4XX response status, throw IAE rather than NPE.
                     Preconditions.checkArgument(value != null, "cannot deserialize a JSON null value");
                     return value;
@@ -152,6 +166,10 @@ public final class Encodings {
         // See documentation on Encoding.Serializer#serialize: Implementations must not close the stream.
         return mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
                 // Avoid flushing, allowing us to set content-length if the length is below the buffer size.
-                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                // Write Stream<Map.Entry<K, V>> values returned by streaming collection endpoints as JSON objects.
+                .registerModule(new StreamingCollectionsModule())
+                // Parse canonical uuid and datetime strings without intermediate objects.
+                .registerModule(new ConjurePrimitivesModule());
     }
 }
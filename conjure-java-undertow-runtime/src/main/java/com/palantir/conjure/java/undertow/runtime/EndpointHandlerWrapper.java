@@ -17,6 +17,7 @@
 package com.palantir.conjure.java.undertow.runtime;
 
 import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.UndertowRuntime;
 import io.undertow.server.ExchangeCompletionListener;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
@@ -35,4 +36,13 @@ public interface EndpointHandlerWrapper {
 
     /** May wrap {@link Endpoint#handler()} if this wrapper applies, otherwise empty. */
     Optional<HttpHandler> wrap(Endpoint endpoint);
+
+    /**
+     * May wrap {@link Endpoint#handler()} using the {@link UndertowRuntime} configured on the {@link ConjureHandler},
+     * for example to handle failures using {@link UndertowRuntime#exceptionHandler()}. Defaults to
+     * {@link #wrap(Endpoint)}.
+     */
+    default Optional<HttpHandler> wrap(Endpoint endpoint, UndertowRuntime _runtime) {
+        return wrap(endpoint);
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate at which errors of each type are logged using a token bucket per error name, so that a burst of
+ * identical failures, for example a misbehaving client sending invalid arguments, doesn't become a logging burst.
+ * The number of suppressed logs is reported by the next permitted log for the same error type.
+ *
+ * <p>Buckets are implemented as a generic cell rate algorithm, tracking only the time at which the bucket will be
+ * full again, which allows permits to be acquired without locking.
+ */
+final class ErrorLogLimiter {
+
+    /** Returned by {@link #tryAcquire(String)} when the log should be suppressed. */
+    static final int SUPPRESSED = -1;
+
+    /** Bounds the number of buckets in case error names are unexpectedly dynamic. */
+    private static final int MAX_BUCKETS = 1000;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    ErrorLogLimiter(int permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns {@link #SUPPRESSED} if an error named {@code errorName} should not be logged, otherwise the number of
+     * suppressed logs for that error since the previous permitted log.
+     */
+    int tryAcquire(String errorName) {
+        Bucket bucket = buckets.get(errorName);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_BUCKETS) {
+                return 0;
+            }
+            bucket = buckets.computeIfAbsent(errorName, _name -> new Bucket());
+        }
+        return bucket.tryAcquire(nanoClock.getAsLong(), intervalNanos, burstNanos);
+    }
+
+    private static final class Bucket {
+        // Theoretical arrival time, the bucket is full when this is in the past
+        private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        int tryAcquire(long nowNanos, long intervalNanos, long burstNanos) {
+            while (true) {
+                long current = theoreticalArrivalNanos.get();
+                long next = (current == Long.MIN_VALUE || current - nowNanos < 0 ? nowNanos : current) + intervalNanos;
+                if (next - nowNanos > burstNanos) {
+                    suppressed.incrementAndGet();
+                    return SUPPRESSED;
+                }
+                if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                    return suppressed.getAndSet(0);
+                }
+            }
+        }
+    }
+}
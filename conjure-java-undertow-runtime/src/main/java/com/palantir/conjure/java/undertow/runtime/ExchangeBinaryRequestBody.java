@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.undertow.lib.BinaryRequestBody;
+import com.palantir.logsafe.Preconditions;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BinaryRequestBody} which opens the exchange request stream only once it's read, so that bodies which are
+ * transferred into a channel are read directly from the request channel, see {@link RequestBodyTransfer}.
+ */
+final class ExchangeBinaryRequestBody extends BinaryRequestBody {
+
+    private final HttpServerExchange exchange;
+
+    @Nullable
+    private InputStream inputStream;
+
+    ExchangeBinaryRequestBody(HttpServerExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel destination) throws IOException {
+        Preconditions.checkNotNull(destination, "A destination channel is required");
+        return RequestBodyTransfer.transfer(exchange, destination);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return inputStream().read();
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        return inputStream().read(buffer, off, len);
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        return inputStream().skip(count);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return inputStream().available();
+    }
+
+    /** Closing the stream discards the remainder of the request body. */
+    @Override
+    public void close() throws IOException {
+        inputStream().close();
+    }
+
+    private InputStream inputStream() {
+        if (inputStream == null) {
+            inputStream = exchange.getInputStream();
+        }
+        return inputStream;
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeBinaryRequestBody{exchange=" + exchange + '}';
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import java.util.concurrent.Executor;
+
+/**
+ * Equivalent to the undertow {@link io.undertow.server.handlers.BlockingHandler}, however requests are dispatched
+ * to the provided {@link Executor} rather than the XNIO worker pool. Unlike a {@code BlockingHandler}, requests
+ * which are already on a worker thread, for example once a request body has been read without blocking, are
+ * dispatched as well unless they're already running on the provided executor.
+ */
+final class ExecutorBlockingHandler implements HttpHandler {
+
+    /** Executor which dispatched the request handled by the current thread, if any. */
+    private static final ThreadLocal<Executor> currentExecutor = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final HttpHandler next;
+    private final HttpHandler dispatched;
+
+    ExecutorBlockingHandler(Executor executor, HttpHandler next) {
+        this.executor = executor;
+        this.next = next;
+        this.dispatched = exchange -> {
+            currentExecutor.set(executor);
+            try {
+                next.handleRequest(exchange);
+            } finally {
+                currentExecutor.remove();
+            }
+        };
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        exchange.startBlocking();
+        if (currentExecutor.get() == executor) {
+            next.handleRequest(exchange);
+        } else {
+            exchange.dispatch(executor, dispatched);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorBlockingHandler{executor=" + executor + ", next=" + next + '}';
+    }
+}
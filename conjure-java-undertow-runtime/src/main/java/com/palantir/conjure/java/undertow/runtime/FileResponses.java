@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.undertow.lib.FileBinaryResponseBody;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.xnio.channels.Channels;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * Sends {@link FileBinaryResponseBody} responses by transferring the file to the response channel, which uses
+ * {@code sendfile} where the connection supports it rather than copying file content through heap buffers.
+ */
+final class FileResponses {
+
+    private FileResponses() {}
+
+    static void send(HttpServerExchange exchange, FileBinaryResponseBody body) throws IOException {
+        try (FileChannel file = FileChannel.open(body.file(), StandardOpenOption.READ)) {
+            long size = file.size();
+            exchange.setResponseContentLength(size);
+            StreamSinkChannel channel = exchange.getResponseChannel();
+            if (channel == null) {
+                // The response stream is already in use
+                body.write(exchange.getOutputStream());
+                return;
+            }
+            transfer(file, 0, size, channel);
+            channel.shutdownWrites();
+            Channels.flushBlocking(channel);
+        }
+    }
+
+    /**
+     * Transfers {@code count} bytes of {@code file} starting at {@code position} to {@code channel}. Until response
+     * headers have been written, Undertow transfers a full buffer from the current file position instead, so ranges
+     * which don't cover the entire file may only be transferred once the headers have been flushed.
+     */
+    static void transfer(FileChannel file, long position, long count, StreamSinkChannel channel)
+            throws IOException {
+        long end = position + count;
+        long current = position;
+        while (current < end) {
+            long transferred = channel.transferFrom(file, current, end - current);
+            if (transferred > 0) {
+                current += transferred;
+            } else if (current >= file.size()) {
+                // Avoid waiting forever for data which no longer exists
+                throw new SafeIoException("File was truncated while it was being sent");
+            } else {
+                channel.awaitWritable();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+/**
+ * Inflates a {@code gzip} or {@code deflate} stream using a pooled {@link Inflater}, failing once more than the
+ * maximum number of bytes have been produced. Unlike {@link java.util.zip.GZIPInputStream}, the inflater is returned
+ * to the pool rather than discarded when the stream is closed.
+ *
+ * <p>Failures are thrown as runtime exceptions so they map to client errors, and are retained in {@link #failure()}
+ * because deserializers may wrap exceptions thrown by the stream.
+ */
+final class InflatingInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_FLAG_HEADER_CRC = 2;
+    private static final int GZIP_FLAG_EXTRA = 4;
+    private static final int GZIP_FLAG_NAME = 8;
+    private static final int GZIP_FLAG_COMMENT = 16;
+
+    private final RequestDecompression.InflaterPool pool;
+    private final Inflater inflater;
+    private final boolean gzip;
+    private final CRC32 crc;
+    private final InputStream input;
+    private final long maximumBytes;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] singleByte = new byte[1];
+    private int position;
+    private int limit;
+    private long inflatedBytes;
+    private boolean headerRead;
+    private boolean finished;
+    private boolean closed;
+
+    @Nullable
+    private RuntimeException failure;
+
+    InflatingInputStream(RequestDecompression.InflaterPool pool, boolean gzip, InputStream input, long maximumBytes) {
+        this.pool = pool;
+        this.inflater = pool.acquire();
+        this.gzip = gzip;
+        this.crc = new CRC32();
+        this.input = input;
+        this.maximumBytes = maximumBytes;
+    }
+
+    /** Returns the failure which terminated inflation, if any. */
+    @Nullable
+    RuntimeException failure() {
+        return failure;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (finished) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!headerRead) {
+            if (gzip) {
+                readGzipHeader();
+            }
+            headerRead = true;
+        }
+        try {
+            while (true) {
+                int inflated = inflater.inflate(bytes, offset, length);
+                if (inflated > 0) {
+                    inflatedBytes += inflated;
+                    if (inflatedBytes > maximumBytes) {
+                        throw fail(FrameworkException.payloadTooLarge(
+                                "Decompressed request body exceeds the maximum size",
+                                SafeArg.of("maximumBytes", maximumBytes)));
+                    }
+                    if (gzip) {
+                        crc.update(bytes, offset, inflated);
+                    }
+                    return inflated;
+                }
+                if (inflater.finished()) {
+                    position = limit - inflater.getRemaining();
+                    if (gzip) {
+                        readGzipTrailer();
+                    }
+                    finished = true;
+                    return -1;
+                }
+                if (inflater.needsDictionary()) {
+                    throw fail(new SafeIllegalArgumentException("Compressed request body requires a dictionary"));
+                }
+                if (inflater.needsInput()) {
+                    if (position == limit) {
+                        fill();
+                    }
+                    inflater.setInput(buffer, position, limit - position);
+                    position = limit;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw fail(new SafeIllegalArgumentException("Malformed compressed request body", e));
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return closed || finished ? 0 : 1;
+    }
+
+    /**
+     * Returns the {@link Inflater} to the pool, and closes the underlying stream. Deserializers needn't read to the
+     * end of the stream, so any remaining data is inflated to validate the gzip trailer.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                if (headerRead && failure == null) {
+                    while (read(singleByte, 0, 1) != -1) {
+                        // Discard trailing data
+                    }
+                }
+            } finally {
+                closed = true;
+                pool.release(inflater);
+                input.close();
+            }
+        }
+    }
+
+    private void readGzipHeader() throws IOException {
+        if (readUnsignedShort() != GZIP_MAGIC) {
+            throw fail(new SafeIllegalArgumentException("Compressed request body is not in gzip format"));
+        }
+        int method = readUnsignedByte();
+        if (method != Deflater.DEFLATED) {
+            throw fail(new SafeIllegalArgumentException(
+                    "Unsupported gzip compression method", SafeArg.of("method", method)));
+        }
+        int flags = readUnsignedByte();
+        // Modification time, extra flags and operating system
+        skip(6);
+        if ((flags & GZIP_FLAG_EXTRA) != 0) {
+            skip(readUnsignedShort());
+        }
+        if ((flags & GZIP_FLAG_NAME) != 0) {
+            skipNullTerminated();
+        }
+        if ((flags & GZIP_FLAG_COMMENT) != 0) {
+            skipNullTerminated();
+        }
+        if ((flags & GZIP_FLAG_HEADER_CRC) != 0) {
+            skip(2);
+        }
+    }
+
+    private void readGzipTrailer() throws IOException {
+        long expectedCrc = readUnsignedInt();
+        long expectedSize = readUnsignedInt();
+        if (expectedCrc != crc.getValue() || expectedSize != (inflatedBytes & 0xffffffffL)) {
+            throw fail(new SafeIllegalArgumentException("Corrupt gzip request body"));
+        }
+    }
+
+    private void skip(int bytes) throws IOException {
+        for (int i = 0; i < bytes; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    private void skipNullTerminated() throws IOException {
+        while (readUnsignedByte() != 0) {
+            // Skip until the terminating zero byte
+        }
+    }
+
+    private long readUnsignedInt() throws IOException {
+        return readUnsignedShort() | ((long) readUnsignedShort() << 16);
+    }
+
+    private int readUnsignedShort() throws IOException {
+        return readUnsignedByte() | (readUnsignedByte() << 8);
+    }
+
+    private int readUnsignedByte() throws IOException {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private void fill() throws IOException {
+        int read;
+        do {
+            read = input.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            throw fail(new SafeIllegalArgumentException("Unexpected end of compressed request body"));
+        }
+        position = 0;
+        limit = read;
+    }
+
+    private RuntimeException fail(RuntimeException exception) {
+        failure = exception;
+        return exception;
+    }
+}
@@ -29,7 +29,7 @@ import io.undertow.util.Headers;
  */
 final class NoCachingResponseHandler implements HttpHandler {
 
-    private static final String DO_NOT_CACHE = "no-cache, no-store, must-revalidate";
+    static final String DO_NOT_CACHE = "no-cache, no-store, must-revalidate";
 
     private final HttpHandler next;
 
@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import io.undertow.io.Receiver;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.xnio.IoUtils;
+
+/**
+ * Reads jackson request bodies without blocking by feeding chunks from the undertow {@link Receiver} into a
+ * jackson non-blocking parser on the IO thread. Once the body has been fully received, parsed tokens are attached
+ * to the exchange as a {@link ParsedRequestBody} and the request is dispatched to the delegate on a worker thread.
+ * This way slow clients uploading request bodies do not occupy worker threads.
+ *
+ * <p>Requests are passed directly to the delegate when the request is not on the IO thread, has no body, has a
+ * compressed {@code Content-Encoding}, or uses a {@code Content-Type} which doesn't support non-blocking parsing, for
+ * example {@code application/cbor} and {@code application/octet-stream}.
+ *
+ * <p>Parsed tokens are held in memory until the request is dispatched, so at most {@code maxBytes} of content are
+ * buffered. Requests with a larger {@code Content-Length} are passed directly to the delegate, which streams the body
+ * on the worker thread. Requests without a {@code Content-Length} which exceed the limit fail with status 413.
+ */
+final class NonBlockingRequestBodyHandler implements HttpHandler {
+
+    private final HttpHandler delegate;
+    private final EncodingNegotiator negotiator;
+    private final List<Optional<ObjectMapper>> mappers;
+    private final long maxBytes;
+
+    /**
+     * Creates a new handler where {@code mappers} provides the mapper used for non-blocking parsing for each
+     * encoding index returned by the {@link EncodingNegotiator}, buffering at most {@code maxBytes} of content.
+     */
+    NonBlockingRequestBodyHandler(
+            HttpHandler delegate, EncodingNegotiator negotiator, List<Optional<ObjectMapper>> mappers, long maxBytes) {
+        this.delegate = Preconditions.checkNotNull(delegate, "delegate is required");
+        this.negotiator = Preconditions.checkNotNull(negotiator, "negotiator is required");
+        this.mappers = Preconditions.checkNotNull(mappers, "mappers are required");
+        Preconditions.checkArgument(maxBytes >= 0, "maxBytes must not be negative", SafeArg.of("maxBytes", maxBytes));
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        ObjectMapper mapper = getNonBlockingMapper(exchange);
+        if (mapper == null) {
+            delegate.handleRequest(exchange);
+            return;
+        }
+        JsonParser parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        TokenBuffer tokens = new TokenBuffer(parser)
+                .forceUseOfBigDecimal(mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS));
+        BodyTokenizer tokenizer = new BodyTokenizer(delegate, parser, tokens, maxBytes);
+        exchange.getRequestReceiver().receivePartialBytes(tokenizer, tokenizer);
+    }
+
+    @Nullable
+    private ObjectMapper getNonBlockingMapper(HttpServerExchange exchange) {
+        if (!exchange.isInIoThread()
+                || exchange.isRequestComplete()
+                || exchange.getRequestContentLength() > maxBytes
+                || exchange.getRequestHeaders().contains(Headers.CONTENT_ENCODING)) {
+            return null;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst(Headers.CONTENT_TYPE);
+        if (contentType == null) {
+            return null;
+        }
+        int index = negotiator.getRequestEncoding(contentType);
+        if (index == EncodingNegotiator.UNSUPPORTED) {
+            return null;
+        }
+        return mappers.get(index).orElse(null);
+    }
+
+    private static final class BodyTokenizer implements Receiver.PartialBytesCallback, Receiver.ErrorCallback {
+
+        private final HttpHandler delegate;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final TokenBuffer tokens;
+        private final long maxBytes;
+        private long receivedBytes;
+        private boolean empty = true;
+
+        @Nullable
+        private ParsedRequestBody failure;
+
+        BodyTokenizer(HttpHandler delegate, JsonParser parser, TokenBuffer tokens, long maxBytes) {
+            this.delegate = delegate;
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.tokens = tokens;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void handle(HttpServerExchange exchange, byte[] message, boolean last) {
+            // Once parsing has failed the remaining content is discarded, the failure is reported
+            // when the body is deserialized.
+            receivedBytes += message.length;
+            if (failure == null && receivedBytes > maxBytes) {
+                failure = ParsedRequestBody.failed(FrameworkException.payloadTooLarge(
+                        "Request body is too large to buffer", SafeArg.of("maxBytes", maxBytes)));
+            }
+            if (failure == null) {
+                try {
+                    if (message.length > 0) {
+                        empty = false;
+                        feeder.feedInput(message, 0, message.length);
+                        copyAvailableTokens();
+                    }
+                    if (last) {
+                        feeder.endOfInput();
+                        copyAvailableTokens();
+                    }
+                } catch (IOException e) {
+                    failure = ParsedRequestBody.failed(e);
+                }
+            }
+            if (last) {
+                complete(exchange, failure == null ? ParsedRequestBody.of(tokens, empty) : failure);
+            }
+        }
+
+        @Override
+        public void error(HttpServerExchange exchange, IOException error) {
+            complete(exchange, ParsedRequestBody.failed(error));
+        }
+
+        private void copyAvailableTokens() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                tokens.copyCurrentEvent(parser);
+            }
+        }
+
+        private void complete(HttpServerExchange exchange, ParsedRequestBody body) {
+            IoUtils.safeClose(parser);
+            exchange.putAttachment(ParsedRequestBody.KEY, body);
+            exchange.dispatch(delegate);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.palantir.logsafe.Preconditions;
+import io.undertow.util.AttachmentKey;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Nullable;
+
+/**
+ * A request body which has already been read from the client and tokenized on the IO thread by
+ * {@link NonBlockingRequestBodyHandler}. Instances are provided to {@link Encoding.Deserializer} implementations in
+ * place of the request stream, jackson encodings bind values from the buffered tokens rather than parsing bytes.
+ * The stream itself is always empty because the request content has already been consumed.
+ */
+final class ParsedRequestBody extends InputStream {
+
+    static final AttachmentKey<ParsedRequestBody> KEY = AttachmentKey.create(ParsedRequestBody.class);
+
+    @Nullable
+    private final TokenBuffer tokens;
+
+    // Either an IOException or a RuntimeException
+    @Nullable
+    private final Exception failure;
+
+    private final boolean empty;
+
+    private ParsedRequestBody(@Nullable TokenBuffer tokens, @Nullable Exception failure, boolean empty) {
+        this.tokens = tokens;
+        this.failure = failure;
+        this.empty = empty;
+    }
+
+    static ParsedRequestBody of(TokenBuffer tokens, boolean empty) {
+        return new ParsedRequestBody(Preconditions.checkNotNull(tokens, "tokens are required"), null, empty);
+    }
+
+    /** Failures are deferred until the body is deserialized to be handled on the request thread. */
+    static ParsedRequestBody failed(IOException failure) {
+        return new ParsedRequestBody(null, Preconditions.checkNotNull(failure, "failure is required"), false);
+    }
+
+    /** Failures are deferred until the body is deserialized to be handled on the request thread. */
+    static ParsedRequestBody failed(FrameworkException failure) {
+        return new ParsedRequestBody(null, Preconditions.checkNotNull(failure, "failure is required"), false);
+    }
+
+    /** Returns true if the client sent no request content. */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /** Returns a parser over the buffered tokens, or throws the failure encountered while reading the request. */
+    JsonParser parser() throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+        return Preconditions.checkNotNull(tokens, "tokens are required").asParser();
+    }
+
+    @Override
+    public int read() {
+        return -1;
+    }
+}
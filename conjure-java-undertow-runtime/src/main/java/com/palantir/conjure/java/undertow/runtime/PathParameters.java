@@ -0,0 +1,165 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Path parameters matched by {@link ConjureRouter}, backed by the request path rather than a
+ * {@link java.util.HashMap}. Values are only located and copied out of the path when they're read. Entries support
+ * {@link Map.Entry#setValue(Object)} so that {@link io.undertow.server.handlers.URLDecodingHandler} may decode
+ * values in place.
+ */
+final class PathParameters extends AbstractMap<String, String> {
+
+    private final ConjureRouter.Route route;
+    private final String[] names;
+    private final String path;
+    private final int start;
+    private final int end;
+
+    // Values which have been replaced, allocated by the first call to setValue
+    @Nullable
+    private String[] values;
+
+    PathParameters(ConjureRouter.Route route, String[] names, String path, int start, int end) {
+        this.route = route;
+        this.names = names;
+        this.path = path;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Nullable
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : value(index);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String value(int index) {
+        if (values != null && values[index] != null) {
+            return values[index];
+        }
+        long range = route.locate(path, start, end, index);
+        return path.substring((int) (range >>> 32), (int) range);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public int size() {
+            return names.length;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < names.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new ParameterEntry(next++);
+                }
+            };
+        }
+    }
+
+    private final class ParameterEntry implements Entry<String, String> {
+        private final int index;
+
+        ParameterEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return names[index];
+        }
+
+        @Override
+        public String getValue() {
+            return value(index);
+        }
+
+        @Override
+        public String setValue(String value) {
+            String previous = value(index);
+            if (values == null) {
+                values = new String[names.length];
+            }
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> that = (Entry<?, ?>) other;
+            return getKey().equals(that.getKey()) && getValue().equals(that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + '=' + getValue();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.StatusCodes;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Buffers a serialized response body in buffers taken from the connection {@link ByteBufferPool}, allowing an exact
+ * {@code Content-Length} to be set before the buffers are handed to the response channel in a single gathering
+ * write, rather than copying them through the buffer of the exchange {@link OutputStream}. Response bodies larger
+ * than {@link #MAX_BUFFERED_BYTES} are streamed to the exchange once the limit is reached to bound memory usage.
+ *
+ * <p>When {@link ResponseCompression} is configured, complete responses of at least
+ * {@link ResponseCompression#minimumBytes()} are compressed into a second set of pooled buffers so that the
+ * {@code Content-Length} of the compressed body can be set, and responses which exceed the buffer limit are
+ * compressed as they're streamed.
+ *
+ * <p>When ETags are enabled, complete responses to {@code GET} requests are tagged with a hash of the buffered body,
+ * and the body is replaced by {@code 304 Not Modified} when the request {@code If-None-Match} header lists the tag.
+ * See {@link ResponseETags}.
+ *
+ * <p>Buffers are returned to the pool when the stream is {@link #close() closed}.
+ */
+final class PooledBufferOutputStream extends OutputStream implements BufferWritableOutputStream {
+
+    private static final int MAX_BUFFERED_BYTES = 1024 * 1024;
+
+    private final HttpServerExchange exchange;
+
+    @Nullable
+    private final ResponseCompression compression;
+
+    private final boolean etags;
+    private final List<PooledByteBuffer> buffers = new ArrayList<>();
+    private long bufferedBytes;
+
+    @Nullable
+    private OutputStream streaming;
+
+    @Nullable
+    private CompressingOutputStream compressing;
+
+    PooledBufferOutputStream(HttpServerExchange exchange) {
+        this(exchange, null, false);
+    }
+
+    PooledBufferOutputStream(HttpServerExchange exchange, @Nullable ResponseCompression compression, boolean etags) {
+        this.exchange = exchange;
+        this.compression = compression;
+        this.etags = etags;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        if (streaming != null) {
+            streaming.write(value);
+        } else if (bufferedBytes + 1 > MAX_BUFFERED_BYTES) {
+            startStreaming().write(value);
+        } else {
+            currentBuffer().put((byte) value);
+            bufferedBytes++;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (streaming != null) {
+            streaming.write(bytes, offset, length);
+        } else if (bufferedBytes + length > MAX_BUFFERED_BYTES) {
+            startStreaming().write(bytes, offset, length);
+        } else {
+            int position = offset;
+            int remaining = length;
+            while (remaining > 0) {
+                ByteBuffer buffer = currentBuffer();
+                int toWrite = Math.min(remaining, buffer.remaining());
+                buffer.put(bytes, position, toWrite);
+                position += toWrite;
+                remaining -= toWrite;
+            }
+            bufferedBytes += length;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer byteBuffer) throws IOException {
+        int length = byteBuffer.remaining();
+        if (streaming != null) {
+            write(streaming, byteBuffer);
+        } else if (bufferedBytes + length > MAX_BUFFERED_BYTES) {
+            write(startStreaming(), byteBuffer);
+        } else {
+            while (byteBuffer.hasRemaining()) {
+                ByteBuffer buffer = currentBuffer();
+                if (byteBuffer.remaining() <= buffer.remaining()) {
+                    buffer.put(byteBuffer);
+                } else {
+                    int limit = byteBuffer.limit();
+                    byteBuffer.limit(byteBuffer.position() + buffer.remaining());
+                    buffer.put(byteBuffer);
+                    byteBuffer.limit(limit);
+                }
+            }
+            bufferedBytes += length;
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer[] byteBuffers) throws IOException {
+        for (ByteBuffer byteBuffer : byteBuffers) {
+            write(byteBuffer);
+        }
+    }
+
+    @Override
+    public void transferFrom(FileChannel source) throws IOException {
+        try (PooledByteBuffer pooled = exchange.getConnection().getByteBufferPool().allocate()) {
+            ByteBuffer buffer = pooled.getBuffer();
+            buffer.clear();
+            while (source.read(buffer) > 0) {
+                buffer.flip();
+                write(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // Buffered content is only written once complete
+        if (streaming != null) {
+            streaming.flush();
+        }
+    }
+
+    /**
+     * Writes buffered content to the exchange. The {@code Content-Length} is set unless the response exceeded the
+     * buffer limit and has already begun streaming.
+     */
+    void complete() throws IOException {
+        if (streaming == null) {
+            String coding = compression != null && bufferedBytes >= compression.minimumBytes()
+                    ? compression.negotiate(exchange)
+                    : null;
+            if (etags && ResponseETags.applies(exchange) && ResponseETags.tag(exchange, buffers, coding)) {
+                // The client already has this representation
+                exchange.setStatusCode(StatusCodes.NOT_MODIFIED);
+            } else if (coding != null) {
+                completeCompressed(compression, coding);
+            } else {
+                exchange.setResponseContentLength(bufferedBytes);
+                writeBuffers(exchange.getOutputStream());
+            }
+        } else if (compressing != null) {
+            compressing.finish();
+        }
+    }
+
+    private void completeCompressed(ResponseCompression responseCompression, String coding) throws IOException {
+        try (PooledBufferOutputStream compressed = new PooledBufferOutputStream(exchange);
+                CompressingOutputStream compressor = responseCompression.compress(exchange, compressed, coding)) {
+            writeBuffers(compressor);
+            compressor.finish();
+            compressed.complete();
+        }
+    }
+
+    @Override
+    public void close() {
+        releaseBuffers();
+        if (compressing != null) {
+            compressing.close();
+        }
+    }
+
+    private void releaseBuffers() {
+        for (PooledByteBuffer buffer : buffers) {
+            buffer.close();
+        }
+        buffers.clear();
+    }
+
+    private ByteBuffer currentBuffer() {
+        if (!buffers.isEmpty()) {
+            ByteBuffer buffer = buffers.get(buffers.size() - 1).getBuffer();
+            if (buffer.hasRemaining()) {
+                return buffer;
+            }
+        }
+        PooledByteBuffer pooled = exchange.getConnection().getByteBufferPool().allocate();
+        buffers.add(pooled);
+        return pooled.getBuffer();
+    }
+
+    private OutputStream startStreaming() throws IOException {
+        OutputStream output = exchange.getOutputStream();
+        if (compression != null && output instanceof BufferWritableOutputStream) {
+            compressing = compression.compress(exchange, (BufferWritableOutputStream) output);
+            if (compressing != null) {
+                output = compressing;
+            }
+        }
+        writeBuffers(output);
+        releaseBuffers();
+        streaming = output;
+        return output;
+    }
+
+    private static void write(OutputStream output, ByteBuffer byteBuffer) throws IOException {
+        if (output instanceof BufferWritableOutputStream) {
+            ((BufferWritableOutputStream) output).write(byteBuffer);
+        } else {
+            byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(bytes);
+            output.write(bytes);
+        }
+    }
+
+    private void writeBuffers(OutputStream output) throws IOException {
+        if (buffers.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] flipped = new ByteBuffer[buffers.size()];
+        for (int i = 0; i < flipped.length; i++) {
+            ByteBuffer buffer = buffers.get(i).getBuffer();
+            buffer.flip();
+            flipped[i] = buffer;
+        }
+        if (output instanceof BufferWritableOutputStream) {
+            ((BufferWritableOutputStream) output).write(flipped);
+        } else {
+            for (ByteBuffer buffer : flipped) {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                output.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.undertow.lib.FileBinaryResponseBody;
+import com.palantir.conjure.java.undertow.lib.SeekableBinaryResponseBody;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.StatusCodes;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.xnio.channels.Channels;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * Sends {@link SeekableBinaryResponseBody} responses, answering {@code GET} requests with a {@code Range} header using
+ * {@code 206 Partial Content} responses. A single range is sent with a {@code Content-Range} header, and multiple
+ * ranges are sent as {@code multipart/byteranges}. {@link FileBinaryResponseBody} ranges are transferred directly
+ * from the file to the response channel.
+ *
+ * <p>The {@code Range} header is ignored when it is invalid, when it requests more than {@value #MAX_RANGES} ranges,
+ * or when an {@code If-Range} header doesn't match the strong {@code ETag} of the response, in which case the full
+ * body is sent.
+ */
+final class RangeResponses {
+
+    /** Bounds the amplification of multipart responses with many overlapping ranges. */
+    static final int MAX_RANGES = 16;
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final String CRLF = "\r\n";
+
+    private RangeResponses() {}
+
+    static void send(HttpServerExchange exchange, SeekableBinaryResponseBody body) throws IOException {
+        long length = body.contentLength();
+        exchange.getResponseHeaders().put(Headers.ACCEPT_RANGES, BYTES_UNIT);
+        Optional<List<ByteRange>> maybeRanges = requestedRanges(exchange, length);
+        if (maybeRanges.isEmpty()) {
+            sendAll(exchange, body, length);
+            return;
+        }
+        List<ByteRange> ranges = maybeRanges.get();
+        ConjureBodySerDe.safelyDrainRequestBody(exchange);
+        if (ranges.isEmpty()) {
+            exchange.setStatusCode(StatusCodes.REQUEST_RANGE_NOT_SATISFIABLE);
+            exchange.getResponseHeaders().put(Headers.CONTENT_RANGE, BYTES_UNIT + " */" + length);
+            exchange.setResponseContentLength(0);
+            return;
+        }
+        exchange.setStatusCode(StatusCodes.PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            exchange.getResponseHeaders().put(Headers.CONTENT_RANGE, range.contentRange(length));
+            exchange.setResponseContentLength(range.count());
+            try (RangeWriter writer = RangeWriter.of(exchange, body)) {
+                writer.write(range);
+            }
+            return;
+        }
+        sendMultipart(exchange, body, length, ranges);
+    }
+
+    private static void sendAll(HttpServerExchange exchange, SeekableBinaryResponseBody body, long length)
+            throws IOException {
+        if (body instanceof FileBinaryResponseBody) {
+            FileResponses.send(exchange, (FileBinaryResponseBody) body);
+        } else {
+            exchange.setResponseContentLength(length);
+            body.write(exchange.getOutputStream());
+        }
+    }
+
+    private static void sendMultipart(
+            HttpServerExchange exchange, SeekableBinaryResponseBody body, long length, List<ByteRange> ranges)
+            throws IOException {
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        String contentType = exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE);
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long contentLength = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ((i == 0 ? "" : CRLF) + "--" + boundary + CRLF
+                            + Headers.CONTENT_TYPE_STRING + ": " + contentType + CRLF
+                            + Headers.CONTENT_RANGE_STRING + ": " + range.contentRange(length) + CRLF
+                            + CRLF)
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + range.count();
+        }
+        byte[] trailer = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += trailer.length;
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary);
+        exchange.setResponseContentLength(contentLength);
+        try (RangeWriter writer = RangeWriter.of(exchange, body)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                writer.write(partHeaders[i]);
+                writer.write(ranges.get(i));
+            }
+            writer.write(trailer);
+        }
+    }
+
+    /**
+     * Returns the satisfiable ranges requested by the exchange, which is an empty list if none of the requested ranges
+     * are satisfiable, or an empty optional if the full body must be sent.
+     */
+    private static Optional<List<ByteRange>> requestedRanges(HttpServerExchange exchange, long length) {
+        if (!Methods.GET.equals(exchange.getRequestMethod())
+                || exchange.getStatusCode() != StatusCodes.OK
+                || exchange.isResponseStarted()) {
+            return Optional.empty();
+        }
+        HeaderValues range = exchange.getRequestHeaders().get(Headers.RANGE);
+        if (range == null || range.size() != 1 || !ifRangeMatches(exchange)) {
+            return Optional.empty();
+        }
+        return parse(range.getFirst(), length);
+    }
+
+    /** Validators other than a strong entity tag set by the endpoint are not supported, so the range is ignored. */
+    private static boolean ifRangeMatches(HttpServerExchange exchange) {
+        HeaderValues ifRange = exchange.getRequestHeaders().get(Headers.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        String etag = exchange.getResponseHeaders().getFirst(Headers.ETAG);
+        return ifRange.size() == 1 && etag != null && !etag.startsWith("W/") && etag.equals(ifRange.getFirst());
+    }
+
+    /**
+     * Parses a {@code Range} header value. Returns an empty optional if the value is invalid or requests too many
+     * ranges, otherwise the satisfiable ranges clamped to the body {@code length} in the order they were requested.
+     */
+    static Optional<List<ByteRange>> parse(String value, long length) {
+        int equals = value.indexOf('=');
+        if (equals < 0 || !BYTES_UNIT.equalsIgnoreCase(value.substring(0, equals).trim())) {
+            return Optional.empty();
+        }
+        ImmutableList.Builder<ByteRange> ranges = ImmutableList.builder();
+        int specs = 0;
+        for (String spec : value.substring(equals + 1).split(",", -1)) {
+            String trimmed = spec.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (++specs > MAX_RANGES) {
+                return Optional.empty();
+            }
+            int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return Optional.empty();
+            }
+            long first = parseDigits(trimmed, 0, dash);
+            long last = parseDigits(trimmed, dash + 1, trimmed.length());
+            if (dash == 0) {
+                // Suffix range of the last 'last' bytes
+                if (last < 0) {
+                    return Optional.empty();
+                }
+                if (last > 0 && length > 0) {
+                    ranges.add(new ByteRange(Math.max(0, length - last), length - 1));
+                }
+                continue;
+            }
+            boolean open = dash == trimmed.length() - 1;
+            if (first < 0 || (!open && (last < 0 || last < first))) {
+                return Optional.empty();
+            }
+            if (first < length) {
+                ranges.add(new ByteRange(first, open ? length - 1 : Math.min(last, length - 1)));
+            }
+        }
+        return specs == 0 ? Optional.empty() : Optional.of(ranges.build());
+    }
+
+    /** Returns the non-negative decimal value, saturated at {@link Long#MAX_VALUE}, or -1 if it is invalid. */
+    private static long parseDigits(String value, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            int digit = character - '0';
+            result = result > (Long.MAX_VALUE - digit) / 10 ? Long.MAX_VALUE : result * 10 + digit;
+        }
+        return result;
+    }
+
+    static final class ByteRange {
+        private final long first;
+        private final long last;
+
+        ByteRange(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        long first() {
+            return first;
+        }
+
+        long last() {
+            return last;
+        }
+
+        long count() {
+            return last - first + 1;
+        }
+
+        String contentRange(long length) {
+            return BYTES_UNIT + ' ' + first + '-' + last + '/' + length;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ByteRange)) {
+                return false;
+            }
+            ByteRange that = (ByteRange) other;
+            return first == that.first && last == that.last;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(first) + Long.hashCode(last);
+        }
+
+        @Override
+        public String toString() {
+            return "ByteRange{" + first + '-' + last + '}';
+        }
+    }
+
+    /**
+     * Writes ranges of a body to the response, transferring file ranges directly to the response channel when it is
+     * available.
+     */
+    private abstract static class RangeWriter implements AutoCloseable {
+
+        static RangeWriter of(HttpServerExchange exchange, SeekableBinaryResponseBody body) throws IOException {
+            if (body instanceof FileBinaryResponseBody) {
+                StreamSinkChannel channel = exchange.getResponseChannel();
+                if (channel != null) {
+                    // Response headers must be written before transferring ranges, see FileResponses.transfer
+                    Channels.flushBlocking(channel);
+                    return new FileChannelWriter(
+                            FileChannel.open(((FileBinaryResponseBody) body).file(), StandardOpenOption.READ),
+                            channel);
+                }
+            }
+            return new StreamWriter(body, exchange.getOutputStream());
+        }
+
+        abstract void write(byte[] bytes) throws IOException;
+
+        abstract void write(ByteRange range) throws IOException;
+
+        @Override
+        public abstract void close() throws IOException;
+    }
+
+    private static final class FileChannelWriter extends RangeWriter {
+        private final FileChannel file;
+        private final StreamSinkChannel channel;
+
+        FileChannelWriter(FileChannel file, StreamSinkChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        @Override
+        void write(byte[] bytes) throws IOException {
+            Channels.writeBlocking(channel, ByteBuffer.wrap(bytes));
+        }
+
+        @Override
+        void write(ByteRange range) throws IOException {
+            FileResponses.transfer(file, range.first(), range.count(), channel);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (FileChannel closed = file) {
+                channel.shutdownWrites();
+                Channels.flushBlocking(channel);
+            }
+        }
+    }
+
+    private static final class StreamWriter extends RangeWriter {
+        private final SeekableBinaryResponseBody body;
+        private final OutputStream output;
+
+        StreamWriter(SeekableBinaryResponseBody body, OutputStream output) {
+            this.body = body;
+            this.output = output;
+        }
+
+        @Override
+        void write(byte[] bytes) throws IOException {
+            output.write(bytes);
+        }
+
+        @Override
+        void write(ByteRange range) throws IOException {
+            body.write(output, range.first(), range.count());
+        }
+
+        @Override
+        public void close() {
+            // The response stream is closed when the exchange completes
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import org.xnio.channels.StreamSourceChannel;
+
+/**
+ * Transfers request bodies directly from the request channel into a {@link WritableByteChannel} without copying
+ * through heap byte arrays.
+ *
+ * <p>Bodies with a known {@code Content-Length} are transferred into a {@link FileChannel} using
+ * {@link StreamSourceChannel#transferTo(long, long, FileChannel)}, which allows the kernel to move data from the
+ * socket to the file. Other bodies and destinations are copied through a direct buffer from the connection pool.
+ */
+final class RequestBodyTransfer {
+
+    private RequestBodyTransfer() {}
+
+    /**
+     * Transfers the remainder of the request body to {@code destination}, which must be in blocking mode, and returns
+     * the number of bytes transferred. Bytes are written at the current position of a {@link FileChannel}
+     * destination, and the position is advanced by the number of bytes transferred.
+     */
+    static long transfer(HttpServerExchange exchange, WritableByteChannel destination) throws IOException {
+        StreamSourceChannel source = exchange.getRequestChannel();
+        if (source == null) {
+            // The request body has already been opened as a stream
+            return exchange.getInputStream().transferTo(Channels.newOutputStream(destination));
+        }
+        long contentLength = exchange.getRequestContentLength();
+        if (destination instanceof FileChannel && contentLength >= 0) {
+            return transferToFile(source, (FileChannel) destination, contentLength);
+        }
+        return copy(exchange, source, destination);
+    }
+
+    private static long transferToFile(StreamSourceChannel source, FileChannel destination, long contentLength)
+            throws IOException {
+        long position = destination.position();
+        long transferred = 0;
+        while (transferred < contentLength) {
+            long result = source.transferTo(position + transferred, contentLength - transferred, destination);
+            if (result == -1) {
+                throw new SafeIoException(
+                        "Request body ended before the expected Content-Length",
+                        SafeArg.of("contentLength", contentLength),
+                        SafeArg.of("transferred", transferred));
+            }
+            if (result == 0) {
+                source.awaitReadable();
+            }
+            transferred += result;
+        }
+        destination.position(position + transferred);
+        return transferred;
+    }
+
+    private static long copy(HttpServerExchange exchange, StreamSourceChannel source, WritableByteChannel destination)
+            throws IOException {
+        long transferred = 0;
+        try (PooledByteBuffer pooled = exchange.getConnection().getByteBufferPool().allocate()) {
+            ByteBuffer buffer = pooled.getBuffer();
+            while (true) {
+                buffer.clear();
+                int read = source.read(buffer);
+                if (read == -1) {
+                    return transferred;
+                }
+                if (read == 0) {
+                    source.awaitReadable();
+                    continue;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    transferred += destination.write(buffer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.tracing.api.TraceHttpHeaders;
+import io.undertow.server.ConduitWrapper;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.ConduitFactory;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import io.undertow.util.SameThreadExecutor;
+import io.undertow.util.StatusCodes;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.xnio.channels.StreamSourceChannel;
+import org.xnio.conduits.AbstractStreamSinkConduit;
+import org.xnio.conduits.StreamSinkConduit;
+
+/**
+ * An {@link EndpointHandlerWrapper} which coalesces concurrent identical {@code GET} requests to endpoints tagged
+ * {@value #TAG}. The first request executes the endpoint as usual, and identical requests which arrive before it
+ * begins writing its response body wait for that response rather than executing the endpoint themselves. The response
+ * body is only captured once a request is waiting. Waiting requests don't occupy a thread, and are sent the captured
+ * response from their own IO thread.
+ *
+ * <p>Requests are identical when they have the same method, path, query and headers, so responses are never shared
+ * between credentials, negotiated encodings, requested byte ranges or header parameters. Headers which only describe
+ * the connection, such as {@code Connection}, or the trace, such as {@code X-B3-TraceId}, are ignored. Only successful
+ * responses up to the configured size are shared, waiting requests execute the endpoint themselves if the first
+ * request fails or its response is too large.
+ *
+ * <p>This wrapper should be registered using {@link ConjureHandler.Builder#addWrapperBeforeBlocking}.
+ */
+public final class RequestCoalescing implements EndpointHandlerWrapper {
+
+    /** Endpoint tag which enables request coalescing. */
+    public static final String TAG = "server-coalesce-requests";
+
+    // Headers which describe the connection or trace rather than the request are excluded from keys
+    private static final ImmutableSet<HttpString> TRANSPORT_HEADERS = ImmutableSet.of(
+            Headers.CONNECTION,
+            Headers.KEEP_ALIVE,
+            Headers.TE,
+            Headers.UPGRADE,
+            Headers.CONTENT_LENGTH,
+            Headers.TRANSFER_ENCODING,
+            HttpString.tryFromString(TraceHttpHeaders.TRACE_ID),
+            HttpString.tryFromString(TraceHttpHeaders.PARENT_SPAN_ID),
+            HttpString.tryFromString(TraceHttpHeaders.SPAN_ID),
+            HttpString.tryFromString(TraceHttpHeaders.IS_SAMPLED));
+    // Framing headers are computed for each response
+    private static final ImmutableSet<HttpString> EXCLUDED_HEADERS =
+            ImmutableSet.of(Headers.CONTENT_LENGTH, Headers.TRANSFER_ENCODING, Headers.CONNECTION, Headers.DATE);
+
+    private final int maximumResponseBytes;
+
+    private RequestCoalescing(Builder builder) {
+        this.maximumResponseBytes = builder.maximumResponseBytes;
+    }
+
+    /** Creates a wrapper using the default configuration. */
+    public static RequestCoalescing create() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Optional<HttpHandler> wrap(Endpoint endpoint) {
+        if (!Methods.GET.equals(endpoint.method()) || !endpoint.tags().contains(TAG)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CoalescingHandler(maximumResponseBytes, endpoint.handler()));
+    }
+
+    private static final class CoalescingHandler implements HttpHandler {
+        private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+        private final int maximumResponseBytes;
+        private final HttpHandler next;
+
+        CoalescingHandler(int maximumResponseBytes, HttpHandler next) {
+            this.maximumResponseBytes = maximumResponseBytes;
+            this.next = next;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            String key = key(exchange);
+            Flight flight = new Flight(maximumResponseBytes);
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                lead(exchange, key, flight);
+            } else if (existing.capture.follow()) {
+                follow(exchange, existing.response);
+            } else {
+                // The first request has already begun writing a response which wasn't captured
+                next.handleRequest(exchange);
+            }
+        }
+
+        private void lead(HttpServerExchange exchange, String key, Flight flight) throws Exception {
+            exchange.addResponseWrapper(flight.capture);
+            exchange.addExchangeCompleteListener(SafeExchangeCompletionListener.of(completed -> {
+                // Requests which arrive from now on begin a new flight
+                inFlight.remove(key, flight);
+                flight.response.set(flight.capture.toSharedResponse(completed));
+            }));
+            next.handleRequest(exchange);
+        }
+
+        private void follow(HttpServerExchange exchange, SettableFuture<SharedResponse> flight) {
+            // Dispatching puts the exchange into a 'dispatched' state so that it isn't ended when this handler
+            // returns, and avoids racing the callback with the current handler chain.
+            // See ConjureAsyncRequestProcessing.
+            exchange.dispatch(SameThreadExecutor.INSTANCE, () -> Futures.addCallback(
+                    flight,
+                    new FutureCallback<SharedResponse>() {
+                        @Override
+                        public void onSuccess(@Nullable SharedResponse result) {
+                            exchange.dispatch(
+                                    exchange.getIoThread(),
+                                    result == null ? next : serverExchange -> result.send(serverExchange));
+                        }
+
+                        @Override
+                        public void onFailure(Throwable _throwable) {
+                            exchange.dispatch(exchange.getIoThread(), next);
+                        }
+                    },
+                    MoreExecutors.directExecutor()));
+        }
+    }
+
+    /**
+     * Requests are coalesced when their keys are equal. Header names cannot contain colons and header values cannot
+     * contain line breaks.
+     */
+    private static String key(HttpServerExchange exchange) {
+        StringBuilder builder = new StringBuilder()
+                .append(exchange.getRequestMethod())
+                .append(' ')
+                .append(exchange.getRequestURI())
+                .append('?')
+                .append(exchange.getQueryString());
+        List<HeaderValues> headers = new ArrayList<>(exchange.getRequestHeaders().size());
+        for (HeaderValues values : exchange.getRequestHeaders()) {
+            if (!TRANSPORT_HEADERS.contains(values.getHeaderName())) {
+                headers.add(values);
+            }
+        }
+        // Header names are case-insensitive, and their order doesn't affect the response
+        headers.sort(Comparator.comparing(HeaderValues::getHeaderName));
+        for (int i = 0; i < headers.size(); i++) {
+            HeaderValues values = headers.get(i);
+            String name = values.getHeaderName().toString().toLowerCase(Locale.ROOT);
+            for (int j = 0; j < values.size(); j++) {
+                builder.append('\n').append(name).append(':').append(values.get(j));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isShareable(int statusCode) {
+        return statusCode == StatusCodes.OK || statusCode == StatusCodes.NOT_MODIFIED;
+    }
+
+    /** The response to the first of a group of identical requests. */
+    private static final class Flight {
+        private final SettableFuture<SharedResponse> response = SettableFuture.create();
+        private final ResponseCapture capture;
+
+        Flight(int maximumResponseBytes) {
+            this.capture = new ResponseCapture(maximumResponseBytes);
+        }
+    }
+
+    /** A successful response which may be sent to waiting requests. */
+    private static final class SharedResponse {
+        private final int statusCode;
+        private final HeaderMap headers;
+        private final byte[] body;
+
+        SharedResponse(int statusCode, HeaderMap headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        void send(HttpServerExchange exchange) {
+            if (exchange.isComplete()) {
+                return;
+            }
+            exchange.setStatusCode(statusCode);
+            HeaderMap responseHeaders = exchange.getResponseHeaders();
+            // Headers which were already set by outer handlers, for example tracing, are retained
+            for (HeaderValues values : headers) {
+                if (!responseHeaders.contains(values.getHeaderName())) {
+                    responseHeaders.putAll(values.getHeaderName(), values);
+                }
+            }
+            if (statusCode == StatusCodes.NOT_MODIFIED) {
+                exchange.endExchange();
+            } else {
+                responseHeaders.put(Headers.CONTENT_LENGTH, body.length);
+                exchange.getResponseSender().send(ByteBuffer.wrap(body));
+            }
+        }
+    }
+
+    /**
+     * Captures the response body written by the endpoint, up to the maximum size. Nothing is captured until a waiting
+     * request calls {@link #follow()}, so responses to requests which aren't coalesced aren't copied. Writes happen on
+     * the thread executing the first request while waiting requests follow from their own threads, so state is
+     * guarded by this instance.
+     */
+    private static final class ResponseCapture implements ConduitWrapper<StreamSinkConduit> {
+        private final int maximumBytes;
+        private byte[] bytes = new byte[0];
+        private int size;
+        private long written;
+        private boolean capturing;
+        private boolean completed;
+        private volatile boolean terminated;
+        private boolean abandoned;
+
+        ResponseCapture(int maximumBytes) {
+            this.maximumBytes = maximumBytes;
+        }
+
+        @Override
+        public StreamSinkConduit wrap(ConduitFactory<StreamSinkConduit> factory, HttpServerExchange exchange) {
+            return new CapturingConduit(factory.create(), this);
+        }
+
+        /**
+         * Registers a waiting request, returning true if the response will be captured for it. Responses which have
+         * already begun, or completed, without being captured cannot be shared.
+         */
+        synchronized boolean follow() {
+            if (abandoned || completed) {
+                return false;
+            }
+            if (!capturing && written > 0) {
+                abandon();
+                return false;
+            }
+            capturing = true;
+            return true;
+        }
+
+        synchronized void capture(ByteBuffer source, int position, int length) {
+            if (length <= 0) {
+                return;
+            }
+            written += length;
+            if (abandoned || !capturing) {
+                return;
+            }
+            if (size + length > maximumBytes) {
+                abandon();
+                return;
+            }
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(maximumBytes, Math.max(size + length, bytes.length * 2)));
+            }
+            ByteBuffer written = source.duplicate();
+            written.limit(position + length).position(position);
+            written.get(bytes, size, length);
+            size += length;
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+            bytes = null;
+        }
+
+        @Nullable
+        synchronized SharedResponse toSharedResponse(HttpServerExchange exchange) {
+            completed = true;
+            if (abandoned
+                    || !capturing
+                    || !isShareable(exchange.getStatusCode())
+                    || !exchange.isResponseComplete()) {
+                return null;
+            }
+            // Fixed length responses complete once the final byte is written, before writes are terminated
+            String contentLength = exchange.getResponseHeaders().getFirst(Headers.CONTENT_LENGTH);
+            boolean bodyComplete = exchange.getStatusCode() == StatusCodes.NOT_MODIFIED
+                    || (contentLength == null ? terminated : contentLength.equals(Integer.toString(size)));
+            if (!bodyComplete) {
+                return null;
+            }
+            HeaderMap headers = new HeaderMap();
+            for (HeaderValues values : exchange.getResponseHeaders()) {
+                if (!EXCLUDED_HEADERS.contains(values.getHeaderName())) {
+                    headers.putAll(values.getHeaderName(), values);
+                }
+            }
+            return new SharedResponse(exchange.getStatusCode(), headers, Arrays.copyOf(bytes, size));
+        }
+    }
+
+    private static final class CapturingConduit extends AbstractStreamSinkConduit<StreamSinkConduit> {
+        private final ResponseCapture capture;
+
+        CapturingConduit(StreamSinkConduit next, ResponseCapture capture) {
+            super(next);
+            this.capture = capture;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int position = src.position();
+            int written = next.write(src);
+            capture.capture(src, position, written);
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            int[] positions = positions(srcs, offs, len);
+            long written = next.write(srcs, offs, len);
+            capture(srcs, offs, len, positions);
+            return written;
+        }
+
+        @Override
+        public int writeFinal(ByteBuffer src) throws IOException {
+            int position = src.position();
+            int written = next.writeFinal(src);
+            capture.capture(src, position, written);
+            if (!src.hasRemaining()) {
+                capture.terminated = true;
+            }
+            return written;
+        }
+
+        @Override
+        public long writeFinal(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            int[] positions = positions(srcs, offs, len);
+            long written = next.writeFinal(srcs, offs, len);
+            capture(srcs, offs, len, positions);
+            if (!hasRemaining(srcs, offs, len)) {
+                capture.terminated = true;
+            }
+            return written;
+        }
+
+        @Override
+        public long transferFrom(FileChannel src, long position, long count) throws IOException {
+            capture.abandon();
+            return next.transferFrom(src, position, count);
+        }
+
+        @Override
+        public long transferFrom(StreamSourceChannel source, long count, ByteBuffer throughBuffer)
+                throws IOException {
+            capture.abandon();
+            return next.transferFrom(source, count, throughBuffer);
+        }
+
+        @Override
+        public void terminateWrites() throws IOException {
+            capture.terminated = true;
+            next.terminateWrites();
+        }
+
+        private void capture(ByteBuffer[] srcs, int offs, int len, int[] positions) {
+            for (int i = 0; i < len; i++) {
+                ByteBuffer src = srcs[offs + i];
+                capture.capture(src, positions[i], src.position() - positions[i]);
+            }
+        }
+
+        private static int[] positions(ByteBuffer[] srcs, int offs, int len) {
+            int[] positions = new int[len];
+            for (int i = 0; i < len; i++) {
+                positions[i] = srcs[offs + i].position();
+            }
+            return positions;
+        }
+
+        private static boolean hasRemaining(ByteBuffer[] srcs, int offs, int len) {
+            for (int i = 0; i < len; i++) {
+                if (srcs[offs + i].hasRemaining()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static final class Builder {
+        private int maximumResponseBytes = 1024 * 1024;
+
+        private Builder() {}
+
+        /** Responses larger than this are not shared with waiting requests, 1 MiB by default. */
+        @CanIgnoreReturnValue
+        public Builder maximumResponseBytes(int value) {
+            Preconditions.checkArgument(
+                    value >= 0, "maximumResponseBytes must not be negative", SafeArg.of("value", value));
+            maximumResponseBytes = value;
+            return this;
+        }
+
+        public RequestCoalescing build() {
+            return new RequestCoalescing(this);
+        }
+    }
+}
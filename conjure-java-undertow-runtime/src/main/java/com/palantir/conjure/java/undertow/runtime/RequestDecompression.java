@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+/**
+ * Inflates {@code gzip} and {@code deflate} request bodies based on the request {@code Content-Encoding} header.
+ * Bodies are inflated as they are read by the deserializer rather than buffered, and fail once the inflated size
+ * exceeds the configured maximum to protect the heap from small payloads which inflate to huge bodies.
+ * {@link Inflater} instances are pooled rather than allocated for each request.
+ */
+final class RequestDecompression {
+
+    private static final int POOL_SIZE = 64;
+    private static final String IDENTITY = "identity";
+
+    private final long maximumBytes;
+    private final InflaterPool gzip = new InflaterPool(true);
+    private final InflaterPool deflate = new InflaterPool(false);
+
+    RequestDecompression(long maximumBytes) {
+        Preconditions.checkArgument(
+                maximumBytes > 0,
+                "Maximum request decompression size must be positive",
+                SafeArg.of("maximumBytes", maximumBytes));
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * Returns a stream which inflates the request body if the request has a compressed {@code Content-Encoding},
+     * otherwise null. Requests using an unsupported encoding are rejected.
+     */
+    @Nullable
+    InflatingInputStream decompress(HttpServerExchange exchange) {
+        HeaderValues contentEncoding = exchange.getRequestHeaders().get(Headers.CONTENT_ENCODING);
+        if (contentEncoding == null || contentEncoding.isEmpty()) {
+            return null;
+        }
+        if (contentEncoding.size() != 1) {
+            throw FrameworkException.unsupportedMediaType(
+                    "Multiple Content-Encodings are not supported",
+                    SafeArg.of("Content-Encoding", contentEncoding.toString()));
+        }
+        String value = contentEncoding.getFirst().trim();
+        if (Headers.GZIP.toString().equalsIgnoreCase(value) || "x-gzip".equalsIgnoreCase(value)) {
+            return new InflatingInputStream(gzip, true, exchange.getInputStream(), maximumBytes);
+        }
+        if (Headers.DEFLATE.toString().equalsIgnoreCase(value)) {
+            return new InflatingInputStream(deflate, false, exchange.getInputStream(), maximumBytes);
+        }
+        if (IDENTITY.equalsIgnoreCase(value)) {
+            return null;
+        }
+        throw FrameworkException.unsupportedMediaType(
+                "Unsupported Content-Encoding", SafeArg.of("Content-Encoding", value));
+    }
+
+    /** A bounded pool of {@link Inflater} instances, excess instances are released rather than retained. */
+    static final class InflaterPool {
+        private final boolean nowrap;
+        private final BlockingQueue<Inflater> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        InflaterPool(boolean nowrap) {
+            this.nowrap = nowrap;
+        }
+
+        Inflater acquire() {
+            Inflater inflater = pool.poll();
+            return inflater == null ? new Inflater(nowrap) : inflater;
+        }
+
+        void release(Inflater inflater) {
+            inflater.reset();
+            if (!pool.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.undertow.lib.RequestMetrics;
+import io.undertow.server.Connectors;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+
+/**
+ * Reports each request to the endpoint's {@link RequestMetrics.EndpointRecorder} once the exchange completes, using a
+ * completion listener shared by all requests to the endpoint. {@code HEAD} requests served by a {@code GET} endpoint
+ * are reported to a separate recorder.
+ *
+ * <p>When the server enables {@link io.undertow.UndertowOptions#RECORD_REQUEST_START_TIME}, durations are measured
+ * from the time the request was received. Otherwise this handler records the time it is invoked as the request start
+ * time, which avoids attaching a timestamp to every exchange.
+ */
+final class RequestMetricsHandler implements HttpHandler {
+
+    private final ExchangeCompletionListener listener;
+    private final ExchangeCompletionListener headListener;
+    private final HttpHandler next;
+
+    RequestMetricsHandler(
+            RequestMetrics.EndpointRecorder recorder, RequestMetrics.EndpointRecorder headRecorder, HttpHandler next) {
+        this.listener = SafeExchangeCompletionListener.of(exchange -> record(recorder, exchange));
+        this.headListener = headRecorder == recorder
+                ? listener
+                : SafeExchangeCompletionListener.of(exchange -> record(headRecorder, exchange));
+        this.next = next;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        if (exchange.getRequestStartTime() <= 0) {
+            Connectors.setRequestStartTime(exchange);
+        }
+        exchange.addExchangeCompleteListener(
+                Methods.HEAD.equals(exchange.getRequestMethod()) ? headListener : listener);
+        next.handleRequest(exchange);
+    }
+
+    private static void record(RequestMetrics.EndpointRecorder recorder, HttpServerExchange exchange) {
+        recorder.record(
+                exchange.getStatusCode(),
+                System.nanoTime() - exchange.getRequestStartTime(),
+                exchange.getRequestContentLength(),
+                exchange.getResponseBytesSent(),
+                exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE));
+    }
+}
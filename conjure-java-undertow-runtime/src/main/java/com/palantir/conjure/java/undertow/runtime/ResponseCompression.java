@@ -0,0 +1,192 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+
+/**
+ * Negotiates {@code gzip} or {@code deflate} response compression from the request {@code Accept-Encoding} header
+ * for response bodies of at least {@link #minimumBytes()}. {@link Deflater} instances are pooled rather than
+ * allocated for each response, as each holds a substantial amount of native memory.
+ */
+final class ResponseCompression {
+
+    private static final int POOL_SIZE = 64;
+
+    private final int minimumBytes;
+    private final DeflaterPool gzip = new DeflaterPool(true);
+    private final DeflaterPool deflate = new DeflaterPool(false);
+
+    ResponseCompression(int minimumBytes) {
+        Preconditions.checkArgument(
+                minimumBytes >= 0,
+                "Minimum response compression size must not be negative",
+                SafeArg.of("minimumBytes", minimumBytes));
+        this.minimumBytes = minimumBytes;
+    }
+
+    /** Responses smaller than this are not compressed, compression overhead would exceed the benefit. */
+    int minimumBytes() {
+        return minimumBytes;
+    }
+
+    /**
+     * Returns a stream which compresses data written to {@code output} if the request accepts a supported encoding,
+     * setting the {@code Content-Encoding} response header. Returns null if the response should not be compressed.
+     */
+    @Nullable
+    CompressingOutputStream compress(HttpServerExchange exchange, BufferWritableOutputStream output) {
+        String coding = negotiate(exchange);
+        return coding == null ? null : compress(exchange, output, coding);
+    }
+
+    /**
+     * Returns the content coding accepted by the request, or null if the response should not be compressed. The
+     * response {@code Vary} header is updated, so this must be called at most once for each response.
+     */
+    @Nullable
+    String negotiate(HttpServerExchange exchange) {
+        if (exchange.getResponseHeaders().contains(Headers.CONTENT_ENCODING)) {
+            return null;
+        }
+        // The response varies by Accept-Encoding whether or not this request accepts compression
+        exchange.getResponseHeaders().add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        HeaderValues acceptEncoding = exchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return null;
+        }
+        if (accepts(acceptEncoding, Headers.GZIP.toString())) {
+            return Headers.GZIP.toString();
+        }
+        if (accepts(acceptEncoding, Headers.DEFLATE.toString())) {
+            return Headers.DEFLATE.toString();
+        }
+        return null;
+    }
+
+    /**
+     * Returns a stream which compresses data written to {@code output} using a coding returned by
+     * {@link #negotiate(HttpServerExchange)}, setting the {@code Content-Encoding} response header.
+     */
+    CompressingOutputStream compress(HttpServerExchange exchange, BufferWritableOutputStream output, String coding) {
+        boolean gzipCoding = Headers.GZIP.toString().equals(coding);
+        exchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, coding);
+        return new CompressingOutputStream(
+                gzipCoding ? gzip : deflate, gzipCoding, output, exchange.getConnection().getByteBufferPool());
+    }
+
+    /**
+     * Returns true if an {@code Accept-Encoding} header value lists the coding, or a wildcard, without
+     * {@code q=0}. Values are scanned in place to avoid allocation.
+     */
+    static boolean accepts(HeaderValues acceptEncoding, String coding) {
+        for (int i = 0; i < acceptEncoding.size(); i++) {
+            String value = acceptEncoding.get(i);
+            int start = 0;
+            while (start < value.length()) {
+                int end = value.indexOf(',', start);
+                if (end < 0) {
+                    end = value.length();
+                }
+                if (matches(value, start, end, coding)) {
+                    return true;
+                }
+                start = end + 1;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String value, int start, int end, String coding) {
+        int nameStart = skipWhitespace(value, start, end);
+        int parameters = value.indexOf(';', nameStart);
+        if (parameters < 0 || parameters > end) {
+            parameters = end;
+        }
+        int nameEnd = parameters;
+        while (nameEnd > nameStart && Character.isWhitespace(value.charAt(nameEnd - 1))) {
+            nameEnd--;
+        }
+        int length = nameEnd - nameStart;
+        boolean nameMatches = (length == coding.length() && value.regionMatches(true, nameStart, coding, 0, length))
+                || (length == 1 && value.charAt(nameStart) == '*');
+        return nameMatches && !hasZeroQuality(value, parameters, end);
+    }
+
+    private static boolean hasZeroQuality(String value, int start, int end) {
+        int quality = value.indexOf("q=", start);
+        if (quality < 0 || quality >= end) {
+            return false;
+        }
+        int qualityStart = quality + 2;
+        int qualityEnd = qualityStart;
+        while (qualityEnd < end
+                && value.charAt(qualityEnd) != ';'
+                && !Character.isWhitespace(value.charAt(qualityEnd))) {
+            qualityEnd++;
+        }
+        if (qualityEnd == qualityStart) {
+            return false;
+        }
+        for (int i = qualityStart; i < qualityEnd; i++) {
+            char character = value.charAt(i);
+            if (character != '0' && character != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(String value, int start, int end) {
+        int index = start;
+        while (index < end && Character.isWhitespace(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /** A bounded pool of {@link Deflater} instances, excess instances are released rather than retained. */
+    static final class DeflaterPool {
+        private final boolean nowrap;
+        private final BlockingQueue<Deflater> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        DeflaterPool(boolean nowrap) {
+            this.nowrap = nowrap;
+        }
+
+        Deflater acquire() {
+            Deflater deflater = pool.poll();
+            return deflater == null ? new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap) : deflater;
+        }
+
+        void release(Deflater deflater) {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+}
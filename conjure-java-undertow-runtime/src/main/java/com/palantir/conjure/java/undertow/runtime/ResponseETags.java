@@ -0,0 +1,127 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.StatusCodes;
+import java.nio.ByteBuffer;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Computes strong {@code ETag} values from buffered response bodies and evaluates {@code If-None-Match}
+ * preconditions, allowing unchanged responses to be replaced by {@code 304 Not Modified}.
+ *
+ * <p>The tag is a hash of the serialized body, suffixed with the content coding when the response is compressed so
+ * that each representation has a distinct strong tag. Responses which exceed the buffer limit are streamed before the
+ * body can be hashed, and don't receive a tag.
+ */
+final class ResponseETags {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final String WEAK_PREFIX = "W/";
+    private static final String WILDCARD = "*";
+
+    /**
+     * Tagged responses may be stored by the client, but must be revalidated before use. This replaces the default
+     * {@link NoCachingResponseHandler} value which prevents clients from storing responses at all.
+     */
+    private static final String REVALIDATE = "private, no-cache";
+
+    private ResponseETags() {}
+
+    /** Returns true if the response to this exchange should be tagged. */
+    static boolean applies(HttpServerExchange exchange) {
+        return exchange.getStatusCode() == StatusCodes.OK
+                && (Methods.GET.equals(exchange.getRequestMethod()) || Methods.HEAD.equals(exchange.getRequestMethod()))
+                && !exchange.getResponseHeaders().contains(Headers.ETAG);
+    }
+
+    /**
+     * Sets the {@code ETag} of the response body contained by {@code buffers}, which have not yet been flipped for
+     * reading. Returns true if the request {@code If-None-Match} precondition fails, in which case the response
+     * should be {@code 304 Not Modified}.
+     */
+    static boolean tag(HttpServerExchange exchange, List<PooledByteBuffer> buffers, @Nullable String coding) {
+        String etag = compute(buffers, coding);
+        HeaderMap responseHeaders = exchange.getResponseHeaders();
+        responseHeaders.put(Headers.ETAG, etag);
+        if (NoCachingResponseHandler.DO_NOT_CACHE.equals(responseHeaders.getFirst(Headers.CACHE_CONTROL))) {
+            responseHeaders.put(Headers.CACHE_CONTROL, REVALIDATE);
+        }
+        HeaderValues ifNoneMatch = exchange.getRequestHeaders().get(Headers.IF_NONE_MATCH);
+        return ifNoneMatch != null && matches(ifNoneMatch, etag);
+    }
+
+    static String compute(List<PooledByteBuffer> buffers, @Nullable String coding) {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        for (int i = 0; i < buffers.size(); i++) {
+            ByteBuffer buffer = buffers.get(i).getBuffer().duplicate();
+            buffer.flip();
+            hasher.putBytes(buffer);
+        }
+        String hash = hasher.hash().toString();
+        return coding == null ? '"' + hash + '"' : '"' + hash + '-' + coding + '"';
+    }
+
+    /**
+     * Returns true if an {@code If-None-Match} header lists the tag or a wildcard. Comparison is weak as required for
+     * {@code If-None-Match}, and values are scanned in place to avoid allocation.
+     */
+    static boolean matches(HeaderValues ifNoneMatch, String etag) {
+        for (int i = 0; i < ifNoneMatch.size(); i++) {
+            String value = ifNoneMatch.get(i);
+            int start = 0;
+            while (start < value.length()) {
+                int end = value.indexOf(',', start);
+                if (end < 0) {
+                    end = value.length();
+                }
+                if (matches(value, start, end, etag)) {
+                    return true;
+                }
+                start = end + 1;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String value, int start, int end, String etag) {
+        int tagStart = start;
+        int tagEnd = end;
+        while (tagStart < tagEnd && Character.isWhitespace(value.charAt(tagStart))) {
+            tagStart++;
+        }
+        while (tagEnd > tagStart && Character.isWhitespace(value.charAt(tagEnd - 1))) {
+            tagEnd--;
+        }
+        if (value.startsWith(WEAK_PREFIX, tagStart)) {
+            tagStart += WEAK_PREFIX.length();
+        }
+        int length = tagEnd - tagStart;
+        return (length == etag.length() && value.regionMatches(tagStart, etag, 0, length))
+                || (length == 1 && value.startsWith(WILDCARD, tagStart));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.palantir.conjure.java.api.errors.SerializableError;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders {@link SerializableError} JSON bodies without jackson. Everything up to the {@code errorInstanceId} value
+ * depends only on the error code and name, so it is rendered once per error type and cached. The output is identical
+ * to serializing the error using {@link Encodings#json()}.
+ */
+final class SerializedErrors {
+
+    /** Bounds the cache in case error names are unexpectedly dynamic, uncached errors are rendered in full. */
+    private static final int MAX_CACHED_PREFIXES = 1000;
+
+    private static final byte[] EMPTY_PARAMETERS_SUFFIX = bytes("\",\"parameters\":{}}");
+    private static final String PARAMETERS_START = "\",\"parameters\":{";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final ConcurrentMap<ErrorKey, byte[]> prefixes = new ConcurrentHashMap<>();
+
+    private SerializedErrors() {}
+
+    /** Returns the UTF-8 JSON representation of {@code error}. */
+    static byte[] render(SerializableError error) {
+        byte[] prefix = prefix(error.errorCode(), error.errorName());
+        String errorInstanceId = error.errorInstanceId();
+        Map<String, String> parameters = error.parameters();
+        if (parameters.isEmpty() && isUnescapedAscii(errorInstanceId)) {
+            // Common case, the instance identifier is a UUID
+            int length = errorInstanceId.length();
+            byte[] result = new byte[prefix.length + length + EMPTY_PARAMETERS_SUFFIX.length];
+            System.arraycopy(prefix, 0, result, 0, prefix.length);
+            for (int i = 0; i < length; i++) {
+                result[prefix.length + i] = (byte) errorInstanceId.charAt(i);
+            }
+            System.arraycopy(
+                    EMPTY_PARAMETERS_SUFFIX, 0, result, prefix.length + length, EMPTY_PARAMETERS_SUFFIX.length);
+            return result;
+        }
+        StringBuilder builder = new StringBuilder(64);
+        appendEscaped(builder, errorInstanceId);
+        builder.append(PARAMETERS_START);
+        boolean first = true;
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            builder.append('"');
+            appendEscaped(builder, entry.getKey());
+            builder.append("\":\"");
+            appendEscaped(builder, entry.getValue());
+            builder.append('"');
+        }
+        builder.append("}}");
+        byte[] suffix = bytes(builder.toString());
+        byte[] result = new byte[prefix.length + suffix.length];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        System.arraycopy(suffix, 0, result, prefix.length, suffix.length);
+        return result;
+    }
+
+    private static byte[] prefix(String errorCode, String errorName) {
+        ErrorKey key = new ErrorKey(errorCode, errorName);
+        byte[] prefix = prefixes.get(key);
+        if (prefix != null) {
+            return prefix;
+        }
+        StringBuilder builder = new StringBuilder(64).append("{\"errorCode\":\"");
+        appendEscaped(builder, errorCode);
+        builder.append("\",\"errorName\":\"");
+        appendEscaped(builder, errorName);
+        builder.append("\",\"errorInstanceId\":\"");
+        prefix = bytes(builder.toString());
+        if (prefixes.size() < MAX_CACHED_PREFIXES) {
+            prefixes.putIfAbsent(key, prefix);
+        }
+        return prefix;
+    }
+
+    /**
+     * Escapes strings in the same way as jackson, only quotes, backslashes, control characters and surrogates are
+     * escaped.
+     */
+    private static void appendEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '"' || character == '\\') {
+                builder.append('\\').append(character);
+            } else if (character < 0x20) {
+                appendControlCharacter(builder, character);
+            } else if (Character.isSurrogate(character)) {
+                appendUnicodeEscape(builder, character);
+            } else {
+                builder.append(character);
+            }
+        }
+    }
+
+    private static void appendControlCharacter(StringBuilder builder, char character) {
+        switch (character) {
+            case '\b':
+                builder.append("\\b");
+                break;
+            case '\t':
+                builder.append("\\t");
+                break;
+            case '\n':
+                builder.append("\\n");
+                break;
+            case '\f':
+                builder.append("\\f");
+                break;
+            case '\r':
+                builder.append("\\r");
+                break;
+            default:
+                appendUnicodeEscape(builder, character);
+        }
+    }
+
+    private static void appendUnicodeEscape(StringBuilder builder, char character) {
+        builder.append("\\u")
+                .append(HEX[character >> 12])
+                .append(HEX[(character >> 8) & 0xF])
+                .append(HEX[(character >> 4) & 0xF])
+                .append(HEX[character & 0xF]);
+    }
+
+    /** Returns true if the value is written as-is, without escaping or multi-byte characters. */
+    private static boolean isUnescapedAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '"' || character == '\\' || character < 0x20 || character > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class ErrorKey {
+        private final String errorCode;
+        private final String errorName;
+
+        ErrorKey(String errorCode, String errorName) {
+            this.errorCode = errorCode;
+            this.errorName = errorName;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ErrorKey)) {
+                return false;
+            }
+            ErrorKey otherKey = (ErrorKey) other;
+            return errorCode.equals(otherKey.errorCode) && errorName.equals(otherKey.errorName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * errorCode.hashCode() + errorName.hashCode();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Serializes {@code Stream<Map.Entry<K, V>>} values returned by streaming collection endpoints as JSON objects,
+ * matching the wire format of the equivalent {@code Map<K, V>}. Entries are written as they are consumed from the
+ * stream, which is closed once serialization completes. Streams of any other element type are written as arrays by
+ * the {@code Jdk8Module} stream serializer.
+ */
+final class StreamingCollectionsModule extends Module {
+
+    @Override
+    public String getModuleName() {
+        return "ConjureStreamingCollections";
+    }
+
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addSerializers(new EntryStreamSerializers());
+    }
+
+    private static final class EntryStreamSerializers extends Serializers.Base {
+
+        @Override
+        public JsonSerializer<?> findSerializer(
+                SerializationConfig config, JavaType type, BeanDescription _beanDesc) {
+            if (!Stream.class.isAssignableFrom(type.getRawClass())) {
+                return null;
+            }
+            JavaType[] streamParameters = config.getTypeFactory().findTypeParameters(type, Stream.class);
+            if (streamParameters.length != 1 || !streamParameters[0].isTypeOrSubTypeOf(Map.Entry.class)) {
+                return null;
+            }
+            JavaType[] entryParameters =
+                    config.getTypeFactory().findTypeParameters(streamParameters[0], Map.Entry.class);
+            if (entryParameters.length != 2) {
+                return null;
+            }
+            return new EntryStreamSerializer(type, entryParameters[0], entryParameters[1]);
+        }
+    }
+
+    private static final class EntryStreamSerializer extends StdSerializer<Stream<?>> {
+
+        private final JavaType keyType;
+        private final JavaType valueType;
+
+        EntryStreamSerializer(JavaType streamType, JavaType keyType, JavaType valueType) {
+            super(streamType);
+            this.keyType = keyType;
+            this.valueType = valueType;
+        }
+
+        @Override
+        public void serialize(Stream<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            JsonSerializer<Object> keySerializer = provider.findKeySerializer(keyType, null);
+            // Values declared as 'any' are resolved based on the runtime type of each value.
+            JsonSerializer<Object> valueSerializer =
+                    valueType.isJavaLangObject() ? null : provider.findValueSerializer(valueType);
+            try (Stream<?> stream = value) {
+                gen.writeStartObject();
+                Iterator<?> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<?, ?> entry = (Map.Entry<?, ?>) iterator.next();
+                    Object key = Preconditions.checkNotNull(entry.getKey(), "Map keys must not be null");
+                    keySerializer.serialize(key, gen, provider);
+                    Object entryValue = entry.getValue();
+                    if (entryValue == null) {
+                        provider.defaultSerializeNull(gen);
+                    } else if (valueSerializer == null) {
+                        provider.findValueSerializer(entryValue.getClass()).serialize(entryValue, gen, provider);
+                    } else {
+                        valueSerializer.serialize(entryValue, gen, provider);
+                    }
+                }
+                gen.writeEndObject();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.conjure.java.api.errors.SerializableError;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+public final class AdaptiveConcurrencyLimiterTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testRejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter.Limit limit = new AdaptiveConcurrencyLimiter.Limit(2, 1, 10, clock::get);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release(0);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void testLimitIncreasesWithStableLatency() {
+        AdaptiveConcurrencyLimiter.Limit limit = new AdaptiveConcurrencyLimiter.Limit(10, 1, 100, clock::get);
+        for (int window = 0; window < 20; window++) {
+            runWindow(limit, limit.getLimit(), 10 * MILLIS);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    public void testLimitDecreasesAsLatencyIncreases() {
+        AdaptiveConcurrencyLimiter.Limit limit = new AdaptiveConcurrencyLimiter.Limit(50, 1, 100, clock::get);
+        runWindow(limit, 50, 10 * MILLIS);
+        for (int window = 0; window < 20; window++) {
+            runWindow(limit, limit.getLimit(), 100 * MILLIS);
+        }
+        assertThat(limit.getLimit()).isLessThan(50);
+    }
+
+    @Test
+    public void testLimitIsNotIncreasedWhenUnused() {
+        AdaptiveConcurrencyLimiter.Limit limit = new AdaptiveConcurrencyLimiter.Limit(20, 1, 100, clock::get);
+        for (int window = 0; window < 20; window++) {
+            runWindow(limit, 2, 10 * MILLIS);
+        }
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void testRejectedRequestsReceiveThrottleResponse() throws Exception {
+        try (Response response = executeAboveLimit(ConjureUndertowRuntime.builder().build())) {
+            assertThat(response.code()).isEqualTo(429);
+            assertThat(response.body().string()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testRejectedRequestsUseRuntimeExceptionHandler() throws Exception {
+        SerializableError error = SerializableError.builder()
+                .errorCode("THROTTLE")
+                .errorName("Test:Throttle")
+                .build();
+        AtomicReference<Boolean> handlerBlocking = new AtomicReference<>();
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .exceptionHandler((exchange, throwable) -> {
+                    assertThat(throwable).isInstanceOf(QosException.class);
+                    handlerBlocking.set(exchange.isBlocking() && !exchange.isInIoThread());
+                    exchange.setStatusCode(429);
+                    try {
+                        // Writes using the blocking output stream, which is only allowed on a worker thread
+                        Encodings.json()
+                                .serializer(new TypeMarker<SerializableError>() {})
+                                .serialize(error, exchange.getOutputStream());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .build();
+        ByteArrayOutputStream expectedBody = new ByteArrayOutputStream();
+        Encodings.json().serializer(new TypeMarker<SerializableError>() {}).serialize(error, expectedBody);
+        try (Response response = executeAboveLimit(runtime)) {
+            assertThat(response.code()).isEqualTo(429);
+            assertThat(response.body().string()).isEqualTo(expectedBody.toString(StandardCharsets.UTF_8));
+        }
+        assertThat(handlerBlocking).hasValue(true);
+    }
+
+    /** Returns the response to a request sent while another request holds the only permit. */
+    private static Response executeAboveLimit(ConjureUndertowRuntime runtime) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Undertow server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(ConjureHandler.builder()
+                        .runtime(runtime)
+                        .services(EndpointService.of(Endpoint.builder()
+                                .method(Methods.GET)
+                                .template("/test")
+                                .serviceName("TestService")
+                                .name("test")
+                                .handler(_exchange -> {
+                                    started.countDown();
+                                    release.await();
+                                })
+                                .build()))
+                        .addWrapperBeforeBlocking(AdaptiveConcurrencyLimiter.builder()
+                                .initialLimit(1)
+                                .build())
+                        .build())
+                .build();
+        server.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> {
+                try (Response response = execute()) {
+                    return response.code();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Response rejected = execute();
+            // Buffer the body so that it can be read once the server has stopped
+            Response buffered = rejected.newBuilder()
+                    .body(ResponseBody.create(
+                            rejected.body().contentType(), rejected.body().bytes()))
+                    .build();
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            return buffered;
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    /** Runs a window of requests, each of which is in flight for the given latency. */
+    private void runWindow(AdaptiveConcurrencyLimiter.Limit limit, int concurrency, long latencyNanos) {
+        int requests = Math.max(concurrency, 10);
+        long windowEnd = clock.get() + Duration.ofMillis(250).toNanos();
+        while (clock.get() < windowEnd) {
+            long start = clock.get();
+            int acquired = 0;
+            for (int i = 0; i < requests && acquired < concurrency; i++) {
+                if (limit.tryAcquire()) {
+                    acquired++;
+                }
+            }
+            clock.addAndGet(latencyNanos);
+            for (int i = 0; i < acquired; i++) {
+                limit.release(start);
+            }
+        }
+    }
+
+    private static Response execute() throws IOException {
+        Request request =
+                new Request.Builder().get().url("http://localhost:12345/test").build();
+        return client.newCall(request).execute();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.AsyncBinaryResponseBody;
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class AsyncBinaryResponsesTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final int CHUNK_SIZE = 65536;
+
+    private final byte[] data = new byte[5_000_000];
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        new Random(1234).nextBytes(data);
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        BodySerDe bodySerDe = runtime.bodySerDe();
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/async")
+                        .serviceName("TestService")
+                        .name("async")
+                        .handler(exchange -> bodySerDe.serialize(
+                                new ChunkedBody(exchange.getQueryParameters().containsKey("length")), exchange))
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void sendsChunks() throws IOException, InterruptedException {
+        try (Response response = execute("/async")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Content-Type")).isEqualTo("application/octet-stream");
+            assertThat(response.header("Content-Length")).isNull();
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void sendsContentLength() throws IOException, InterruptedException {
+        try (Response response = execute("/async?length")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Content-Length")).isEqualTo(Integer.toString(data.length));
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void writesToStreams() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ChunkedBody(false).write(output);
+        assertThat(output.toByteArray()).isEqualTo(data);
+        assertThat(closed.getCount()).isZero();
+    }
+
+    private static Response execute(String path) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .url("http://localhost:12345" + path)
+                        .get()
+                        .build())
+                .execute();
+    }
+
+    private final class ChunkedBody implements AsyncBinaryResponseBody {
+        private final boolean knownLength;
+        private int position;
+
+        ChunkedBody(boolean knownLength) {
+            this.knownLength = knownLength;
+        }
+
+        @Override
+        public ByteBuffer nextChunk() {
+            if (position == data.length) {
+                return null;
+            }
+            int length = Math.min(CHUNK_SIZE, data.length - position);
+            // Direct buffers exercise the copying path of the default write implementation
+            ByteBuffer chunk = ByteBuffer.allocateDirect(length).put(data, position, length);
+            chunk.flip();
+            position += length;
+            return chunk;
+        }
+
+        @Override
+        public OptionalLong contentLength() {
+            return knownLength ? OptionalLong.of(data.length) : OptionalLong.empty();
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.api.errors.ErrorType;
+import com.palantir.conjure.java.api.errors.ServiceException;
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import com.palantir.conjure.java.undertow.lib.UndertowService;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import io.undertow.util.PathTemplateMatch;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class BatchHandlerTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final CountDownLatch parallel = new CountDownLatch(2);
+    private final CountDownLatch slow = new CountDownLatch(1);
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final AtomicInteger dispatched = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        UndertowService service = runtime -> {
+            BodySerDe bodySerDe = runtime.bodySerDe();
+            Serializer<String> stringSerializer = bodySerDe.serializer(new TypeMarker<String>() {});
+            return ImmutableList.of(
+                    endpoint(Methods.GET, "/things/{id}", "getThing", exchange -> stringSerializer.serialize(
+                            exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY)
+                                            .getParameters()
+                                            .get("id")
+                                    + ':' + exchange.getQueryParameters().get("q").getFirst()
+                                    + ':' + exchange.getRequestHeaders().getFirst("X-Value"),
+                            exchange)),
+                    endpoint(Methods.POST, "/echo", "echo", exchange -> {
+                        TypeMarker<Map<String, Integer>> type = new TypeMarker<>() {};
+                        bodySerDe
+                                .serializer(type)
+                                .serialize(bodySerDe.deserializer(type).deserialize(exchange), exchange);
+                    }),
+                    endpoint(Methods.GET, "/fail", "fail", _exchange -> {
+                        throw new ServiceException(ErrorType.INVALID_ARGUMENT);
+                    }),
+                    endpoint(Methods.GET, "/parallel", "parallel", exchange -> {
+                        parallel.countDown();
+                        stringSerializer.serialize(
+                                Boolean.toString(parallel.await(10, TimeUnit.SECONDS)), exchange);
+                    }),
+                    endpoint(Methods.GET, "/slow", "slow", exchange -> {
+                        stringSerializer.serialize(Boolean.toString(slow.await(10, TimeUnit.SECONDS)), exchange);
+                    }),
+                    endpoint(Methods.GET, "/closing", "closing", exchange -> {
+                        exchange.getConnection().addCloseListener(_connection -> closed.countDown());
+                        stringSerializer.serialize("closing", exchange);
+                    }),
+                    endpoint(Methods.GET, "/large", "large", exchange -> {
+                        int bytes = Integer.parseInt(exchange.getQueryParameters().get("bytes").getFirst());
+                        stringSerializer.serialize(Strings.repeat("a", bytes), exchange);
+                    }),
+                    endpoint(
+                            Methods.GET,
+                            "/duplicate/a",
+                            "duplicate",
+                            exchange -> stringSerializer.serialize("a", exchange)),
+                    endpoint(
+                            Methods.GET,
+                            "/duplicate/b",
+                            "duplicate",
+                            exchange -> stringSerializer.serialize("b", exchange)));
+        };
+        HttpHandler handler = ConjureHandler.builder()
+                .services(service)
+                .batchEndpoint("/batch")
+                .batchCallTimeout(Duration.ofMillis(500))
+                .blockingExecutor(command -> {
+                    dispatched.incrementAndGet();
+                    executor.execute(command);
+                })
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        slow.countDown();
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void executesCalls() throws IOException {
+        JsonNode results = execute("["
+                + "{\"service\": \"TestService\", \"endpoint\": \"getThing\", \"pathParams\": {\"id\": \"a/b\"},"
+                + " \"queryParams\": {\"q\": [\"c\"]}},"
+                + "{\"service\": \"TestService\", \"endpoint\": \"echo\", \"body\": {\"value\": 1.0}},"
+                + "{\"service\": \"TestService\", \"endpoint\": \"fail\"}"
+                + "]");
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).get("status").asInt()).isEqualTo(200);
+        assertThat(results.get(0).get("body").asText()).isEqualTo("a/b:c:header");
+        assertThat(results.get(1).get("status").asInt()).isEqualTo(200);
+        assertThat(results.get(1).get("body")).isEqualTo(mapper.readTree("{\"value\": 1}"));
+        assertThat(results.get(2).get("status").asInt()).isEqualTo(400);
+        assertThat(results.get(2).get("body").get("errorCode").asText()).isEqualTo("INVALID_ARGUMENT");
+    }
+
+    @Test
+    public void executesCallsInParallel() throws IOException {
+        JsonNode results = execute("["
+                + "{\"service\": \"TestService\", \"endpoint\": \"parallel\"},"
+                + "{\"service\": \"TestService\", \"endpoint\": \"parallel\"}"
+                + "]");
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).get("body").asText()).isEqualTo("true");
+        assertThat(results.get(1).get("body").asText()).isEqualTo("true");
+    }
+
+    @Test
+    public void reportsTimedOutCalls() throws IOException {
+        JsonNode results = execute("["
+                + "{\"service\": \"TestService\", \"endpoint\": \"slow\"},"
+                + "{\"service\": \"TestService\", \"endpoint\": \"echo\", \"body\": {\"value\": 1}}"
+                + "]");
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).get("status").asInt()).isEqualTo(503);
+        assertThat(results.get(0).get("body")).isNull();
+        assertThat(results.get(1).get("status").asInt()).isEqualTo(200);
+    }
+
+    @Test
+    public void writesResultsUsingBlockingExecutor() throws IOException {
+        JsonNode results = execute("[{\"service\": \"TestService\", \"endpoint\": \"slow\"}]");
+        assertThat(results.get(0).get("status").asInt()).isEqualTo(503);
+        // The batch request, its call, and writing the timed out result
+        assertThat(dispatched).hasValue(3);
+    }
+
+    @Test
+    public void limitsCallResponseSize() throws IOException {
+        JsonNode results = execute("["
+                + largeCall(BatchHandler.MAX_CALL_RESPONSE_BYTES) + ","
+                + largeCall(1000)
+                + "]");
+        assertThat(results.get(0).get("status").asInt()).isEqualTo(413);
+        assertThat(results.get(0).get("body")).isNull();
+        assertThat(results.get(1).get("status").asInt()).isEqualTo(200);
+        assertThat(results.get(1).get("body").asText()).hasSize(1000);
+    }
+
+    @Test
+    public void limitsBatchResponseSize() throws IOException {
+        // Results can't be written until the slow call times out, so the others are captured at the same time
+        int calls = (int) (BatchHandler.MAX_BATCH_RESPONSE_BYTES / (BatchHandler.MAX_CALL_RESPONSE_BYTES / 2)) + 1;
+        StringBuilder body = new StringBuilder("[{\"service\": \"TestService\", \"endpoint\": \"slow\"}");
+        for (int i = 0; i < calls; i++) {
+            body.append(',').append(largeCall(BatchHandler.MAX_CALL_RESPONSE_BYTES / 2));
+        }
+        JsonNode results = execute(body.append(']').toString());
+        assertThat(results).hasSize(calls + 1);
+        ImmutableList.Builder<Integer> statuses = ImmutableList.builder();
+        results.forEach(result -> statuses.add(result.get("status").asInt()));
+        assertThat(statuses.build()).contains(200, 503).doesNotContain(413);
+    }
+
+    @Test
+    public void notifiesCloseListenersWhenCallsComplete() throws Exception {
+        JsonNode results = execute("[{\"service\": \"TestService\", \"endpoint\": \"closing\"}]");
+        assertThat(results.get(0).get("body").asText()).isEqualTo("closing");
+        assertThat(closed.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void rejectsMissingPathParameters() throws IOException {
+        try (Response response = send("[{\"service\": \"TestService\", \"endpoint\": \"getThing\"}]")) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    @Test
+    public void rejectsUnexpectedPathParameters() throws IOException {
+        try (Response response = send("[{\"service\": \"TestService\", \"endpoint\": \"fail\","
+                + " \"pathParams\": {\"id\": \"1\"}}]")) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    @Test
+    public void rejectsEndpointsWithSharedNames() throws IOException {
+        try (Response response = send("[{\"service\": \"TestService\", \"endpoint\": \"duplicate\"}]")) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    @Test
+    public void rejectsUnknownEndpoints() throws IOException {
+        try (Response response = send("[{\"service\": \"TestService\", \"endpoint\": \"missing\"}]")) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    @Test
+    public void rejectsNestedBatches() throws IOException {
+        try (Response response = send("[{\"service\": \"ConjureBatch\", \"endpoint\": \"batch\", \"body\": []}]")) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    private static String largeCall(int bytes) {
+        return "{\"service\": \"TestService\", \"endpoint\": \"large\", \"queryParams\": {\"bytes\": [\""
+                + bytes + "\"]}}";
+    }
+
+    private static JsonNode execute(String body) throws IOException {
+        try (Response response = send(body)) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Content-Type")).isEqualTo("application/json");
+            return mapper.readTree(response.body().string());
+        }
+    }
+
+    private static Response send(String body) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .url("http://localhost:12345/batch")
+                        .header("X-Value", "header")
+                        .post(RequestBody.create(MediaType.parse("application/json"), body))
+                        .build())
+                .execute();
+    }
+
+    private static Endpoint endpoint(HttpString method, String template, String name, HttpHandler handler) {
+        return Endpoint.builder()
+                .method(method)
+                .template(template)
+                .serviceName("TestService")
+                .name(name)
+                .handler(handler)
+                .build();
+    }
+}
@@ -134,6 +134,23 @@ public class BearerTokenLoggingTest {
         runTest(INVALID_PAYLOAD_TOKEN, null, null, null);
     }
 
+    @Test
+    public void testRepeatedToken() throws Exception {
+        runTest(API_TOKEN, USER_ID, null, TOKEN_ID);
+        exchange = HttpServerExchanges.createStub();
+        runTest(API_TOKEN, USER_ID, null, TOKEN_ID);
+    }
+
+    @Test
+    public void testRepeatedHeaderIsParsedOnce() {
+        HttpServerExchange first = HttpServerExchanges.createStub();
+        first.getRequestHeaders().put(Headers.AUTHORIZATION, "Bearer " + SESSION_TOKEN);
+        HttpServerExchange second = HttpServerExchanges.createStub();
+        second.getRequestHeaders().put(Headers.AUTHORIZATION, "Bearer " + SESSION_TOKEN);
+        assertThat(CONTEXT.auth().header(second)).isSameAs(CONTEXT.auth().header(first));
+        assertThat(second.getAttachment(Attachments.UNVERIFIED_JWT)).isPresent();
+    }
+
     private void runTest(
             String authHeader, @Nullable String userId, @Nullable String sessionId, @Nullable String tokenId)
             throws Exception {
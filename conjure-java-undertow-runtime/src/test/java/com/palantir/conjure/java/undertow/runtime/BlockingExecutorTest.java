@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static com.palantir.logsafe.testing.Assertions.assertThatLoggableExceptionThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class BlockingExecutorTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private final AtomicReference<Thread> handlerThread = new AtomicReference<>();
+    private final AtomicReference<Boolean> handlerBlocking = new AtomicReference<>();
+    private final AtomicReference<Boolean> handlerParsedBody = new AtomicReference<>();
+
+    private Undertow server;
+    private ExecutorService executor;
+
+    @AfterEach
+    public void after() {
+        if (server != null) {
+            server.stop();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBlockingExecutor() throws IOException {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "custom-executor"));
+        start(ConjureHandler.builder().blockingExecutor(executor));
+        try (Response response = execute()) {
+            assertThat(response.code()).isEqualTo(204);
+        }
+        assertThat(handlerThread.get().getName()).isEqualTo("custom-executor");
+        assertThat(handlerBlocking).hasValue(true);
+    }
+
+    @Test
+    public void testBlockingExecutorWithNonBlockingRequestBodies() throws IOException {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "custom-executor"));
+        start(ConjureHandler.builder()
+                .runtime(ConjureUndertowRuntime.builder()
+                        .nonBlockingRequestBodies(true)
+                        .build())
+                .blockingExecutor(executor));
+        Request request = new Request.Builder()
+                .post(RequestBody.create(MediaType.get("application/json"), "\"body\""))
+                .url("http://localhost:12345/test")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            assertThat(response.code()).isEqualTo(204);
+        }
+        // The body is read without blocking, after which the request must still run on the custom executor
+        assertThat(handlerParsedBody).hasValue(true);
+        assertThat(handlerThread.get().getName()).isEqualTo("custom-executor");
+        assertThat(handlerBlocking).hasValue(true);
+    }
+
+    @Test
+    public void testVirtualThreads() throws IOException {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21");
+        start(ConjureHandler.builder().virtualThreads());
+        try (Response response = execute()) {
+            assertThat(response.code()).isEqualTo(204);
+        }
+        assertThat(handlerThread.get().toString()).startsWith("VirtualThread");
+        assertThat(handlerBlocking).hasValue(true);
+    }
+
+    @Test
+    public void testVirtualThreadsUnsupported() {
+        assumeFalse(Runtime.version().feature() >= 21, "Virtual threads are supported");
+        assertThatLoggableExceptionThrownBy(() -> ConjureHandler.builder().virtualThreads())
+                .isInstanceOf(SafeIllegalStateException.class)
+                .hasLogMessage("Virtual threads require Java 21 or later");
+    }
+
+    private void start(ConjureHandler.Builder builder) {
+        HttpHandler handler = exchange -> {
+            handlerThread.set(Thread.currentThread());
+            handlerBlocking.set(exchange.isBlocking() && !exchange.isInIoThread());
+            handlerParsedBody.set(exchange.getAttachment(ParsedRequestBody.KEY) != null);
+            exchange.setStatusCode(204);
+        };
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(builder.services(EndpointService.of(
+                                Endpoint.builder()
+                                        .method(Methods.GET)
+                                        .template("/test")
+                                        .serviceName("TestService")
+                                        .name("test")
+                                        .handler(handler)
+                                        .build(),
+                                Endpoint.builder()
+                                        .method(Methods.POST)
+                                        .template("/test")
+                                        .serviceName("TestService")
+                                        .name("testPost")
+                                        .handler(handler)
+                                        .build()))
+                        .build())
+                .build();
+        server.start();
+    }
+
+    private static Response execute() throws IOException {
+        Request request =
+                new Request.Builder().get().url("http://localhost:12345/test").build();
+        return client.newCall(request).execute();
+    }
+}
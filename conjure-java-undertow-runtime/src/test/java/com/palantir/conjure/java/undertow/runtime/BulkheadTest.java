@@ -0,0 +1,258 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.java.api.errors.QosException;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import com.palantir.conjure.java.undertow.lib.UndertowRuntime;
+import com.palantir.conjure.java.undertow.lib.UndertowService;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class BulkheadTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Undertow server;
+    private Bulkhead bulkhead;
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        if (server != null) {
+            server.stop();
+        }
+        if (bulkhead != null) {
+            bulkhead.close();
+        }
+    }
+
+    @Test
+    public void isolatesServices() throws Exception {
+        start(Bulkhead.builder()
+                .name("slow")
+                .addServices("SlowService")
+                .maxThreads(1)
+                .maxQueuedRequests(0)
+                .build());
+        try {
+            occupy();
+            try (Response response = client.newCall(request("/slow")).execute()) {
+                assertThat(response.code()).isEqualTo(429);
+            }
+            try (Response response = client.newCall(request("/fast")).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.body().string()).doesNotContain("conjure-bulkhead-slow");
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void dispatchesByTag() throws IOException {
+        start(Bulkhead.builder()
+                .name("tagged")
+                .addTags("fast-tag")
+                .rejection(QosException::unavailable)
+                .build());
+        try (Response response = client.newCall(request("/fast")).execute()) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).contains("conjure-bulkhead-tagged-");
+        }
+    }
+
+    @Test
+    public void rejectsUsingRuntimeExceptionHandler() throws Exception {
+        AtomicBoolean handlerBlocking = new AtomicBoolean();
+        UndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .exceptionHandler((exchange, throwable) -> {
+                    assertThat(throwable).isInstanceOf(QosException.Unavailable.class);
+                    handlerBlocking.set(exchange.isBlocking() && !exchange.isInIoThread());
+                    exchange.setStatusCode(503);
+                    try {
+                        // Writes using the blocking output stream, which is only allowed on a worker thread
+                        exchange.getOutputStream().write("rejected".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .build();
+        start(
+                Bulkhead.builder()
+                        .name("slow")
+                        .addServices("SlowService")
+                        .maxThreads(1)
+                        .maxQueuedRequests(0)
+                        .rejection(QosException::unavailable)
+                        .build(),
+                runtime);
+        try {
+            occupy();
+            try (Response response = client.newCall(request("/slow")).execute()) {
+                assertThat(response.code()).isEqualTo(503);
+                assertThat(response.body().string()).isEqualTo("rejected");
+            }
+            assertThat(handlerBlocking).isTrue();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void usesProvidedExecutor() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "provided"));
+        try {
+            start(Bulkhead.builder()
+                    .name("provided")
+                    .addServices("FastService")
+                    .executor(executor)
+                    .build());
+            try (Response response = client.newCall(request("/fast")).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.body().string()).contains("provided");
+            }
+            // Provided executors are owned by the caller
+            bulkhead.close();
+            assertThat(executor.isShutdown()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void releasesPermitsForRejectedDispatches() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean accepting = new AtomicBoolean();
+        try {
+            start(Bulkhead.builder()
+                    .name("rejecting")
+                    .addServices("FastService")
+                    .maxThreads(1)
+                    .maxQueuedRequests(0)
+                    .executor(command -> {
+                        if (!accepting.get()) {
+                            throw new RejectedExecutionException("Not accepting");
+                        }
+                        executor.execute(command);
+                    })
+                    .build());
+            for (int i = 0; i < 3; i++) {
+                try (Response response = client.newCall(request("/fast")).execute()) {
+                    assertThat(response.code()).isEqualTo(429);
+                }
+            }
+            accepting.set(true);
+            try (Response response = client.newCall(request("/fast")).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void requiresSelection() {
+        assertThatThrownBy(() -> Bulkhead.builder().name("empty").build())
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Bulkhead must match at least one service or tag");
+    }
+
+    private void start(Bulkhead value) {
+        start(value, ConjureUndertowRuntime.builder().build());
+    }
+
+    private void start(Bulkhead value, UndertowRuntime undertowRuntime) {
+        bulkhead = value;
+        UndertowService slow = runtime -> ImmutableList.of(Endpoint.builder()
+                .method(Methods.GET)
+                .template("/slow")
+                .serviceName("SlowService")
+                .name("slow")
+                .handler(exchange -> {
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    exchange.getResponseSender().send("done");
+                })
+                .build());
+        UndertowService fast = runtime -> {
+            Serializer<String> serializer = runtime.bodySerDe().serializer(new TypeMarker<String>() {});
+            return ImmutableList.of(Endpoint.builder()
+                    .method(Methods.GET)
+                    .template("/fast")
+                    .serviceName("FastService")
+                    .name("fast")
+                    .tags(ImmutableSet.of("fast-tag"))
+                    .handler(exchange -> serializer.serialize(Thread.currentThread().getName(), exchange))
+                    .build());
+        };
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(undertowRuntime)
+                .services(slow)
+                .services(fast)
+                .addBulkhead(bulkhead)
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    /** Occupies a thread of the slow service until the test releases it. */
+    private void occupy() throws InterruptedException {
+        client.newCall(request("/slow")).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call _call, IOException _exception) {}
+
+            @Override
+            public void onResponse(Call _call, Response response) {
+                response.close();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static Request request(String path) {
+        return new Request.Builder().url("http://localhost:12345" + path).get().build();
+    }
+}
@@ -122,6 +122,42 @@ public class ConjureBodySerDeTest {
         assertThat(exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE)).isEqualTo(json.getContentType());
     }
 
+    @Test
+    public void testResponseContentType_qualityValues() throws IOException {
+        Encoding json = new StubEncoding("application/json");
+        Encoding plain = new StubEncoding("text/plain");
+
+        HttpServerExchange exchange = HttpServerExchanges.createStub();
+        exchange.getRequestHeaders().put(Headers.ACCEPT, "application/json;q=0.5, text/plain;q=0.8");
+        BodySerDe serializers = new ConjureBodySerDe(ImmutableList.of(json, plain));
+        serializers.serializer(TYPE).serialize("test", exchange);
+        assertThat(exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE)).isSameAs(plain.getContentType());
+    }
+
+    @Test
+    public void testResponseContentType_wildcard() throws IOException {
+        Encoding json = new StubEncoding("application/json");
+        Encoding plain = new StubEncoding("text/plain");
+
+        HttpServerExchange exchange = HttpServerExchanges.createStub();
+        exchange.getRequestHeaders().put(Headers.ACCEPT, "application/unknown, text/*");
+        BodySerDe serializers = new ConjureBodySerDe(ImmutableList.of(json, plain));
+        serializers.serializer(TYPE).serialize("test", exchange);
+        assertThat(exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE)).isSameAs(plain.getContentType());
+    }
+
+    @Test
+    public void testResponseContentType_mostSpecificRangeDeterminesQuality() throws IOException {
+        Encoding json = new StubEncoding("application/json");
+        Encoding plain = new StubEncoding("text/plain");
+
+        HttpServerExchange exchange = HttpServerExchanges.createStub();
+        exchange.getRequestHeaders().put(Headers.ACCEPT, "*/*, application/json;q=0");
+        BodySerDe serializers = new ConjureBodySerDe(ImmutableList.of(json, plain));
+        serializers.serializer(TYPE).serialize("test", exchange);
+        assertThat(exchange.getResponseHeaders().getFirst(Headers.CONTENT_TYPE)).isSameAs(plain.getContentType());
+    }
+
     /** Deserializes requests as the configured content type. */
     public static final class StubEncoding implements Encoding {
 
@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+final class ConjurePrimitivesTest {
+
+    @Test
+    void parsesCanonicalUuids() {
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            assertThat(ConjurePrimitives.tryParseUuid(uuid.toString())).isEqualTo(uuid);
+            assertThat(ConjurePrimitives.tryParseUuid(uuid.toString().toUpperCase())).isEqualTo(uuid);
+        }
+        assertThat(ConjurePrimitives.tryParseUuid("ffffffff-ffff-ffff-ffff-ffffffffffff"))
+                .isEqualTo(new UUID(-1L, -1L));
+    }
+
+    @Test
+    void fallsBackForNonCanonicalUuids() {
+        assertThat(ConjurePrimitives.tryParseUuid("1-2-3-4-5")).isNull();
+        assertThat(ConjurePrimitives.tryParseUuid("g0000000-0000-0000-0000-000000000000")).isNull();
+        assertThat(ConjurePrimitives.tryParseUuid("00000000-0000-0000-0000_000000000000")).isNull();
+        assertThat(ConjurePrimitives.parseUuid("1-2-3-4-5")).isEqualTo(UUID.fromString("1-2-3-4-5"));
+    }
+
+    @Test
+    void parsesCanonicalDateTimes() {
+        for (String value : new String[] {
+            "2018-07-19T08:11:21Z",
+            "2018-07-19T08:11:21+00:00",
+            "2018-07-19T08:11:21-00:00",
+            "2018-07-19T08:11:21.1+05:30",
+            "2018-07-19T08:11:21.123-08:00",
+            "2018-07-19T08:11:21.123456789Z",
+            "2020-02-29T23:59:59.000000001+18:00"
+        }) {
+            assertThat(ConjurePrimitives.tryParseDateTime(value))
+                    .as(value)
+                    .isEqualTo(OffsetDateTime.parse(value));
+        }
+    }
+
+    @Test
+    void fallsBackForNonCanonicalDateTimes() {
+        for (String value : new String[] {
+            "2018-07-19T08:11Z",
+            "2018-07-19t08:11:21z",
+            "2018-07-19T08:11:21.Z",
+            "2018-07-19T08:11:21.1234567891Z",
+            "2018-07-19T08:11:21+05",
+            "2018-07-19T08:11:21+05:30:15",
+            "+12018-07-19T08:11:21Z",
+            "2019-02-29T08:11:21Z",
+            "2018-07-19T24:11:21Z",
+            "2018-07-19T08:11:21+19:00",
+            "2018-07-19T08:11:21#05:00"
+        }) {
+            assertThat(ConjurePrimitives.tryParseDateTime(value)).as(value).isNull();
+        }
+        assertThat(ConjurePrimitives.parseDateTime("2018-07-19T08:11Z"))
+                .isEqualTo(OffsetDateTime.parse("2018-07-19T08:11Z"));
+    }
+
+    @Test
+    void parsesCharacterRanges() {
+        UUID uuid = UUID.randomUUID();
+        char[] uuidChars = ("\"" + uuid + "\",").toCharArray();
+        assertThat(ConjurePrimitives.tryParseUuid(uuidChars, 1, 36)).isEqualTo(uuid);
+        assertThat(ConjurePrimitives.tryParseUuid(uuidChars, 0, 36)).isNull();
+
+        String dateTime = "2018-07-19T08:11:21.123-08:00";
+        char[] dateTimeChars = ("[\"" + dateTime + "\"]").toCharArray();
+        assertThat(ConjurePrimitives.tryParseDateTime(dateTimeChars, 2, dateTime.length()))
+                .isEqualTo(OffsetDateTime.parse(dateTime));
+        // The offset must end where the range does, not at the end of the array
+        assertThat(ConjurePrimitives.tryParseDateTime(dateTimeChars, 2, dateTime.length() - 1)).isNull();
+    }
+}
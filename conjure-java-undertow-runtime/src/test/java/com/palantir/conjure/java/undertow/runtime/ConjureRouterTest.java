@@ -0,0 +1,149 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import io.undertow.util.PathTemplateMatch;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public final class ConjureRouterTest {
+
+    private static final HttpHandler FALLBACK = exchange -> exchange.setStatusCode(404);
+
+    private static final ConjureRouter ROUTER = ConjureRouter.builder()
+            .add(Methods.GET, "/", handler("root"))
+            .add(Methods.GET, "/datasets/{datasetRid}", handler("dataset"))
+            .add(Methods.GET, "/datasets/latest", handler("latest"))
+            .add(Methods.POST, "/datasets/{datasetRid}/files", handler("files"))
+            .add(Methods.GET, "/datasets/{rid}/files", handler("getFiles"))
+            .add(Methods.POST, "/datasets/shared/files", handler("sharedFiles"))
+            .add(Methods.GET, "/datasets/{datasetRid}/branches/{branch:.+}/resolve", handler("resolve"))
+            .add(Methods.GET, "/datasets/{datasetRid}/branches/{branch:.+}", handler("branch"))
+            .build(FALLBACK);
+
+    @Test
+    public void testLiteralPreferredOverParameter() throws Exception {
+        assertThat(route(Methods.GET, "/datasets/latest")).isEqualTo("latest");
+        assertThat(route(Methods.GET, "/datasets/other")).isEqualTo("dataset");
+        assertThat(parameters(Methods.GET, "/datasets/other")).containsExactly(Map.entry("datasetRid", "other"));
+    }
+
+    @Test
+    public void testMethodMismatchFallsBackToParameter() throws Exception {
+        // Only POST is registered for the literal path, GET must match the parameterized route.
+        assertThat(route(Methods.GET, "/datasets/shared/files")).isEqualTo("getFiles");
+        assertThat(parameters(Methods.GET, "/datasets/shared/files")).containsExactly(Map.entry("rid", "shared"));
+        assertThat(route(Methods.POST, "/datasets/shared/files")).isEqualTo("sharedFiles");
+        assertThat(route(Methods.POST, "/datasets/other/files")).isEqualTo("files");
+    }
+
+    @Test
+    public void testGreedyParameter() throws Exception {
+        assertThat(route(Methods.GET, "/datasets/ri.1/branches/feature/foo/resolve"))
+                .isEqualTo("resolve");
+        assertThat(parameters(Methods.GET, "/datasets/ri.1/branches/feature/foo/resolve"))
+                .containsExactly(Map.entry("datasetRid", "ri.1"), Map.entry("branch", "feature/foo"));
+        assertThat(parameters(Methods.GET, "/datasets/ri.1/branches/feature/foo"))
+                .containsExactly(Map.entry("datasetRid", "ri.1"), Map.entry("branch", "feature/foo"));
+        assertThat(parameters(Methods.GET, "/datasets/ri.1/branches/resolve/resolve"))
+                .containsExactly(Map.entry("datasetRid", "ri.1"), Map.entry("branch", "resolve"));
+        assertThat(parameters(Methods.GET, "/datasets/ri.1/branches/a/resolve/resolve"))
+                .containsExactly(Map.entry("datasetRid", "ri.1"), Map.entry("branch", "a/resolve"));
+        assertThat(route(Methods.GET, "/datasets/ri.1/branches")).isEqualTo("fallback");
+    }
+
+    @Test
+    public void testTrailingSlash() throws Exception {
+        assertThat(route(Methods.GET, "/")).isEqualTo("root");
+        assertThat(route(Methods.GET, "/datasets/latest/")).isEqualTo("latest");
+        assertThat(parameters(Methods.GET, "/datasets/other/")).containsExactly(Map.entry("datasetRid", "other"));
+    }
+
+    @Test
+    public void testRoutesWithoutParametersShareMatch() throws Exception {
+        HttpServerExchange first = exchange(Methods.GET, "/datasets/latest");
+        HttpServerExchange second = exchange(Methods.GET, "/datasets/latest");
+        ROUTER.handleRequest(first);
+        ROUTER.handleRequest(second);
+        assertThat(first.getAttachment(PathTemplateMatch.ATTACHMENT_KEY))
+                .isSameAs(second.getAttachment(PathTemplateMatch.ATTACHMENT_KEY));
+        assertThat(first.getAttachment(PathTemplateMatch.ATTACHMENT_KEY).getParameters()).isEmpty();
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        assertThat(route(Methods.GET, "/unknown")).isEqualTo("fallback");
+        assertThat(route(Methods.DELETE, "/datasets/latest")).isEqualTo("fallback");
+        assertThat(route(Methods.GET, "/datasets/a/b/c")).isEqualTo("fallback");
+    }
+
+    @Test
+    public void testParametersMayBeUpdated() throws Exception {
+        HttpServerExchange exchange = exchange(Methods.GET, "/datasets/a%20b");
+        ROUTER.handleRequest(exchange);
+        Map<String, String> parameters =
+                exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY).getParameters();
+        parameters.entrySet().forEach(entry -> entry.setValue("a b"));
+        assertThat(parameters).isEqualTo(ImmutableMap.of("datasetRid", "a b"));
+    }
+
+    @Test
+    public void testRejectsPartialSegmentParameters() {
+        assertThatThrownBy(() -> ConjureRouter.builder().add(Methods.GET, "/datasets/prefix{rid}", FALLBACK))
+                .isInstanceOf(SafeIllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRejectsDuplicateRoutes() {
+        ConjureRouter.Builder builder = ConjureRouter.builder().add(Methods.GET, "/datasets/{rid}", FALLBACK);
+        assertThatThrownBy(() -> builder.add(Methods.GET, "/datasets/{datasetRid}", FALLBACK))
+                .isInstanceOf(SafeIllegalArgumentException.class);
+    }
+
+    private static String route(HttpString method, String path) throws Exception {
+        HttpServerExchange exchange = exchange(method, path);
+        ROUTER.handleRequest(exchange);
+        PathTemplateMatch match = exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY);
+        return match == null ? "fallback" : exchange.getResponseHeaders().getFirst("Route");
+    }
+
+    private static Map<String, String> parameters(HttpString method, String path) throws Exception {
+        HttpServerExchange exchange = exchange(method, path);
+        ROUTER.handleRequest(exchange);
+        return exchange.getAttachment(PathTemplateMatch.ATTACHMENT_KEY).getParameters();
+    }
+
+    private static HttpServerExchange exchange(HttpString method, String path) {
+        HttpServerExchange exchange = new HttpServerExchange(null);
+        exchange.setRequestMethod(method);
+        exchange.setRelativePath(path);
+        return exchange;
+    }
+
+    private static HttpHandler handler(String name) {
+        return exchange -> exchange.getResponseHeaders().put(HttpString.tryFromString("Route"), name);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.undertow.runtime.ConjureBodySerDeTest.StubEncoding;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import org.junit.jupiter.api.Test;
+
+public class EncodingNegotiatorTest {
+
+    private final EncodingNegotiator negotiator = new EncodingNegotiator(
+            ImmutableList.of(new StubEncoding("application/json"), new StubEncoding("text/plain")));
+
+    @Test
+    public void testResponseEncodingIsCached() {
+        assertThat(negotiator.getResponseEncoding(accept("text/plain"))).isEqualTo(1);
+        assertThat(negotiator.getResponseEncoding(accept("text/plain"))).isEqualTo(1);
+        assertThat(negotiator.cacheSize()).isOne();
+    }
+
+    @Test
+    public void testUnsupportedRequestEncodingIsCached() {
+        assertThat(negotiator.getRequestEncoding("application/unknown")).isEqualTo(EncodingNegotiator.UNSUPPORTED);
+        assertThat(negotiator.getRequestEncoding("application/unknown")).isEqualTo(EncodingNegotiator.UNSUPPORTED);
+        assertThat(negotiator.cacheSize()).isOne();
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(negotiator.getResponseEncoding(accept("application/unknown-" + i + ", text/plain")))
+                    .isEqualTo(1);
+        }
+        assertThat(negotiator.cacheSize()).isLessThanOrEqualTo(1024);
+    }
+
+    @Test
+    public void testMultipleAcceptHeaders() {
+        HeaderMap headers = new HeaderMap();
+        headers.add(Headers.ACCEPT, "application/unknown");
+        headers.add(Headers.ACCEPT, "text/plain");
+        assertThat(negotiator.getResponseEncoding(headers.get(Headers.ACCEPT))).isEqualTo(1);
+        assertThat(negotiator.cacheSize()).isZero();
+    }
+
+    @Test
+    public void testMalformedQualityIsIgnored() {
+        assertThat(negotiator.getResponseEncoding(accept("text/plain;q=invalid, application/json;q=0.9")))
+                .isEqualTo(1);
+    }
+
+    private static HeaderValues accept(String value) {
+        return new HeaderMap().put(Headers.ACCEPT, value).get(Headers.ACCEPT);
+    }
+}
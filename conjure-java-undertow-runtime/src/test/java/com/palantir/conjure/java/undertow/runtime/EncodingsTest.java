@@ -25,18 +25,26 @@ import static org.mockito.Mockito.verify;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.palantir.conjure.java.undertow.lib.TypeMarker;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeNullPointerException;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
 final class EncodingsTest {
@@ -81,6 +89,19 @@ final class EncodingsTest {
                 .hasMessageContaining("Failed to parse request due to malformed content");
     }
 
+    @Test
+    void json_deserialize_uuid() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        assertThat(deserialize(asStream("\"" + uuid + "\""), new TypeMarker<UUID>() {})).isEqualTo(uuid);
+        assertThat(deserialize(
+                        asStream("[\"" + uuid + "\", \"" + uuid.toString().toUpperCase() + "\"]"),
+                        new TypeMarker<List<UUID>>() {}))
+                .containsExactly(uuid, uuid);
+        // Non-canonical values are handled by the default deserializer
+        assertThatThrownBy(() -> deserialize(asStream("\"1-2-3-4-5\""), new TypeMarker<UUID>() {}))
+                .isInstanceOf(FrameworkException.class);
+    }
+
     /** Approximation of a generated bean object. */
     @JsonDeserialize(builder = SimpleObject.Builder.class)
     public static final class SimpleObject {
@@ -156,6 +177,41 @@ final class EncodingsTest {
         verify(outputStream, never()).close();
     }
 
+    @Test
+    void json_serialize_stream_writesArray() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        json.serializer(new TypeMarker<Stream<String>>() {})
+                .serialize(Stream.of("a", "b").onClose(() -> closed.set(true)), output);
+        assertThat(output.toString(StandardCharsets.UTF_8.name())).isEqualTo("[\"a\",\"b\"]");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void json_serialize_entryStream_writesObject() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        json.serializer(new TypeMarker<Stream<Map.Entry<String, Optional<Integer>>>>() {})
+                .serialize(
+                        Stream.of(
+                                        Maps.immutableEntry("a", Optional.of(1)),
+                                        Maps.<String, Optional<Integer>>immutableEntry("b", Optional.empty()))
+                                .onClose(() -> closed.set(true)),
+                        output);
+        assertThat(output.toString(StandardCharsets.UTF_8.name())).isEqualTo("{\"a\":1,\"b\":null}");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void smile_serialize_entryStream_matchesMap() throws IOException {
+        ByteArrayOutputStream fromStream = new ByteArrayOutputStream();
+        smile.serializer(new TypeMarker<Stream<Map.Entry<String, Integer>>>() {})
+                .serialize(Stream.of(Maps.immutableEntry("a", 1), Maps.immutableEntry("b", 2)), fromStream);
+        ByteArrayOutputStream fromMap = new ByteArrayOutputStream();
+        smile.serializer(new TypeMarker<Map<String, Integer>>() {}).serialize(ImmutableMap.of("a", 1, "b", 2), fromMap);
+        assertThat(fromStream.toByteArray()).isEqualTo(fromMap.toByteArray());
+    }
+
     @Test
     void cbor_supportsContentType() {
         assertThat(cbor.supportsContentType("application/cbor")).isTrue();
@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public final class ErrorLogLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final ErrorLogLimiter limiter = new ErrorLogLimiter(10, 5, clock::get);
+
+    @Test
+    public void permitsBurstThenSuppresses() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("Default:InvalidArgument")).isZero();
+        }
+        assertThat(limiter.tryAcquire("Default:InvalidArgument")).isEqualTo(ErrorLogLimiter.SUPPRESSED);
+        assertThat(limiter.tryAcquire("Default:InvalidArgument")).isEqualTo(ErrorLogLimiter.SUPPRESSED);
+        // Buckets are independent for each error name
+        assertThat(limiter.tryAcquire("Default:NotFound")).isZero();
+    }
+
+    @Test
+    public void reportsSuppressedCountWhenRefilled() {
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire("Default:InvalidArgument");
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire("Default:InvalidArgument")).isEqualTo(3);
+        assertThat(limiter.tryAcquire("Default:InvalidArgument")).isEqualTo(ErrorLogLimiter.SUPPRESSED);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("Default:InvalidArgument")).isEqualTo(i == 0 ? 1 : 0);
+        }
+    }
+
+    @Test
+    public void handlesNegativeClock() {
+        clock.set(-TimeUnit.DAYS.toNanos(1));
+        assertThat(limiter.tryAcquire("Default:InvalidArgument")).isZero();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.FileBinaryResponseBody;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class FileResponsesTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private final byte[] data = new byte[5_000_000];
+    private Undertow server;
+
+    @BeforeEach
+    public void before() throws IOException {
+        new Random(1234).nextBytes(data);
+        Files.write(tempDir.resolve("blob"), data);
+        Files.write(tempDir.resolve("empty"), new byte[0]);
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        BodySerDe bodySerDe = runtime.bodySerDe();
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/file")
+                        .serviceName("TestService")
+                        .name("file")
+                        .handler(exchange -> bodySerDe.serialize(
+                                FileBinaryResponseBody.of(tempDir.resolve(
+                                        exchange.getQueryParameters().get("name").getFirst())),
+                                exchange))
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void sendsFiles() throws IOException {
+        try (Response response = execute("blob")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Content-Type")).isEqualTo("application/octet-stream");
+            assertThat(response.header("Content-Length")).isEqualTo(Integer.toString(data.length));
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void sendsEmptyFiles() throws IOException {
+        try (Response response = execute("empty")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Content-Length")).isEqualTo("0");
+            assertThat(response.body().bytes()).isEmpty();
+        }
+    }
+
+    @Test
+    public void failsMissingFilesBeforeCommittingResponse() throws IOException {
+        try (Response response = execute("missing")) {
+            assertThat(response.code()).isEqualTo(500);
+        }
+    }
+
+    @Test
+    public void writesToStreams() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        FileBinaryResponseBody.of(tempDir.resolve("blob")).write(output);
+        assertThat(output.toByteArray()).isEqualTo(data);
+    }
+
+    private static Response execute(String name) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .url("http://localhost:12345/file?name=" + name)
+                        .get()
+                        .build())
+                .execute();
+    }
+}
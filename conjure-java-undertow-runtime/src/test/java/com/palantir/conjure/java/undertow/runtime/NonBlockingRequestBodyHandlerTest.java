@@ -0,0 +1,215 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.Deserializer;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class NonBlockingRequestBodyHandlerTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final int MAX_BYTES = 64;
+    private static final String LARGE_BODY = largeBody();
+
+    private final AtomicBoolean parsedBody = new AtomicBoolean();
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .nonBlockingRequestBodies(true)
+                .nonBlockingRequestBodyMaximumBytes(MAX_BYTES)
+                .build();
+        Deserializer<Map<String, Integer>> mapDeserializer =
+                runtime.bodySerDe().deserializer(new TypeMarker<Map<String, Integer>>() {});
+        Deserializer<Optional<String>> optionalDeserializer =
+                runtime.bodySerDe().deserializer(new TypeMarker<Optional<String>>() {});
+        Serializer<Object> serializer = runtime.bodySerDe().serializer(new TypeMarker<Object>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(
+                        endpoint(Methods.POST, "/map", exchange -> {
+                            parsedBody.set(exchange.getAttachment(ParsedRequestBody.KEY) != null);
+                            serializer.serialize(mapDeserializer.deserialize(exchange), exchange);
+                        }),
+                        endpoint(Methods.PUT, "/optional", exchange -> {
+                            parsedBody.set(exchange.getAttachment(ParsedRequestBody.KEY) != null);
+                            serializer.serialize(
+                                    optionalDeserializer.deserialize(exchange).orElse("empty"), exchange);
+                        })))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void parsesJsonBody() throws IOException {
+        try (Response response = execute("POST", "/map", RequestBody.create(JSON, "{\"a\":1,\"b\":2}"))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("{\"a\":1,\"b\":2}");
+        }
+        assertThat(parsedBody).isTrue();
+    }
+
+    @Test
+    public void parsesBodyReceivedInChunks() throws IOException {
+        RequestBody body = chunked("{\"a\"", ":1,\"b\":", "2}");
+        try (Response response = execute("POST", "/map", body)) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("{\"a\":1,\"b\":2}");
+        }
+        assertThat(parsedBody).isTrue();
+    }
+
+    @Test
+    public void largeBodyIsReadOnWorkerThread() throws IOException {
+        try (Response response = execute("POST", "/map", RequestBody.create(JSON, LARGE_BODY))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo(LARGE_BODY);
+        }
+        assertThat(parsedBody).isFalse();
+    }
+
+    @Test
+    public void largeChunkedBodyIsRejected() throws IOException {
+        int middle = LARGE_BODY.length() / 2;
+        RequestBody body = chunked(LARGE_BODY.substring(0, middle), LARGE_BODY.substring(middle));
+        try (Response response = execute("POST", "/map", body)) {
+            assertThat(response.code()).isEqualTo(413);
+        }
+    }
+
+    @Test
+    public void malformedBodyIsRejected() throws IOException {
+        try (Response response = execute("POST", "/map", RequestBody.create(JSON, "{\"a\"}"))) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+        assertThat(parsedBody).isTrue();
+    }
+
+    @Test
+    public void emptyOptionalBody() throws IOException {
+        try (Response response = execute("PUT", "/optional", RequestBody.create(JSON, new byte[0]))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("\"empty\"");
+        }
+    }
+
+    @Test
+    public void presentOptionalBody() throws IOException {
+        try (Response response = execute("PUT", "/optional", RequestBody.create(JSON, "\"value\""))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("\"value\"");
+        }
+        assertThat(parsedBody).isTrue();
+    }
+
+    @Test
+    public void cborBodyIsReadOnWorkerThread() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Encodings.cbor().serializer(new TypeMarker<Map<String, Integer>>() {}).serialize(Map.of("a", 1), body);
+        try (Response response = execute(
+                "POST", "/map", RequestBody.create(MediaType.get("application/cbor"), body.toByteArray()))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("{\"a\":1}");
+        }
+        assertThat(parsedBody).isFalse();
+    }
+
+    private static String largeBody() {
+        StringBuilder body = new StringBuilder("{");
+        for (int i = 0; body.length() <= MAX_BYTES; i++) {
+            body.append(i == 0 ? "" : ",").append("\"key").append(i).append("\":").append(i);
+        }
+        return body.append('}').toString();
+    }
+
+    /** Returns a body without a {@code Content-Length}, which is sent in separate chunks. */
+    private static RequestBody chunked(String... chunks) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return JSON;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                for (String chunk : chunks) {
+                    sink.write(chunk.getBytes(StandardCharsets.UTF_8));
+                    sink.flush();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+            }
+        };
+    }
+
+    private static Endpoint endpoint(HttpString method, String template, HttpHandler handler) {
+        return Endpoint.builder()
+                .method(method)
+                .template(template)
+                .serviceName("TestService")
+                .name(template.substring(1))
+                .handler(handler)
+                .build();
+    }
+
+    private static Response execute(String method, String path, RequestBody body) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .method(method, body)
+                        .url("http://localhost:12345" + path)
+                        .header("Accept", "application/json")
+                        .build())
+                .execute();
+    }
+}
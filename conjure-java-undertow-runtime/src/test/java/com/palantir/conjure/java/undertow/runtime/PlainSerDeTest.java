@@ -30,6 +30,7 @@ import com.palantir.tokens.auth.BearerToken;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
@@ -107,6 +108,17 @@ public final class PlainSerDeTest {
                         SafeArg.of("size", 3), UnsafeArg.of("received", ImmutableList.of("one", "two", "three")));
     }
 
+    @Test
+    public void testDequeValues() {
+        assertThatLoggableExceptionThrownBy(() -> PLAIN.deserializeString(new ArrayDeque<>()))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasLogMessage("Expected one element but received none");
+        assertThatLoggableExceptionThrownBy(
+                        () -> PLAIN.deserializeInteger(new ArrayDeque<>(ImmutableList.of("1", "2"))))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasLogMessage("Expected one element");
+    }
+
     private static <T> void runDeserializerTest(String typeName, String plainIn, T want) throws Exception {
         runDeserializerTest(typeName, plainIn, want, Optional::of);
     }
@@ -136,6 +148,11 @@ public final class PlainSerDeTest {
                         .invoke(PLAIN, ImmutableList.of(plainIn)))
                 .isEqualTo(want);
 
+        assertThat(PlainSerDe.class
+                        .getMethod("deserialize" + typeName, Iterable.class)
+                        .invoke(PLAIN, new ArrayDeque<>(ImmutableList.of(plainIn))))
+                .isEqualTo(want);
+
         Method optionalStringDeserializer = PlainSerDe.class.getMethod("deserializeOptional" + typeName, String.class);
         assertThat(optionalStringDeserializer.invoke(PLAIN, plainIn)).isEqualTo(createOptional.apply(want));
 
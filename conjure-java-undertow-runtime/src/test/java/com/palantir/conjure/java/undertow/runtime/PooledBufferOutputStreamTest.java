@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class PooledBufferOutputStreamTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        Serializer<List<String>> serializer = runtime.bodySerDe().serializer(new TypeMarker<List<String>>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/strings")
+                        .serviceName("TestService")
+                        .name("strings")
+                        .handler(exchange -> {
+                            int count = Integer.parseInt(
+                                    exchange.getQueryParameters().get("count").getFirst());
+                            serializer.serialize(Collections.nCopies(count, "value"), exchange);
+                        })
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void setsContentLengthForSmallResponses() throws IOException {
+        try (Response response = execute(1)) {
+            assertThat(response.header("Content-Length")).isEqualTo("9");
+            assertThat(response.body().string()).isEqualTo("[\"value\"]");
+        }
+    }
+
+    @Test
+    public void setsContentLengthForResponsesSpanningBuffers() throws IOException {
+        int count = 10_000;
+        long expectedLength = 8L * count + 1;
+        try (Response response = execute(count)) {
+            assertThat(response.header("Content-Length")).isEqualTo(Long.toString(expectedLength));
+            assertThat(response.body().bytes()).hasSize((int) expectedLength);
+        }
+    }
+
+    @Test
+    public void streamsLargeResponses() throws IOException {
+        int count = 500_000;
+        long expectedLength = 8L * count + 1;
+        try (Response response = execute(count)) {
+            assertThat(response.header("Content-Length")).isNull();
+            assertThat(response.body().bytes()).hasSize((int) expectedLength);
+        }
+    }
+
+    private static Response execute(int count) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .get()
+                        .url("http://localhost:12345/strings?count=" + count)
+                        .header("Accept", "application/json")
+                        .build())
+                .execute();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.FileBinaryResponseBody;
+import com.palantir.conjure.java.undertow.lib.SeekableBinaryResponseBody;
+import com.palantir.conjure.java.undertow.runtime.RangeResponses.ByteRange;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public final class RangeResponsesTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    @TempDir
+    Path tempDir;
+
+    private final byte[] data = new byte[1_000_000];
+    private Undertow server;
+
+    @BeforeEach
+    public void before() throws IOException {
+        new Random(1234).nextBytes(data);
+        Files.write(tempDir.resolve("blob"), data);
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        BodySerDe bodySerDe = runtime.bodySerDe();
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/range")
+                        .serviceName("TestService")
+                        .name("range")
+                        .handler(exchange -> {
+                            exchange.getResponseHeaders().put(Headers.ETAG, "\"version\"");
+                            bodySerDe.serialize(
+                                    exchange.getQueryParameters().containsKey("file")
+                                            ? FileBinaryResponseBody.of(tempDir.resolve("blob"))
+                                            : new ArrayBody(data),
+                                    exchange);
+                        })
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void sendsFullBodyWithoutRange(boolean file) throws IOException {
+        try (Response response = execute(file, null, null)) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("Accept-Ranges")).isEqualTo("bytes");
+            assertThat(response.header("Content-Length")).isEqualTo(Integer.toString(data.length));
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void sendsSingleRange(boolean file) throws IOException {
+        try (Response response = execute(file, "bytes=100-199", null)) {
+            assertThat(response.code()).isEqualTo(206);
+            assertThat(response.header("Content-Type")).isEqualTo("application/octet-stream");
+            assertThat(response.header("Content-Range")).isEqualTo("bytes 100-199/" + data.length);
+            assertThat(response.header("Content-Length")).isEqualTo("100");
+            assertThat(response.body().bytes()).isEqualTo(Arrays.copyOfRange(data, 100, 200));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void sendsMultipleRanges(boolean file) throws IOException {
+        try (Response response = execute(file, "bytes=0-9, -5", null)) {
+            assertThat(response.code()).isEqualTo(206);
+            String contentType = response.header("Content-Type");
+            assertThat(contentType).startsWith("multipart/byteranges; boundary=");
+            String boundary = contentType.substring(contentType.indexOf('=') + 1);
+            byte[] body = response.body().bytes();
+            assertThat(response.header("Content-Length")).isEqualTo(Integer.toString(body.length));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write(("--" + boundary + "\r\n"
+                            + "Content-Type: application/octet-stream\r\n"
+                            + "Content-Range: bytes 0-9/" + data.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            expected.write(data, 0, 10);
+            expected.write(("\r\n--" + boundary + "\r\n"
+                            + "Content-Type: application/octet-stream\r\n"
+                            + "Content-Range: bytes " + (data.length - 5) + "-" + (data.length - 1) + "/"
+                            + data.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            expected.write(data, data.length - 5, 5);
+            expected.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            assertThat(body).isEqualTo(expected.toByteArray());
+        }
+    }
+
+    @Test
+    public void rejectsUnsatisfiableRanges() throws IOException {
+        try (Response response = execute(true, "bytes=" + data.length + "-", null)) {
+            assertThat(response.code()).isEqualTo(416);
+            assertThat(response.header("Content-Range")).isEqualTo("bytes */" + data.length);
+            assertThat(response.body().bytes()).isEmpty();
+        }
+    }
+
+    @Test
+    public void ignoresInvalidRanges() throws IOException {
+        try (Response response = execute(true, "bytes=10-5", null)) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void sendsRangeWhenIfRangeMatches() throws IOException {
+        try (Response response = execute(true, "bytes=10-", "\"version\"")) {
+            assertThat(response.code()).isEqualTo(206);
+            assertThat(response.body().bytes()).isEqualTo(Arrays.copyOfRange(data, 10, data.length));
+        }
+    }
+
+    @Test
+    public void ignoresRangeWhenIfRangeDoesNotMatch() throws IOException {
+        try (Response response = execute(true, "bytes=10-", "\"other\"")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().bytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void parsesRanges() {
+        assertThat(RangeResponses.parse("bytes=0-0", 10)).hasValue(List.of(new ByteRange(0, 0)));
+        assertThat(RangeResponses.parse("bytes=5-", 10)).hasValue(List.of(new ByteRange(5, 9)));
+        assertThat(RangeResponses.parse("bytes=-3", 10)).hasValue(List.of(new ByteRange(7, 9)));
+        assertThat(RangeResponses.parse("bytes=-30", 10)).hasValue(List.of(new ByteRange(0, 9)));
+        assertThat(RangeResponses.parse("bytes=8-99999999999999999999", 10)).hasValue(List.of(new ByteRange(8, 9)));
+        assertThat(RangeResponses.parse("Bytes = 1-2 ,, 4-5", 10))
+                .hasValue(List.of(new ByteRange(1, 2), new ByteRange(4, 5)));
+        assertThat(RangeResponses.parse("bytes=10-, -0, 3-4", 10)).hasValue(List.of(new ByteRange(3, 4)));
+    }
+
+    @Test
+    public void parsesUnsatisfiableRanges() {
+        assertThat(RangeResponses.parse("bytes=10-20", 10)).hasValue(List.of());
+        assertThat(RangeResponses.parse("bytes=-1", 0)).hasValue(List.of());
+    }
+
+    @Test
+    public void ignoresInvalidRangeHeaders() {
+        assertThat(RangeResponses.parse("bytes=", 10)).isEmpty();
+        assertThat(RangeResponses.parse("items=0-1", 10)).isEmpty();
+        assertThat(RangeResponses.parse("bytes=1", 10)).isEmpty();
+        assertThat(RangeResponses.parse("bytes=-", 10)).isEmpty();
+        assertThat(RangeResponses.parse("bytes=a-b", 10)).isEmpty();
+        assertThat(RangeResponses.parse("bytes=5-4", 10)).isEmpty();
+        assertThat(RangeResponses.parse("bytes=" + "0-0,".repeat(RangeResponses.MAX_RANGES + 1), 10))
+                .isEqualTo(Optional.empty());
+    }
+
+    private static Response execute(boolean file, String range, String ifRange) throws IOException {
+        Request.Builder request =
+                new Request.Builder().url("http://localhost:12345/range" + (file ? "?file" : "")).get();
+        if (range != null) {
+            request.header("Range", range);
+        }
+        if (ifRange != null) {
+            request.header("If-Range", ifRange);
+        }
+        return client.newCall(request.build()).execute();
+    }
+
+    private static final class ArrayBody implements SeekableBinaryResponseBody {
+        private final byte[] bytes;
+
+        ArrayBody(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public void write(OutputStream responseBody, long position, long count) throws IOException {
+            responseBody.write(bytes, Math.toIntExact(position), Math.toIntExact(count));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.BinaryRequestBody;
+import com.palantir.conjure.java.undertow.lib.BodySerDe;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class RequestBodyTransferTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    @TempDir
+    Path tempDir;
+
+    private final byte[] data = new byte[5_000_000];
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        new Random(1234).nextBytes(data);
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        BodySerDe bodySerDe = runtime.bodySerDe();
+        Serializer<Long> serializer = bodySerDe.serializer(new TypeMarker<Long>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(
+                        Endpoint.builder()
+                                .method(Methods.POST)
+                                .template("/file")
+                                .serviceName("TestService")
+                                .name("file")
+                                .handler(exchange -> {
+                                    try (BinaryRequestBody body = bodySerDe.deserializeBinaryRequestBody(exchange);
+                                            FileChannel file = FileChannel.open(
+                                                    tempDir.resolve("upload"),
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                                        // Leading bytes are preserved
+                                        file.write(StandardCharsets.UTF_8.encode("prefix"));
+                                        long transferred = body.transferTo(file);
+                                        assertThat(file.position()).isEqualTo(transferred + 6);
+                                        serializer.serialize(transferred, exchange);
+                                    }
+                                })
+                                .build(),
+                        Endpoint.builder()
+                                .method(Methods.POST)
+                                .template("/channel")
+                                .serviceName("TestService")
+                                .name("channel")
+                                .handler(exchange -> {
+                                    try (BinaryRequestBody body = bodySerDe.deserializeBinaryRequestBody(exchange)) {
+                                        ByteArrayOutputStream output = new ByteArrayOutputStream();
+                                        long transferred = body.transferTo(Channels.newChannel(output));
+                                        assertThat(output.toByteArray()).isEqualTo(data);
+                                        serializer.serialize(transferred, exchange);
+                                    }
+                                })
+                                .build(),
+                        Endpoint.builder()
+                                .method(Methods.POST)
+                                .template("/stream")
+                                .serviceName("TestService")
+                                .name("stream")
+                                .handler(exchange -> {
+                                    try (BinaryRequestBody body = bodySerDe.deserializeBinaryRequestBody(exchange)) {
+                                        // Transfers after reading continue from the stream
+                                        int first = body.read();
+                                        ByteArrayOutputStream output = new ByteArrayOutputStream();
+                                        output.write(first);
+                                        long transferred = body.transferTo(Channels.newChannel(output));
+                                        assertThat(output.toByteArray()).isEqualTo(data);
+                                        serializer.serialize(transferred + 1, exchange);
+                                    }
+                                })
+                                .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void transfersFixedLengthBodiesToFiles() throws IOException {
+        try (Response response = execute("/file", RequestBody.create(OCTET_STREAM, data))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo(Integer.toString(data.length));
+        }
+        assertUploaded();
+    }
+
+    @Test
+    public void transfersChunkedBodiesToFiles() throws IOException {
+        try (Response response = execute("/file", chunked())) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo(Integer.toString(data.length));
+        }
+        assertUploaded();
+    }
+
+    @Test
+    public void transfersToChannels() throws IOException {
+        try (Response response = execute("/channel", RequestBody.create(OCTET_STREAM, data))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo(Integer.toString(data.length));
+        }
+        try (Response response = execute("/channel", chunked())) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    public void transfersAfterReading() throws IOException {
+        try (Response response = execute("/stream", RequestBody.create(OCTET_STREAM, data))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo(Integer.toString(data.length));
+        }
+    }
+
+    @Test
+    public void rejectsOtherContentTypes() throws IOException {
+        try (Response response = execute("/file", RequestBody.create(MediaType.parse("application/json"), "{}"))) {
+            assertThat(response.code()).isEqualTo(415);
+        }
+    }
+
+    private void assertUploaded() throws IOException {
+        byte[] uploaded = Files.readAllBytes(tempDir.resolve("upload"));
+        assertThat(new String(uploaded, 0, 6, StandardCharsets.UTF_8)).isEqualTo("prefix");
+        assertThat(uploaded).hasSize(data.length + 6);
+        byte[] body = new byte[data.length];
+        System.arraycopy(uploaded, 6, body, 0, data.length);
+        assertThat(body).isEqualTo(data);
+    }
+
+    private RequestBody chunked() {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return OCTET_STREAM;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(data);
+            }
+        };
+    }
+
+    private static Response execute(String path, RequestBody body) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .url("http://localhost:12345" + path)
+                        .post(body)
+                        .build())
+                .execute();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class RequestCoalescingTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final int REQUESTS = 5;
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch flushed = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder().build();
+        Serializer<String> serializer = runtime.bodySerDe().serializer(new TypeMarker<String>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .addWrapperBeforeBlocking(RequestCoalescing.create())
+                .services(EndpointService.of(
+                        Endpoint.builder()
+                                .method(Methods.GET)
+                                .template("/value")
+                                .serviceName("TestService")
+                                .name("value")
+                                .tags(ImmutableSet.of(RequestCoalescing.TAG))
+                                .handler(exchange -> {
+                                    int invocation = invocations.incrementAndGet();
+                                    started.countDown();
+                                    Uninterruptibles.awaitUninterruptibly(release);
+                                    if (exchange.getQueryParameters().containsKey("fail") && invocation == 1) {
+                                        throw new IllegalStateException("Failed");
+                                    }
+                                    serializer.serialize("value-" + invocation, exchange);
+                                })
+                                .build(),
+                        Endpoint.builder()
+                                .method(Methods.GET)
+                                .template("/streaming")
+                                .serviceName("TestService")
+                                .name("streaming")
+                                .tags(ImmutableSet.of(RequestCoalescing.TAG))
+                                .handler(exchange -> {
+                                    int invocation = invocations.incrementAndGet();
+                                    OutputStream output = exchange.getOutputStream();
+                                    output.write(("part-" + invocation).getBytes(StandardCharsets.UTF_8));
+                                    output.flush();
+                                    flushed.countDown();
+                                    Uninterruptibles.awaitUninterruptibly(release);
+                                    output.write(":done".getBytes(StandardCharsets.UTF_8));
+                                    output.close();
+                                })
+                                .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        executor.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    public void coalescesIdenticalRequests() throws Exception {
+        List<Future<Result>> results = executeConcurrently("/value", "Bearer token");
+        for (Future<Result> result : results) {
+            assertThat(result.get()).isEqualTo(new Result(200, "\"value-1\""));
+        }
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    public void doesNotCoalesceDifferentCredentials() throws Exception {
+        Future<Result> first = executor.submit(() -> execute("/value", "Bearer first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Result> second = executor.submit(() -> execute("/value", "Bearer second"));
+        // Without coalescing the second request reaches the endpoint
+        while (invocations.get() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        assertThat(first.get().statusCode).isEqualTo(200);
+        assertThat(second.get().statusCode).isEqualTo(200);
+    }
+
+    @Test
+    public void doesNotCoalesceDifferentHeaders() throws Exception {
+        assertNotCoalesced(
+                request("/value").header("X-Param", "first").get().build(),
+                request("/value").header("X-Param", "second").get().build());
+    }
+
+    @Test
+    public void doesNotCoalesceDifferentMethods() throws Exception {
+        assertNotCoalesced(request("/value").get().build(), request("/value").head().build());
+    }
+
+    @Test
+    public void coalescesRequestsFromDifferentTraces() throws Exception {
+        List<Future<Result>> results = executeConcurrently(index -> request("/value")
+                .header("X-B3-TraceId", "trace-" + index)
+                .header("X-B3-SpanId", "span-" + index)
+                .get()
+                .build());
+        for (Future<Result> result : results) {
+            assertThat(result.get()).isEqualTo(new Result(200, "\"value-1\""));
+        }
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    public void doesNotCoalesceAfterResponseBegins() throws Exception {
+        Future<Result> first = executor.submit(() -> execute("/streaming", "Bearer token"));
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Result> second = executor.submit(() -> execute("/streaming", "Bearer token"));
+        // The first response wasn't captured, so the second request reaches the endpoint rather than waiting
+        while (invocations.get() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        assertThat(first.get()).isEqualTo(new Result(200, "part-1:done"));
+        assertThat(second.get()).isEqualTo(new Result(200, "part-2:done"));
+    }
+
+    @Test
+    public void failedRequestsAreNotShared() throws Exception {
+        List<Future<Result>> results = executeConcurrently("/value?fail", "Bearer token");
+        int failures = 0;
+        for (Future<Result> result : results) {
+            if (result.get().statusCode != 200) {
+                failures++;
+            }
+        }
+        assertThat(failures).isEqualTo(1);
+        assertThat(invocations).hasValue(REQUESTS);
+    }
+
+    @Test
+    public void appliesToTaggedGetEndpoints() {
+        Endpoint endpoint = Endpoint.builder()
+                .method(Methods.GET)
+                .template("/value")
+                .serviceName("TestService")
+                .name("value")
+                .handler(_exchange -> {})
+                .build();
+        RequestCoalescing coalescing = RequestCoalescing.create();
+        assertThat(coalescing.wrap(endpoint)).isEmpty();
+        assertThat(coalescing.wrap(Endpoint.builder()
+                        .from(endpoint)
+                        .tags(ImmutableSet.of(RequestCoalescing.TAG))
+                        .build()))
+                .isPresent();
+        assertThat(coalescing.wrap(Endpoint.builder()
+                        .from(endpoint)
+                        .method(Methods.POST)
+                        .tags(ImmutableSet.of(RequestCoalescing.TAG))
+                        .build()))
+                .isEmpty();
+    }
+
+    private void assertNotCoalesced(Request firstRequest, Request secondRequest) throws Exception {
+        Future<Result> first = executor.submit(() -> execute(firstRequest));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Result> second = executor.submit(() -> execute(secondRequest));
+        // Without coalescing the second request reaches the endpoint
+        while (invocations.get() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        assertThat(first.get().statusCode).isEqualTo(200);
+        assertThat(second.get().statusCode).isEqualTo(200);
+    }
+
+    private List<Future<Result>> executeConcurrently(String path, String authorization) throws Exception {
+        return executeConcurrently(_index -> request(path).header("Authorization", authorization).get().build());
+    }
+
+    private List<Future<Result>> executeConcurrently(IntFunction<Request> requests) throws Exception {
+        List<Future<Result>> results = new ArrayList<>();
+        Request firstRequest = requests.apply(0);
+        results.add(executor.submit(() -> execute(firstRequest)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < REQUESTS; i++) {
+            Request request = requests.apply(i);
+            results.add(executor.submit(() -> execute(request)));
+        }
+        // Allow the remaining requests to reach the server
+        Thread.sleep(500);
+        release.countDown();
+        return results;
+    }
+
+    private static Result execute(String path, String authorization) throws IOException {
+        return execute(request(path).header("Authorization", authorization).get().build());
+    }
+
+    private static Result execute(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return new Result(response.code(), response.body().string());
+        }
+    }
+
+    private static Request.Builder request(String path) {
+        return new Request.Builder().url("http://localhost:12345" + path);
+    }
+
+    private static final class Result {
+        private final int statusCode;
+        private final String body;
+
+        Result(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Result)) {
+                return false;
+            }
+            Result result = (Result) other;
+            return statusCode == result.statusCode && body.equals(result.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * statusCode + body.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return statusCode + ": " + body;
+        }
+    }
+}
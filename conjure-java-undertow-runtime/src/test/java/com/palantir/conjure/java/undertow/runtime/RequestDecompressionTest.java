@@ -0,0 +1,198 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.Deserializer;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.Methods;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class RequestDecompressionTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .requestDecompression(true)
+                .requestDecompressionMaximumBytes(10_000)
+                .build();
+        Deserializer<String> deserializer = runtime.bodySerDe().deserializer(new TypeMarker<String>() {});
+        Deserializer<Optional<String>> optionalDeserializer =
+                runtime.bodySerDe().deserializer(new TypeMarker<Optional<String>>() {});
+        Serializer<Integer> serializer = runtime.bodySerDe().serializer(new TypeMarker<Integer>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(
+                        Endpoint.builder()
+                                .method(Methods.POST)
+                                .template("/length")
+                                .serviceName("TestService")
+                                .name("length")
+                                .handler(exchange -> serializer.serialize(
+                                        deserializer.deserialize(exchange).length(), exchange))
+                                .build(),
+                        Endpoint.builder()
+                                .method(Methods.POST)
+                                .template("/optional")
+                                .serviceName("TestService")
+                                .name("optional")
+                                .handler(exchange -> serializer.serialize(
+                                        optionalDeserializer
+                                                .deserialize(exchange)
+                                                .map(String::length)
+                                                .orElse(-1),
+                                        exchange))
+                                .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void inflatesGzip() throws IOException {
+        try (Response response = execute("/length", "gzip", gzip(json(5_000)))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("5000");
+        }
+    }
+
+    @Test
+    public void inflatesDeflate() throws IOException {
+        try (Response response = execute("/length", "deflate", deflate(json(5_000)))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("5000");
+        }
+    }
+
+    @Test
+    public void readsUncompressedBodies() throws IOException {
+        try (Response response = execute("/length", null, json(100))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("100");
+        }
+        try (Response response = execute("/length", "identity", json(100))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("100");
+        }
+    }
+
+    @Test
+    public void inflatesEmptyOptionalBodies() throws IOException {
+        try (Response response = execute("/optional", "gzip", gzip(new byte[0]))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("-1");
+        }
+        try (Response response = execute("/optional", "gzip", gzip(json(10)))) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("10");
+        }
+    }
+
+    @Test
+    public void rejectsBodiesExceedingMaximumSize() throws IOException {
+        byte[] body = gzip(json(20_000));
+        assertThat(body.length).isLessThan(10_000);
+        try (Response response = execute("/length", "gzip", body)) {
+            assertThat(response.code()).isEqualTo(413);
+            assertThat(response.body().string()).contains("Conjure:PayloadTooLarge");
+        }
+    }
+
+    @Test
+    public void rejectsMalformedBodies() throws IOException {
+        byte[] body = gzip(json(100));
+        body[body.length - 1]++;
+        try (Response response = execute("/length", "gzip", body)) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+        try (Response response = execute("/length", "gzip", json(100))) {
+            assertThat(response.code()).isEqualTo(400);
+        }
+    }
+
+    @Test
+    public void rejectsUnsupportedEncodings() throws IOException {
+        try (Response response = execute("/length", "br", json(100))) {
+            assertThat(response.code()).isEqualTo(415);
+        }
+    }
+
+    private static Response execute(String path, String contentEncoding, byte[] body) throws IOException {
+        Request.Builder request =
+                new Request.Builder().url("http://localhost:12345" + path).post(RequestBody.create(JSON, body));
+        if (contentEncoding != null) {
+            request.header("Content-Encoding", contentEncoding);
+        }
+        return client.newCall(request.build()).execute();
+    }
+
+    private static byte[] json(int length) {
+        StringBuilder builder = new StringBuilder(length + 2).append('"');
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.append('"').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = new DeflaterOutputStream(bytes)) {
+            output.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.RequestMetrics;
+import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class RequestMetricsTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private final List<Endpoint> recorderEndpoints = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Recorded> recorded = new LinkedBlockingQueue<>();
+    private final List<HttpString> recordedMethods = new CopyOnWriteArrayList<>();
+    private Undertow server;
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void testRecordsRequest() throws Exception {
+        start(false);
+        try (Response response = execute()) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+        Recorded result = recorded.poll(5, TimeUnit.SECONDS);
+        assertThat(result).isNotNull();
+        assertThat(result.statusCode).isEqualTo(200);
+        assertThat(result.durationNanos).isPositive();
+        assertThat(result.requestBytes).isEqualTo(7);
+        assertThat(result.responseBytes).isEqualTo(5);
+        assertThat(result.contentType).isEqualTo("text/plain");
+        assertThat(recorderEndpoints).hasSize(1);
+        assertThat(recorderEndpoints.get(0).name()).isEqualTo("test");
+    }
+
+    @Test
+    public void testRecordsRequestUsingRecordedStartTime() throws Exception {
+        start(true);
+        for (int i = 0; i < 2; i++) {
+            try (Response response = execute()) {
+                assertThat(response.code()).isEqualTo(200);
+            }
+            Recorded result = recorded.poll(5, TimeUnit.SECONDS);
+            assertThat(result).isNotNull();
+            assertThat(result.durationNanos).isPositive();
+        }
+        // Recorders are created once per endpoint rather than per request
+        assertThat(recorderEndpoints).hasSize(1);
+    }
+
+    @Test
+    public void testRecordsHeadRequestsSeparately() throws Exception {
+        start(false, Methods.GET);
+        for (String method : new String[] {"GET", "HEAD"}) {
+            Request request = new Request.Builder()
+                    .method(method, null)
+                    .url("http://localhost:12345/test")
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                assertThat(response.code()).isEqualTo(200);
+            }
+            assertThat(recorded.poll(5, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThat(recorderEndpoints).extracting(Endpoint::method).containsExactly(Methods.GET, Methods.HEAD);
+        assertThat(recordedMethods).containsExactly(Methods.GET, Methods.HEAD);
+    }
+
+    private void start(boolean recordRequestStartTime) {
+        start(recordRequestStartTime, Methods.POST);
+    }
+
+    private void start(boolean recordRequestStartTime, HttpString method) {
+        RequestMetrics metrics = endpoint -> {
+            recorderEndpoints.add(endpoint);
+            return (statusCode, durationNanos, requestBytes, responseBytes, contentType) -> {
+                recordedMethods.add(endpoint.method());
+                recorded.add(new Recorded(statusCode, durationNanos, requestBytes, responseBytes, contentType));
+            };
+        };
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setServerOption(UndertowOptions.RECORD_REQUEST_START_TIME, recordRequestStartTime)
+                .setHandler(ConjureHandler.builder()
+                        .runtime(ConjureUndertowRuntime.builder().metrics(metrics).build())
+                        .services(EndpointService.of(Endpoint.builder()
+                                .method(method)
+                                .template("/test")
+                                .serviceName("TestService")
+                                .name("test")
+                                .handler(exchange -> {
+                                    exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
+                                    exchange.getResponseSender().send("hello");
+                                })
+                                .build()))
+                        .build())
+                .build();
+        server.start();
+    }
+
+    private static Response execute() throws IOException {
+        Request request = new Request.Builder()
+                .post(RequestBody.create(MediaType.get("text/plain"), "request"))
+                .url("http://localhost:12345/test")
+                .build();
+        return client.newCall(request).execute();
+    }
+
+    private static final class Recorded {
+        private final int statusCode;
+        private final long durationNanos;
+        private final long requestBytes;
+        private final long responseBytes;
+        private final String contentType;
+
+        Recorded(int statusCode, long durationNanos, long requestBytes, long responseBytes, String contentType) {
+            this.statusCode = statusCode;
+            this.durationNanos = durationNanos;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            this.contentType = contentType;
+        }
+    }
+}
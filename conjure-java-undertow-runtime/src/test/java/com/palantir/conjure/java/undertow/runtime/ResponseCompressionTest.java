@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.io.ByteStreams;
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class ResponseCompressionTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .responseCompression(true)
+                .responseCompressionMinimumBytes(100)
+                .build();
+        Serializer<List<String>> serializer = runtime.bodySerDe().serializer(new TypeMarker<List<String>>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/strings")
+                        .serviceName("TestService")
+                        .name("strings")
+                        .handler(exchange -> {
+                            int count = Integer.parseInt(
+                                    exchange.getQueryParameters().get("count").getFirst());
+                            serializer.serialize(Collections.nCopies(count, "value"), exchange);
+                        })
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void doesNotCompressSmallResponses() throws IOException {
+        try (Response response = execute(1, "gzip")) {
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.header("Vary")).isNull();
+            assertThat(response.body().string()).isEqualTo("[\"value\"]");
+        }
+    }
+
+    @Test
+    public void compressesWithGzip() throws IOException {
+        try (Response response = execute(10_000, "gzip, deflate")) {
+            assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+            byte[] body = response.body().bytes();
+            assertThat(response.header("Content-Length")).isEqualTo(Integer.toString(body.length));
+            assertThat(body.length).isLessThan(8 * 10_000);
+            assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(body)))).isEqualTo(expected(10_000));
+        }
+    }
+
+    @Test
+    public void compressesWithDeflate() throws IOException {
+        try (Response response = execute(10_000, "gzip;q=0, deflate")) {
+            assertThat(response.header("Content-Encoding")).isEqualTo("deflate");
+            byte[] body = response.body().bytes();
+            assertThat(decode(new InflaterInputStream(new ByteArrayInputStream(body)))).isEqualTo(expected(10_000));
+        }
+    }
+
+    @Test
+    public void compressesStreamedResponses() throws IOException {
+        try (Response response = execute(500_000, "gzip")) {
+            // Exceeds the buffer limit, so the body is compressed as it's written
+            assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+            assertThat(decode(new GZIPInputStream(response.body().byteStream()))).isEqualTo(expected(500_000));
+        }
+    }
+
+    @Test
+    public void doesNotCompressWhenNotAccepted() throws IOException {
+        try (Response response = execute(10_000, "identity")) {
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+            assertThat(response.body().string()).isEqualTo(expected(10_000));
+        }
+    }
+
+    @Test
+    public void parsesAcceptEncoding() {
+        assertThat(accepts("gzip", "gzip")).isTrue();
+        assertThat(accepts("deflate, GZIP", "gzip")).isTrue();
+        assertThat(accepts("br;q=1.0, gzip;q=0.5", "gzip")).isTrue();
+        assertThat(accepts("*", "gzip")).isTrue();
+        assertThat(accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(accepts("gzip; q=0.000", "gzip")).isFalse();
+        assertThat(accepts("x-gzip", "gzip")).isFalse();
+        assertThat(accepts("gzipped", "gzip")).isFalse();
+        assertThat(accepts("", "gzip")).isFalse();
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        HeaderValues values = new HeaderMap()
+                .add(Headers.ACCEPT_ENCODING, acceptEncoding)
+                .get(Headers.ACCEPT_ENCODING);
+        return ResponseCompression.accepts(values, coding);
+    }
+
+    private static String expected(int count) {
+        return "[" + String.join(",", Collections.nCopies(count, "\"value\"")) + "]";
+    }
+
+    private static String decode(InputStream stream) throws IOException {
+        try (InputStream input = stream) {
+            return new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Response execute(int count, String acceptEncoding) throws IOException {
+        return client.newCall(new Request.Builder()
+                        .get()
+                        .url("http://localhost:12345/strings?count=" + count)
+                        .header("Accept", "application/json")
+                        .header("Accept-Encoding", acceptEncoding)
+                        .build())
+                .execute();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.undertow.lib.Endpoint;
+import com.palantir.conjure.java.undertow.lib.Serializer;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class ResponseETagsTest {
+
+    private static final OkHttpClient client = new OkHttpClient.Builder().build();
+
+    private Undertow server;
+
+    @BeforeEach
+    public void before() {
+        ConjureUndertowRuntime runtime = ConjureUndertowRuntime.builder()
+                .etags(true)
+                .responseCompression(true)
+                .responseCompressionMinimumBytes(100)
+                .build();
+        Serializer<List<String>> serializer = runtime.bodySerDe().serializer(new TypeMarker<List<String>>() {});
+        HttpHandler handler = ConjureHandler.builder()
+                .runtime(runtime)
+                .services(EndpointService.of(Endpoint.builder()
+                        .method(Methods.GET)
+                        .template("/strings")
+                        .serviceName("TestService")
+                        .name("strings")
+                        .handler(exchange -> {
+                            int count = Integer.parseInt(
+                                    exchange.getQueryParameters().get("count").getFirst());
+                            serializer.serialize(Collections.nCopies(count, "value"), exchange);
+                        })
+                        .build()))
+                .build();
+        server = Undertow.builder()
+                .addHttpListener(12345, "localhost")
+                .setHandler(handler)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop();
+    }
+
+    @Test
+    public void tagsResponses() throws IOException {
+        String etag;
+        try (Response response = execute(1, null, "identity")) {
+            assertThat(response.code()).isEqualTo(200);
+            etag = response.header("ETag");
+            assertThat(etag).startsWith("\"").endsWith("\"");
+            assertThat(response.header("Cache-Control")).isEqualTo("private, no-cache");
+            assertThat(response.body().string()).isEqualTo("[\"value\"]");
+        }
+        try (Response response = execute(1, null, "identity")) {
+            assertThat(response.header("ETag")).isEqualTo(etag);
+        }
+        try (Response response = execute(2, null, "identity")) {
+            assertThat(response.header("ETag")).isNotEqualTo(etag);
+        }
+    }
+
+    @Test
+    public void respondsNotModified() throws IOException {
+        String etag;
+        try (Response response = execute(1, null, "identity")) {
+            etag = response.header("ETag");
+        }
+        try (Response response = execute(1, etag, "identity")) {
+            assertThat(response.code()).isEqualTo(304);
+            assertThat(response.header("ETag")).isEqualTo(etag);
+            assertThat(response.body().bytes()).isEmpty();
+        }
+        try (Response response = execute(1, "\"other\", W/" + etag, "identity")) {
+            assertThat(response.code()).isEqualTo(304);
+        }
+        try (Response response = execute(2, etag, "identity")) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    public void compressedRepresentationsHaveDistinctTags() throws IOException {
+        String identity;
+        try (Response response = execute(1_000, null, "identity")) {
+            identity = response.header("ETag");
+        }
+        String gzip;
+        try (Response response = execute(1_000, null, "gzip")) {
+            assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+            gzip = response.header("ETag");
+        }
+        assertThat(gzip).isNotEqualTo(identity).endsWith("-gzip\"");
+        try (Response response = execute(1_000, gzip, "gzip")) {
+            assertThat(response.code()).isEqualTo(304);
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+        }
+        try (Response response = execute(1_000, gzip, "identity")) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    public void doesNotTagStreamedResponses() throws IOException {
+        try (Response response = execute(500_000, null, "identity")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("ETag")).isNull();
+            assertThat(response.header("Cache-Control")).isEqualTo("no-cache, no-store, must-revalidate");
+        }
+    }
+
+    @Test
+    public void matchesIfNoneMatch() {
+        assertThat(ResponseETags.matches(values("\"a\""), "\"a\"")).isTrue();
+        assertThat(ResponseETags.matches(values("W/\"a\""), "\"a\"")).isTrue();
+        assertThat(ResponseETags.matches(values(" \"b\" , \"a\" "), "\"a\"")).isTrue();
+        assertThat(ResponseETags.matches(values("\"b\"", "\"a\""), "\"a\"")).isTrue();
+        assertThat(ResponseETags.matches(values("*"), "\"a\"")).isTrue();
+        assertThat(ResponseETags.matches(values("\"ab\""), "\"a\"")).isFalse();
+        assertThat(ResponseETags.matches(values("\"b\", \"c\""), "\"a\"")).isFalse();
+    }
+
+    private static HeaderValues values(String... values) {
+        HeaderMap headers = new HeaderMap();
+        for (String value : values) {
+            headers.add(Headers.IF_NONE_MATCH, value);
+        }
+        return headers.get(Headers.IF_NONE_MATCH);
+    }
+
+    private static Response execute(int count, String ifNoneMatch, String acceptEncoding) throws IOException {
+        Request.Builder request = new Request.Builder()
+                .url("http://localhost:12345/strings?count=" + count)
+                .header("Accept-Encoding", acceptEncoding)
+                .get();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.newCall(request.build()).execute();
+    }
+}
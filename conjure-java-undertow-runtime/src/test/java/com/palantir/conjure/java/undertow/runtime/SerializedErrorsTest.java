@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.java.api.errors.ErrorType;
+import com.palantir.conjure.java.api.errors.SerializableError;
+import com.palantir.conjure.java.api.errors.ServiceException;
+import com.palantir.conjure.java.undertow.lib.TypeMarker;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+public final class SerializedErrorsTest {
+
+    @Test
+    public void rendersErrorsWithoutParameters() throws IOException {
+        assertRendersLikeJackson(SerializableError.forException(new ServiceException(ErrorType.INVALID_ARGUMENT)));
+        // Uses the cached prefix
+        assertRendersLikeJackson(SerializableError.forException(new ServiceException(ErrorType.INVALID_ARGUMENT)));
+    }
+
+    @Test
+    public void rendersParameters() throws IOException {
+        assertRendersLikeJackson(SerializableError.forException(new ServiceException(
+                ErrorType.NOT_FOUND, SafeArg.of("foo", 42), UnsafeArg.of("bar", "boom"), SafeArg.of("baz", null))));
+    }
+
+    @Test
+    public void escapesStrings() throws IOException {
+        assertRendersLikeJackson(SerializableError.builder()
+                .errorCode("CUSTOM_CLIENT")
+                .errorName("Test:\"Quoted\"\\Name")
+                .errorInstanceId("id\n\u0001")
+                .putParameters("key\t", "va\"lue\u001f\b\f\r")
+                .putParameters("unicode", "caf\u00e9 \u2603 \ud83d\ude00")
+                .build());
+    }
+
+    private static void assertRendersLikeJackson(SerializableError error) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Encodings.json().serializer(new TypeMarker<SerializableError>() {}).serialize(error, stream);
+        assertThat(SerializedErrors.render(error)).isEqualTo(stream.toByteArray());
+    }
+}
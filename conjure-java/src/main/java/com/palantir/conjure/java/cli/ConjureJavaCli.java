@@ -138,6 +138,20 @@ public final class ConjureJavaCli implements Runnable {
                         + "processing")
         private boolean undertowListenableFutures;
 
+        @CommandLine.Option(
+                names = "--undertowStreamingCollections",
+                defaultValue = "false",
+                description = "Generate Undertow endpoints tagged 'server-streaming' which return a Stream of "
+                        + "collection elements written incrementally")
+        private boolean undertowStreamingCollections;
+
+        @CommandLine.Option(
+                names = "--undertowBinaryRequestBodies",
+                defaultValue = "false",
+                description = "Generate Undertow endpoints which receive binary request bodies as a BinaryRequestBody "
+                        + "which may be transferred to a channel")
+        private boolean undertowBinaryRequestBodies;
+
         @CommandLine.Option(
                 names = "--strictObjects",
                 defaultValue = "false",
@@ -195,6 +209,13 @@ public final class ConjureJavaCli implements Runnable {
                 description = "Objects exclude empty optionals in serialization based on the conjure spec.")
         private boolean excludeEmptyOptionals;
 
+        @CommandLine.Option(
+                names = "--useGeneratedSerializers",
+                defaultValue = "false",
+                description = "Generate jackson serializers for objects, unions and aliases which avoid reflective "
+                        + "bean introspection, registered using a generated ConjureJacksonModule.")
+        private boolean useGeneratedSerializers;
+
         @SuppressWarnings("unused")
         @CommandLine.Unmatched
         private List<String> unmatchedOptions;
@@ -253,6 +274,8 @@ public final class ConjureJavaCli implements Runnable {
                             .undertowServicePrefix(undertowServicePrefix)
                             .useImmutableBytes(useImmutableBytes)
                             .undertowListenableFutures(undertowListenableFutures)
+                            .undertowStreamingCollections(undertowStreamingCollections)
+                            .undertowBinaryRequestBodies(undertowBinaryRequestBodies)
                             .experimentalUndertowAsyncMarkers(experimentalUndertowAsyncMarkers)
                             .strictObjects(strictObjects)
                             .nonNullCollections(nonNullCollections)
@@ -261,6 +284,7 @@ public final class ConjureJavaCli implements Runnable {
                             .apiVersion(Optional.ofNullable(apiVersion))
                             .useStagedBuilders(useStagedBuilders)
                             .excludeEmptyOptionals(excludeEmptyOptionals)
+                            .useGeneratedSerializers(useGeneratedSerializers)
                             .build())
                     .build();
         }
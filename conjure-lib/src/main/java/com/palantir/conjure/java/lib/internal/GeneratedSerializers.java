@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.lib.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.PropertyMetadata;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.CoercionAction;
+import com.fasterxml.jackson.databind.cfg.CoercionInputShape;
+import com.fasterxml.jackson.databind.deser.impl.TypeWrappedDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.type.LogicalType;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Internal utility functions used by serializers and deserializers generated for conjure objects, see
+ * {@link GeneratedSerializersModule}. Field values are handled by the serializers and deserializers jackson would
+ * otherwise use for the equivalent bean property, resolved once per field rather than by bean introspection.
+ */
+public final class GeneratedSerializers {
+
+    private GeneratedSerializers() {
+        // cannot instantiate
+    }
+
+    /** Resolves the serializer used to write values of the named field. */
+    public static JsonSerializer<Object> findSerializer(SerializerProvider provider, String fieldName, Type type)
+            throws JsonMappingException {
+        JavaType javaType = provider.constructType(type);
+        return provider.findTypedValueSerializer(
+                javaType, true, property(fieldName, javaType, PropertyMetadata.STD_REQUIRED_OR_OPTIONAL));
+    }
+
+    /**
+     * Resolves the deserializer used to read values of the named field, applying the provided handling for null
+     * collection elements and map values.
+     */
+    public static JsonDeserializer<Object> findDeserializer(
+            DeserializationContext ctxt, String fieldName, Type type, Nulls contentNulls) throws JsonMappingException {
+        JavaType javaType = ctxt.constructType(type);
+        BeanProperty property = property(
+                fieldName, javaType, PropertyMetadata.STD_REQUIRED_OR_OPTIONAL.withNulls(Nulls.DEFAULT, contentNulls));
+        JsonDeserializer<Object> deserializer = ctxt.findContextualValueDeserializer(javaType, property);
+        TypeDeserializer typeDeserializer = ctxt.getFactory().findTypeDeserializer(ctxt.getConfig(), javaType);
+        return typeDeserializer == null
+                ? deserializer
+                : new TypeWrappedDeserializer(typeDeserializer.forProperty(property), deserializer);
+    }
+
+    /**
+     * Returns true if absent optional fields should be omitted based on the default inclusion configured for the
+     * {@link com.fasterxml.jackson.databind.ObjectMapper}.
+     */
+    public static boolean excludesAbsentValues(SerializerProvider provider, Class<?> type) {
+        JsonInclude.Include inclusion =
+                provider.getConfig().getDefaultPropertyInclusion(type).getValueInclusion();
+        return inclusion == JsonInclude.Include.NON_NULL
+                || inclusion == JsonInclude.Include.NON_ABSENT
+                || inclusion == JsonInclude.Include.NON_EMPTY;
+    }
+
+    /** Reads the current value, using the deserializer's null value for JSON {@code null}. */
+    public static Object deserialize(JsonParser parser, DeserializationContext ctxt, JsonDeserializer<Object> deser)
+            throws IOException {
+        return parser.hasToken(JsonToken.VALUE_NULL) ? deser.getNullValue(ctxt) : deser.deserialize(parser, ctxt);
+    }
+
+    /** Reads the current value, using the deserializer's empty value for JSON {@code null}. */
+    public static Object deserializeNullAsEmpty(
+            JsonParser parser, DeserializationContext ctxt, JsonDeserializer<Object> deser) throws IOException {
+        return parser.hasToken(JsonToken.VALUE_NULL) ? deser.getEmptyValue(ctxt) : deser.deserialize(parser, ctxt);
+    }
+
+    /**
+     * Reads the type of a union from the current value. As with jackson type ids the text of any scalar value is
+     * used, including {@code null}, whereas objects and arrays are rejected.
+     */
+    public static String readUnionType(JsonParser parser, DeserializationContext ctxt) throws IOException {
+        return parser.currentToken().isStructStart()
+                ? (String) ctxt.handleUnexpectedToken(String.class, parser)
+                : parser.getText();
+    }
+
+    /**
+     * Reads an int from the current string as jackson does for an alias with an int creator, which accepts only the
+     * trimmed text of an int.
+     */
+    public static int coerceStringToInt(JsonParser parser, DeserializationContext ctxt, Class<?> type)
+            throws IOException {
+        String text = parser.getText().trim();
+        if (!text.isEmpty() && acceptsStringCoercion(ctxt, LogicalType.Integer, Integer.class)) {
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw ctxt.weirdStringException(text, type, "not a valid int value");
+    }
+
+    /**
+     * Reads a boolean from the current string as jackson does for an alias with a boolean creator, which accepts only
+     * the trimmed text {@code true} or {@code false}.
+     */
+    public static boolean coerceStringToBoolean(JsonParser parser, DeserializationContext ctxt, Class<?> type)
+            throws IOException {
+        String text = parser.getText().trim();
+        if (acceptsStringCoercion(ctxt, LogicalType.Boolean, Boolean.class)) {
+            if (text.equals("true")) {
+                return true;
+            } else if (text.equals("false")) {
+                return false;
+            }
+        }
+        throw ctxt.weirdStringException(text, type, "not a valid boolean value");
+    }
+
+    private static boolean acceptsStringCoercion(DeserializationContext ctxt, LogicalType logicalType, Class<?> type) {
+        return ctxt.findCoercionAction(logicalType, type, CoercionInputShape.String) == CoercionAction.TryConvert;
+    }
+
+    /**
+     * Returns the exception to throw when a builder rejects the value of the named field. Failures are reported
+     * the same way as by jackson builder based deserialization: wrapped with the field path, unless
+     * {@link DeserializationFeature#WRAP_EXCEPTIONS} is disabled in which case the original exception is rethrown.
+     */
+    public static IOException fieldException(
+            RuntimeException exception, DeserializationContext ctxt, Class<?> type, String fieldName) {
+        if (!ctxt.isEnabled(DeserializationFeature.WRAP_EXCEPTIONS)) {
+            throw exception;
+        }
+        return JsonMappingException.wrapWithPath(exception, type, fieldName);
+    }
+
+    /** Returns the exception to throw when building an object fails, see {@link #fieldException}. */
+    public static IOException buildException(RuntimeException exception, DeserializationContext ctxt, Class<?> type) {
+        if (!ctxt.isEnabled(DeserializationFeature.WRAP_EXCEPTIONS)) {
+            throw exception;
+        }
+        return ctxt.instantiationException(type, exception);
+    }
+
+    private static BeanProperty property(String fieldName, JavaType type, PropertyMetadata metadata) {
+        return new BeanProperty.Std(PropertyName.construct(fieldName), type, null, null, metadata);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.lib.internal;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class for the {@code ConjureJacksonModule} generated in each package when generated serializers are enabled.
+ * Registered types are serialized and deserialized by their generated implementations rather than the annotation
+ * driven bean handling which requires reflective introspection of each type on first use.
+ *
+ * <p>Generated implementations are provided through an {@link com.fasterxml.jackson.databind.AnnotationIntrospector}
+ * because jackson consults class annotations, including {@code @JsonDeserialize(builder = ...)}, before any
+ * serializers or deserializers registered by modules. Implementation classes are instantiated separately by each
+ * {@link com.fasterxml.jackson.databind.ObjectMapper} so that resolved state is never shared between mappers.
+ */
+public abstract class GeneratedSerializersModule extends Module {
+
+    private final Map<Class<?>, Class<?>> serializers = new HashMap<>();
+    private final Map<Class<?>, Class<?>> deserializers = new HashMap<>();
+
+    protected final <T> void register(
+            Class<T> type,
+            Class<? extends JsonSerializer<T>> serializer,
+            Class<? extends JsonDeserializer<T>> deserializer) {
+        serializers.put(type, serializer);
+        deserializers.put(type, deserializer);
+    }
+
+    @Override
+    public String getModuleName() {
+        return getClass().getName();
+    }
+
+    @Override
+    public final Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public final void setupModule(SetupContext context) {
+        context.insertAnnotationIntrospector(
+                new GeneratedSerializersIntrospector(Map.copyOf(serializers), Map.copyOf(deserializers)));
+    }
+
+    private static final class GeneratedSerializersIntrospector extends NopAnnotationIntrospector {
+
+        private final Map<Class<?>, Class<?>> serializers;
+        private final Map<Class<?>, Class<?>> deserializers;
+
+        GeneratedSerializersIntrospector(Map<Class<?>, Class<?>> serializers, Map<Class<?>, Class<?>> deserializers) {
+            this.serializers = serializers;
+            this.deserializers = deserializers;
+        }
+
+        @Override
+        public Object findSerializer(Annotated annotated) {
+            // Only class level lookups apply, property lookups provide the type of the property.
+            return annotated instanceof AnnotatedClass ? serializers.get(annotated.getRawType()) : null;
+        }
+
+        @Override
+        public Object findDeserializer(Annotated annotated) {
+            return annotated instanceof AnnotatedClass ? deserializers.get(annotated.getRawType()) : null;
+        }
+    }
+}
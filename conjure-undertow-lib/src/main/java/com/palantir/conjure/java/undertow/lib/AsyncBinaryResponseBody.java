@@ -0,0 +1,74 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BinaryResponseBody} which produces data on demand. Runtimes which recognize this type pull chunks from the
+ * IO thread whenever the connection is writable, so slow clients don't hold a worker thread for the duration of the
+ * response. Otherwise chunks are copied to the response stream by {@link #write(OutputStream)}.
+ *
+ * <p>Implementations must be able to produce each chunk without blocking.
+ */
+public interface AsyncBinaryResponseBody extends BinaryResponseBody, Closeable {
+
+    /**
+     * Returns the next chunk of response data, or {@code null} once all data has been produced. The returned buffer is
+     * fully written before this method is invoked again, and may be reused afterwards.
+     */
+    @Nullable
+    ByteBuffer nextChunk() throws IOException;
+
+    /** Returns the total number of bytes which will be produced, if known, which is sent as the Content-Length. */
+    default OptionalLong contentLength() {
+        return OptionalLong.empty();
+    }
+
+    /** Invoked exactly once when the response has completed or failed, to release resources used by this body. */
+    @Override
+    default void close() throws IOException {}
+
+    @Override
+    default void write(OutputStream responseBody) throws IOException {
+        try {
+            byte[] array = null;
+            ByteBuffer chunk;
+            while ((chunk = nextChunk()) != null) {
+                if (chunk.hasArray()) {
+                    responseBody.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                    chunk.position(chunk.limit());
+                } else {
+                    if (array == null) {
+                        array = new byte[8192];
+                    }
+                    while (chunk.hasRemaining()) {
+                        int length = Math.min(array.length, chunk.remaining());
+                        chunk.get(array, 0, length);
+                        responseBody.write(array, 0, length);
+                    }
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.lib;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Binary request data with Content-Type <code>application/octet-stream</code>, which may be read as an
+ * {@link InputStream} or transferred into a {@link WritableByteChannel}. Generated Undertow endpoints receive binary
+ * request bodies using this type when the {@code undertowBinaryRequestBodies} generator option is set.
+ *
+ * <p>Implementations must be closed, which releases the remainder of the request body.
+ */
+public abstract class BinaryRequestBody extends InputStream {
+
+    /**
+     * Transfers the remainder of the request body to {@code destination}, which must be in blocking mode, returning
+     * the number of bytes transferred. Bodies which haven't been read as a stream may be moved without copying through
+     * heap byte arrays, for example directly from the socket into a {@link FileChannel}.
+     *
+     * <p>Bytes are written at the current position of a {@link FileChannel} destination, and the position is advanced
+     * by the number of bytes transferred. The destination is not closed.
+     */
+    public abstract long transferTo(WritableByteChannel destination) throws IOException;
+
+    /**
+     * Creates a {@link BinaryRequestBody} which reads from {@code inputStream}, for example to test service
+     * implementations. Transfers copy from the stream through a heap buffer.
+     */
+    public static BinaryRequestBody of(InputStream inputStream) {
+        return new InputStreamBinaryRequestBody(Preconditions.checkNotNull(inputStream, "InputStream is required"));
+    }
+
+    private static final class InputStreamBinaryRequestBody extends BinaryRequestBody {
+        private final InputStream delegate;
+
+        InputStreamBinaryRequestBody(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel destination) throws IOException {
+            return delegate.transferTo(Channels.newOutputStream(destination));
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            return delegate.read(buffer, off, len);
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            return delegate.skip(count);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public String toString() {
+            return "InputStreamBinaryRequestBody{delegate=" + delegate + '}';
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.palantir.conjure.java.undertow.lib;
 import io.undertow.server.HttpServerExchange;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 
 /** Request and response Deserialization and Serialization functionality used by generated code. */
 public interface BodySerDe {
@@ -52,4 +53,17 @@ public interface BodySerDe {
      * to support future streaming binary bindings without conflicting method signatures.
      */
     InputStream deserializeInputStream(HttpServerExchange exchange);
+
+    /**
+     * Reads a {@link BinaryRequestBody} from the {@link HttpServerExchange} request body. This accepts the same
+     * requests as {@link #deserializeInputStream(HttpServerExchange)}, but the body may also be
+     * {@link BinaryRequestBody#transferTo(WritableByteChannel) transferred} into a channel without copying through heap
+     * byte arrays.
+     *
+     * <p>The default implementation wraps {@link #deserializeInputStream(HttpServerExchange)}, so transfers copy through
+     * a heap buffer. Implementations which can read the request channel directly should override it.
+     */
+    default BinaryRequestBody deserializeBinaryRequestBody(HttpServerExchange exchange) {
+        return BinaryRequestBody.of(deserializeInputStream(exchange));
+    }
 }
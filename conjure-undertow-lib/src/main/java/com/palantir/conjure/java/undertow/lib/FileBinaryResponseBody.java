@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.lib;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link BinaryResponseBody} backed by a file. Runtimes which recognize this type send the file with a
+ * {@code Content-Length} directly from the file to the connection, allowing the kernel to copy file pages to the
+ * socket without passing through heap buffers. Otherwise the file is copied to the response stream.
+ *
+ * <p>As a {@link SeekableBinaryResponseBody}, requests for byte ranges of the file are sent without reading the rest
+ * of the file.
+ */
+public final class FileBinaryResponseBody implements SeekableBinaryResponseBody {
+
+    private final Path file;
+
+    private FileBinaryResponseBody(Path file) {
+        this.file = Preconditions.checkNotNull(file, "File is required");
+    }
+
+    /** Creates a response body containing the content of {@code file}, which is read when the response is sent. */
+    public static FileBinaryResponseBody of(Path file) {
+        return new FileBinaryResponseBody(file);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return Files.size(file);
+    }
+
+    @Override
+    public void write(OutputStream responseBody) throws IOException {
+        Files.copy(file, responseBody);
+    }
+
+    @Override
+    public void write(OutputStream responseBody, long position, long count) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(responseBody);
+            long written = 0;
+            while (written < count) {
+                long transferred = channel.transferTo(position + written, count - written, target);
+                if (transferred <= 0) {
+                    throw new SafeIoException("File was truncated while it was being sent");
+                }
+                written += transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.undertow.lib;
+
+import com.google.common.annotations.Beta;
+import javax.annotation.Nullable;
+
+/**
+ * Records metrics describing requests handled by each {@link Endpoint}. Recorders are created once per endpoint when
+ * the server handler is built, so implementations may resolve metric instances up front and avoid per-request
+ * lookups and allocation.
+ */
+@Beta
+public interface RequestMetrics {
+
+    /** Returns the {@link EndpointRecorder} which will be invoked for each request to the given endpoint. */
+    EndpointRecorder recorder(Endpoint endpoint);
+
+    /**
+     * Returns the singleton {@link RequestMetrics} which does not record anything. Requests are not instrumented at
+     * all when this instance is used.
+     */
+    static RequestMetrics noop() {
+        return NoOpRequestMetrics.INSTANCE;
+    }
+
+    interface EndpointRecorder {
+
+        /**
+         * Invoked once each request to the endpoint has completed.
+         *
+         * @param statusCode the response status code
+         * @param durationNanos time from the start of the request until the response was complete
+         * @param requestBytes the request {@code Content-Length}, or {@code -1} if unknown
+         * @param responseBytes the number of response body bytes sent
+         * @param contentType the response {@code Content-Type} negotiated for this request, if any
+         */
+        void record(
+                int statusCode,
+                long durationNanos,
+                long requestBytes,
+                long responseBytes,
+                @Nullable String contentType);
+    }
+}
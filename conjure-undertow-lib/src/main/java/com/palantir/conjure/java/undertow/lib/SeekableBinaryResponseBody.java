@@ -0,0 +1,45 @@
+/*
+ * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.java.undertow.lib;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link BinaryResponseBody} with a known length which can write any byte range of its content. Runtimes which
+ * recognize this type send a {@code Content-Length}, and may answer {@code GET} requests with a {@code Range} header
+ * using {@code 206 Partial Content} responses containing only the requested ranges, which allows clients to resume
+ * downloads or fetch large payloads in parallel.
+ */
+public interface SeekableBinaryResponseBody extends BinaryResponseBody {
+
+    /** Returns the total number of bytes in this body. */
+    long contentLength() throws IOException;
+
+    /**
+     * Writes {@code count} bytes of this body starting at {@code position} to the response stream. May be called
+     * multiple times for a single response when multiple ranges are requested, in which case this method is called
+     * instead of {@link #write(OutputStream)}.
+     *
+     * <p>Implementations do not need to close the {@link OutputStream} parameter.
+     */
+    void write(OutputStream responseBody, long position, long count) throws IOException;
+
+    @Override
+    default void write(OutputStream responseBody) throws IOException {
+        write(responseBody, 0, contentLength());
+    }
+}
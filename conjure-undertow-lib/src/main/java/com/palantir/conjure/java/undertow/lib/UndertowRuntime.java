@@ -47,4 +47,10 @@ public interface UndertowRuntime {
     /** Provides the {@link Contexts} which safely expose request details to resources. */
     @Beta
     Contexts contexts();
+
+    /** Provides the {@link RequestMetrics} used to record per-endpoint request metrics. */
+    @Beta
+    default RequestMetrics metrics() {
+        return RequestMetrics.noop();
+    }
 }